@@ -0,0 +1,52 @@
+package avltree;
+
+import framework.Authenticator;
+import framework.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The authenticator of the AVL tree: the hash of its root
+ */
+public class AVLAuthenticator extends Authenticator {
+    private final byte[] rootHash;
+
+    public AVLAuthenticator(byte[] rootHash) {
+        this.rootHash = rootHash;
+    }
+
+    public byte[] getRootHash() {
+        return rootHash;
+    }
+
+    public boolean equals(Authenticator other) {
+        return other instanceof AVLAuthenticator && Arrays.equals(rootHash, ((AVLAuthenticator) other).rootHash);
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getHashesLength(Collections.singletonList(rootHash));
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodeHashes(WireFormat.AVL_TREE_AUTHENTICATOR, Collections.singletonList(rootHash), buffer);
+    }
+
+    /**
+     * Reads an authenticator that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the authenticator
+     * @return the authenticator
+     */
+    public static AVLAuthenticator decode(ByteBuffer buffer) {
+        List<byte[]> hashes = WireFormat.decodeHashes(WireFormat.AVL_TREE_AUTHENTICATOR, buffer);
+
+        if (hashes.size() != 1)
+            throw new IllegalArgumentException("Expected one hash, but got " + hashes.size());
+
+        return new AVLAuthenticator(hashes.get(0));
+    }
+}
@@ -0,0 +1,37 @@
+package avltree;
+
+/**
+ * An immutable node of an AVLTreeADS. The blocks are in the leaves, and every inner node has two children, of which
+ * the heights differ by at most 1. A changed tree gets new nodes on the changed paths only, and shares all other
+ * nodes with the tree it was made from.
+ */
+final class AVLNode {
+    final byte[] hash;
+    final AVLNode left;
+    final AVLNode right;
+    final int size; // The number of leaves
+    final int height; // 1 for a leaf
+
+    /**
+     * Creates a leaf
+     */
+    AVLNode(byte[] hash) {
+        this.hash = hash;
+        this.left = null;
+        this.right = null;
+        this.size = 1;
+        this.height = 1;
+    }
+
+    AVLNode(byte[] hash, AVLNode left, AVLNode right) {
+        this.hash = hash;
+        this.left = left;
+        this.right = right;
+        this.size = left.size + right.size;
+        this.height = Math.max(left.height, right.height) + 1;
+    }
+
+    boolean isLeaf() {
+        return left == null;
+    }
+}
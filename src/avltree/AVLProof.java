@@ -0,0 +1,62 @@
+package avltree;
+
+import framework.Block;
+import framework.HashPath;
+import framework.PathProof;
+import framework.Proof;
+import framework.WireFormat;
+import utils.HashFunction;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A proof of the AVL tree: the siblings on the path from the leaf to the root
+ */
+public class AVLProof extends Proof<AVLTreeADS> implements PathProof {
+    private final HashPath path;
+
+    AVLProof(HashPath path) {
+        super(null, 0);
+
+        this.path = path;
+    }
+
+    /**
+     * Computes the root hash from the block, by hashing it with the sibling hashes from bottom to top
+     * @param block the block that is proven
+     * @param hashFunction the hash function of the tree
+     * @return the root hash
+     */
+    byte[] computeRootHash(Block block, HashFunction hashFunction) {
+        return path.computeRoot(block.hash(hashFunction), hashFunction);
+    }
+
+    @Override
+    public HashPath getPath() {
+        return path;
+    }
+
+    @Override
+    public int getRootIndex() {
+        return 0;
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getPathLength(this);
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodePath(WireFormat.AVL_TREE_PROOF, this, buffer);
+    }
+
+    /**
+     * Reads a proof that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the proof
+     * @return the proof
+     */
+    public static AVLProof decode(ByteBuffer buffer) {
+        return new AVLProof(WireFormat.decodePath(WireFormat.AVL_TREE_PROOF, buffer).getPath());
+    }
+}
@@ -0,0 +1,369 @@
+package avltree;
+
+import framework.ADS;
+import framework.Block;
+import framework.HashPath;
+import framework.MultiProof;
+import utils.HashFunction;
+import utils.HashFunctions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AVL tree ADS. The blocks are the leaves of a hash tree that is kept balanced as an AVL tree: the heights of the
+ * children of every node differ by at most 1, so the height is at most 1.44 log2(n + 2), whatever the order of the
+ * edits. Unlike the skip list, the shape does not depend on the hashes of the blocks, so it cannot be degraded by
+ * chosen blocks.
+ *
+ * Every operation is built on join, which joins two trees by descending the taller one to the height of the other
+ * and rotating on the way back up. Joining trees of heights h1 and h2 creates O(|h1 - h2|) nodes, so merge, split,
+ * insert and delete all hash O(log n) nodes, and proofs have O(log n) siblings.
+ *
+ * The nodes are immutable, so merge and split share the nodes of their inputs instead of copying them, and leave
+ * their inputs unchanged. The shape, and therefore the authenticator, depends on the order of the edits: trees with
+ * the same blocks may have different authenticators.
+ */
+public class AVLTreeADS extends ADS<AVLTreeADS, AVLProof, AVLAuthenticator> {
+    private AVLNode root;
+
+    public AVLTreeADS() {
+        this(HashFunctions.getDefault());
+    }
+
+    public AVLTreeADS(HashFunction hashFunction) {
+        super(hashFunction);
+    }
+
+    public AVLTreeADS(List<Block> blocks) {
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public AVLTreeADS(List<Block> blocks, HashFunction hashFunction) {
+        this(hashFunction);
+
+        root = build(blocks, 0, blocks.size());
+    }
+
+    private AVLTreeADS(HashFunction hashFunction, AVLNode root) {
+        this(hashFunction);
+
+        this.root = root;
+    }
+
+    @Override
+    public AVLTreeADS create(List<Block> blocks) {
+        return new AVLTreeADS(blocks, hashFunction);
+    }
+
+    public int getSize() {
+        return size(root);
+    }
+
+    /**
+     * @return the height of the tree, which is 1 for a single block and 0 for an empty tree
+     */
+    public int getHeight() {
+        return height(root);
+    }
+
+    private static int size(AVLNode node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(AVLNode node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private AVLNode node(AVLNode left, AVLNode right) {
+        return new AVLNode(hashFunction.hash(left.hash, right.hash), left, right);
+    }
+
+    /**
+     * Builds a perfectly balanced tree of the blocks [from, to), of which the subtrees differ by at most one leaf
+     */
+    private AVLNode build(List<Block> blocks, int from, int to) {
+        if (from == to)
+            return null;
+
+        if (to - from == 1)
+            return new AVLNode(blocks.get(from).hash(hashFunction));
+
+        int middle = (from + to) >>> 1;
+        return node(build(blocks, from, middle), build(blocks, middle, to));
+    }
+
+    /**
+     * Joins two trees. The shorter tree is placed at the side of the taller tree, at the depth where it fits, and
+     * the path above it is rebalanced. Only the nodes on that path are hashed again.
+     */
+    private AVLNode join(AVLNode left, AVLNode right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        if (left.height > right.height + 1)
+            return balance(left.left, join(left.right, right));
+        if (right.height > left.height + 1)
+            return balance(join(left, right.left), right.right);
+
+        return node(left, right);
+    }
+
+    /**
+     * Creates a node of two AVL trees of which the heights differ by at most 2, with a rotation if needed
+     */
+    private AVLNode balance(AVLNode left, AVLNode right) {
+        int difference = height(left) - height(right);
+
+        if (difference > 1) {
+            if (height(left.left) >= height(left.right))
+                return node(left.left, node(left.right, right));
+
+            AVLNode middle = left.right;
+            return node(node(left.left, middle.left), node(middle.right, right));
+        }
+
+        if (difference < -1) {
+            if (height(right.right) >= height(right.left))
+                return node(node(left, right.left), right.right);
+
+            AVLNode middle = right.left;
+            return node(node(left, middle.left), node(middle.right, right.right));
+        }
+
+        return node(left, right);
+    }
+
+    /**
+     * @return the tree of the first count leaves, which shares all nodes left of the cut
+     */
+    private AVLNode head(AVLNode node, int count) {
+        if (count == 0)
+            return null;
+        if (count == node.size)
+            return node;
+
+        if (count <= node.left.size)
+            return head(node.left, count);
+
+        return join(node.left, head(node.right, count - node.left.size));
+    }
+
+    /**
+     * @return the tree of the leaves from the given index onwards, which shares all nodes right of the cut
+     */
+    private AVLNode tail(AVLNode node, int from) {
+        if (from == 0)
+            return node;
+        if (from == node.size)
+            return null;
+
+        if (from >= node.left.size)
+            return tail(node.right, from - node.left.size);
+
+        return join(tail(node.left, from), node.right);
+    }
+
+    /**
+     * @return the tree in which the leaf at the given index is replaced, which shares all nodes off the path
+     */
+    private AVLNode replace(AVLNode node, int index, AVLNode leaf) {
+        if (node.isLeaf())
+            return leaf;
+
+        if (index < node.left.size)
+            return node(replace(node.left, index, leaf), node.right);
+
+        return node(node.left, replace(node.right, index - node.left.size, leaf));
+    }
+
+    /**
+     * Adds the siblings on the path to the leaf to the proof, from bottom to top
+     */
+    private static void addSiblings(AVLNode node, int index, HashPath path) {
+        if (node.isLeaf())
+            return;
+
+        if (index < node.left.size) {
+            addSiblings(node.left, index, path);
+            path.add(node.right.hash, false);
+        } else {
+            addSiblings(node.right, index - node.left.size, path);
+            path.add(node.left.hash, true);
+        }
+    }
+
+    /**
+     * @return the hashes of the leaves, from left to right
+     */
+    public List<byte[]> getLeafHashes() {
+        List<byte[]> hashes = new ArrayList<>(getSize());
+        addLeafHashes(root, hashes);
+        return hashes;
+    }
+
+    private static void addLeafHashes(AVLNode node, List<byte[]> hashes) {
+        if (node == null)
+            return;
+
+        if (node.isLeaf()) {
+            hashes.add(node.hash);
+        } else {
+            addLeafHashes(node.left, hashes);
+            addLeafHashes(node.right, hashes);
+        }
+    }
+
+    @Override
+    public void setThis(AVLTreeADS ADS) {
+        hashFunction = ADS.hashFunction;
+        root = ADS.root;
+    }
+
+    /**
+     * Returns a new ADS for the merged tree. Neither input is changed.
+     */
+    @Override
+    public AVLTreeADS merge(AVLTreeADS left, AVLTreeADS right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        }
+
+        // else...
+
+        checkHashFunctions(left, right);
+
+        return new AVLTreeADS(left.hashFunction, left.join(left.root, right.root));
+    }
+
+    /**
+     * Returns new ADSs for both parts. The given ADS is not changed.
+     */
+    @Override
+    public AVLTreeADS[] split(AVLTreeADS ADS, int index) {
+        if (index == 0) {
+            return new AVLTreeADS[]{null, ADS};
+        } else if (index == ADS.getSize()) {
+            return new AVLTreeADS[]{ADS, null};
+        }
+
+        // else if 0 < index < size ...
+        return new AVLTreeADS[]{
+                new AVLTreeADS(ADS.hashFunction, ADS.head(ADS.root, index)),
+                new AVLTreeADS(ADS.hashFunction, ADS.tail(ADS.root, index))};
+    }
+
+    @Override
+    public void appendBlocks(List<Block> blocks) {
+        root = join(root, build(blocks, 0, blocks.size()));
+    }
+
+    @Override
+    public void insertBlocks(int index, List<Block> blocks) {
+        if (index < 0 || index > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        AVLNode inserted = build(blocks, 0, blocks.size());
+
+        if (root != null)
+            root = join(join(head(root, index), inserted), tail(root, index));
+        else
+            root = inserted;
+    }
+
+    @Override
+    public void deleteBlocks(int index, int length) {
+        if (index < 0 || length < 0 || index + length > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + getSize());
+
+        if (length == 0)
+            return;
+
+        root = join(head(root, index), tail(root, index + length));
+    }
+
+    @Override
+    public void updateBlock(int index, Block block) {
+        if (index < 0 || index >= getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        root = replace(root, index, new AVLNode(block.hash(hashFunction)));
+    }
+
+    @Override
+    public AVLProof getProof(int index) {
+        if (index < 0 || index >= getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        HashPath path = new HashPath(hashFunction.getDigestLength(), root.height - 1);
+        addSiblings(root, index, path);
+
+        return new AVLProof(path);
+    }
+
+    /**
+     * Builds the multiproof in one pass from the root, following the sizes of the subtrees to the blocks
+     * @param indices the indices of the blocks
+     * @return the multiproof
+     */
+    @Override
+    public MultiProof getProof(int[] indices) {
+        MultiProof.Builder builder = new MultiProof.Builder(indices);
+        builder.checkLeaves(getSize());
+
+        if (builder.getLeaves().length > 0) {
+            builder.addTree(0);
+            addMultiProofNodes(root, 0, 0, builder.getLeaves().length, builder);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Adds the node, of which the first leaf has the given index, and which is on the paths of the leaves
+     * [from, to) of the builder
+     */
+    private static void addMultiProofNodes(AVLNode node, int offset, int from, int to, MultiProof.Builder builder) {
+        if (node.isLeaf()) {
+            builder.addNode(false, false);
+            return;
+        }
+
+        int split = builder.findLeaf(from, to, offset + node.left.size);
+
+        builder.addNode(split > from, split < to);
+        if (split == from)
+            builder.addHash(node.left.hash);
+        else if (split == to)
+            builder.addHash(node.right.hash);
+
+        if (split > from)
+            addMultiProofNodes(node.left, offset, from, split, builder);
+        if (split < to)
+            addMultiProofNodes(node.right, offset + node.left.size, split, to, builder);
+    }
+
+    @Override
+    public AVLAuthenticator getAuthenticator() {
+        if (root == null)
+            throw new IllegalStateException("An empty tree has no authenticator");
+
+        return new AVLAuthenticator(root.hash);
+    }
+
+    @Override
+    public boolean verify(Block block, AVLProof proof, AVLAuthenticator authenticator) {
+        // If the computed root hash equals the authenticated root hash, the block is correct
+        return Arrays.equals(proof.computeRootHash(block, hashFunction), authenticator.getRootHash());
+    }
+
+    @Override
+    protected boolean isRootHash(AVLAuthenticator authenticator, int rootIndex, byte[] hash) {
+        return rootIndex == 0 && Arrays.equals(hash, authenticator.getRootHash());
+    }
+}
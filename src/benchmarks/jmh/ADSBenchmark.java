@@ -0,0 +1,123 @@
+package benchmarks.jmh;
+
+import avltree.AVLTreeADS;
+import framework.ADS;
+import framework.Block;
+import framework.IntBlock;
+import hashtree.ArrayHashTreeADS;
+import hashtree.HashTreeADS;
+import hashtree.PersistentHashTreeADS;
+import mmr.MerkleMountainRangeADS;
+import org.openjdk.jmh.annotations.*;
+import seqhash.PersistentSeqHashADS;
+import seqhash.SeqHashADS;
+import skiplist.CompactSkipListADS;
+import skiplist.SkipListADS;
+import splithash.SplitHashADS;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Parallelism;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class of the JMH benchmarks. Every benchmark is run for each ADS implementation, data size and hash function,
+ * which are set by JMH through the @Param fields. Both throughput and average time are reported, except by the
+ * benchmarks that change the ADS, which measure batches (see EditBenchmark).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public abstract class ADSBenchmark {
+    // Number of blocks that are appended, inserted or deleted in one operation
+    protected static final int BLOCKS_PER_OPERATION = 4;
+
+    // Number of precomputed indices (and proofs) that are cycled through by the query benchmarks
+    protected static final int INDEX_COUNT = 1024;
+
+    private static final long SEED = 123456;
+
+    @Param({"HashTree", "ParallelHashTree", "ArrayHashTree", "PersistentHashTree", "SkipList", "CompactSkipList", "SeqHash", "PersistentSeqHash", "SplitHash", "MMR", "AVLTree"})
+    public String ads;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    // Other hash functions can be selected with -p hash=SHA-256,BLAKE3,NonCryptographic
+    @Param({"SHA-1"})
+    public String hash;
+
+    protected Random rand;
+    protected HashFunction hashFunction;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        // A fixed seed, so that every ADS is measured on the same data
+        rand = new Random(SEED);
+        hashFunction = HashFunctions.forName(hash);
+    }
+
+    /**
+     * Creates the ADS that is selected by the ads parameter
+     * @param blocks the input blocks
+     * @return the created ADS
+     */
+    protected ADS createADS(List<Block> blocks) {
+        switch (ads) {
+            case "HashTree":
+                return new HashTreeADS(blocks, hashFunction);
+            case "ParallelHashTree":
+                return new HashTreeADS(blocks, hashFunction, Parallelism.getDefault());
+            case "ArrayHashTree":
+                return new ArrayHashTreeADS(blocks, hashFunction);
+            case "PersistentHashTree":
+                return new PersistentHashTreeADS(blocks, hashFunction);
+            case "SkipList":
+                return new SkipListADS(blocks, hashFunction);
+            case "CompactSkipList":
+                return new CompactSkipListADS(blocks, hashFunction);
+            case "SeqHash":
+                return new SeqHashADS(blocks, hashFunction);
+            case "PersistentSeqHash":
+                return new PersistentSeqHashADS(blocks, hashFunction);
+            case "SplitHash":
+                return new SplitHashADS(blocks, hashFunction);
+            case "MMR":
+                return new MerkleMountainRangeADS(blocks, hashFunction);
+            case "AVLTree":
+                return new AVLTreeADS(blocks, hashFunction);
+            default:
+                throw new IllegalArgumentException("Unknown ADS: " + ads);
+        }
+    }
+
+    protected List<Block> randomBlocks(int count) {
+        List<Block> blocks = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            blocks.add(new IntBlock(rand.nextInt(10000000)));
+        }
+
+        return blocks;
+    }
+
+    protected int[] randomIndices(int bound) {
+        return randomIndices(bound, INDEX_COUNT);
+    }
+
+    protected int[] randomIndices(int bound, int count) {
+        int[] indices = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            indices[i] = rand.nextInt(bound);
+        }
+
+        return indices;
+    }
+}
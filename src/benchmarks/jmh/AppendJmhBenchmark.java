@@ -0,0 +1,37 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Measures appending a few blocks to an ADS of the given size.
+ * Every invocation appends to a fresh ADS from the pool, so that its size does not grow during the measurement.
+ */
+public class AppendJmhBenchmark extends EditBenchmark {
+    private List<Block> blocks;
+    private List<Block> appendBlocks;
+    private ADS[] pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        blocks = randomBlocks(size);
+        appendBlocks = randomBlocks(BLOCKS_PER_OPERATION);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        pool = createPool(blocks);
+    }
+
+    @Benchmark
+    public ADS append() {
+        int i = nextInBatch();
+        pool[i].appendBlocks(appendBlocks);
+        return pool[i];
+    }
+}
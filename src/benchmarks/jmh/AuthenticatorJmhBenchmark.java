@@ -0,0 +1,24 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Authenticator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures obtaining the authenticator value of an ADS
+ */
+public class AuthenticatorJmhBenchmark extends ADSBenchmark {
+    private ADS ADS;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ADS = createADS(randomBlocks(size));
+    }
+
+    @Benchmark
+    public Authenticator authenticator() {
+        return ADS.getAuthenticator();
+    }
+}
@@ -0,0 +1,26 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Measures the construction of an ADS from a list of blocks
+ */
+public class CreateJmhBenchmark extends ADSBenchmark {
+    private List<Block> blocks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        blocks = randomBlocks(size);
+    }
+
+    @Benchmark
+    public ADS create() {
+        return createADS(blocks);
+    }
+}
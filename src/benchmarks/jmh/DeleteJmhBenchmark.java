@@ -0,0 +1,37 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Measures deleting a few blocks at a random index of an ADS of the given size.
+ * Every invocation deletes from a fresh ADS from the pool, so that its size does not shrink during the measurement.
+ */
+public class DeleteJmhBenchmark extends EditBenchmark {
+    private List<Block> blocks;
+    private ADS[] pool;
+    private int[] indices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        blocks = randomBlocks(size);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        pool = createPool(blocks);
+        indices = randomIndices(size - BLOCKS_PER_OPERATION + 1, BATCH_SIZE);
+    }
+
+    @Benchmark
+    public ADS delete() {
+        int i = nextInBatch();
+        pool[i].deleteBlocks(indices[i], BLOCKS_PER_OPERATION);
+        return pool[i];
+    }
+}
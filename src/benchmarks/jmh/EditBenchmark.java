@@ -0,0 +1,51 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Block;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+
+/**
+ * Base class of the benchmarks of operations that change the ADS, so that every invocation needs a fresh one.
+ * Setting up the state before every invocation distorts the timing of operations that take microseconds, so instead
+ * every iteration measures a single batch of BATCH_SIZE invocations. The fresh ADSs for a batch are built in a pool
+ * before the iteration, and every invocation takes the next one.
+ *
+ * The score is the time of a whole batch, so the time of one operation is the score divided by BATCH_SIZE.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 5, batchSize = EditBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = EditBenchmark.BATCH_SIZE)
+public abstract class EditBenchmark extends ADSBenchmark {
+    // Number of invocations in one measured batch, which is also the number of fresh ADSs in a pool
+    protected static final int BATCH_SIZE = 100;
+
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUpBatch() {
+        next = 0;
+    }
+
+    /**
+     * @return the position of the current invocation in the batch, which selects its ADS and index in the pools
+     */
+    protected int nextInBatch() {
+        return next++;
+    }
+
+    /**
+     * Builds a fresh ADS for every invocation of a batch
+     * @param blocks the input blocks of every ADS
+     * @return the pool of ADSs
+     */
+    protected ADS[] createPool(List<Block> blocks) {
+        ADS[] pool = new ADS[BATCH_SIZE];
+
+        for (int i = 0; i < BATCH_SIZE; i++)
+            pool[i] = createADS(blocks);
+
+        return pool;
+    }
+}
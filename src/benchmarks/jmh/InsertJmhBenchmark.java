@@ -0,0 +1,39 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Measures inserting a few blocks at a random index of an ADS of the given size.
+ * Every invocation inserts into a fresh ADS from the pool, so that its size does not grow during the measurement.
+ */
+public class InsertJmhBenchmark extends EditBenchmark {
+    private List<Block> blocks;
+    private List<Block> insertBlocks;
+    private ADS[] pool;
+    private int[] indices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        blocks = randomBlocks(size);
+        insertBlocks = randomBlocks(BLOCKS_PER_OPERATION);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        pool = createPool(blocks);
+        indices = randomIndices(size + 1, BATCH_SIZE);
+    }
+
+    @Benchmark
+    public ADS insert() {
+        int i = nextInBatch();
+        pool[i].insertBlocks(indices[i], insertBlocks);
+        return pool[i];
+    }
+}
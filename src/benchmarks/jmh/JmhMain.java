@@ -0,0 +1,31 @@
+package benchmarks.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks, with the GC profiler enabled to report allocation rates.
+ *
+ * Usage: JmhMain [include regex] [result file]
+ * The include regex defaults to all benchmarks in this package, the result file defaults to jmh-result.json
+ * in the working directory.
+ */
+public class JmhMain {
+    public static void main(String args[]) throws RunnerException {
+        String include = args.length > 0 ? args[0] : JmhMain.class.getPackage().getName() + ".*";
+        String result = args.length > 1 ? args[1] : "jmh-result.json";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+
+        new Runner(options).run();
+    }
+}
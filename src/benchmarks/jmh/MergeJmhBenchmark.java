@@ -0,0 +1,36 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Measures merging two ADSs of size / 2 into one ADS of the given size.
+ * Merge may modify its inputs, so every invocation merges a fresh pair from the pools.
+ */
+public class MergeJmhBenchmark extends EditBenchmark {
+    private List<Block> leftBlocks, rightBlocks;
+    private ADS[] lefts, rights;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        leftBlocks = randomBlocks(size / 2);
+        rightBlocks = randomBlocks(size / 2);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        lefts = createPool(leftBlocks);
+        rights = createPool(rightBlocks);
+    }
+
+    @Benchmark
+    public ADS merge() {
+        int i = nextInBatch();
+        return lefts[i].merge(lefts[i], rights[i]);
+    }
+}
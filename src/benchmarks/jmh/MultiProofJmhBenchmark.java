@@ -0,0 +1,52 @@
+package benchmarks.jmh;
+
+import framework.*;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Measures the generation and verification of one multiproof for a range of blocks, which can be compared with
+ * rangeLength single proofs of ProofJmhBenchmark and VerifyJmhBenchmark.
+ */
+public class MultiProofJmhBenchmark extends ADSBenchmark {
+    @Param({"16"})
+    public int rangeLength;
+
+    private ADS ADS;
+    private List<Block> data;
+    private Authenticator authenticator;
+    private int[] starts;
+    private MultiProof[] proofs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = randomBlocks(size);
+        ADS = createADS(data);
+        authenticator = ADS.getAuthenticator();
+
+        int length = Math.min(rangeLength, size);
+        starts = randomIndices(size - length + 1);
+        proofs = new MultiProof[INDEX_COUNT];
+
+        for (int i = 0; i < INDEX_COUNT; i++)
+            proofs[i] = ADS.getRangeProof(starts[i], starts[i] + length);
+    }
+
+    @Benchmark
+    public MultiProof getRangeProof() {
+        next = (next + 1) % INDEX_COUNT;
+        return ADS.getRangeProof(starts[next], starts[next] + Math.min(rangeLength, size));
+    }
+
+    @Benchmark
+    public boolean verifyRange() {
+        next = (next + 1) % INDEX_COUNT;
+        int from = starts[next];
+        return ADS.verify(data.subList(from, from + Math.min(rangeLength, size)), proofs[next], authenticator);
+    }
+}
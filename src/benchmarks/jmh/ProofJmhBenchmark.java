@@ -0,0 +1,28 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Proof;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures the construction of a proof for a random index
+ */
+public class ProofJmhBenchmark extends ADSBenchmark {
+    private ADS ADS;
+    private int[] indices;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ADS = createADS(randomBlocks(size));
+        indices = randomIndices(size);
+    }
+
+    @Benchmark
+    public Proof proof() {
+        next = (next + 1) % INDEX_COUNT;
+        return ADS.getProof(indices[next]);
+    }
+}
@@ -0,0 +1,36 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Measures splitting an ADS at a random index.
+ * Split may modify its input, so every invocation splits a fresh ADS from the pool.
+ */
+public class SplitJmhBenchmark extends EditBenchmark {
+    private List<Block> blocks;
+    private ADS[] pool;
+    private int[] indices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        blocks = randomBlocks(size);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        pool = createPool(blocks);
+        indices = randomIndices(size - 1, BATCH_SIZE);
+    }
+
+    @Benchmark
+    public ADS[] split() {
+        int i = nextInBatch();
+        return pool[i].split(pool[i], indices[i] + 1); // 1 <= index <= size - 1
+    }
+}
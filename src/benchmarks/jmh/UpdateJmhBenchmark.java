@@ -0,0 +1,39 @@
+package benchmarks.jmh;
+
+import framework.ADS;
+import framework.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * Measures replacing the block at a random index of an ADS of the given size.
+ * Every invocation updates a fresh ADS from the pool, as some ADSs update their structure in place.
+ */
+public class UpdateJmhBenchmark extends EditBenchmark {
+    private List<Block> blocks;
+    private Block updateBlock;
+    private ADS[] pool;
+    private int[] indices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        blocks = randomBlocks(size);
+        updateBlock = randomBlocks(1).get(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        pool = createPool(blocks);
+        indices = randomIndices(size, BATCH_SIZE);
+    }
+
+    @Benchmark
+    public ADS update() {
+        int i = nextInBatch();
+        pool[i].updateBlock(indices[i], updateBlock);
+        return pool[i];
+    }
+}
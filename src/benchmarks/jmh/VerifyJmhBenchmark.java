@@ -0,0 +1,49 @@
+package benchmarks.jmh;
+
+import framework.*;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the verification of a block, given its proof and the authenticator.
+ * The proofs are computed beforehand, so only the verification is measured.
+ * verifyAll verifies all INDEX_COUNT blocks in one batch, which shares the hashing of common path nodes.
+ */
+public class VerifyJmhBenchmark extends ADSBenchmark {
+    private ADS ADS;
+    private Block[] blocks;
+    private Proof[] proofs;
+    private Authenticator authenticator;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Block> data = randomBlocks(size);
+        ADS = createADS(data);
+        authenticator = ADS.getAuthenticator();
+
+        int[] indices = randomIndices(size);
+        blocks = new Block[INDEX_COUNT];
+        proofs = new Proof[INDEX_COUNT];
+
+        for (int i = 0; i < INDEX_COUNT; i++) {
+            blocks[i] = data.get(indices[i]);
+            proofs[i] = ADS.getProof(indices[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean verify() {
+        next = (next + 1) % INDEX_COUNT;
+        return ADS.verify(blocks[next], proofs[next], authenticator);
+    }
+
+    @Benchmark
+    public boolean[] verifyAll() {
+        return ADS.verifyAll(Arrays.asList(blocks), Arrays.asList(proofs), authenticator);
+    }
+}
@@ -1,15 +1,56 @@
 package framework;
 
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Parallelism;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The Authenticated Data Structure of the original data. Defines how the ADS changes when modifications are
  * performed on the data, and defines how the authenticator value is obtained from it.
  */
 public abstract class ADS<A extends ADS, P extends Proof, Auth extends Authenticator> {
-    public ADS() {}
+    // Used for hashing the blocks and combining the hashes of nodes
+    protected HashFunction hashFunction;
+
+    public ADS() {
+        this(HashFunctions.getDefault());
+    }
+
+    public ADS(List<Block> blocks) {
+        this();
+    }
+
+    public ADS(HashFunction hashFunction) {
+        this.hashFunction = hashFunction;
+    }
+
+    public HashFunction getHashFunction() {
+        return hashFunction;
+    }
 
-    public ADS(List<Block> blocks) {}
+    /**
+     * Returns the length of the hashes in this ADS, which determines the size of its proofs and authenticator
+     * @return the digest length in bytes
+     */
+    public int getDigestLength() {
+        return hashFunction.getDigestLength();
+    }
+
+    /**
+     * Checks that two ADSs use the same hash function, so that they can be merged
+     * @param left the left ADS
+     * @param right the right ADS
+     */
+    protected static void checkHashFunctions(ADS left, ADS right) {
+        if (!left.hashFunction.getName().equals(right.hashFunction.getName()))
+            throw new IllegalArgumentException("Cannot merge ADSs with different hash functions: "
+                    + left.hashFunction.getName() + " and " + right.hashFunction.getName());
+    }
 
     /**
      * Defines how an ADS is constructed from a list of blocks.
@@ -79,6 +120,20 @@ public abstract class ADS<A extends ADS, P extends Proof, Auth extends Authentic
         setThis(result);
     }
 
+    /**
+     * Replaces the block at the given index. By default, the block is cut out with two splits, and the new block is
+     * merged in its place. ADSs can override this with a cheaper in-place update.
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
+    public void updateBlock(int index, Block block) {
+        A[] temp = split((A) this, index);
+        A right = split(temp[1], 1)[1];
+        A result = merge(temp[0], create(Collections.singletonList(block)));
+        result = merge(result, right);
+        setThis(result);
+    }
+
     /**
      * Returns a proof for a block with the given index
      * @param index index of a block we want the proof for
@@ -86,6 +141,39 @@ public abstract class ADS<A extends ADS, P extends Proof, Auth extends Authentic
      */
     public abstract P getProof(int index);
 
+    /**
+     * Returns one proof for the blocks with the given indices. Sibling hashes that are shared by the paths of several
+     * blocks, or that can be computed from the other blocks, are sent only once or not at all.
+     *
+     * By default, the multiproof is made from the proofs of the single blocks. ADSs that can walk the paths from the
+     * root override this, to build it in one pass with MultiProof.Builder.
+     * @param indices the indices of the blocks
+     * @return the multiproof
+     */
+    public MultiProof getProof(int[] indices) {
+        List<PathProof> proofs = new ArrayList<>(indices.length);
+
+        for (int index : indices)
+            proofs.add((PathProof) getProof(index));
+
+        return MultiProof.fromPaths(indices, proofs);
+    }
+
+    /**
+     * Returns one proof for the consecutive blocks [from, to)
+     * @param from the index of the first block
+     * @param to the index after the last block
+     * @return the multiproof
+     */
+    public MultiProof getRangeProof(int from, int to) {
+        int[] indices = new int[to - from];
+
+        for (int i = 0; i < indices.length; i++)
+            indices[i] = from + i;
+
+        return getProof(indices);
+    }
+
     /**
      * Get the authenticator value out of the ADS
      * @return the authenticator value of this ADS
@@ -98,4 +186,68 @@ public abstract class ADS<A extends ADS, P extends Proof, Auth extends Authentic
      * @return true if the block and the proof are correct. false otherwise.
      */
     public abstract boolean verify(Block block, P proof, Auth authenticator);
+
+    /**
+     * Verifies a list of blocks, each with its own proof. Hashes that are shared by the paths of several proofs are
+     * computed only once. Use a BatchVerifier directly to keep this memo over several calls.
+     * @param blocks the blocks
+     * @param proofs the proofs, in the same order as the blocks
+     * @param authenticator The authenticator received from the writer.
+     * @return for every block, whether it and its proof are correct
+     */
+    public boolean[] verifyAll(List<Block> blocks, List<P> proofs, Auth authenticator) {
+        return verifyAll(blocks, proofs, authenticator, null);
+    }
+
+    /**
+     * Verifies a list of blocks on the pool of the given parallelism
+     * @param parallelism the parallelism, or null to verify in the calling thread
+     */
+    public boolean[] verifyAll(List<Block> blocks, List<P> proofs, Auth authenticator, Parallelism parallelism) {
+        return new BatchVerifier<>(this, authenticator, parallelism).verifyAll(blocks, proofs);
+    }
+
+    /**
+     * Verifies a number of blocks at once, with a multiproof
+     * @param blocks the blocks, in the order of the indices of the proof
+     * @param proof the multiproof
+     * @param authenticator The authenticator received from the writer.
+     * @return true if all blocks and the proof are correct. false otherwise.
+     */
+    public boolean verify(List<Block> blocks, MultiProof proof, Auth authenticator) {
+        if (!hasValidShape(proof, authenticator))
+            return false;
+
+        Map<Integer, byte[]> roots = proof.computeRoots(blocks, hashFunction);
+
+        if (roots == null || roots.isEmpty())
+            return false;
+
+        for (Map.Entry<Integer, byte[]> root : roots.entrySet()) {
+            if (!isRootHash(authenticator, root.getKey(), root.getValue()))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks the shape of a multiproof against the authenticator. ADSs whose shape follows from the number of blocks
+     * override this, so that the blocks are bound to their indices. By default, any shape is accepted.
+     * @param proof the multiproof
+     * @param authenticator the authenticator
+     * @return true if the proof can have this shape
+     */
+    protected boolean hasValidShape(MultiProof proof, Auth authenticator) {
+        return true;
+    }
+
+    /**
+     * Decides whether a hash that is computed from a proof matches a root in the authenticator
+     * @param authenticator the authenticator
+     * @param rootIndex the index of the root, for ADSs that have more than one root
+     * @param hash the computed hash
+     * @return true if the hash is the hash of that root
+     */
+    protected abstract boolean isRootHash(Auth authenticator, int rootIndex, byte[] hash);
 }
@@ -1,10 +1,33 @@
 package framework;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 /**
  * The authenticator value of the ADS. Is sent from the writer to the reader, enabling the reader to prove correctness
  * of query responses from the server.
  */
 public abstract class Authenticator implements Serializable {
+    /**
+     * Returns the number of bytes that encode(ByteBuffer) writes
+     * @return the length of the binary encoding
+     */
+    public abstract int getEncodedLength();
+
+    /**
+     * Writes the binary encoding (see WireFormat) into the buffer. Every subclass has a static decode method
+     * that reads it back.
+     * @param buffer the buffer that the encoding is written to
+     */
+    public abstract void encode(ByteBuffer buffer);
+
+    /**
+     * Returns the binary encoding
+     * @return the binary encoding
+     */
+    public byte[] encode() {
+        byte[] result = new byte[getEncodedLength()];
+        encode(ByteBuffer.wrap(result));
+        return result;
+    }
 }
@@ -0,0 +1,121 @@
+package framework;
+
+import utils.HashFunction;
+import utils.Parallelism;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies many blocks against the same authenticator. The hashes on the path of every proof that verifies are
+ * remembered, as they are authenticated by the root. Another proof can stop as soon as it computes one of those
+ * hashes, so the upper levels of the tree, which are shared by most paths, are hashed only once.
+ *
+ * A verifier can be kept for as long as the authenticator stays the same. It is thread-safe, and its memo is shared
+ * by all threads.
+ */
+public class BatchVerifier<P extends Proof, Auth extends Authenticator> {
+    private final ADS<?, P, Auth> ADS;
+    private final Auth authenticator;
+    private final Parallelism parallelism;
+    private final Set<ByteBuffer> authenticated;
+
+    public BatchVerifier(ADS<?, P, Auth> ADS, Auth authenticator) {
+        this(ADS, authenticator, null);
+    }
+
+    /**
+     * @param ADS the ADS that defines the hash function and the roots
+     * @param authenticator the authenticator received from the writer
+     * @param parallelism the pool that verifyAll runs on, or null to verify in the calling thread
+     */
+    public BatchVerifier(ADS<?, P, Auth> ADS, Auth authenticator, Parallelism parallelism) {
+        this.ADS = ADS;
+        this.authenticator = authenticator;
+        this.parallelism = parallelism;
+        this.authenticated = Collections.newSetFromMap(new ConcurrentHashMap<ByteBuffer, Boolean>());
+    }
+
+    /**
+     * @return the number of hashes that are known to be authenticated
+     */
+    public int getMemoSize() {
+        return authenticated.size();
+    }
+
+    /**
+     * Verifies a block. Gives the same result as ADS.verify.
+     * @param block the block
+     * @param proof the proof of the block
+     * @return true if the block and the proof are correct. false otherwise.
+     */
+    public boolean verify(Block block, P proof) {
+        PathProof pathProof = (PathProof) proof;
+        HashPath path = pathProof.getPath();
+        HashFunction hashFunction = ADS.getHashFunction();
+        int length = path.getLength();
+        int digestLength = hashFunction.getDigestLength();
+
+        if (length > 0 && path.getDigestLength() != digestLength) // The proof was made with another hash function
+            return false;
+
+        // The hashes on the path, from the leaf to the root, back to back
+        byte[] nodes = new byte[(length + 1) * digestLength];
+        System.arraycopy(block.hash(hashFunction), 0, nodes, 0, digestLength);
+
+        byte[] pair = new byte[2 * digestLength];
+
+        for (int step = 0; step < length; step++) {
+            if (authenticated.contains(ByteBuffer.wrap(nodes, step * digestLength, digestLength)))
+                return true;
+
+            boolean siblingLeft = path.isSiblingLeft(step);
+            System.arraycopy(nodes, step * digestLength, pair, siblingLeft ? digestLength : 0, digestLength);
+            System.arraycopy(path.getHashes(), path.getOffset() + step * digestLength, pair,
+                    siblingLeft ? 0 : digestLength, digestLength);
+
+            hashFunction.hash(pair, 0, digestLength, nodes, (step + 1) * digestLength);
+        }
+
+        byte[] root = Arrays.copyOfRange(nodes, length * digestLength, (length + 1) * digestLength);
+        if (!ADS.isRootHash(authenticator, pathProof.getRootIndex(), root))
+            return false;
+
+        for (int step = 0; step <= length; step++)
+            authenticated.add(ByteBuffer.wrap(nodes, step * digestLength, digestLength));
+
+        return true;
+    }
+
+    /**
+     * Verifies a list of blocks, in parallel if a parallelism is given
+     * @param blocks the blocks
+     * @param proofs the proofs, in the same order as the blocks
+     * @return for every block, whether it is correct
+     */
+    public boolean[] verifyAll(final List<Block> blocks, final List<P> proofs) {
+        if (blocks.size() != proofs.size())
+            throw new IllegalArgumentException("Expected one proof per block");
+
+        final boolean[] results = new boolean[blocks.size()];
+
+        Parallelism.RangeTask task = new Parallelism.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++)
+                    results[i] = verify(blocks.get(i), proofs.get(i));
+            }
+        };
+
+        if (parallelism == null)
+            task.run(0, results.length);
+        else
+            parallelism.forRange(0, results.length, task);
+
+        return results;
+    }
+}
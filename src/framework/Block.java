@@ -1,17 +1,96 @@
 package framework;
 
-import utils.Utils;
+import utils.HashFunction;
+import utils.HashFunctions;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * A hashable data block.
  */
 public abstract class Block {
+    // The buffer that blocks are encoded into for hashing, so that no array is allocated per block
+    private static final ThreadLocal<ByteBuffer> encodingBuffer = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(64);
+        }
+    };
+
     /**
-     * Returns the hash of the block, by hashing its unique string representation
+     * Returns the hash of the block, by hashing its canonical binary encoding
      * @return the hash of the block
      */
     public byte[] hash() {
-        return Utils.hash(toString());
+        return hash(HashFunctions.getDefault());
+    }
+
+    /**
+     * Returns the hash of the block, by hashing its canonical binary encoding with the given hash function.
+     * The encoding is written into a buffer of the current thread, so encode(ByteBuffer) should not hash other blocks.
+     * @param hashFunction the hash function
+     * @return the hash of the block
+     */
+    public byte[] hash(HashFunction hashFunction) {
+        int length = getEncodedLength();
+        ByteBuffer buffer = encodingBuffer.get();
+
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, 2 * buffer.capacity()));
+            encodingBuffer.set(buffer);
+        }
+
+        buffer.clear();
+        encode(buffer);
+        buffer.flip();
+
+        return hashFunction.hash(buffer);
+    }
+
+    /**
+     * Returns the hash of the block, by hashing its unique string representation. This is how blocks were hashed
+     * before the binary encoding was introduced, so it can be used to reproduce older authenticators.
+     * @param hashFunction the hash function
+     * @return the hash of the string representation of the block
+     */
+    public byte[] hashString(HashFunction hashFunction) {
+        return hashFunction.hash(encodeString());
+    }
+
+    /**
+     * Returns the number of bytes that encode(ByteBuffer) writes
+     * @return the length of the binary encoding
+     */
+    public int getEncodedLength() {
+        return encodeString().length;
+    }
+
+    /**
+     * Writes the canonical binary encoding of the block into the buffer. By default, this is the UTF-8 encoding of
+     * its string representation. Subclasses should override this (and getEncodedLength) with a compact encoding.
+     * @param buffer the buffer that the encoding is written to
+     */
+    public void encode(ByteBuffer buffer) {
+        buffer.put(encodeString());
+    }
+
+    /**
+     * Returns the canonical binary encoding of the block
+     * @return the binary encoding
+     */
+    public byte[] encode() {
+        byte[] result = new byte[getEncodedLength()];
+        encode(ByteBuffer.wrap(result));
+        return result;
+    }
+
+    /**
+     * Returns the UTF-8 encoding of the string representation, which does not depend on the platform charset
+     * @return the encoded string representation
+     */
+    public byte[] encodeString() {
+        return toString().getBytes(StandardCharsets.UTF_8);
     }
 
     /**
@@ -31,6 +31,13 @@ public abstract class Data<D extends Data> {
      */
     public abstract void deleteBlocks(int index, int length);
 
+    /**
+     * Replaces the block at the given index
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
+    public abstract void updateBlock(int index, Block block);
+
     /**
      * Returns the number of blocks in the data
      * @return the number of blocks in the data
@@ -0,0 +1,238 @@
+package framework;
+
+import utils.HashFunction;
+
+import java.util.Arrays;
+
+/**
+ * The siblings on a path from a leaf up to a root, without an object per sibling. The sibling hashes are stored back
+ * to back in one byte array, and the directions in a bit set, with bit i set if sibling i is the left child.
+ * Proofs fill a path while walking up the tree, and verification hashes along it without allocating.
+ */
+public class HashPath {
+    private static final int DEFAULT_CAPACITY = 32;
+
+    private final int digestLength;
+    private byte[] hashes;
+    private int offset; // The position of the first sibling hash in hashes
+    private long[] directions;
+    private int length;
+
+    public HashPath(int digestLength) {
+        this(digestLength, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param digestLength the length of the hashes
+     * @param capacity the expected number of siblings, so that the arrays do not have to grow
+     */
+    public HashPath(int digestLength, int capacity) {
+        this.digestLength = digestLength;
+        this.hashes = new byte[Math.max(1, capacity) * digestLength];
+        this.directions = new long[(Math.max(1, capacity) + 63) >>> 6];
+    }
+
+    /**
+     * Creates a path on existing arrays, without copying them
+     * @param digestLength the length of the hashes
+     * @param hashes the array that contains the sibling hashes
+     * @param offset the position of the first sibling hash in hashes
+     * @param directions the directions, as a bit set
+     * @param length the number of siblings
+     */
+    public HashPath(int digestLength, byte[] hashes, int offset, long[] directions, int length) {
+        this.digestLength = digestLength;
+        this.hashes = hashes;
+        this.offset = offset;
+        this.directions = directions;
+        this.length = length;
+    }
+
+    public int getDigestLength() {
+        return digestLength;
+    }
+
+    /**
+     * @return the number of siblings
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the array that contains the sibling hashes, from getOffset() onwards
+     */
+    public byte[] getHashes() {
+        return hashes;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the directions, as a bit set: bit i is set if sibling i is the left child
+     */
+    public long[] getDirections() {
+        return directions;
+    }
+
+    /**
+     * @param step the step on the path, starting at the leaf
+     * @return true if the sibling is the left child, so that it goes first when hashing
+     */
+    public boolean isSiblingLeft(int step) {
+        return (directions[step >>> 6] & (1L << step)) != 0;
+    }
+
+    /**
+     * Returns a copy of a sibling hash. Use getHashes to read it without copying.
+     * @param step the step on the path, starting at the leaf
+     * @return the sibling hash
+     */
+    public byte[] getSiblingHash(int step) {
+        int from = offset + step * digestLength;
+        return Arrays.copyOfRange(hashes, from, from + digestLength);
+    }
+
+    /**
+     * Adds a sibling at the top of the path
+     * @param hash the hash of the sibling
+     * @param siblingLeft whether the sibling is the left child
+     */
+    public void add(byte[] hash, boolean siblingLeft) {
+        // add may replace the array, so it is called before the array is read
+        int position = add(siblingLeft);
+        System.arraycopy(hash, 0, hashes, position, digestLength);
+    }
+
+    /**
+     * Adds a sibling at the top of the path, of which the hash still has to be written
+     * @param siblingLeft whether the sibling is the left child
+     * @return the position in getHashes() where the hash of the sibling should be written
+     */
+    public int add(boolean siblingLeft) {
+        int position = offset + length * digestLength;
+
+        if (position + digestLength > hashes.length)
+            hashes = Arrays.copyOf(hashes, Math.max(2 * hashes.length, position + digestLength));
+
+        if ((length >>> 6) >= directions.length)
+            directions = Arrays.copyOf(directions, 2 * directions.length);
+
+        if (siblingLeft)
+            directions[length >>> 6] |= 1L << length;
+
+        length++;
+        return position;
+    }
+
+    /**
+     * Reverses the order of the siblings in place. Proofs that are collected from the root down add the siblings in
+     * the wrong order, and reverse the path once at the end.
+     */
+    public void reverse() {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int first = offset + i * digestLength;
+            int second = offset + j * digestLength;
+
+            for (int k = 0; k < digestLength; k++) {
+                byte b = hashes[first + k];
+                hashes[first + k] = hashes[second + k];
+                hashes[second + k] = b;
+            }
+
+            boolean siblingLeft = isSiblingLeft(i);
+            setSiblingLeft(i, isSiblingLeft(j));
+            setSiblingLeft(j, siblingLeft);
+        }
+    }
+
+    private void setSiblingLeft(int step, boolean siblingLeft) {
+        if (siblingLeft)
+            directions[step >>> 6] |= 1L << step;
+        else
+            directions[step >>> 6] &= ~(1L << step);
+    }
+
+    /**
+     * Computes the root, by hashing the leaf hash with the siblings from bottom to top. One buffer of two hashes is
+     * reused for all steps, so apart from it, only the returned root is allocated.
+     * @param leafHash the hash of the block
+     * @param hashFunction the hash function of the ADS
+     * @return the root hash
+     */
+    public byte[] computeRoot(byte[] leafHash, HashFunction hashFunction) {
+        if (length == 0)
+            return leafHash;
+
+        if (leafHash.length != digestLength || hashFunction.getDigestLength() != digestLength)
+            return computeRootOfMixedLengths(leafHash, hashFunction);
+
+        // The current hash and its sibling are placed next to each other, in the order in which they are hashed.
+        // The result is written straight to the place of the current hash of the next step.
+        byte[] buffer = new byte[2 * digestLength];
+        System.arraycopy(leafHash, 0, buffer, isSiblingLeft(0) ? digestLength : 0, digestLength);
+
+        for (int step = 0; step < length; step++) {
+            boolean siblingLeft = isSiblingLeft(step);
+            System.arraycopy(hashes, offset + step * digestLength, buffer, siblingLeft ? 0 : digestLength,
+                    digestLength);
+
+            int out = step + 1 < length && isSiblingLeft(step + 1) ? digestLength : 0;
+            hashFunction.hash(buffer, 0, digestLength, buffer, out);
+        }
+
+        return Arrays.copyOf(buffer, digestLength);
+    }
+
+    /**
+     * Computes the root when the path was made with another hash function than the given one. The hashes do not fit
+     * in the buffers of computeRoot, and the result will not match the authenticator anyway.
+     */
+    private byte[] computeRootOfMixedLengths(byte[] leafHash, HashFunction hashFunction) {
+        byte[] hash = leafHash;
+
+        for (int step = 0; step < length; step++) {
+            if (isSiblingLeft(step))
+                hash = hashFunction.hash(getSiblingHash(step), hash);
+            else
+                hash = hashFunction.hash(hash, getSiblingHash(step));
+        }
+
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof HashPath))
+            return false;
+
+        HashPath path = (HashPath) other;
+
+        if (length != path.length || digestLength != path.digestLength)
+            return false;
+
+        for (int step = 0; step < length; step++) {
+            if (isSiblingLeft(step) != path.isSiblingLeft(step))
+                return false;
+
+            for (int i = 0; i < digestLength; i++) {
+                if (hashes[offset + step * digestLength + i] != path.hashes[path.offset + step * digestLength + i])
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = length;
+
+        for (int i = offset; i < offset + length * digestLength; i++)
+            result = 31 * result + hashes[i];
+
+        return result;
+    }
+}
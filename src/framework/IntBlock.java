@@ -1,5 +1,7 @@
 package framework;
 
+import java.nio.ByteBuffer;
+
 /**
  * A data block, containing only an integer
  */
@@ -14,6 +16,25 @@ public class IntBlock extends Block {
         return value;
     }
 
+    @Override
+    public int getEncodedLength() {
+        return 4;
+    }
+
+    /**
+     * Encodes the block as the four big-endian bytes of its value
+     * @param buffer the buffer that the encoding is written to
+     */
+    @Override
+    public void encode(ByteBuffer buffer) {
+        buffer.putInt(value);
+    }
+
+    @Override
+    public byte[] encode() {
+        return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+
     /**
      * Uniquely represents the block with its index and value
      * @return a string representation of this integer block
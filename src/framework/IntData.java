@@ -43,6 +43,11 @@ public class IntData extends Data<IntData> {
         this.blocks.subList(index, index + length).clear();
     }
 
+    @Override
+    public void updateBlock(int index, Block block) {
+        blocks.set(index, block);
+    }
+
     @Override
     public int getBlockCount() {
         return blocks.size();
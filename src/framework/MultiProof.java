@@ -0,0 +1,489 @@
+package framework;
+
+import utils.HashFunction;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * A proof for several blocks at once. It describes the part of the tree that lies on the paths of the blocks, and
+ * contains only the sibling hashes that the verifier cannot compute from the other blocks.
+ *
+ * The proof consists of one or more trees, each with the index of its root. The nodes of a tree are listed in
+ * preorder, with two bits per node: whether a path continues to its left child, and whether a path continues to its
+ * right child. A node without either is a leaf. A node with only one of them comes with the hash of the other child,
+ * in the same order. Nodes that have only one child, and therefore the hash of that child, are left out.
+ *
+ * The leaves of the trees, from left to right, are the distinct indices of the blocks in increasing order. This binds
+ * the order of the blocks, but the positions only follow from the shape. In hash trees and Merkle Mountain Ranges, the
+ * shape follows from the indices and the number of blocks, so these ADSs check it against the size in their
+ * authenticator (see hasCompleteTreeShape), and a proof cannot be used for other indices. In the other ADSs the shape
+ * depends on the hashes of the blocks, so a multiproof only proves that the blocks are in the ADS in this order.
+ */
+public class MultiProof {
+    private final int[] indices;
+    private final int[] rootIndices;
+    private final long[] shape; // Two bits per node: bit 2j is set if node j has a left child, 2j + 1 for a right
+    private final int nodeCount;
+    private final List<byte[]> hashes;
+
+    /**
+     * Creates a multiproof from its parts, like a decoder does
+     * @param indices the indices of the blocks
+     * @param rootIndices the root index of every tree
+     * @param shape the bits of the nodes, see the class comment
+     * @param nodeCount the number of nodes
+     * @param hashes the sibling hashes, in the order of the nodes
+     */
+    public MultiProof(int[] indices, int[] rootIndices, long[] shape, int nodeCount, List<byte[]> hashes) {
+        if (nodeCount < 0 || (2L * nodeCount + 63) >>> 6 > shape.length)
+            throw new IllegalArgumentException("The shape does not have " + nodeCount + " nodes");
+
+        this.indices = indices;
+        this.rootIndices = rootIndices;
+        this.shape = shape;
+        this.nodeCount = nodeCount;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Creates a multiproof from the proofs of the individual blocks. This is used by ADSs that cannot walk their
+     * paths from the top. The directions of the paths are only read here, to find the shape of the trees.
+     * @param indices the indices of the blocks
+     * @param proofs the proofs of the blocks, in the same order
+     * @return the multiproof
+     */
+    public static MultiProof fromPaths(int[] indices, List<? extends PathProof> proofs) {
+        Builder builder = new Builder(indices);
+        int[] leaves = builder.getLeaves();
+
+        // The proof of every leaf
+        PathProof[] leafProofs = new PathProof[leaves.length];
+        for (int i = 0; i < indices.length; i++)
+            leafProofs[Arrays.binarySearch(leaves, indices[i])] = proofs.get(i);
+
+        int from = 0;
+        while (from < leaves.length) {
+            int rootIndex = leafProofs[from].getRootIndex();
+
+            int to = from + 1;
+            while (to < leaves.length && leafProofs[to].getRootIndex() == rootIndex)
+                to++;
+
+            builder.addTree(rootIndex);
+            addNodes(leafProofs, from, to, 0, builder);
+            from = to;
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Adds the node at the given depth below the root, which is on the paths of the leaves [from, to)
+     */
+    private static void addNodes(PathProof[] proofs, int from, int to, int depth, Builder builder) {
+        HashPath first = proofs[from].getPath();
+
+        if (depth == first.getLength()) {
+            if (to - from > 1)
+                throw new IllegalStateException("The path of a block ends above another block");
+
+            builder.addNode(false, false);
+            return;
+        }
+
+        // The paths to the left child come first, as the leaves are in order
+        int split = from;
+        while (split < to && isLeftChild(proofs[split].getPath(), depth))
+            split++;
+
+        for (int i = split; i < to; i++) {
+            if (isLeftChild(proofs[i].getPath(), depth))
+                throw new IllegalStateException("The paths of the blocks are not in the order of their indices");
+        }
+
+        builder.addNode(split > from, split < to);
+        if (split == from || split == to)
+            builder.addHash(first.getSiblingHash(first.getLength() - 1 - depth));
+
+        if (split > from)
+            addNodes(proofs, from, split, depth + 1, builder);
+        if (split < to)
+            addNodes(proofs, split, to, depth + 1, builder);
+    }
+
+    /**
+     * @return whether the node at the given depth below the root is a left child. A path that ends above that depth
+     * does not belong to the same node, and counts as a right child so that it is rejected.
+     */
+    private static boolean isLeftChild(HashPath path, int depth) {
+        int step = path.getLength() - 1 - depth;
+        return step >= 0 && !path.isSiblingLeft(step);
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * @return the root index of every tree, in the order of the leaves
+     */
+    public int[] getRootIndices() {
+        return rootIndices;
+    }
+
+    /**
+     * @return the bits of the nodes, see the class comment
+     */
+    public long[] getShape() {
+        return shape;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the sibling hashes that are sent, in the order in which they are used
+     */
+    public List<byte[]> getHashes() {
+        return hashes;
+    }
+
+    /**
+     * Returns the number of bytes that encode(ByteBuffer) writes
+     */
+    public int getEncodedLength() {
+        return WireFormat.getMultiProofLength(this);
+    }
+
+    /**
+     * Writes the binary encoding (see WireFormat) into the buffer
+     * @param buffer the buffer, which should have at least getEncodedLength() bytes remaining
+     */
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodeMultiProof(this, buffer);
+    }
+
+    /**
+     * @return the binary encoding (see WireFormat)
+     */
+    public byte[] encode() {
+        byte[] result = new byte[getEncodedLength()];
+        encode(ByteBuffer.wrap(result));
+        return result;
+    }
+
+    /**
+     * Reads a proof that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the proof
+     * @return the proof
+     */
+    public static MultiProof decode(ByteBuffer buffer) {
+        return WireFormat.decodeMultiProof(buffer);
+    }
+
+    /**
+     * Computes the roots from the blocks, in one pass over the nodes. Every root that a block leads to is computed
+     * once.
+     * @param blocks the blocks, in the order of the indices
+     * @param hashFunction the hash function of the ADS
+     * @return the computed hash per root index, or null if the proof is inconsistent with the blocks
+     */
+    public Map<Integer, byte[]> computeRoots(List<Block> blocks, HashFunction hashFunction) {
+        if (blocks.size() != indices.length)
+            return null;
+
+        // The blocks sorted by index, as (index, position) pairs
+        long[] order = new long[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] < 0)
+                return null;
+
+            order[i] = (long) indices[i] << 32 | i;
+        }
+        Arrays.sort(order);
+
+        // The hash of every leaf. Blocks with the same index have to be the same.
+        List<byte[]> leafHashes = new ArrayList<>();
+        for (int i = 0; i < order.length; i++) {
+            byte[] hash = blocks.get((int) order[i]).hash(hashFunction);
+
+            if (i > 0 && order[i] >>> 32 == order[i - 1] >>> 32) {
+                if (!Arrays.equals(hash, leafHashes.get(leafHashes.size() - 1)))
+                    return null;
+            } else {
+                leafHashes.add(hash);
+            }
+        }
+
+        Map<Integer, byte[]> roots = new HashMap<>();
+        Cursor cursor = new Cursor(leafHashes);
+
+        for (int rootIndex : rootIndices) {
+            byte[] root = cursor.computeTree(hashFunction);
+
+            if (root == null || (roots.containsKey(rootIndex) && !Arrays.equals(root, roots.get(rootIndex))))
+                return null;
+
+            roots.put(rootIndex, root);
+        }
+
+        // Unused nodes, hashes and blocks are not allowed either
+        if (cursor.node != nodeCount || cursor.hash != hashes.size() || cursor.leaf != leafHashes.size())
+            return null;
+
+        return roots;
+    }
+
+    /**
+     * Checks whether the proof has the shape of the paths to its indices in a tree of the given size in which the
+     * nodes of every level are paired from left to right, like HashTreeADS. A node without a pair is not a node of
+     * the proof. The bagged peaks of a Merkle Mountain Range form the same tree.
+     * @param size the authenticated number of blocks
+     * @return whether the proof is a single tree with that shape
+     */
+    public boolean hasCompleteTreeShape(int size) {
+        Builder builder = new Builder(indices);
+        int[] leaves = builder.getLeaves();
+
+        if (leaves.length == 0 || leaves[0] < 0 || leaves[leaves.length - 1] >= size)
+            return false;
+
+        builder.addTree(0);
+        addCompleteTreeNodes(size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1), 0, 0, leaves.length, size,
+                builder);
+
+        MultiProof expected = builder.build();
+        if (!Arrays.equals(expected.rootIndices, rootIndices) || expected.nodeCount != nodeCount)
+            return false;
+
+        for (int node = 0; node < nodeCount; node++) {
+            if (expected.hasChild(node, 0) != hasChild(node, 0) || expected.hasChild(node, 1) != hasChild(node, 1))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the node with the given level and index, which is on the paths of the leaves [from, to), like
+     * ArrayHashTreeADS does without the hashes
+     */
+    private static void addCompleteTreeNodes(int level, long index, int from, int to, long size, Builder builder) {
+        // A node without a right child has the hash of its left child, so it is not part of the proof
+        while (level > 0 && 2 * index + 1 > (size - 1) >> (level - 1)) {
+            level--;
+            index *= 2;
+        }
+
+        if (level == 0) {
+            builder.addNode(false, false);
+            return;
+        }
+
+        long left = 2 * index;
+        int split = builder.findLeaf(from, to, (left + 1) << (level - 1));
+
+        builder.addNode(split > from, split < to);
+
+        if (split > from)
+            addCompleteTreeNodes(level - 1, left, from, split, size, builder);
+        if (split < to)
+            addCompleteTreeNodes(level - 1, left + 1, split, to, size, builder);
+    }
+
+    private boolean hasChild(int node, int side) {
+        int bit = 2 * node + side;
+        return (shape[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Reads the nodes, hashes and leaves of the proof in order
+     */
+    private class Cursor {
+        private final List<byte[]> leafHashes;
+        private int node, hash, leaf;
+
+        Cursor(List<byte[]> leafHashes) {
+            this.leafHashes = leafHashes;
+        }
+
+        /**
+         * Computes the root of the next tree. The nodes are visited with a stack, as a malicious proof could describe
+         * a tree that is too deep to recurse through.
+         * @return the hash of the root, or null if the proof runs out of nodes, hashes or leaves
+         */
+        byte[] computeTree(HashFunction hashFunction) {
+            Deque<Frame> stack = new ArrayDeque<>();
+            byte[] value = null;
+
+            while (true) {
+                if (value == null) { // Visit the next node
+                    if (node == nodeCount)
+                        return null;
+
+                    boolean left = hasChild(node, 0);
+                    boolean right = hasChild(node, 1);
+                    node++;
+
+                    if (!left && !right) {
+                        if (leaf == leafHashes.size())
+                            return null;
+
+                        value = leafHashes.get(leaf++);
+                        continue;
+                    }
+
+                    Frame frame = new Frame(left, right);
+                    if (!left || !right) {
+                        if (hash == hashes.size())
+                            return null;
+
+                        frame.sibling = hashes.get(hash++);
+                    }
+
+                    stack.push(frame);
+                    continue;
+                }
+
+                // Return the value to the parent
+                Frame frame = stack.peek();
+                if (frame == null)
+                    return value;
+
+                if (frame.left && frame.right) {
+                    if (frame.leftValue == null) { // The left child is done, so visit the right child
+                        frame.leftValue = value;
+                        value = null;
+                        continue;
+                    }
+
+                    value = hashFunction.hash(frame.leftValue, value);
+                } else if (frame.left) {
+                    value = hashFunction.hash(value, frame.sibling);
+                } else {
+                    value = hashFunction.hash(frame.sibling, value);
+                }
+
+                stack.pop();
+            }
+        }
+    }
+
+    private static class Frame {
+        final boolean left, right;
+        byte[] sibling;   // The hash of the child that is not on any path
+        byte[] leftValue; // The computed hash of the left child, when both children are on paths
+
+        Frame(boolean left, boolean right) {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Collects the parts of a multiproof. ADSs that can walk the paths of the blocks from the top use it to build a
+     * multiproof in one pass: for every tree, they call addTree, and then addNode for every node in preorder, with
+     * addHash right after a node that has only one child on the paths.
+     */
+    public static class Builder {
+        private final int[] indices;
+        private final int[] leaves;
+        private final List<Integer> rootIndices = new ArrayList<>();
+        private long[] shape = new long[1];
+        private int nodeCount;
+        private final List<byte[]> hashes = new ArrayList<>();
+
+        /**
+         * @param indices the indices of the blocks, in any order, and possibly with duplicates
+         */
+        public Builder(int[] indices) {
+            this.indices = indices.clone();
+
+            int[] sorted = indices.clone();
+            Arrays.sort(sorted);
+
+            int count = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1])
+                    sorted[count++] = sorted[i];
+            }
+
+            this.leaves = Arrays.copyOf(sorted, count);
+        }
+
+        /**
+         * @return the distinct indices in increasing order, which are the leaves of the trees from left to right
+         */
+        public int[] getLeaves() {
+            return leaves;
+        }
+
+        /**
+         * @param size the number of blocks in the ADS
+         * @throws IndexOutOfBoundsException if an index is not in the ADS
+         */
+        public void checkLeaves(int size) {
+            if (leaves.length > 0 && (leaves[0] < 0 || leaves[leaves.length - 1] >= size))
+                throw new IndexOutOfBoundsException("Indices: " + Arrays.toString(indices) + ", Size: " + size);
+        }
+
+        /**
+         * Finds where the leaves below a node are split between its children
+         * @param from the first leaf below the node
+         * @param to the position after the last leaf below the node
+         * @param index the index of the first block below the right child
+         * @return the position of the first of the leaves [from, to) that is below the right child
+         */
+        public int findLeaf(int from, int to, long index) {
+            while (from < to) {
+                int middle = (from + to) >>> 1;
+
+                if (leaves[middle] < index)
+                    from = middle + 1;
+                else
+                    to = middle;
+            }
+
+            return from;
+        }
+
+        public void addTree(int rootIndex) {
+            rootIndices.add(rootIndex);
+        }
+
+        /**
+         * @param left whether a path continues to the left child
+         * @param right whether a path continues to the right child
+         */
+        public void addNode(boolean left, boolean right) {
+            int bit = 2 * nodeCount;
+            if ((bit + 1) >>> 6 >= shape.length)
+                shape = Arrays.copyOf(shape, 2 * shape.length);
+
+            if (left)
+                shape[bit >>> 6] |= 1L << bit;
+            if (right)
+                shape[(bit + 1) >>> 6] |= 1L << (bit + 1);
+
+            nodeCount++;
+        }
+
+        /**
+         * @param hash the hash of the child of the last node that is not on any path
+         */
+        public void addHash(byte[] hash) {
+            hashes.add(hash);
+        }
+
+        public MultiProof build() {
+            int[] roots = new int[rootIndices.size()];
+            for (int i = 0; i < roots.length; i++)
+                roots[i] = rootIndices.get(i);
+
+            return new MultiProof(indices, roots, Arrays.copyOf(shape, (2 * nodeCount + 63) >>> 6), nodeCount,
+                    hashes);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package framework;
+
+/**
+ * A proof that consists of a path from a leaf up to a root of a binary hash tree. At every step, the hash of the
+ * current node is combined with the hash of its sibling. All ADSs in this framework have such proofs, which allows
+ * proofs of several blocks to be combined into a MultiProof.
+ */
+public interface PathProof {
+    /**
+     * @return the siblings on the path, starting at the leaf
+     */
+    HashPath getPath();
+
+    /**
+     * @return the index of the root that the path leads to, for ADSs that have more than one root. 0 otherwise.
+     */
+    int getRootIndex();
+}
@@ -1,5 +1,7 @@
 package framework;
 
+import java.nio.ByteBuffer;
+
 /**
  * Defines how a query response looks like. Consists of both the content and the associated proof.
  */
@@ -7,4 +9,27 @@ public abstract class Proof<A extends ADS> {
 
     public Proof(A ADS, int index) {
     }
+
+    /**
+     * Returns the number of bytes that encode(ByteBuffer) writes
+     * @return the length of the binary encoding
+     */
+    public abstract int getEncodedLength();
+
+    /**
+     * Writes the binary encoding (see WireFormat) into the buffer. Every subclass has a static decode method
+     * that reads it back.
+     * @param buffer the buffer that the encoding is written to
+     */
+    public abstract void encode(ByteBuffer buffer);
+
+    /**
+     * Returns the binary encoding
+     * @return the binary encoding
+     */
+    public byte[] encode() {
+        byte[] result = new byte[getEncodedLength()];
+        encode(ByteBuffer.wrap(result));
+        return result;
+    }
 }
@@ -0,0 +1,29 @@
+package framework;
+
+/**
+ * An immutable version of an ADS. Readers can query a snapshot without locks while a writer changes the ADS,
+ * since the writer never modifies the nodes that a published snapshot refers to.
+ */
+public interface Snapshot<P extends Proof, Auth extends Authenticator> {
+    /**
+     * @return the version of the ADS, which is incremented by every published change
+     */
+    long getVersion();
+
+    /**
+     * @return the number of blocks
+     */
+    int getSize();
+
+    /**
+     * Returns a proof for the block with the given index, as it was in this version
+     * @param index index of a block we want the proof for
+     * @return the proof
+     */
+    P getProof(int index);
+
+    /**
+     * @return the authenticator value of this version
+     */
+    Auth getAuthenticator();
+}
@@ -0,0 +1,52 @@
+package framework;
+
+import utils.HashFunction;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wraps a block, such that it is encoded (and therefore hashed) by its string representation instead of its binary
+ * encoding. Building an ADS from wrapped blocks reproduces the authenticators of the string based block hashing.
+ */
+public class StringEncodedBlock extends Block {
+    private final Block block;
+
+    public StringEncodedBlock(Block block) {
+        this.block = block;
+    }
+
+    public Block getBlock() {
+        return block;
+    }
+
+    /**
+     * Hashes the encoded string directly, as it is already a new array. Going through the encoding buffer would
+     * encode the string twice, once for its length and once for its content.
+     * @param hashFunction the hash function
+     * @return the hash of the string representation of the wrapped block
+     */
+    @Override
+    public byte[] hash(HashFunction hashFunction) {
+        return hashFunction.hash(block.encodeString());
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return block.encodeString().length;
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        buffer.put(block.encodeString());
+    }
+
+    @Override
+    public byte[] encode() {
+        return block.encodeString();
+    }
+
+    @Override
+    public String toString() {
+        return block.toString();
+    }
+}
@@ -0,0 +1,418 @@
+package framework;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The binary encoding of proofs and authenticators, which are sent to remote readers.
+ *
+ * Every message starts with a header: the version, the type of the message, and the digest length (one byte each).
+ * A path proof then contains the root index and the number of siblings (as unsigned varints), the directions
+ * (one bit per sibling, set if the sibling is on the left, least significant bit first), and the concatenated
+ * sibling hashes. An authenticator contains the number of hashes (as an unsigned varint), and the concatenated hashes.
+ * The authenticators of the hash tree and the Merkle Mountain Range end with the number of blocks (an unsigned varint).
+ * A multiproof contains the number of blocks and their indices, the number of trees and their root indices, the number
+ * of nodes and their bits (two bits per node, least significant bit first), and the number of hashes and the
+ * concatenated hashes. All numbers are unsigned varints.
+ *
+ * Decoding does not copy the hashes of buffers that are backed by an array: the decoded objects read them from that
+ * array, so the buffer should not be modified while they are in use.
+ */
+public final class WireFormat {
+    public static final byte VERSION = 1;
+
+    // Message types
+    public static final byte HASH_TREE_PROOF = 1;
+    public static final byte SKIP_LIST_PROOF = 2;
+    public static final byte SEQ_HASH_PROOF = 3;
+    public static final byte SPLIT_HASH_PROOF = 4;
+    public static final byte MMR_PROOF = 5;
+    public static final byte AVL_TREE_PROOF = 6;
+    public static final byte MULTI_PROOF = 7;
+    public static final byte HASH_TREE_AUTHENTICATOR = 65;
+    public static final byte SKIP_LIST_AUTHENTICATOR = 66;
+    public static final byte SEQ_HASH_AUTHENTICATOR = 67;
+    public static final byte SPLIT_HASH_AUTHENTICATOR = 68;
+    public static final byte MMR_AUTHENTICATOR = 69;
+    public static final byte AVL_TREE_AUTHENTICATOR = 70;
+
+    private static final int HEADER_LENGTH = 3;
+
+    private WireFormat() {
+    }
+
+    /**
+     * A decoded path proof
+     */
+    public static class Path {
+        private final int rootIndex;
+        private final HashPath path;
+
+        private Path(int rootIndex, HashPath path) {
+            this.rootIndex = rootIndex;
+            this.path = path;
+        }
+
+        public int getRootIndex() {
+            return rootIndex;
+        }
+
+        public HashPath getPath() {
+            return path;
+        }
+    }
+
+    /**
+     * @return the number of bytes that encodePath writes for the proof
+     */
+    public static int getPathLength(PathProof proof) {
+        HashPath path = proof.getPath();
+        int count = path.getLength();
+        int digestLength = count == 0 ? 0 : path.getDigestLength();
+
+        return HEADER_LENGTH + getVarIntLength(proof.getRootIndex()) + getVarIntLength(count) + (count + 7) / 8
+                + count * digestLength;
+    }
+
+    /**
+     * Writes the proof into the buffer
+     * @param type the message type of the proof
+     * @param proof the proof
+     * @param buffer the buffer that the encoding is written to
+     */
+    public static void encodePath(byte type, PathProof proof, ByteBuffer buffer) {
+        HashPath path = proof.getPath();
+        int count = path.getLength();
+        int digestLength = count == 0 ? 0 : path.getDigestLength();
+
+        putHeader(buffer, type, digestLength);
+        putVarInt(buffer, proof.getRootIndex());
+        putVarInt(buffer, count);
+
+        long[] directions = path.getDirections();
+        for (int bit = 0; bit < count; bit += 8)
+            buffer.put((byte) (directions[bit >>> 6] >>> (bit & 63)));
+
+        buffer.put(path.getHashes(), path.getOffset(), count * digestLength);
+    }
+
+    /**
+     * Reads a proof from the buffer, and advances the buffer to the end of it. If the buffer is backed by an array,
+     * the path refers to the hashes in that array.
+     * @param type the expected message type
+     * @param buffer the buffer
+     * @return the decoded path
+     */
+    public static Path decodePath(byte type, ByteBuffer buffer) {
+        int digestLength = getHeader(buffer, type);
+        int rootIndex = getVarInt(buffer);
+        int count = getVarInt(buffer);
+
+        if (count > 0 && digestLength == 0)
+            throw new IllegalArgumentException("Hashes cannot be empty");
+
+        if ((count + 7) / 8 + (long) count * digestLength > buffer.remaining())
+            throw new IllegalArgumentException("The message is truncated");
+
+        long[] directions = new long[Math.max(1, (count + 63) >>> 6)];
+        for (int bit = 0; bit < count; bit += 8)
+            directions[bit >>> 6] |= (buffer.get() & 0xffL) << (bit & 63);
+
+        int hashesLength = count * digestLength;
+        HashPath path;
+
+        if (buffer.hasArray()) {
+            path = new HashPath(digestLength, buffer.array(), buffer.arrayOffset() + buffer.position(), directions,
+                    count);
+            buffer.position(buffer.position() + hashesLength);
+        } else {
+            byte[] hashes = new byte[hashesLength];
+            buffer.get(hashes);
+            path = new HashPath(digestLength, hashes, 0, directions, count);
+        }
+
+        return new Path(rootIndex, path);
+    }
+
+    /**
+     * @return the number of bytes that encodeMultiProof writes for the proof
+     */
+    public static int getMultiProofLength(MultiProof proof) {
+        List<byte[]> hashes = proof.getHashes();
+        int digestLength = hashes.isEmpty() ? 0 : hashes.get(0).length;
+
+        int length = HEADER_LENGTH + getVarIntsLength(proof.getIndices()) + getVarIntsLength(proof.getRootIndices())
+                + getVarIntLength(proof.getNodeCount()) + (2 * proof.getNodeCount() + 7) / 8;
+
+        return length + getVarIntLength(hashes.size()) + hashes.size() * digestLength;
+    }
+
+    /**
+     * Writes the multiproof into the buffer
+     * @param proof the proof
+     * @param buffer the buffer that the encoding is written to
+     */
+    public static void encodeMultiProof(MultiProof proof, ByteBuffer buffer) {
+        List<byte[]> hashes = proof.getHashes();
+        int digestLength = hashes.isEmpty() ? 0 : hashes.get(0).length;
+
+        putHeader(buffer, MULTI_PROOF, digestLength);
+        putVarInts(buffer, proof.getIndices());
+        putVarInts(buffer, proof.getRootIndices());
+
+        int bits = 2 * proof.getNodeCount();
+        long[] shape = proof.getShape();
+
+        putVarInt(buffer, proof.getNodeCount());
+        for (int bit = 0; bit < bits; bit += 8)
+            buffer.put((byte) (shape[bit >>> 6] >>> (bit & 63)));
+
+        putVarInt(buffer, hashes.size());
+        for (byte[] hash : hashes)
+            putDigest(buffer, hash, digestLength);
+    }
+
+    /**
+     * Reads a multiproof from the buffer, and advances the buffer to the end of it
+     * @param buffer the buffer
+     * @return the proof
+     */
+    public static MultiProof decodeMultiProof(ByteBuffer buffer) {
+        int digestLength = getHeader(buffer, MULTI_PROOF);
+        int[] indices = getVarInts(buffer);
+        int[] rootIndices = getVarInts(buffer);
+
+        int nodeCount = getVarInt(buffer);
+        int bytes = (int) ((2L * nodeCount + 7) / 8);
+        if (bytes > buffer.remaining())
+            throw new IllegalArgumentException("The message is truncated");
+
+        long[] shape = new long[(bytes + 7) / 8];
+        for (int i = 0; i < bytes; i++)
+            shape[i >>> 3] |= (buffer.get() & 0xffL) << ((i & 7) * 8);
+
+        int count = getVarInt(buffer);
+        List<byte[]> hashes = getDigests(buffer, count, digestLength);
+
+        return new MultiProof(indices, rootIndices, shape, nodeCount, hashes);
+    }
+
+    /**
+     * @return the number of bytes that encodeHashes writes for the hashes
+     */
+    public static int getHashesLength(List<byte[]> hashes) {
+        int digestLength = hashes.isEmpty() ? 0 : hashes.get(0).length;
+        return HEADER_LENGTH + getVarIntLength(hashes.size()) + hashes.size() * digestLength;
+    }
+
+    /**
+     * Writes a list of hashes of the same length into the buffer, which is how authenticators are encoded
+     * @param type the message type
+     * @param hashes the hashes
+     * @param buffer the buffer that the encoding is written to
+     */
+    public static void encodeHashes(byte type, List<byte[]> hashes, ByteBuffer buffer) {
+        int digestLength = hashes.isEmpty() ? 0 : hashes.get(0).length;
+
+        putHeader(buffer, type, digestLength);
+        putVarInt(buffer, hashes.size());
+
+        for (byte[] hash : hashes)
+            putDigest(buffer, hash, digestLength);
+    }
+
+    /**
+     * Reads a list of hashes from the buffer, and advances the buffer to the end of it
+     * @param type the expected message type
+     * @param buffer the buffer
+     * @return the hashes
+     */
+    public static List<byte[]> decodeHashes(byte type, ByteBuffer buffer) {
+        int digestLength = getHeader(buffer, type);
+        int count = getVarInt(buffer);
+
+        return getDigests(buffer, count, digestLength);
+    }
+
+    /**
+     * @return the number of bytes that encodeSize writes
+     */
+    public static int getSizeLength(int size) {
+        return getVarIntLength(size);
+    }
+
+    /**
+     * Writes the number of blocks of an ADS, which follows the hashes of authenticators whose shape depends on it
+     * @param size the number of blocks
+     * @param buffer the buffer that the encoding is written to
+     */
+    public static void encodeSize(int size, ByteBuffer buffer) {
+        putVarInt(buffer, size);
+    }
+
+    /**
+     * Reads the number of blocks that was written by encodeSize
+     * @param buffer the buffer, which is advanced to the end of it
+     * @return the number of blocks
+     */
+    public static int decodeSize(ByteBuffer buffer) {
+        return getVarInt(buffer);
+    }
+
+    private static void putHeader(ByteBuffer buffer, byte type, int digestLength) {
+        if (digestLength > 255)
+            throw new IllegalArgumentException("Digests longer than 255 bytes are not supported");
+
+        buffer.put(VERSION);
+        buffer.put(type);
+        buffer.put((byte) digestLength);
+    }
+
+    /**
+     * @return the digest length
+     */
+    private static int getHeader(ByteBuffer buffer, byte type) {
+        if (buffer.remaining() < HEADER_LENGTH)
+            throw new IllegalArgumentException("The message is truncated");
+
+        byte version = buffer.get();
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unsupported version: " + version);
+
+        byte actualType = buffer.get();
+        if (actualType != type)
+            throw new IllegalArgumentException("Expected message type " + type + ", but got " + actualType);
+
+        return buffer.get() & 0xff;
+    }
+
+    private static void putDigest(ByteBuffer buffer, byte[] digest, int digestLength) {
+        if (digest.length != digestLength)
+            throw new IllegalArgumentException("All hashes should have the same length");
+
+        buffer.put(digest);
+    }
+
+    private static List<byte[]> getDigests(ByteBuffer buffer, int count, int digestLength) {
+        if (count == 0)
+            return new ArrayList<>();
+
+        if (digestLength == 0)
+            throw new IllegalArgumentException("Hashes cannot be empty");
+
+        if ((long) count * digestLength > buffer.remaining())
+            throw new IllegalArgumentException("The message is truncated");
+
+        ByteBuffer digests = buffer.slice();
+        digests.limit(count * digestLength);
+        buffer.position(buffer.position() + count * digestLength);
+
+        return new DigestList(digests, digestLength);
+    }
+
+    static int getVarIntLength(int value) {
+        int length = 1;
+
+        while ((value >>>= 7) != 0)
+            length++;
+
+        return length;
+    }
+
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    private static int getVarIntsLength(int[] values) {
+        int length = getVarIntLength(values.length);
+
+        for (int value : values)
+            length += getVarIntLength(value);
+
+        return length;
+    }
+
+    /**
+     * Writes the number of values, and then the values, as unsigned varints
+     */
+    private static void putVarInts(ByteBuffer buffer, int[] values) {
+        putVarInt(buffer, values.length);
+
+        for (int value : values)
+            putVarInt(buffer, value);
+    }
+
+    private static int[] getVarInts(ByteBuffer buffer) {
+        int count = getVarInt(buffer);
+
+        // Every value takes at least one byte, which bounds the array that a malformed message can allocate
+        if (count > buffer.remaining())
+            throw new IllegalArgumentException("The message is truncated");
+
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++)
+            values[i] = getVarInt(buffer);
+
+        return values;
+    }
+
+    static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!buffer.hasRemaining())
+                throw new IllegalArgumentException("The message is truncated");
+
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+
+            if ((b & 0x80) == 0) {
+                if (value < 0)
+                    throw new IllegalArgumentException("Negative length or index");
+
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * A read-only view of digests that are stored back to back in a buffer
+     */
+    private static class DigestList extends AbstractList<byte[]> implements RandomAccess {
+        private final ByteBuffer digests;
+        private final int digestLength;
+
+        DigestList(ByteBuffer digests, int digestLength) {
+            this.digests = digests;
+            this.digestLength = digestLength;
+        }
+
+        @Override
+        public byte[] get(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+            byte[] digest = new byte[digestLength];
+            ByteBuffer view = digests.duplicate();
+            view.position(index * digestLength);
+            view.get(digest);
+
+            return digest;
+        }
+
+        @Override
+        public int size() {
+            return digests.limit() / digestLength;
+        }
+    }
+}
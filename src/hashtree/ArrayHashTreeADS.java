@@ -0,0 +1,461 @@
+package hashtree;
+
+import framework.ADS;
+import framework.Block;
+import framework.HashPath;
+import framework.MultiProof;
+import utils.HashFunction;
+import utils.HashFunctions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Array based hash tree ADS. The tree has the same shape as HashTreeADS, so it has the same authenticator and proofs,
+ * but instead of one object per node, all hashes are stored in a HashStore, and the tree structure is implicit.
+ *
+ * The hashes are stored level by level. With a capacity of C leaves (a power of 2), level l occupies the slots
+ * [2C - 2C/2^l, 2C - C/2^l). Node i at level l covers the leaves [i*2^l, (i+1)*2^l), its parent is node i/2 at
+ * level l+1, and its sibling is node i^1. If a level has an odd number of nodes, the last node has no sibling,
+ * and its parent gets the same hash.
+ */
+public class ArrayHashTreeADS extends ADS<ArrayHashTreeADS, HTProof, HTAuthenticator> {
+    private HashStore store;
+    private int size;      // The number of leaves
+    private long capacity; // The maximum number of leaves that fits in the store, always a power of 2
+
+    public ArrayHashTreeADS() {
+        this(HashFunctions.getDefault());
+    }
+
+    public ArrayHashTreeADS(HashFunction hashFunction) {
+        this(hashFunction, new HeapHashStore(hashFunction.getDigestLength()));
+    }
+
+    /**
+     * Creates a tree in the given store. If the store already contains a tree (like a reopened MappedHashStore),
+     * that tree is used as it is, without rehashing. Otherwise, the tree is empty.
+     * @param hashFunction the hash function
+     * @param store the store
+     */
+    public ArrayHashTreeADS(HashFunction hashFunction, HashStore store) {
+        super(hashFunction);
+
+        if (store.getDigestLength() != hashFunction.getDigestLength())
+            throw new IllegalArgumentException("The store does not fit hashes of " + hashFunction.getName());
+
+        String storedName = store.getHashFunctionName();
+        if (storedName != null && !storedName.equals(hashFunction.getName()))
+            throw new IllegalArgumentException("The store contains a tree that uses " + storedName);
+
+        this.store = store;
+        this.size = (int) store.getTreeSize();
+        this.capacity = store.getTreeCapacity();
+    }
+
+    public ArrayHashTreeADS(List<Block> blocks) {
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public ArrayHashTreeADS(List<Block> blocks, HashFunction hashFunction) {
+        this(blocks, hashFunction, new HeapHashStore(hashFunction.getDigestLength()));
+    }
+
+    /**
+     * Builds the tree in the given store
+     * @param blocks the blocks
+     * @param hashFunction the hash function
+     * @param store the store, which determines where the hashes are kept. A tree that it contains is overwritten.
+     */
+    public ArrayHashTreeADS(List<Block> blocks, HashFunction hashFunction, HashStore store) {
+        this(hashFunction, store);
+
+        size = 0;
+        ensureCapacity(blocks.size());
+
+        for (int i = 0; i < blocks.size(); i++)
+            store.set(i, blocks.get(i).hash(hashFunction), 0);
+
+        size = blocks.size();
+
+        rebuild(0, 1);
+        saveTree();
+    }
+
+    @Override
+    public ArrayHashTreeADS create(List<Block> blocks) {
+        return new ArrayHashTreeADS(blocks, hashFunction, store.newStore());
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public HashStore getStore() {
+        return store;
+    }
+
+    /**
+     * @param n the number of leaves
+     * @return the level of the root of a tree with n leaves
+     */
+    static int height(long n) {
+        return n <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(n - 1);
+    }
+
+    /**
+     * @param n the number of leaves
+     * @param level the level
+     * @return the number of nodes at the given level of a tree with n leaves
+     */
+    static long count(long n, int level) {
+        return n == 0 ? 0 : ((n - 1) >> level) + 1;
+    }
+
+    /**
+     * @param level the level of the node
+     * @param index the index of the node within its level
+     * @return the slot of the node in the store
+     */
+    private long slot(int level, long index) {
+        return 2 * capacity - ((2 * capacity) >> level) + index;
+    }
+
+    /**
+     * Grows the capacity to at least n leaves. The levels are moved to their new positions. Since the capacity at
+     * least doubles, all levels except the leaves move past the end of the old levels, so they never overlap.
+     * @param n the required number of leaves
+     */
+    private void ensureCapacity(long n) {
+        if (n <= capacity)
+            return;
+
+        long newCapacity = Math.max(1, Long.highestOneBit(n - 1) << 1);
+        store.ensureCapacity(2 * newCapacity);
+
+        long oldCapacity = capacity;
+        for (int level = height(size); level >= 1; level--) {
+            long from = 2 * oldCapacity - ((2 * oldCapacity) >> level);
+            long to = 2 * newCapacity - ((2 * newCapacity) >> level);
+            store.copy(store, from, to, count(size, level));
+        }
+
+        capacity = newCapacity;
+    }
+
+    /**
+     * Records the size and capacity in the store, for stores that persist the tree
+     */
+    private void saveTree() {
+        store.setTree(hashFunction.getName(), size, capacity);
+    }
+
+    /**
+     * Recomputes the nodes that cover the leaves from firstLeaf onwards, starting at the given level
+     * @param firstLeaf the first leaf that has changed
+     * @param fromLevel the lowest level that has to be recomputed
+     */
+    private void rebuild(long firstLeaf, int fromLevel) {
+        int height = height(size);
+
+        for (int level = Math.max(1, fromLevel); level <= height; level++) {
+            long count = count(size, level);
+            long childCount = count(size, level - 1);
+
+            for (long i = firstLeaf >> level; i < count; i++) {
+                long left = slot(level - 1, 2 * i);
+
+                if (2 * i + 1 < childCount)
+                    store.hash(hashFunction, left, left + 1, slot(level, i));
+                else
+                    store.copy(store, left, slot(level, i), 1); // No right child, so the hash is passed on
+            }
+        }
+    }
+
+    /**
+     * Copies the nodes of the leaves [srcFirst, srcFirst + count) of src to the leaves from dstFirst of dst.
+     * A node can only be copied when it covers the same leaves in both trees, which holds up to the highest level
+     * at which both srcFirst and dstFirst are aligned.
+     * @return the highest level that is copied
+     */
+    private static int copyAlignedLevels(ArrayHashTreeADS src, long srcFirst, ArrayHashTreeADS dst, long dstFirst,
+                                         long count) {
+        int maxLevel = Math.min(alignment(srcFirst), alignment(dstFirst));
+        maxLevel = Math.min(maxLevel, height(count));
+
+        for (int level = 0; level <= maxLevel; level++) {
+            dst.store.copy(src.store, src.slot(level, srcFirst >> level), dst.slot(level, dstFirst >> level),
+                    count(count, level));
+        }
+
+        return maxLevel;
+    }
+
+    private static int alignment(long leaf) {
+        return leaf == 0 ? 63 : Long.numberOfTrailingZeros(leaf);
+    }
+
+    @Override
+    public void setThis(ArrayHashTreeADS ADS) {
+        this.hashFunction = ADS.hashFunction;
+        this.store = ADS.store;
+        this.size = ADS.size;
+        this.capacity = ADS.capacity;
+    }
+
+    /**
+     * Appends the right tree to the left tree. The nodes of the left tree stay where they are. The nodes of the
+     * right tree are copied as far as they are aligned, such that only the nodes above them are rehashed.
+     * The result is always in the store of the left tree, also when it is empty.
+     */
+    @Override
+    public ArrayHashTreeADS merge(ArrayHashTreeADS left, ArrayHashTreeADS right) {
+        if (left == null) {
+            return right;
+        } else if (right == null || right.size == 0) {
+            return left;
+        }
+
+        // else...
+
+        if (left.size == 0)
+            left.hashFunction = right.hashFunction; // An empty tree takes the hash function of the blocks
+        else
+            checkHashFunctions(left, right);
+
+        int leftSize = left.size;
+        left.ensureCapacity((long) leftSize + right.size);
+
+        int copiedLevel = copyAlignedLevels(right, 0, left, leftSize, right.size);
+
+        left.size = leftSize + right.size;
+        left.rebuild(leftSize, copiedLevel + 1);
+        left.saveTree();
+
+        return left;
+    }
+
+    /**
+     * Splits the tree. The left part keeps the store, and only its last node of each level is recomputed.
+     * The right part is copied into a new store.
+     */
+    @Override
+    public ArrayHashTreeADS[] split(ArrayHashTreeADS ADS, int index) {
+        if (index == 0) {
+            return new ArrayHashTreeADS[]{null, ADS};
+        } else if (index == ADS.size) {
+            return new ArrayHashTreeADS[]{ADS, null};
+        }
+
+        // else if 0 < index < size ...
+        ArrayHashTreeADS right = new ArrayHashTreeADS(ADS.hashFunction, ADS.store.newStore());
+        int rightSize = ADS.size - index;
+        right.ensureCapacity(rightSize);
+
+        int copiedLevel = copyAlignedLevels(ADS, index, right, 0, rightSize);
+
+        right.size = rightSize;
+        right.rebuild(0, copiedLevel + 1);
+        right.saveTree();
+
+        ADS.size = index;
+        ADS.rebuild(index, 1);
+        ADS.saveTree();
+
+        return new ArrayHashTreeADS[]{ADS, right};
+    }
+
+    /**
+     * Moves the leaves [from, size) by the given distance, which is negative to move them to the left. The leaves
+     * are copied in parts that are not longer than the distance, starting at the end that is moved towards, so that
+     * no part overwrites leaves that still have to be moved.
+     */
+    private void moveLeaves(long from, long distance) {
+        long part = Math.abs(distance);
+
+        if (distance > 0) {
+            for (long end = size; end > from; end -= part) {
+                long start = Math.max(from, end - part);
+                store.copy(store, start, start + distance, end - start);
+            }
+        } else {
+            for (long start = from; start < size; start += part)
+                store.copy(store, start, start + distance, Math.min(part, size - start));
+        }
+    }
+
+    /**
+     * Appends the blocks in place, like insertBlocks at the end
+     * @param blocks the to-be-appended blocks
+     */
+    @Override
+    public void appendBlocks(List<Block> blocks) {
+        insertBlocks(size, blocks);
+    }
+
+    /**
+     * Inserts the blocks in place, in the store of this tree. The leaves after the index are moved, and only the
+     * nodes that cover them are rehashed. Unlike split and merge, this never moves the tree to a new store, so a
+     * persistent store keeps the result.
+     * @param index the location where the new blocks go
+     * @param blocks the to-be-inserted blocks
+     */
+    @Override
+    public void insertBlocks(int index, List<Block> blocks) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if (blocks.isEmpty())
+            return;
+
+        ensureCapacity((long) size + blocks.size());
+        moveLeaves(index, blocks.size());
+
+        for (int i = 0; i < blocks.size(); i++)
+            store.set(index + i, blocks.get(i).hash(hashFunction), 0);
+
+        size += blocks.size();
+        rebuild(index, 1);
+        saveTree();
+    }
+
+    /**
+     * Deletes the blocks in place, like insertBlocks
+     * @param index The position of the first to-be-deleted block
+     * @param length The number of to-be-deleted blocks
+     */
+    @Override
+    public void deleteBlocks(int index, int length) {
+        if (index < 0 || length < 0 || (long) index + length > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + size);
+        if (length == 0)
+            return;
+
+        moveLeaves((long) index + length, -length);
+
+        size -= length;
+        rebuild(index, 1);
+        saveTree();
+    }
+
+    /**
+     * Replaces the hash of the leaf, and rehashes only the path from the leaf to the root
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
+    @Override
+    public void updateBlock(int index, Block block) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+        store.set(index, block.hash(hashFunction), 0);
+
+        long i = index;
+        for (int level = 1; level <= height(size); level++) {
+            i >>= 1;
+            long left = slot(level - 1, 2 * i);
+
+            if (2 * i + 1 < count(size, level - 1))
+                store.hash(hashFunction, left, left + 1, slot(level, i));
+            else
+                store.copy(store, left, slot(level, i), 1);
+        }
+    }
+
+    @Override
+    public HTProof getProof(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+        int height = height(size);
+        HashPath path = new HashPath(hashFunction.getDigestLength(), height);
+
+        // The sibling hashes are read from the store straight into the path
+        long i = index;
+        for (int level = 0; level < height; level++) {
+            long sibling = i ^ 1;
+
+            if (sibling < count(size, level)) {
+                int position = path.add(sibling < i);
+                store.get(slot(level, sibling), path.getHashes(), position);
+            }
+
+            i >>= 1;
+        }
+
+        return new HTProof(path);
+    }
+
+    /**
+     * Builds the multiproof in one pass from the root. The nodes are found by their level and index, and only the
+     * sibling hashes that go into the proof are read from the store.
+     * @param indices the indices of the blocks
+     * @return the multiproof
+     */
+    @Override
+    public MultiProof getProof(int[] indices) {
+        MultiProof.Builder builder = new MultiProof.Builder(indices);
+        builder.checkLeaves(size);
+
+        if (builder.getLeaves().length > 0) {
+            builder.addTree(0);
+            addMultiProofNodes(height(size), 0, 0, builder.getLeaves().length, builder);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Adds the node with the given level and index, which is on the paths of the leaves [from, to) of the builder
+     */
+    private void addMultiProofNodes(int level, long index, int from, int to, MultiProof.Builder builder) {
+        // A node without a right child has the hash of its left child, so it is not part of the proof
+        while (level > 0 && 2 * index + 1 >= count(size, level - 1)) {
+            level--;
+            index *= 2;
+        }
+
+        if (level == 0) {
+            builder.addNode(false, false);
+            return;
+        }
+
+        long left = 2 * index;
+        int split = builder.findLeaf(from, to, (left + 1) << (level - 1));
+
+        builder.addNode(split > from, split < to);
+        if (split == from)
+            builder.addHash(store.get(slot(level - 1, left)));
+        else if (split == to)
+            builder.addHash(store.get(slot(level - 1, left + 1)));
+
+        if (split > from)
+            addMultiProofNodes(level - 1, left, from, split, builder);
+        if (split < to)
+            addMultiProofNodes(level - 1, left + 1, split, to, builder);
+    }
+
+    @Override
+    public HTAuthenticator getAuthenticator() {
+        if (size == 0)
+            throw new IllegalStateException("An empty tree has no authenticator");
+
+        return new HTAuthenticator(store.get(slot(height(size), 0)), size);
+    }
+
+    @Override
+    public boolean verify(Block block, HTProof proof, HTAuthenticator authenticator) {
+        // If the computed root hash equals the check root hash, then this proves that the received block is correct.
+        return Arrays.equals(proof.computeRootHash(block, hashFunction), authenticator.getRootHash());
+    }
+
+    @Override
+    protected boolean hasValidShape(MultiProof proof, HTAuthenticator authenticator) {
+        return proof.hasCompleteTreeShape(authenticator.getSize());
+    }
+
+    @Override
+    protected boolean isRootHash(HTAuthenticator authenticator, int rootIndex, byte[] hash) {
+        return rootIndex == 0 && Arrays.equals(hash, authenticator.getRootHash());
+    }
+}
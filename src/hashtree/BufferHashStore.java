@@ -0,0 +1,84 @@
+package hashtree;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stores the hashes in byte buffers. Like HeapHashStore, large stores are split into pages of PAGE_SLOTS hashes,
+ * and stores that fit in one page use a single buffer of exactly the needed size.
+ * Subclasses decide where the buffers come from.
+ */
+public abstract class BufferHashStore extends HashStore {
+    protected ByteBuffer[] pages = new ByteBuffer[0];
+
+    public BufferHashStore(int digestLength) {
+        super(digestLength);
+    }
+
+    /**
+     * Returns a buffer for the page with the given index
+     * @param index the index of the page
+     * @param bytes the size of the page
+     * @param old the previous, smaller buffer of this page, whose content has to be kept, or null
+     * @return the buffer
+     */
+    protected abstract ByteBuffer allocatePage(int index, int bytes, ByteBuffer old);
+
+    @Override
+    public void ensureCapacity(long slots) {
+        if (slots <= this.slots)
+            return;
+
+        if (slots <= HeapHashStore.PAGE_SLOTS) {
+            pages = new ByteBuffer[]{ allocatePage(0, (int) slots * digestLength, page(0)) };
+            this.slots = slots;
+            return;
+        }
+
+        int pageCount = (int) ((slots + HeapHashStore.PAGE_SLOTS - 1) >>> HeapHashStore.PAGE_SHIFT);
+        int pageBytes = HeapHashStore.PAGE_SLOTS * digestLength;
+        int oldCount = pages.length;
+
+        pages = Arrays.copyOf(pages, pageCount);
+
+        if (oldCount > 0 && page(0).capacity() < pageBytes)
+            pages[0] = allocatePage(0, pageBytes, page(0));
+
+        for (int i = oldCount; i < pageCount; i++)
+            pages[i] = allocatePage(i, pageBytes, null);
+
+        this.slots = (long) pageCount << HeapHashStore.PAGE_SHIFT;
+    }
+
+    /**
+     * Returns the buffer of a page. Subclasses can override this to allocate pages lazily.
+     * @param index the index of the page
+     * @return the buffer, or null if the page does not exist
+     */
+    protected ByteBuffer page(int index) {
+        return index < pages.length ? pages[index] : null;
+    }
+
+    @Override
+    public void get(long slot, byte[] out, int offset) {
+        // A duplicate has its own position, so concurrent reads do not interfere
+        ByteBuffer page = page(pageIndex(slot)).duplicate();
+        page.position(position(slot));
+        page.get(out, offset, digestLength);
+    }
+
+    @Override
+    public void set(long slot, byte[] in, int offset) {
+        ByteBuffer page = page(pageIndex(slot)).duplicate();
+        page.position(position(slot));
+        page.put(in, offset, digestLength);
+    }
+
+    private static int pageIndex(long slot) {
+        return (int) (slot >>> HeapHashStore.PAGE_SHIFT);
+    }
+
+    private int position(long slot) {
+        return (int) (slot & (HeapHashStore.PAGE_SLOTS - 1)) * digestLength;
+    }
+}
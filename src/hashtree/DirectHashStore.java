@@ -0,0 +1,32 @@
+package hashtree;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores the hashes off-heap, in direct byte buffers.
+ * This keeps large trees out of the heap, so they do not add to the garbage collection work.
+ */
+public class DirectHashStore extends BufferHashStore {
+    public DirectHashStore(int digestLength) {
+        super(digestLength);
+    }
+
+    @Override
+    protected ByteBuffer allocatePage(int index, int bytes, ByteBuffer old) {
+        ByteBuffer result = ByteBuffer.allocateDirect(bytes);
+
+        if (old != null) {
+            ByteBuffer source = old.duplicate();
+            source.clear();
+            result.put(source);
+            result.clear();
+        }
+
+        return result;
+    }
+
+    @Override
+    public HashStore newStore() {
+        return new DirectHashStore(digestLength);
+    }
+}
@@ -1,23 +1,34 @@
 package hashtree;
 
 import framework.Authenticator;
+import framework.WireFormat;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * The authenticator value of the hash tree. Consists o
+ * The authenticator value of the hash tree. Consists of the root hash and the number of blocks, which fixes the shape
+ * of the tree.
  */
 public class HTAuthenticator extends Authenticator {
     private final byte[] rootHash;
+    private final int size;
 
-    public HTAuthenticator(byte[] rootHash) {
+    public HTAuthenticator(byte[] rootHash, int size) {
         this.rootHash = rootHash;
+        this.size = size;
     }
 
     public byte[] getRootHash() {
         return rootHash;
     }
 
+    public int getSize() {
+        return size;
+    }
+
     public boolean equals(Authenticator other) {
         HTAuthenticator htOther;
         try {
@@ -26,6 +37,31 @@ public class HTAuthenticator extends Authenticator {
             return false;
         }
 
-        return Arrays.equals(rootHash, htOther.getRootHash());
+        return size == htOther.getSize() && Arrays.equals(rootHash, htOther.getRootHash());
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getHashesLength(Collections.singletonList(rootHash)) + WireFormat.getSizeLength(size);
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodeHashes(WireFormat.HASH_TREE_AUTHENTICATOR, Collections.singletonList(rootHash), buffer);
+        WireFormat.encodeSize(size, buffer);
+    }
+
+    /**
+     * Reads an authenticator that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the authenticator
+     * @return the authenticator
+     */
+    public static HTAuthenticator decode(ByteBuffer buffer) {
+        List<byte[]> hashes = WireFormat.decodeHashes(WireFormat.HASH_TREE_AUTHENTICATOR, buffer);
+
+        if (hashes.size() != 1)
+            throw new IllegalArgumentException("Expected one hash, but got " + hashes.size());
+
+        return new HTAuthenticator(hashes.get(0), WireFormat.decodeSize(buffer));
     }
 }
@@ -1,49 +1,88 @@
 package hashtree;
 
+import framework.Block;
+import framework.HashPath;
+import framework.PathProof;
 import framework.Proof;
-import utils.Utils;
+import framework.WireFormat;
+import utils.HashFunction;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 import static hashtree.Node.Position.LEFT;
 
 /**
  * A hash tree response object
  */
-public class HTProof extends Proof<HashTreeADS> {
+public class HTProof extends Proof<HashTreeADS> implements PathProof {
 
     // Response proof
-    private List<byte[]> siblingHashes;
-    private List<Node.Position> siblingPositions;
+    private HashPath path;
 
     public HTProof(HashTreeADS ADS, int index) {
         super(ADS, index);
 
-        siblingHashes = new ArrayList<>();
-        siblingPositions = new ArrayList<>();
+        // A tree with n leaves has a height of about log2(n), which is enough for every path
+        path = new HashPath(ADS.getDigestLength(), 33 - Integer.numberOfLeadingZeros(ADS.getSize()));
 
-        Node node = ADS.getLeaves().get(index);
+        Node node = ADS.getLeaf(index);
         Node sibling;
 
         while(!ADS.isRoot(node)) {
             sibling = node.getSibling();
 
-            if (sibling != null) {
-                siblingHashes.add(sibling.getHash());
-                siblingPositions.add(sibling.getPosition());
-            }
+            if (sibling != null)
+                path.add(sibling.getHash(), sibling.getPosition() == LEFT);
 
             node = node.getParent();
         }
     }
 
-    public List<byte[]> getSiblingHashes() {
-        return siblingHashes;
+    /**
+     * Used by ArrayHashTreeADS, which has the same shape as HashTreeADS, and therefore the same proofs
+     */
+    HTProof(HashPath path) {
+        super(null, 0);
+
+        this.path = path;
+    }
+
+    /**
+     * Computes the root hash from the block, by hashing it with the sibling hashes from bottom to top
+     * @param block the block that is proven
+     * @param hashFunction the hash function of the tree
+     * @return the root hash
+     */
+    byte[] computeRootHash(Block block, HashFunction hashFunction) {
+        return path.computeRoot(block.hash(hashFunction), hashFunction);
+    }
+
+    @Override
+    public HashPath getPath() {
+        return path;
+    }
+
+    @Override
+    public int getRootIndex() {
+        return 0;
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getPathLength(this);
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodePath(WireFormat.HASH_TREE_PROOF, this, buffer);
     }
 
-    public List<Node.Position> getSiblingPositions() {
-        return siblingPositions;
+    /**
+     * Reads a proof that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the proof
+     * @return the proof
+     */
+    public static HTProof decode(ByteBuffer buffer) {
+        return new HTProof(WireFormat.decodePath(WireFormat.HASH_TREE_PROOF, buffer).getPath());
     }
 }
@@ -0,0 +1,123 @@
+package hashtree;
+
+import utils.HashFunction;
+
+/**
+ * Stores hashes of a fixed length in numbered slots. Used by ArrayHashTreeADS, such that the hashes of a tree are kept
+ * in a few large arrays or buffers, instead of in one object per node.
+ */
+public abstract class HashStore {
+    protected final int digestLength;
+    protected long slots;
+
+    public HashStore(int digestLength) {
+        this.digestLength = digestLength;
+    }
+
+    public int getDigestLength() {
+        return digestLength;
+    }
+
+    /**
+     * @return the number of slots that can currently be used
+     */
+    public long getSlots() {
+        return slots;
+    }
+
+    /**
+     * Records the state of the tree that uses this store. Persistent stores save it, so that the tree can be
+     * reopened without rehashing. Other stores ignore it.
+     * @param hashFunctionName the name of the hash function of the tree
+     * @param size the number of leaves
+     * @param capacity the leaf capacity of the layout
+     */
+    public void setTree(String hashFunctionName, long size, long capacity) {
+    }
+
+    /**
+     * @return the number of leaves of the tree that is saved in this store, or 0 if there is none
+     */
+    public long getTreeSize() {
+        return 0;
+    }
+
+    /**
+     * @return the leaf capacity of the tree that is saved in this store, or 0 if there is none
+     */
+    public long getTreeCapacity() {
+        return 0;
+    }
+
+    /**
+     * @return the name of the hash function of the tree that is saved in this store, or null if there is none
+     */
+    public String getHashFunctionName() {
+        return null;
+    }
+
+    /**
+     * Makes sure that the store has at least the given number of slots, while keeping the current content
+     * @param slots the required number of slots
+     */
+    public abstract void ensureCapacity(long slots);
+
+    /**
+     * Copies the hash in the given slot into out
+     * @param slot the slot of the hash
+     * @param out the buffer the hash is written to
+     * @param offset the position in out where the hash starts
+     */
+    public abstract void get(long slot, byte[] out, int offset);
+
+    public byte[] get(long slot) {
+        byte[] result = new byte[digestLength];
+        get(slot, result, 0);
+        return result;
+    }
+
+    /**
+     * Stores a hash in the given slot
+     * @param slot the slot of the hash
+     * @param in the buffer containing the hash
+     * @param offset the position in the buffer where the hash starts
+     */
+    public abstract void set(long slot, byte[] in, int offset);
+
+    /**
+     * Creates a new, empty store of the same kind
+     * @return the new store
+     */
+    public abstract HashStore newStore();
+
+    /**
+     * Copies a range of hashes from src into this store
+     * @param src the store that is copied from, which may be this store
+     * @param srcSlot the first slot in src
+     * @param dstSlot the first slot in this store
+     * @param count the number of hashes
+     */
+    public void copy(HashStore src, long srcSlot, long dstSlot, long count) {
+        byte[] hash = new byte[digestLength];
+
+        for (long i = 0; i < count; i++) {
+            src.get(srcSlot + i, hash, 0);
+            set(dstSlot + i, hash, 0);
+        }
+    }
+
+    /**
+     * Hashes the concatenation of the hashes in two slots, and stores the result in a third slot
+     * @param hashFunction the hash function
+     * @param leftSlot the slot of the left input
+     * @param rightSlot the slot of the right input
+     * @param outSlot the slot the result is written to
+     */
+    public void hash(HashFunction hashFunction, long leftSlot, long rightSlot, long outSlot) {
+        byte[] buffer = new byte[2 * digestLength];
+        get(leftSlot, buffer, 0);
+        get(rightSlot, buffer, digestLength);
+        hashFunction.hash(buffer, 0, digestLength, buffer, 0);
+        set(outSlot, buffer, 0);
+    }
+}
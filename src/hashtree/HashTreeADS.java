@@ -2,64 +2,146 @@ package hashtree;
 
 import framework.ADS;
 import framework.Block;
+import framework.MultiProof;
 import hashtree.Node.Position;
-import utils.Utils;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Parallelism;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
-import static hashtree.Node.Position.LEFT;
-
 /**
  * Hash tree ADS. In the constructor, the ADS is built from the original data,
  * setting the leaves, and building the tree from bottom to top all the way to the root.
+ *
+ * The tree does not keep a list of its leaves. Every node knows the number of leaves below it, so a leaf is found by
+ * descending from the root, and split and merge do not have to copy a list.
  */
 public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
-    private List<Node> leaves;
     private Node root;
 
     public HashTreeADS() { // used in split
     }
 
+    public HashTreeADS(HashFunction hashFunction) {
+        super(hashFunction);
+    }
+
     public HashTreeADS(List<Block> blocks) {
-        leaves = createLeaves(blocks);
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public HashTreeADS(List<Block> blocks, HashFunction hashFunction) {
+        super(hashFunction);
+
+        buildTree(createLeaves(blocks, hashFunction));
+    }
+
+    /**
+     * Builds the tree in parallel. The leaves, and every level with more nodes than the threshold of the
+     * parallelism, are hashed in parallel. The tree is identical to the one that is built sequentially.
+     * @param blocks the blocks
+     * @param hashFunction the hash function
+     * @param parallelism the pool and threshold that are used
+     */
+    public HashTreeADS(List<Block> blocks, HashFunction hashFunction, Parallelism parallelism) {
+        super(hashFunction);
 
-        buildTree();
+        buildTree(createLeaves(blocks, hashFunction, parallelism), parallelism);
     }
 
     // usesLeaves is used to distinguish this constructor from HashTreeADS(List<Block)
     public HashTreeADS(List<Node> leaves, boolean usesLeaves) {
-        this.leaves = leaves;
+        this(leaves, usesLeaves, HashFunctions.getDefault());
+    }
+
+    public HashTreeADS(List<Node> leaves, boolean usesLeaves, HashFunction hashFunction) {
+        super(hashFunction);
 
-        buildTree();
+        buildTree(leaves);
     }
 
     @Override
     public HashTreeADS create(List<Block> blocks) {
-        return new HashTreeADS(blocks);
+        return new HashTreeADS(blocks, hashFunction);
     }
 
     /**
      * Creates a list of leaves from a list of blocks. Used by the constructor.
      * @param blocks list of blocks
+     * @param hashFunction the hash function used for hashing the blocks
      * @return list of leaves
      */
-    private static List<Node> createLeaves(List<Block> blocks) {
+    private static List<Node> createLeaves(List<Block> blocks, HashFunction hashFunction) {
         List<Node> leaves = new ArrayList<>();
 
         for (Block block : blocks) {
-            LeafNode node = new LeafNode(block);
+            LeafNode node = new LeafNode(block, hashFunction);
             leaves.add(node);
         }
 
         return leaves;
     }
 
+    /**
+     * Creates the leaves in parallel
+     */
+    private static List<Node> createLeaves(final List<Block> blocks, final HashFunction hashFunction,
+                                           Parallelism parallelism) {
+        final Node[] leaves = new Node[blocks.size()];
+
+        parallelism.forRange(0, leaves.length, new Parallelism.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++)
+                    leaves[i] = new LeafNode(blocks.get(i), hashFunction);
+            }
+        });
+
+        return new ArrayList<>(Arrays.asList(leaves));
+    }
+
+    /**
+     * Builds the tree level by level, like buildTree(), but creates the parents of each level in parallel.
+     * Every parent only sets the parent of its own children, so the parts do not interfere.
+     */
+    private void buildTree(List<Node> leaves, Parallelism parallelism) {
+        List<Node> nodes = leaves;
+
+        while (nodes.size() >= 2) {
+            final List<Node> children = nodes;
+            final Node[] parents = new Node[(children.size() + 1) / 2];
+
+            parallelism.forRange(0, parents.length, new Parallelism.RangeTask() {
+                @Override
+                public void run(int from, int to) {
+                    for (int j = from; j < to; j++) {
+                        Node left = children.get(2 * j);
+
+                        Node right = null;
+                        if (2 * j + 1 < children.size()) // If there still exists a right child
+                            right = children.get(2 * j + 1);
+
+                        parents[j] = new NonLeafNode(left, right, hashFunction);
+                    }
+                }
+            });
+
+            nodes = Arrays.asList(parents);
+        }
+
+        if (nodes.size() == 1)
+            root = nodes.get(0);
+    }
+
     /**
      * Builds the tree from the leaves to the top, setting the root node and its children
+     * @param leaves the leaves, from left to right
      */
-    private void buildTree() {
+    private void buildTree(List<Node> leaves) {
         // Create a 2D list, with the leaves in the 1st element, and an empty list in the 2nd.
         // This will be used for storing and referencing the nodes from bottom to top in the tree
         List<List<Node>> nodes = new ArrayList<>(2);
@@ -82,7 +164,7 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
                 if (nodes.get(i).size() != j+1) // If there still exists a right child
                     right = nodes.get(i).get(j + 1); // Get the right child node
 
-                parent = new NonLeafNode(left, right); // Create the parent node
+                parent = new NonLeafNode(left, right, hashFunction); // Create the parent node
                 nodes.get(1-i).add(parent); // Add the parent to the other list
             }
 
@@ -98,38 +180,104 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
         }
     }
 
+    /**
+     * Collects the leaves, from left to right. As the tree does not keep a list of them, this takes O(n) time.
+     * @return the leaves
+     */
     public List<Node> getLeaves() {
+        List<Node> leaves = new ArrayList<>(getSize());
+
+        if (root != null)
+            addLeaves(root, 0, leaves);
+
         return leaves;
     }
 
+    /**
+     * Adds the leaves below the node, from the given index onwards
+     */
+    private static void addLeaves(Node node, int from, List<Node> result) {
+        if (node instanceof LeafNode) {
+            result.add(node);
+            return;
+        }
+
+        NonLeafNode nonLeafNode = (NonLeafNode) node;
+        Node left = nonLeafNode.getLeft();
+
+        if (from < left.getSize())
+            addLeaves(left, from, result);
+
+        if (nonLeafNode.getRight() != null)
+            addLeaves(nonLeafNode.getRight(), Math.max(0, from - left.getSize()), result);
+    }
+
+    /**
+     * Finds a leaf by descending from the root, using the number of leaves below each node
+     * @param index the index of the leaf
+     * @return the leaf
+     */
+    public Node getLeaf(int index) {
+        if (index < 0 || index >= getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        Node node = root;
+
+        while (node instanceof NonLeafNode) {
+            NonLeafNode nonLeafNode = (NonLeafNode) node;
+            Node left = nonLeafNode.getLeft();
+
+            if (index < left.getSize()) {
+                node = left;
+            } else {
+                index -= left.getSize();
+                node = nonLeafNode.getRight();
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * @return the number of leaves
+     */
+    public int getSize() {
+        return root == null ? 0 : root.getSize();
+    }
+
     public Node getRoot() {
         return root;
     }
 
-    private void rebuildTree(int index, List<Node> nonChangingNodes) {
-        // Create a 2D list, with the leaves in the 1st element, and an empty list in the 2nd.
+    /**
+     * Builds the tree on top of the left tree's non changing nodes and the appended nodes, from the given level up
+     * @param appendedNodes the nodes of the appended part at startLevel, from left to right
+     * @param startLevel the level of the appended nodes, which is the level of the lowest non changing node
+     * @param nonChangingNodes the non changing nodes of the left tree, in increasing level
+     */
+    private void rebuildTree(List<Node> appendedNodes, int startLevel, List<Node> nonChangingNodes) {
+        // Create a 2D list, with the nodes at startLevel in the 1st element, and an empty list in the 2nd.
         // This will be used for storing and referencing the nodes from bottom to top in the tree
         List<List<Node>> nodes = new ArrayList<>(2);
 
-        List<Node> leaves = new ArrayList<>();
+        List<Node> startNodes = new ArrayList<>();
 
         int ncn_index = 0; // non changing nodes index
-        if (nonChangingNodes.size() > 0 && nonChangingNodes.get(0).getLevel() == 0) {
-            leaves.add(nonChangingNodes.get(0));
+        if (nonChangingNodes.size() > 0 && nonChangingNodes.get(0).getLevel() == startLevel) {
+            startNodes.add(nonChangingNodes.get(0));
             ncn_index++;
         }
 
-        // Add all leaves at the right of index
-        leaves.addAll(new ArrayList<>(this.leaves.subList(index, this.leaves.size())));
+        startNodes.addAll(appendedNodes);
 
-        nodes.add(leaves);
+        nodes.add(startNodes);
         nodes.add(new ArrayList<Node>());
 
         // Used for switching between the 2 lists of nodes. Every iteration, one list is emptied, and filled with the
         // parents of the nodes in the other list.
         int i = 0;
 
-        int level = 0;
+        int level = startLevel;
 
         // While we haven't reached the root yet
         while (nodes.get(i).size() >= 2 || ncn_index < nonChangingNodes.size()) {
@@ -142,7 +290,7 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
                 if (nodes.get(i).size() != j+1) // If there still exists a right child
                     right = nodes.get(i).get(j + 1); // Get the right child node
 
-                NonLeafNode parent = new NonLeafNode(left, right); // Create the parent node
+                NonLeafNode parent = new NonLeafNode(left, right, hashFunction); // Create the parent node
                 nodes.get(1-i).add(parent); // Add the parent to the other list
             }
 
@@ -162,17 +310,18 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
 
     private List<Node> getNonChangingNodesAppend() {
         List<Node> result = new ArrayList<>();
+        int size = getSize();
 
-        if (leaves.size() == 0)
+        if (size == 0)
             return result;
-        else if (leaves.size() == 1) {
-            result.add(leaves.get(0));
+        else if (size == 1) {
+            result.add(root);
             return result;
         }
 
         // else...
 
-        Node node = leaves.get(leaves.size() - 1);
+        Node node = getLeaf(size - 1);
 
         boolean found = false;
         Node prev = null;
@@ -193,7 +342,7 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
         }
 
         // Check if the tree is going to get a new root. This happens when the size before appending is a power of 2
-        if (isPowerOfTwo(leaves.size()))
+        if (isPowerOfTwo(size))
             result.add(root);
 
         return result;
@@ -205,7 +354,7 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
 
     @Override
     public void setThis(HashTreeADS ADS) {
-        this.leaves = ADS.leaves;
+        this.hashFunction = ADS.hashFunction;
         this.root = ADS.root;
     }
 
@@ -219,32 +368,97 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
 
         // else...
 
-        List<Node> nonChangingNodes = left.getNonChangingNodesAppend();
+        checkHashFunctions(left, right);
 
-        List<Node> rightLeaves = right.getLeaves();
+        if (left.root == null)
+            return right;
+        else if (right.root == null)
+            return left;
+
+        List<Node> nonChangingNodes = left.getNonChangingNodesAppend();
 
-        for (Node leaf : rightLeaves) // Remove tree traces from old structure
-            leaf.setParent(null);
+        // The left tree consists of perfect subtrees (the non changing nodes), of which the lowest has the level of
+        // the number of trailing zeros of the left size. Up to that level, the subtrees of the right tree start at
+        // multiples of their size in the merged tree as well, so they can be reused. Only the nodes above them are
+        // created and hashed.
+        int level = nonChangingNodes.get(0).getLevel();
+        List<Node> appendedNodes = right.getNodesAtLevel(level);
 
-        int index = left.leaves.size();
-        left.leaves.addAll(rightLeaves);
+        for (Node node : appendedNodes) // Remove tree traces from old structure
+            node.setParent(null);
 
-        left.rebuildTree(index, nonChangingNodes);
+        left.rebuildTree(appendedNodes, level, nonChangingNodes);
 
         return left;
     }
 
+    /**
+     * Returns the nodes at the given level, from left to right. If the tree is lower than the level, its root is
+     * raised to the level with single child parents, which have the same hash.
+     * @param level the level
+     * @return the nodes at the level
+     */
+    private List<Node> getNodesAtLevel(int level) {
+        List<Node> result = new ArrayList<>();
+
+        if (root.getLevel() >= level) {
+            addNodesAtLevel(root, level, 0, result);
+        } else {
+            Node node = root;
+            while (node.getLevel() < level)
+                node = new NonLeafNode(node, null, hashFunction);
+
+            result.add(node);
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds the nodes at the given level below the node, of which the leaves start at the given index or later.
+     * The index should be a multiple of the number of leaves of a perfect subtree at the level.
+     */
+    private static void addNodesAtLevel(Node node, int level, int from, List<Node> result) {
+        if (node.getLevel() == level) {
+            result.add(node);
+            return;
+        }
+
+        NonLeafNode nonLeafNode = (NonLeafNode) node;
+        Node left = nonLeafNode.getLeft();
+
+        if (from < left.getSize())
+            addNodesAtLevel(left, level, from, result);
+
+        if (nonLeafNode.getRight() != null)
+            addNodesAtLevel(nonLeafNode.getRight(), level, Math.max(0, from - left.getSize()), result);
+    }
+
+    /**
+     * Cuts the tree between the two leaves. The left tree keeps its nodes, and only the path along the cut is
+     * rehashed. The leaves of the right tree move index places to the left, so a subtree of it can only be reused if
+     * index is a multiple of its number of leaves. The subtrees at the level of the trailing zeros of index are
+     * reused, and only the nodes above them are created and hashed. For an odd index, these are the leaves, so the
+     * right tree then costs O(n - index) hashes.
+     */
     @Override
     public HashTreeADS[] split(HashTreeADS ADS, int index) {
         if (index == 0) {
             return new HashTreeADS[]{null, ADS};
-        } else if (index == ADS.leaves.size()) {
+        } else if (index == ADS.getSize()) {
             return new HashTreeADS[]{ADS, null};
         }
 
-        // else if 0 < index < leaves.size ...
-        Node leftNode = ADS.leaves.get(index-1);
-        Node rightNode = ADS.leaves.get(index);
+        // else if 0 < index < size ...
+        Node leftNode = ADS.getLeaf(index-1);
+        Node rightNode = ADS.getLeaf(index);
+
+        // Look up the nodes that are needed below, before the tree is cut
+        Node leftMost = ADS.getLeaf(0);
+        Node rightMost = leftNode;
+        int level = Integer.numberOfTrailingZeros(index);
+        List<Node> rightNodes = new ArrayList<>();
+        addNodesAtLevel(ADS.root, level, index, rightNodes);
 
         while (leftNode != rightNode) {
             leftNode = leftNode.getParent();
@@ -253,7 +467,7 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
 
         NonLeafNode node = (NonLeafNode) leftNode;
         node.setRight(null);
-        node.resetHash();
+        node.resetHash(ADS.hashFunction);
 
         while (node.getParent() != null) {
             NonLeafNode parent = node.getParent();
@@ -261,15 +475,12 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
                 parent.setRight(null);
 
             }
-            parent.resetHash();
+            parent.resetHash(ADS.hashFunction);
             node = parent;
         }
 
         // Set the new lowest root that all left leaves are under
         // Remember that node is now set at root, due to previous loop
-        Node leftMost = ADS.leaves.get(0);
-        Node rightMost = ADS.leaves.get(index-1);
-
         while (leftMost != rightMost) {
             leftMost = leftMost.getParent();
             rightMost = rightMost.getParent();
@@ -278,53 +489,179 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
         ADS.root = leftMost;
 
         if (ADS.root instanceof NonLeafNode)
-            ((NonLeafNode)ADS.root).resetHash();
+            ((NonLeafNode)ADS.root).resetHash(ADS.hashFunction);
 
         ADS.root.setParent(null);
 
-        List<Node> leftLeaves = new ArrayList<>(ADS.leaves.subList(0, index));
-        List<Node> rightLeaves = new ArrayList<>(ADS.leaves.subList(index, ADS.leaves.size()));
+        for (Node subtree : rightNodes)
+            subtree.setParent(null);
 
-        for (Node leaf : rightLeaves)
-            leaf.setParent(null);
-
-        HashTreeADS left = new HashTreeADS();
-        left.leaves = leftLeaves;
+        HashTreeADS left = new HashTreeADS(ADS.hashFunction);
         left.root = ADS.root;
 
-        HashTreeADS right = new HashTreeADS(rightLeaves, true);
+        HashTreeADS right = new HashTreeADS(ADS.hashFunction);
+        right.rebuildTree(rightNodes, level, new ArrayList<Node>());
+
+        // The last subtree can have single child nodes on top, which a tree built from its leaves would not have
+        while (right.root instanceof NonLeafNode && ((NonLeafNode) right.root).getRight() == null)
+            right.root = ((NonLeafNode) right.root).getLeft();
+
+        right.root.setParent(null);
 
         return new HashTreeADS[]{left, right};
     }
 
+    /**
+     * Inserts the blocks in one pass. The perfect subtrees left of the index stay as they are, and the tree is rebuilt
+     * on top of them from the new leaves and the leaves right of the index. Those leaves move, so the nodes above them
+     * have to be rehashed anyway, but unlike split and merge, this rehashes each of them only once.
+     * @param index the location where the new blocks go
+     * @param blocks the to-be-inserted blocks
+     */
+    @Override
+    public void insertBlocks(int index, List<Block> blocks) {
+        if (index < 0 || index > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        replaceLeaves(index, createLeaves(blocks, hashFunction), index);
+    }
+
+    /**
+     * Deletes the blocks in one pass, like insertBlocks
+     * @param index The position of the first to-be-deleted block
+     * @param length The number of to-be-deleted blocks
+     */
+    @Override
+    public void deleteBlocks(int index, int length) {
+        if (index < 0 || length < 0 || index + length > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + getSize());
+
+        if (length > 0)
+            replaceLeaves(index, new ArrayList<Node>(), index + length);
+    }
+
+    /**
+     * Replaces the leaves from index up to end by the given leaves
+     * @param index the index of the first replaced leaf
+     * @param leaves the new leaves, to which the leaves from end onwards are added
+     * @param end the index of the first leaf that is kept after the replaced leaves
+     */
+    private void replaceLeaves(int index, List<Node> leaves, int end) {
+        List<Node> prefixNodes = new ArrayList<>();
+        if (index > 0)
+            addPrefixNodes(root, index, prefixNodes);
+
+        if (end < getSize())
+            addLeaves(root, end, leaves);
+
+        if (prefixNodes.isEmpty() && leaves.isEmpty()) {
+            root = null;
+            return;
+        }
+
+        Collections.reverse(prefixNodes); // rebuildTree expects them in increasing level
+        rebuildTree(leaves, 0, prefixNodes);
+        root.setParent(null);
+    }
+
+    /**
+     * Adds the perfect subtrees that together contain the first count leaves, from left to right. These subtrees
+     * stay the same when the leaves after them change.
+     */
+    private static void addPrefixNodes(Node node, int count, List<Node> result) {
+        if (count == node.getSize() && node.getSize() == 1 << node.getLevel()) {
+            result.add(node);
+            return;
+        }
+
+        NonLeafNode nonLeafNode = (NonLeafNode) node;
+        Node left = nonLeafNode.getLeft();
+
+        if (count <= left.getSize()) {
+            addPrefixNodes(left, count, result);
+        } else {
+            result.add(left); // The left child of a node with two children is perfect
+            addPrefixNodes(nonLeafNode.getRight(), count - left.getSize(), result);
+        }
+    }
+
+    /**
+     * Replaces the hash of the leaf, and rehashes only the path from the leaf to the root
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
+    @Override
+    public void updateBlock(int index, Block block) {
+        Node node = getLeaf(index);
+        node.setHash(block.hash(hashFunction));
+
+        while (node.getParent() != null) {
+            node = node.getParent();
+            ((NonLeafNode) node).resetHash(hashFunction);
+        }
+    }
+
     @Override
     public HTProof getProof(int index) {
         return new HTProof(this, index);
     }
 
+    /**
+     * Builds the multiproof in one pass from the root, following the sizes of the subtrees to the blocks
+     * @param indices the indices of the blocks
+     * @return the multiproof
+     */
+    @Override
+    public MultiProof getProof(int[] indices) {
+        MultiProof.Builder builder = new MultiProof.Builder(indices);
+        builder.checkLeaves(getSize());
+
+        if (builder.getLeaves().length > 0) {
+            builder.addTree(0);
+            addMultiProofNodes(root, 0, 0, builder.getLeaves().length, builder);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Adds the node, of which the first leaf has the given index, and which is on the paths of the leaves
+     * [from, to) of the builder
+     */
+    private static void addMultiProofNodes(Node node, int offset, int from, int to, MultiProof.Builder builder) {
+        // A node without a right child has the hash of its left child, so it is not part of the proof
+        while (node instanceof NonLeafNode && ((NonLeafNode) node).getRight() == null)
+            node = ((NonLeafNode) node).getLeft();
+
+        if (!(node instanceof NonLeafNode)) {
+            builder.addNode(false, false);
+            return;
+        }
+
+        Node left = ((NonLeafNode) node).getLeft();
+        Node right = ((NonLeafNode) node).getRight();
+        int split = builder.findLeaf(from, to, offset + left.getSize());
+
+        builder.addNode(split > from, split < to);
+        if (split == from)
+            builder.addHash(left.getHash());
+        else if (split == to)
+            builder.addHash(right.getHash());
+
+        if (split > from)
+            addMultiProofNodes(left, offset, from, split, builder);
+        if (split < to)
+            addMultiProofNodes(right, offset + left.getSize(), split, to, builder);
+    }
+
     @Override
     public HTAuthenticator getAuthenticator() {
-        return new HTAuthenticator(root.getHash());
+        return new HTAuthenticator(root.getHash(), root.getSize());
     }
 
     @Override
     public boolean verify(Block block, HTProof proof, HTAuthenticator authenticator) {
-        byte[] rootHash = block.hash();
-        byte[] siblingHash;
-
-        // For each hash in the sibling list
-        for (int i = 0; i < proof.getSiblingHashes().size(); i++) {
-            // Get the sibling hash
-            siblingHash = proof.getSiblingHashes().get(i);
-
-            // Check how the nodes are positioned relative to each other, to correctly compute the root hash.
-            // Then, concatenate their hashes accordingly.
-            if (proof.getSiblingPositions().get(i) == LEFT) {
-                rootHash = Utils.hash(siblingHash, rootHash);
-            } else {
-                rootHash = Utils.hash(rootHash, siblingHash);
-            }
-        }
+        byte[] rootHash = proof.computeRootHash(block, hashFunction);
 
         if (!Arrays.equals(rootHash, authenticator.getRootHash()))
             System.out.println("debug");
@@ -341,4 +678,14 @@ public class HashTreeADS extends ADS<HashTreeADS, HTProof, HTAuthenticator> {
     public boolean isRoot(Node node) {
         return node == root;
     }
+
+    @Override
+    protected boolean hasValidShape(MultiProof proof, HTAuthenticator authenticator) {
+        return proof.hasCompleteTreeShape(authenticator.getSize());
+    }
+
+    @Override
+    protected boolean isRootHash(HTAuthenticator authenticator, int rootIndex, byte[] hash) {
+        return rootIndex == 0 && Arrays.equals(hash, authenticator.getRootHash());
+    }
 }
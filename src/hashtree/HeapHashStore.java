@@ -0,0 +1,111 @@
+package hashtree;
+
+import utils.HashFunction;
+
+import java.util.Arrays;
+
+/**
+ * Stores the hashes on the heap. A single byte[] cannot hold more than 2^31 bytes, so large stores are split into
+ * pages of PAGE_SLOTS hashes. Stores that fit in one page use a single array of exactly the needed size.
+ */
+public class HeapHashStore extends HashStore {
+    // A power of 2, so that two sibling slots (an even slot and the next one) are always in the same page
+    static final int PAGE_SHIFT = 16;
+    static final int PAGE_SLOTS = 1 << PAGE_SHIFT;
+
+    private byte[][] pages = new byte[0][];
+
+    public HeapHashStore(int digestLength) {
+        super(digestLength);
+    }
+
+    @Override
+    public void ensureCapacity(long slots) {
+        if (slots <= this.slots)
+            return;
+
+        if (slots <= PAGE_SLOTS) {
+            pages = new byte[][]{ resize(pages.length == 0 ? null : pages[0], (int) slots * digestLength) };
+            this.slots = slots;
+            return;
+        }
+
+        int pageCount = (int) ((slots + PAGE_SLOTS - 1) >>> PAGE_SHIFT);
+        int pageBytes = PAGE_SLOTS * digestLength;
+        int oldCount = pages.length;
+
+        pages = Arrays.copyOf(pages, pageCount);
+
+        if (oldCount > 0 && pages[0].length < pageBytes)
+            pages[0] = resize(pages[0], pageBytes);
+
+        for (int i = oldCount; i < pageCount; i++)
+            pages[i] = new byte[pageBytes];
+
+        this.slots = (long) pageCount << PAGE_SHIFT;
+    }
+
+    private static byte[] resize(byte[] page, int length) {
+        if (page == null)
+            return new byte[length];
+        return Arrays.copyOf(page, length);
+    }
+
+    @Override
+    public void get(long slot, byte[] out, int offset) {
+        System.arraycopy(pages[page(slot)], position(slot), out, offset, digestLength);
+    }
+
+    @Override
+    public void set(long slot, byte[] in, int offset) {
+        System.arraycopy(in, offset, pages[page(slot)], position(slot), digestLength);
+    }
+
+    @Override
+    public HashStore newStore() {
+        return new HeapHashStore(digestLength);
+    }
+
+    @Override
+    public void copy(HashStore src, long srcSlot, long dstSlot, long count) {
+        if (!(src instanceof HeapHashStore)) {
+            super.copy(src, srcSlot, dstSlot, count);
+            return;
+        }
+
+        byte[][] srcPages = ((HeapHashStore) src).pages;
+
+        // Copy the largest range that does not cross a page boundary of either store
+        while (count > 0) {
+            long length = Math.min(count, Math.min(PAGE_SLOTS - (srcSlot & (PAGE_SLOTS - 1)),
+                    PAGE_SLOTS - (dstSlot & (PAGE_SLOTS - 1))));
+
+            System.arraycopy(srcPages[page(srcSlot)], position(srcSlot), pages[page(dstSlot)], position(dstSlot),
+                    (int) length * digestLength);
+
+            srcSlot += length;
+            dstSlot += length;
+            count -= length;
+        }
+    }
+
+    @Override
+    public void hash(HashFunction hashFunction, long leftSlot, long rightSlot, long outSlot) {
+        if (page(leftSlot) != page(rightSlot)) {
+            super.hash(hashFunction, leftSlot, rightSlot, outSlot);
+            return;
+        }
+
+        // Hash straight from and into the pages, without copying
+        hashFunction.hash(pages[page(leftSlot)], position(leftSlot), position(rightSlot),
+                pages[page(outSlot)], position(outSlot));
+    }
+
+    private static int page(long slot) {
+        return (int) (slot >>> PAGE_SHIFT);
+    }
+
+    private int position(long slot) {
+        return (int) (slot & (PAGE_SLOTS - 1)) * digestLength;
+    }
+}
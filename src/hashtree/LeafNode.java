@@ -1,6 +1,7 @@
 package hashtree;
 
 import framework.Block;
+import utils.HashFunction;
 
 /**
  * A leaf node keeps a reference to its block. This is convenient for rehashing.
@@ -9,5 +10,12 @@ public class LeafNode extends Node {
     public LeafNode(Block block) {
         hash = block.hash();
         level = 0;
+        size = 1;
+    }
+
+    public LeafNode(Block block, HashFunction hashFunction) {
+        hash = block.hash(hashFunction);
+        level = 0;
+        size = 1;
     }
 }
@@ -0,0 +1,173 @@
+package hashtree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores the hashes in a memory-mapped file, so that a tree survives a restart of the process.
+ *
+ * The file starts with a header of HEADER_BYTES, containing the digest length, the hash function, and the size and
+ * capacity of the tree. The slots follow, in pages of PAGE_SLOTS hashes. Reopening a file only reads the header,
+ * and the pages are mapped lazily when they are first used, so no hash has to be recomputed.
+ *
+ * Changes are written to the file by the operating system. Call force() to make sure that they are on disk.
+ */
+public class MappedHashStore extends BufferHashStore implements Closeable {
+    public static final int HEADER_BYTES = 4096;
+
+    private static final int MAGIC = 0x41445354; // "ADST"
+    private static final int VERSION = 1;
+    private static final int MAX_NAME_BYTES = 256;
+
+    // Header positions
+    private static final int DIGEST_LENGTH_POSITION = 8;
+    private static final int SIZE_POSITION = 12;
+    private static final int CAPACITY_POSITION = 20;
+    private static final int NAME_POSITION = 28;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+
+    /**
+     * Opens the store in the given file. If the file already contains a tree, the tree is reopened.
+     * Otherwise, a new empty store is created.
+     * @param file the file
+     * @param digestLength the length of the hashes
+     * @throws IOException if the file cannot be opened, or contains a store with another digest length
+     */
+    public MappedHashStore(Path file, int digestLength) throws IOException {
+        super(digestLength);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        boolean exists = channel.size() >= HEADER_BYTES;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+        if (exists) {
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+                throw new IOException("Not a hash store: " + file);
+            if (header.getInt(DIGEST_LENGTH_POSITION) != digestLength)
+                throw new IOException("The store has a digest length of " + header.getInt(DIGEST_LENGTH_POSITION));
+
+            // Only register the pages. They are mapped when they are used.
+            long slots = 2 * getTreeCapacity();
+            if (slots > HeapHashStore.PAGE_SLOTS) {
+                pages = new ByteBuffer[(int) ((slots + HeapHashStore.PAGE_SLOTS - 1) >>> HeapHashStore.PAGE_SHIFT)];
+                this.slots = (long) pages.length << HeapHashStore.PAGE_SHIFT;
+            } else if (slots > 0) {
+                pages = new ByteBuffer[1];
+                this.slots = slots;
+            }
+        } else {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(DIGEST_LENGTH_POSITION, digestLength);
+            setTree(null, 0, 0);
+        }
+    }
+
+    @Override
+    protected ByteBuffer allocatePage(int index, int bytes, ByteBuffer old) {
+        // The file already contains the content of the old page, so a larger mapping of it is enough
+        return map(index, bytes);
+    }
+
+    @Override
+    protected ByteBuffer page(int index) {
+        if (index >= pages.length)
+            return null;
+
+        if (pages[index] == null) {
+            int pageSlots = (int) Math.min(slots, HeapHashStore.PAGE_SLOTS);
+            pages[index] = map(index, pageSlots * digestLength);
+        }
+
+        return pages[index];
+    }
+
+    private ByteBuffer map(int index, int bytes) {
+        long position = HEADER_BYTES + ((long) index << HeapHashStore.PAGE_SHIFT) * digestLength;
+
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not map page " + index + " of the hash store", e);
+        }
+    }
+
+    /**
+     * A mapped store is meant for the persistent tree. Temporary trees, like the right part of a split,
+     * are kept in a DirectHashStore instead of in new files.
+     * @return a new direct store
+     */
+    @Override
+    public HashStore newStore() {
+        return new DirectHashStore(digestLength);
+    }
+
+    @Override
+    public void setTree(String hashFunctionName, long size, long capacity) {
+        header.putLong(SIZE_POSITION, size);
+        header.putLong(CAPACITY_POSITION, capacity);
+
+        byte[] name = hashFunctionName == null ? new byte[0] : hashFunctionName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES)
+            throw new IllegalArgumentException("The name of the hash function is too long: " + hashFunctionName);
+
+        header.putInt(NAME_POSITION, name.length);
+        for (int i = 0; i < name.length; i++)
+            header.put(NAME_POSITION + 4 + i, name[i]);
+    }
+
+    @Override
+    public long getTreeSize() {
+        return header.getLong(SIZE_POSITION);
+    }
+
+    @Override
+    public long getTreeCapacity() {
+        return header.getLong(CAPACITY_POSITION);
+    }
+
+    @Override
+    public String getHashFunctionName() {
+        int length = header.getInt(NAME_POSITION);
+        if (length == 0)
+            return null;
+
+        byte[] name = new byte[length];
+        for (int i = 0; i < length; i++)
+            name[i] = header.get(NAME_POSITION + 4 + i);
+
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes all changes to the storage device
+     */
+    public void force() {
+        for (ByteBuffer page : pages) {
+            if (page != null)
+                ((MappedByteBuffer) page).force();
+        }
+
+        header.force();
+    }
+
+    /**
+     * Forces the changes to disk, and closes the file. The mappings stay valid until they are garbage collected,
+     * but the store should not be used anymore.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -12,6 +12,7 @@ public abstract class Node {
     protected byte[] hash;
     protected NonLeafNode parent;
     protected int level;
+    protected int size; // the number of leaves below this node, used to find a leaf from the root
 
     public byte[] getHash() {
         return hash;
@@ -25,6 +26,10 @@ public abstract class Node {
         return level;
     }
 
+    public int getSize() {
+        return size;
+    }
+
     public void setHash(byte[] hash) {
         this.hash = hash;
     }
@@ -1,6 +1,6 @@
 package hashtree;
 
-import utils.Utils;
+import utils.HashFunction;
 
 /**
  * A non leaf node has a left and right child. Right may be null, when the number of leaves is not a power of 2.
@@ -8,7 +8,7 @@ import utils.Utils;
 public class NonLeafNode extends Node {
     private Node left, right;
 
-    public NonLeafNode(Node left, Node right) {
+    public NonLeafNode(Node left, Node right, HashFunction hashFunction) {
         this.left = left;
         this.right = right;
 
@@ -19,7 +19,7 @@ public class NonLeafNode extends Node {
         if (right != null)
             right.setParent(this);
 
-        resetHash();
+        resetHash(hashFunction);
     }
 
     public Node getLeft() {
@@ -48,11 +48,17 @@ public class NonLeafNode extends Node {
         this.right = right;
     }
 
-    public void resetHash() {
+    /**
+     * Recomputes the hash and the number of leaves from the children
+     * @param hashFunction the hash function of the tree
+     */
+    public void resetHash(HashFunction hashFunction) {
         if (right != null) {
-            hash = Utils.hash(left.hash, right.hash);
+            hash = hashFunction.hash(left.hash, right.hash);
+            size = left.size + right.size;
         } else {
             hash = left.hash;
+            size = left.size;
         }
     }
 }
@@ -0,0 +1,371 @@
+package hashtree;
+
+import framework.ADS;
+import framework.Block;
+import framework.HashPath;
+import framework.MultiProof;
+import framework.Snapshot;
+import utils.HashFunction;
+import utils.HashFunctions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persistent hash tree ADS, for one writer and any number of concurrent readers. The tree has the same shape as
+ * HashTreeADS, so it has the same authenticator and proofs, but its nodes are immutable. A change creates new nodes
+ * on the changed paths only, and shares all other nodes with the previous version. The new version is then published
+ * with one atomic reference update.
+ *
+ * Readers can call getProof and getAuthenticator at any time without locks, or take a snapshot to do several queries
+ * on the same version. Writes should come from one thread at a time: a write that was based on an outdated version
+ * fails with a ConcurrentModificationException, instead of losing the other write.
+ *
+ * In this shape, the left child of a node with n leaves is the perfect tree of the first 2^k leaves, where 2^k is the
+ * largest power of 2 below n. Appending a perfect tree of 2^j leaves to a tree with a multiple of 2^j leaves only
+ * changes the rightmost path, so merges reuse every subtree of the right tree that stays aligned.
+ */
+public class PersistentHashTreeADS extends ADS<PersistentHashTreeADS, HTProof, HTAuthenticator> {
+    private final AtomicReference<TreeSnapshot> current;
+
+    public PersistentHashTreeADS() {
+        this(HashFunctions.getDefault());
+    }
+
+    public PersistentHashTreeADS(HashFunction hashFunction) {
+        this(hashFunction, null);
+    }
+
+    public PersistentHashTreeADS(List<Block> blocks) {
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public PersistentHashTreeADS(List<Block> blocks, HashFunction hashFunction) {
+        this(hashFunction, null);
+
+        current.set(new TreeSnapshot(build(blocks), 0));
+    }
+
+    private PersistentHashTreeADS(HashFunction hashFunction, PersistentNode root) {
+        super(hashFunction);
+
+        current = new AtomicReference<>(new TreeSnapshot(root, 0));
+    }
+
+    /**
+     * An immutable version of the tree
+     */
+    public class TreeSnapshot implements Snapshot<HTProof, HTAuthenticator> {
+        private final PersistentNode root;
+        private final long version;
+
+        private TreeSnapshot(PersistentNode root, long version) {
+            this.root = root;
+            this.version = version;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public int getSize() {
+            return root == null ? 0 : root.size;
+        }
+
+        @Override
+        public HTProof getProof(int index) {
+            if (index < 0 || index >= getSize())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+            HashPath path = new HashPath(hashFunction.getDigestLength(), 33 - Integer.numberOfLeadingZeros(root.size));
+            addSiblings(root, index, path);
+
+            return new HTProof(path);
+        }
+
+        @Override
+        public HTAuthenticator getAuthenticator() {
+            if (root == null)
+                throw new IllegalStateException("An empty tree has no authenticator");
+
+            return new HTAuthenticator(root.hash, root.size);
+        }
+    }
+
+    @Override
+    public PersistentHashTreeADS create(List<Block> blocks) {
+        return new PersistentHashTreeADS(blocks, hashFunction);
+    }
+
+    /**
+     * @return the current version, which stays the same while the tree changes
+     */
+    public TreeSnapshot getSnapshot() {
+        return current.get();
+    }
+
+    public int getSize() {
+        return current.get().getSize();
+    }
+
+    /**
+     * Publishes a new root, based on the given version
+     * @param base the version that the change was made to
+     * @param root the new root
+     */
+    private void publish(TreeSnapshot base, PersistentNode root) {
+        if (!current.compareAndSet(base, new TreeSnapshot(root, base.version + 1)))
+            throw new ConcurrentModificationException("The tree was changed by another writer");
+    }
+
+    private PersistentNode leaf(Block block) {
+        return new PersistentNode(block.hash(hashFunction));
+    }
+
+    private PersistentNode node(PersistentNode left, PersistentNode right) {
+        return new PersistentNode(hashFunction.hash(left.hash, right.hash), left, right);
+    }
+
+    /**
+     * Builds a tree level by level, like HashTreeADS: nodes are paired from left to right, and a remaining last node
+     * is moved up a level
+     */
+    private PersistentNode build(List<Block> blocks) {
+        if (blocks.isEmpty())
+            return null;
+
+        List<PersistentNode> level = new ArrayList<>(blocks.size());
+        for (Block block : blocks)
+            level.add(leaf(block));
+
+        while (level.size() > 1) {
+            List<PersistentNode> parents = new ArrayList<>((level.size() + 1) / 2);
+
+            for (int i = 0; i + 1 < level.size(); i += 2)
+                parents.add(node(level.get(i), level.get(i + 1)));
+
+            if (level.size() % 2 == 1)
+                parents.add(level.get(level.size() - 1));
+
+            level = parents;
+        }
+
+        return level.get(0);
+    }
+
+    /**
+     * Appends a perfect tree to a tree of which the size is a multiple of the size of the perfect tree.
+     * Only the nodes on the rightmost path of the tree are replaced.
+     */
+    private PersistentNode appendPerfect(PersistentNode tree, PersistentNode perfect) {
+        if (tree == null)
+            return perfect;
+
+        if (tree.isPerfect())
+            return node(tree, perfect);
+
+        return node(tree.left, appendPerfect(tree.right, perfect));
+    }
+
+    /**
+     * Appends the right tree to the left tree. The subtrees of the right tree that are aligned in the result are
+     * reused, the others are taken apart.
+     */
+    private PersistentNode concat(PersistentNode left, PersistentNode right) {
+        if (right == null)
+            return left;
+
+        if (right.isPerfect() && (left == null || left.size % right.size == 0))
+            return appendPerfect(left, right);
+
+        return concat(concat(left, right.left), right.right);
+    }
+
+    /**
+     * @return the tree of the first count leaves, which shares all nodes left of the cut
+     */
+    private PersistentNode prefix(PersistentNode tree, int count) {
+        if (count == 0)
+            return null;
+
+        if (count == tree.size)
+            return tree;
+
+        if (count <= tree.left.size)
+            return prefix(tree.left, count);
+
+        return node(tree.left, prefix(tree.right, count - tree.left.size));
+    }
+
+    /**
+     * @return the tree of the leaves from the given index onwards
+     */
+    private PersistentNode suffix(PersistentNode tree, int index) {
+        if (index == tree.size)
+            return null;
+
+        if (index == 0)
+            return tree;
+
+        if (index >= tree.left.size)
+            return suffix(tree.right, index - tree.left.size);
+
+        return concat(suffix(tree.left, index), tree.right);
+    }
+
+    /**
+     * @return the tree in which the leaf at the given index is replaced, which shares all nodes off the path
+     */
+    private PersistentNode replace(PersistentNode tree, int index, PersistentNode leaf) {
+        if (tree.isLeaf())
+            return leaf;
+
+        if (index < tree.left.size)
+            return node(replace(tree.left, index, leaf), tree.right);
+
+        return node(tree.left, replace(tree.right, index - tree.left.size, leaf));
+    }
+
+    /**
+     * Adds the siblings on the path to the leaf to the proof, from bottom to top
+     */
+    private static void addSiblings(PersistentNode node, int index, HashPath path) {
+        if (node.isLeaf())
+            return;
+
+        if (index < node.left.size) {
+            addSiblings(node.left, index, path);
+            path.add(node.right.hash, false);
+        } else {
+            addSiblings(node.right, index - node.left.size, path);
+            path.add(node.left.hash, true);
+        }
+    }
+
+    /**
+     * Publishes the version of the given ADS as the next version of this ADS
+     */
+    @Override
+    public void setThis(PersistentHashTreeADS ADS) {
+        hashFunction = ADS.hashFunction;
+        publish(current.get(), ADS.current.get().root);
+    }
+
+    /**
+     * Returns a new ADS for the merged tree. Neither input is changed.
+     */
+    @Override
+    public PersistentHashTreeADS merge(PersistentHashTreeADS left, PersistentHashTreeADS right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        }
+
+        // else...
+
+        checkHashFunctions(left, right);
+
+        return new PersistentHashTreeADS(left.hashFunction, concat(left.current.get().root, right.current.get().root));
+    }
+
+    /**
+     * Returns new ADSs for both parts. The given ADS is not changed.
+     */
+    @Override
+    public PersistentHashTreeADS[] split(PersistentHashTreeADS ADS, int index) {
+        PersistentNode root = ADS.current.get().root;
+
+        if (index == 0) {
+            return new PersistentHashTreeADS[]{null, ADS};
+        } else if (index == ADS.getSize()) {
+            return new PersistentHashTreeADS[]{ADS, null};
+        }
+
+        // else if 0 < index < size ...
+        return new PersistentHashTreeADS[]{
+                new PersistentHashTreeADS(ADS.hashFunction, prefix(root, index)),
+                new PersistentHashTreeADS(ADS.hashFunction, suffix(root, index))};
+    }
+
+    @Override
+    public void appendBlocks(List<Block> blocks) {
+        TreeSnapshot base = current.get();
+        PersistentNode root = base.root;
+
+        for (Block block : blocks)
+            root = appendPerfect(root, leaf(block));
+
+        publish(base, root);
+    }
+
+    @Override
+    public void insertBlocks(int index, List<Block> blocks) {
+        TreeSnapshot base = current.get();
+
+        if (index < 0 || index > base.getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + base.getSize());
+
+        PersistentNode root = base.root == null ? null : prefix(base.root, index);
+        root = concat(root, build(blocks));
+
+        if (base.root != null)
+            root = concat(root, suffix(base.root, index));
+
+        publish(base, root);
+    }
+
+    @Override
+    public void deleteBlocks(int index, int length) {
+        TreeSnapshot base = current.get();
+
+        if (index < 0 || length < 0 || index + length > base.getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + base.getSize());
+
+        if (length == 0)
+            return;
+
+        publish(base, concat(prefix(base.root, index), suffix(base.root, index + length)));
+    }
+
+    @Override
+    public void updateBlock(int index, Block block) {
+        TreeSnapshot base = current.get();
+
+        if (index < 0 || index >= base.getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + base.getSize());
+
+        publish(base, replace(base.root, index, leaf(block)));
+    }
+
+    @Override
+    public HTProof getProof(int index) {
+        return current.get().getProof(index);
+    }
+
+    @Override
+    public HTAuthenticator getAuthenticator() {
+        return current.get().getAuthenticator();
+    }
+
+    @Override
+    public boolean verify(Block block, HTProof proof, HTAuthenticator authenticator) {
+        // If the computed root hash equals the check root hash, then this proves that the received block is correct.
+        return Arrays.equals(proof.computeRootHash(block, hashFunction), authenticator.getRootHash());
+    }
+
+    @Override
+    protected boolean hasValidShape(MultiProof proof, HTAuthenticator authenticator) {
+        return proof.hasCompleteTreeShape(authenticator.getSize());
+    }
+
+    @Override
+    protected boolean isRootHash(HTAuthenticator authenticator, int rootIndex, byte[] hash) {
+        return rootIndex == 0 && Arrays.equals(hash, authenticator.getRootHash());
+    }
+}
@@ -0,0 +1,40 @@
+package hashtree;
+
+/**
+ * An immutable node of a PersistentHashTreeADS. A changed tree gets new nodes on the changed paths, and shares all
+ * other nodes with the tree it was made from.
+ */
+final class PersistentNode {
+    final byte[] hash;
+    final PersistentNode left;
+    final PersistentNode right;
+    final int size; // The number of leaves
+
+    /**
+     * Creates a leaf
+     */
+    PersistentNode(byte[] hash) {
+        this.hash = hash;
+        this.left = null;
+        this.right = null;
+        this.size = 1;
+    }
+
+    PersistentNode(byte[] hash, PersistentNode left, PersistentNode right) {
+        this.hash = hash;
+        this.left = left;
+        this.right = right;
+        this.size = left.size + right.size;
+    }
+
+    boolean isLeaf() {
+        return left == null;
+    }
+
+    /**
+     * @return whether the subtree is a perfect binary tree, which is the case if its size is a power of 2
+     */
+    boolean isPerfect() {
+        return (size & (size - 1)) == 0;
+    }
+}
@@ -0,0 +1,100 @@
+package mmr;
+
+import framework.Authenticator;
+import framework.WireFormat;
+import utils.HashFunction;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The authenticator of the Merkle Mountain Range: the peaks of all mountains, from left to right.
+ * The peaks are bagged into a single root hash, which the proofs lead to. The authenticator also has the number of
+ * blocks, which fixes the shape of the mountains.
+ */
+public class MMRAuthenticator extends Authenticator {
+    private final List<byte[]> peaks;
+    private final byte[] rootHash;
+    private final int size;
+
+    public MMRAuthenticator(List<byte[]> peaks, int size, HashFunction hashFunction) {
+        this.peaks = peaks;
+        this.size = size;
+        this.rootHash = bag(peaks, 0, hashFunction);
+    }
+
+    /**
+     * Bags the peaks from the given index onwards, from right to left: H(P1, H(P2, ... H(Pn-1, Pn)))
+     * @param peaks the peaks
+     * @param from the index of the first peak that is bagged
+     * @param hashFunction the hash function
+     * @return the bagged hash, or null if there are no peaks from the index
+     */
+    static byte[] bag(List<byte[]> peaks, int from, HashFunction hashFunction) {
+        if (from >= peaks.size())
+            return null;
+
+        byte[] result = peaks.get(peaks.size() - 1);
+
+        for (int i = peaks.size() - 2; i >= from; i--)
+            result = hashFunction.hash(peaks.get(i), result);
+
+        return result;
+    }
+
+    public List<byte[]> getPeaks() {
+        return peaks;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the bagged peaks. For the same blocks, this equals the root hash of HashTreeADS.
+     */
+    public byte[] getRootHash() {
+        return rootHash;
+    }
+
+    public boolean equals(Authenticator other) {
+        if (!(other instanceof MMRAuthenticator))
+            return false;
+
+        MMRAuthenticator mmrOther = (MMRAuthenticator) other;
+
+        if (size != mmrOther.size || peaks.size() != mmrOther.peaks.size())
+            return false;
+
+        for (int i = 0; i < peaks.size(); i++) {
+            if (!Arrays.equals(peaks.get(i), mmrOther.peaks.get(i)))
+                return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getHashesLength(peaks) + WireFormat.getSizeLength(size);
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodeHashes(WireFormat.MMR_AUTHENTICATOR, peaks, buffer);
+        WireFormat.encodeSize(size, buffer);
+    }
+
+    /**
+     * Reads an authenticator that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the authenticator
+     * @param hashFunction the hash function that bags the peaks
+     * @return the authenticator
+     */
+    public static MMRAuthenticator decode(ByteBuffer buffer, HashFunction hashFunction) {
+        List<byte[]> peaks = WireFormat.decodeHashes(WireFormat.MMR_AUTHENTICATOR, buffer);
+
+        return new MMRAuthenticator(peaks, WireFormat.decodeSize(buffer), hashFunction);
+    }
+}
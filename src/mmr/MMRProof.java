@@ -0,0 +1,92 @@
+package mmr;
+
+import framework.HashPath;
+import framework.PathProof;
+import framework.Proof;
+import framework.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A Merkle Mountain Range response object. Contains the siblings on the path from the leaf to the peak of its
+ * mountain, followed by the hashes that bag that peak with the other peaks.
+ */
+public class MMRProof extends Proof<MerkleMountainRangeADS> implements PathProof {
+
+    // Response proof
+    private HashPath path;
+
+    public MMRProof(MerkleMountainRangeADS ADS, int index) {
+        super(ADS, index);
+
+        path = new HashPath(ADS.getDigestLength(), 64);
+
+        // Find the mountain of the leaf. The mountains are the set bits of the size, from high to low.
+        int size = ADS.getSize();
+        int start = 0;
+        int mountain = 0;
+        int level = 31 - Integer.numberOfLeadingZeros(size);
+
+        while (index >= start + (1 << level) || (size & (1 << level)) == 0) {
+            if ((size & (1 << level)) != 0) {
+                start += 1 << level;
+                mountain++;
+            }
+            level--;
+        }
+
+        // The path within the mountain, which is a perfect tree
+        for (int l = 0; l < level; l++) {
+            int node = index >> l;
+            int sibling = node ^ 1;
+
+            path.add(ADS.getNode(l, sibling), sibling < node);
+        }
+
+        // The peaks right of the mountain are bagged into one hash, the peaks left of it are added one by one
+        List<byte[]> peaks = ADS.getPeaks();
+
+        byte[] rightBag = MMRAuthenticator.bag(peaks, mountain + 1, ADS.getHashFunction());
+        if (rightBag != null)
+            path.add(rightBag, false);
+
+        for (int i = mountain - 1; i >= 0; i--)
+            path.add(peaks.get(i), true);
+    }
+
+    private MMRProof(HashPath path) {
+        super(null, 0);
+
+        this.path = path;
+    }
+
+    @Override
+    public HashPath getPath() {
+        return path;
+    }
+
+    @Override
+    public int getRootIndex() {
+        return 0;
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getPathLength(this);
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodePath(WireFormat.MMR_PROOF, this, buffer);
+    }
+
+    /**
+     * Reads a proof that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the proof
+     * @return the proof
+     */
+    public static MMRProof decode(ByteBuffer buffer) {
+        return new MMRProof(WireFormat.decodePath(WireFormat.MMR_PROOF, buffer).getPath());
+    }
+}
@@ -0,0 +1,244 @@
+package mmr;
+
+import framework.ADS;
+import framework.Block;
+import framework.MultiProof;
+import utils.HashFunction;
+import utils.HashFunctions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Merkle Mountain Range ADS. The blocks are covered by a list of perfect hash trees (mountains), one for each set bit
+ * of the number of blocks, from large to small. Appending a block adds a leaf, and merges the mountains of equal
+ * height, which costs O(1) hashes amortized.
+ *
+ * Only the hashes are kept, per level: level l contains the hashes of the nodes that cover the blocks
+ * [i*2^l, (i+1)*2^l), for every i for which that range is complete. Peaks are bagged from right to left, which gives
+ * the same root hash as HashTreeADS.
+ */
+public class MerkleMountainRangeADS extends ADS<MerkleMountainRangeADS, MMRProof, MMRAuthenticator> {
+    private List<List<byte[]>> levels;
+    private int size;
+
+    public MerkleMountainRangeADS() {
+        this(HashFunctions.getDefault());
+    }
+
+    public MerkleMountainRangeADS(HashFunction hashFunction) {
+        super(hashFunction);
+
+        levels = new ArrayList<>();
+        size = 0;
+    }
+
+    public MerkleMountainRangeADS(List<Block> blocks) {
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public MerkleMountainRangeADS(List<Block> blocks, HashFunction hashFunction) {
+        this(hashFunction);
+
+        for (Block block : blocks)
+            append(block.hash(hashFunction));
+    }
+
+    @Override
+    public MerkleMountainRangeADS create(List<Block> blocks) {
+        return new MerkleMountainRangeADS(blocks, hashFunction);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @param level the level of the node
+     * @param index the index of the node within its level
+     * @return the hash of the node
+     */
+    byte[] getNode(int level, int index) {
+        return levels.get(level).get(index);
+    }
+
+    /**
+     * @return the peaks of the mountains, from left (highest) to right (lowest)
+     */
+    public List<byte[]> getPeaks() {
+        List<byte[]> peaks = new ArrayList<>();
+
+        for (int level = levels.size() - 1; level >= 0; level--) {
+            if ((size & (1 << level)) != 0)
+                peaks.add(getNode(level, (size >> level) - 1));
+        }
+
+        return peaks;
+    }
+
+    private List<byte[]> getLevel(int level) {
+        while (level >= levels.size())
+            levels.add(new ArrayList<byte[]>());
+
+        return levels.get(level);
+    }
+
+    /**
+     * Appends a leaf hash. Every time a level gets an even number of nodes, its last two nodes form a new node on
+     * the level above.
+     * @param hash the hash of the block
+     */
+    private void append(byte[] hash) {
+        getLevel(0).add(hash);
+        size++;
+
+        int level = 0;
+        while (getLevel(level).size() % 2 == 0) {
+            List<byte[]> nodes = getLevel(level);
+            getLevel(level + 1).add(hashFunction.hash(nodes.get(nodes.size() - 2), nodes.get(nodes.size() - 1)));
+            level++;
+        }
+    }
+
+    /**
+     * Creates the missing complete nodes of all levels above the given level, after nodes were added to it
+     * @param fromLevel the highest level that is already complete
+     */
+    private void completeLevels(int fromLevel) {
+        for (int level = fromLevel + 1; (size >> level) > 0; level++) {
+            List<byte[]> children = getLevel(level - 1);
+            List<byte[]> nodes = getLevel(level);
+
+            for (int i = nodes.size(); i < (size >> level); i++)
+                nodes.add(hashFunction.hash(children.get(2 * i), children.get(2 * i + 1)));
+        }
+    }
+
+    /**
+     * Appends the blocks to this ADS directly, without creating and merging another ADS
+     * @param blocks the list of to-be-appended blocks
+     */
+    @Override
+    public void appendBlocks(List<Block> blocks) {
+        for (Block block : blocks)
+            append(block.hash(hashFunction));
+    }
+
+    /**
+     * Replaces the leaf hash, and rehashes the path to the peak of its mountain
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
+    @Override
+    public void updateBlock(int index, Block block) {
+        getLevel(0).set(index, block.hash(hashFunction));
+
+        int i = index;
+        for (int level = 1; level < levels.size(); level++) {
+            i >>= 1;
+
+            List<byte[]> nodes = levels.get(level);
+            if (i >= nodes.size()) // The peak of the mountain is reached
+                break;
+
+            nodes.set(i, hashFunction.hash(getNode(level - 1, 2 * i), getNode(level - 1, 2 * i + 1)));
+        }
+    }
+
+    @Override
+    public void setThis(MerkleMountainRangeADS ADS) {
+        hashFunction = ADS.hashFunction;
+        levels = ADS.levels;
+        size = ADS.size;
+    }
+
+    /**
+     * Appends the right ADS to the left one. Up to the level of the number of trailing zeros of the left size,
+     * the nodes of the right ADS cover aligned ranges in the merged ADS as well, so they are reused.
+     * Only the nodes above that level are hashed.
+     */
+    @Override
+    public MerkleMountainRangeADS merge(MerkleMountainRangeADS left, MerkleMountainRangeADS right) {
+        if (left == null || left.size == 0) {
+            return right;
+        } else if (right == null || right.size == 0) {
+            return left;
+        }
+
+        // else...
+
+        checkHashFunctions(left, right);
+
+        int copiedLevel = Math.min(Integer.numberOfTrailingZeros(left.size), right.levels.size() - 1);
+
+        for (int level = 0; level <= copiedLevel; level++)
+            left.getLevel(level).addAll(right.levels.get(level));
+
+        left.size += right.size;
+        left.completeLevels(copiedLevel);
+
+        return left;
+    }
+
+    /**
+     * Splits the ADS. The left part keeps the complete nodes of the first index leaves. The right part reuses
+     * the nodes that stay aligned, and hashes the nodes above them.
+     */
+    @Override
+    public MerkleMountainRangeADS[] split(MerkleMountainRangeADS ADS, int index) {
+        if (index == 0) {
+            return new MerkleMountainRangeADS[]{null, ADS};
+        } else if (index == ADS.size) {
+            return new MerkleMountainRangeADS[]{ADS, null};
+        }
+
+        // else if 0 < index < size ...
+        MerkleMountainRangeADS right = new MerkleMountainRangeADS(ADS.hashFunction);
+        right.size = ADS.size - index;
+
+        int copiedLevel = Integer.numberOfTrailingZeros(index);
+        for (int level = 0; level <= copiedLevel && level < ADS.levels.size(); level++) {
+            List<byte[]> nodes = ADS.levels.get(level);
+            right.getLevel(level).addAll(nodes.subList(index >> level, nodes.size()));
+        }
+
+        right.completeLevels(Math.min(copiedLevel, ADS.levels.size() - 1));
+
+        ADS.size = index;
+        for (int level = 0; level < ADS.levels.size(); level++) {
+            List<byte[]> nodes = ADS.levels.get(level);
+            nodes.subList(index >> level, nodes.size()).clear();
+        }
+
+        return new MerkleMountainRangeADS[]{ADS, right};
+    }
+
+    @Override
+    public MMRProof getProof(int index) {
+        return new MMRProof(this, index);
+    }
+
+    @Override
+    public MMRAuthenticator getAuthenticator() {
+        return new MMRAuthenticator(getPeaks(), size, hashFunction);
+    }
+
+    @Override
+    public boolean verify(Block block, MMRProof proof, MMRAuthenticator authenticator) {
+        byte[] rootHash = proof.getPath().computeRoot(block.hash(hashFunction), hashFunction);
+
+        // If the computed root hash equals the bagged peaks, then this proves that the received block is correct.
+        return Arrays.equals(rootHash, authenticator.getRootHash());
+    }
+
+    @Override
+    protected boolean hasValidShape(MultiProof proof, MMRAuthenticator authenticator) {
+        return proof.hasCompleteTreeShape(authenticator.getSize());
+    }
+
+    @Override
+    protected boolean isRootHash(MMRAuthenticator authenticator, int rootIndex, byte[] hash) {
+        return rootIndex == 0 && Arrays.equals(hash, authenticator.getRootHash());
+    }
+}
@@ -1,6 +1,7 @@
 package seqhash;
 
 import framework.Block;
+import utils.HashFunction;
 
 /**
  * A LeafNode contains a reference to the next LeafNode in the leaves list.
@@ -9,4 +10,8 @@ public class LeafNode extends Node {
     public LeafNode(Block block) {
         super(block);
     }
+
+    public LeafNode(Block block, HashFunction hashFunction) {
+        super(block, hashFunction);
+    }
 }
@@ -1,7 +1,7 @@
 package seqhash;
 
 import framework.Block;
-import utils.Utils;
+import utils.HashFunction;
 
 import java.util.Arrays;
 
@@ -28,14 +28,19 @@ public class Node {
         level = 0;
     }
 
-    public Node(Node left, Node right, int level) {
+    public Node(Block block, HashFunction hashFunction) {
+        hash = block.hash(hashFunction);
+        level = 0;
+    }
+
+    public Node(Node left, Node right, int level, HashFunction hashFunction) {
         this.left = left;
         this.right = right;
 
         left.setParent(this);
         right.setParent(this);
 
-        hash = Utils.hash(left.getHash(), right.getHash());
+        hash = hashFunction.hash(left.getHash(), right.getHash());
 
         min = left.min;
         max = right.max;
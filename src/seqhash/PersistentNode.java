@@ -0,0 +1,56 @@
+package seqhash;
+
+import utils.HashFunction;
+
+/**
+ * An immutable node of a PersistentSeqHashADS. Unlike Node, it has no parent pointer, so the same node can be part of
+ * several versions of the SeqHash forest. A proof is found by descending from a root, using the sizes of the subtrees.
+ */
+final class PersistentNode {
+    final byte[] hash;
+    final PersistentNode left;
+    final PersistentNode right; // null for a leaf and for a single parent
+    final int level; // the round in which this node was created (0 for leaves)
+    final int size; // The number of leaves
+
+    /**
+     * Creates a leaf
+     */
+    PersistentNode(byte[] hash) {
+        this.hash = hash;
+        this.left = null;
+        this.right = null;
+        this.level = 0;
+        this.size = 1;
+    }
+
+    /**
+     * Creates a single parent, which has the same hash as its only child
+     */
+    PersistentNode(PersistentNode child, int level) {
+        this.hash = child.hash;
+        this.left = child;
+        this.right = null;
+        this.level = level;
+        this.size = child.size;
+    }
+
+    PersistentNode(PersistentNode left, PersistentNode right, int level, HashFunction hashFunction) {
+        this.hash = hashFunction.hash(left.hash, right.hash);
+        this.left = left;
+        this.right = right;
+        this.level = level;
+        this.size = left.size + right.size;
+    }
+
+    boolean isLeaf() {
+        return left == null;
+    }
+
+    /**
+     * The same output bit as Node.getOutputBit
+     */
+    boolean getOutputBit(int idx) {
+        return ((hash[idx / 8] >> (idx % 8)) & 1) == 1;
+    }
+}
@@ -0,0 +1,540 @@
+package seqhash;
+
+import framework.ADS;
+import framework.Block;
+import framework.HashPath;
+import framework.Snapshot;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.SeqHashRound;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static utils.SeqHashRound.Kind.*;
+
+/**
+ * Persistent SeqHash ADS. It builds the same forest as SeqHashADS, so it has the same authenticator, but its nodes are
+ * immutable and have no parent pointers. A merge reuses all nodes of both inputs that stay in the result, and only
+ * creates new nodes where the rounds of the two SeqHashes meet, so neither input is changed. A split rebuilds both
+ * parts from the leaves, like SeqHashADS does, but shares the leaves with the original.
+ *
+ * Proofs are found by descending from the root that contains the block, using the subtree sizes, instead of walking up
+ * parent pointers. Every version can therefore still prove its blocks against its own authenticator after the ADS has
+ * changed. The last versions are kept, so that proofs can be served for authenticators that clients still hold.
+ */
+public class PersistentSeqHashADS extends ADS<PersistentSeqHashADS, SHProof, SHAuthenticator> {
+    private static final int DEFAULT_RETAINED_VERSIONS = 16;
+
+    private final AtomicReference<SeqHashSnapshot> current;
+    private final ConcurrentNavigableMap<Long, SeqHashSnapshot> history;
+    private volatile int retainedVersions;
+
+    public PersistentSeqHashADS() {
+        this(HashFunctions.getDefault());
+    }
+
+    public PersistentSeqHashADS(HashFunction hashFunction) {
+        this(hashFunction, new Forest());
+    }
+
+    public PersistentSeqHashADS(List<Block> blocks) {
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public PersistentSeqHashADS(List<Block> blocks, HashFunction hashFunction) {
+        this(hashFunction, fromLeaves(createLeaves(blocks, hashFunction), hashFunction));
+    }
+
+    private PersistentSeqHashADS(HashFunction hashFunction, Forest forest) {
+        super(hashFunction);
+
+        SeqHashSnapshot snapshot = new SeqHashSnapshot(forest, 0);
+        current = new AtomicReference<>(snapshot);
+        history = new ConcurrentSkipListMap<>();
+        history.put(snapshot.version, snapshot);
+        retainedVersions = DEFAULT_RETAINED_VERSIONS;
+    }
+
+    /**
+     * The fringes and the top of a SeqHash. A forest is filled while it is built, and never changed after it has
+     * been published in a snapshot.
+     */
+    private static final class Forest {
+        private int height;
+        private final List<List<PersistentNode>> leftFringes = new ArrayList<>();
+        private final List<List<PersistentNode>> rightFringes = new ArrayList<>();
+        private final List<PersistentNode> top = new ArrayList<>();
+
+        private boolean isEmpty() {
+            return height == 0 && top.isEmpty();
+        }
+
+        /**
+         * Moves the fringes at the height of the forest to the top
+         */
+        private void takeTop() {
+            if (height < leftFringes.size())
+                top.addAll(leftFringes.remove(height));
+            if (height < rightFringes.size())
+                top.addAll(rightFringes.remove(height));
+        }
+    }
+
+    /**
+     * The result of a SeqHash round, like RoundResult
+     */
+    private static final class Round {
+        private final List<PersistentNode> center = new ArrayList<>();
+        private final List<PersistentNode> leftFringe = new ArrayList<>();
+        private final List<PersistentNode> rightFringe = new ArrayList<>();
+    }
+
+    /**
+     * An immutable version of the SeqHash
+     */
+    public class SeqHashSnapshot implements Snapshot<SHProof, SHAuthenticator> {
+        private final Forest forest;
+        private final long version;
+        private final List<PersistentNode> roots; // In the order of SeqHashADS.getAllRoots
+        private final int[] rootOrder; // The indices in roots, from the leftmost root to the rightmost root
+        private final int[] starts; // The index of the first leaf of each root, in rootOrder, and the size at the end
+
+        private SeqHashSnapshot(Forest forest, long version) {
+            this.forest = forest;
+            this.version = version;
+
+            roots = new ArrayList<>();
+            for (List<PersistentNode> level : forest.leftFringes)
+                roots.addAll(level);
+            roots.addAll(forest.top);
+
+            int rightFringesStart = roots.size();
+            for (List<PersistentNode> level : forest.rightFringes)
+                roots.addAll(level);
+
+            // The left fringes lie left of the top from the lowest level up, the right fringes lie right of it from the
+            // highest level down
+            rootOrder = new int[roots.size()];
+            int k = 0;
+            for (int i = 0; i < rightFringesStart; i++)
+                rootOrder[k++] = i;
+
+            int end = roots.size();
+            for (int level = forest.rightFringes.size() - 1; level >= 0; level--) {
+                int start = end - forest.rightFringes.get(level).size();
+                for (int i = start; i < end; i++)
+                    rootOrder[k++] = i;
+                end = start;
+            }
+
+            starts = new int[roots.size() + 1];
+            for (int i = 0; i < rootOrder.length; i++)
+                starts[i + 1] = starts[i] + roots.get(rootOrder[i]).size;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public int getSize() {
+            return starts[starts.length - 1];
+        }
+
+        public int getHeight() {
+            return forest.height;
+        }
+
+        @Override
+        public SHProof getProof(int index) {
+            if (index < 0 || index >= getSize())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+            int k = Arrays.binarySearch(starts, index);
+            if (k < 0)
+                k = -k - 2; // The root before the insertion point
+
+            PersistentNode root = roots.get(rootOrder[k]);
+            HashPath path = new HashPath(hashFunction.getDigestLength(), root.level);
+            addSiblings(root, index - starts[k], path);
+
+            return new SHProof(path, rootOrder[k]);
+        }
+
+        @Override
+        public SHAuthenticator getAuthenticator() {
+            List<byte[]> hashes = new ArrayList<>(roots.size());
+
+            for (PersistentNode root : roots)
+                hashes.add(root.hash);
+
+            return new SHAuthenticator(hashes);
+        }
+
+        /**
+         * @return the leaves, from left to right
+         */
+        private List<PersistentNode> getLeaves() {
+            List<PersistentNode> leaves = new ArrayList<>(getSize());
+
+            for (int index : rootOrder)
+                addLeaves(roots.get(index), leaves);
+
+            return leaves;
+        }
+    }
+
+    @Override
+    public PersistentSeqHashADS create(List<Block> blocks) {
+        return new PersistentSeqHashADS(blocks, hashFunction);
+    }
+
+    /**
+     * @return the current version, which stays the same while the SeqHash changes
+     */
+    public SeqHashSnapshot getSnapshot() {
+        return current.get();
+    }
+
+    /**
+     * Finds the most recent retained version that has the given authenticator
+     * @param authenticator an authenticator that was returned by this ADS
+     * @return the version, or null if it is no longer retained
+     */
+    public SeqHashSnapshot getSnapshot(SHAuthenticator authenticator) {
+        for (SeqHashSnapshot snapshot : history.descendingMap().values()) {
+            if (snapshot.getAuthenticator().equals(authenticator))
+                return snapshot;
+        }
+
+        return null;
+    }
+
+    /**
+     * @param retainedVersions the number of versions that getSnapshot(SHAuthenticator) can find, including the
+     *                         current version
+     */
+    public void setRetainedVersions(int retainedVersions) {
+        if (retainedVersions < 1)
+            throw new IllegalArgumentException("At least the current version is retained");
+
+        this.retainedVersions = retainedVersions;
+        trimHistory(current.get().version);
+    }
+
+    public int getSize() {
+        return current.get().getSize();
+    }
+
+    public int getHeight() {
+        return current.get().getHeight();
+    }
+
+    /**
+     * Publishes a new forest, based on the given version
+     * @param base the version that the change was made to
+     * @param forest the new forest
+     */
+    private void publish(SeqHashSnapshot base, Forest forest) {
+        SeqHashSnapshot snapshot = new SeqHashSnapshot(forest, base.version + 1);
+
+        if (!current.compareAndSet(base, snapshot))
+            throw new ConcurrentModificationException("The SeqHash was changed by another writer");
+
+        history.put(snapshot.version, snapshot);
+        trimHistory(snapshot.version);
+    }
+
+    private void trimHistory(long version) {
+        history.headMap(version - retainedVersions + 1).clear();
+    }
+
+    private static List<PersistentNode> createLeaves(List<Block> blocks, HashFunction hashFunction) {
+        List<PersistentNode> leaves = new ArrayList<>(blocks.size());
+
+        for (Block block : blocks)
+            leaves.add(new PersistentNode(block.hash(hashFunction)));
+
+        return leaves;
+    }
+
+    private static void addLeaves(PersistentNode node, List<PersistentNode> leaves) {
+        if (node.isLeaf()) {
+            leaves.add(node);
+            return;
+        }
+
+        addLeaves(node.left, leaves);
+        if (node.right != null)
+            addLeaves(node.right, leaves);
+    }
+
+    /**
+     * Adds the siblings on the path to the leaf to the proof, from bottom to top
+     */
+    private static void addSiblings(PersistentNode node, int index, HashPath path) {
+        if (node.isLeaf())
+            return;
+
+        if (node.right == null) { // Skip single parents
+            addSiblings(node.left, index, path);
+        } else if (index < node.left.size) {
+            addSiblings(node.left, index, path);
+            path.add(node.right.hash, false);
+        } else {
+            addSiblings(node.right, index - node.left.size, path);
+            path.add(node.left.hash, true);
+        }
+    }
+
+    private static void addFringes(List<List<PersistentNode>> fringes, List<PersistentNode> nodes) {
+        for (PersistentNode node : nodes) {
+            while (node.level >= fringes.size())
+                fringes.add(new ArrayList<PersistentNode>());
+
+            fringes.get(node.level).add(node);
+        }
+    }
+
+    /**
+     * The same round as SeqHashADS.doRound, which creates new parents instead of setting the parents of the nodes
+     */
+    private static Round doRound(List<PersistentNode> nodes, boolean volatileLeft, boolean volatileRight, int level,
+                                 HashFunction hashFunction) {
+        int n = nodes.size();
+
+        byte[][] hashes = new byte[n][];
+        for (int i = 0; i < n; i++)
+            hashes[i] = nodes.get(i).hash;
+
+        SeqHashRound kinds = SeqHashRound.decide(hashes, volatileLeft, volatileRight, null);
+
+        Round round = new Round();
+
+        for (int i = 0; i < n; i++) {
+            switch (kinds.getKind(i)) {
+                case unknown:
+                    round.center.add(new PersistentNode(nodes.get(i), level));
+                    break;
+                case mergeLeft:
+                    round.center.add(new PersistentNode(nodes.get(i), nodes.get(i + 1), level, hashFunction));
+                    i++; // to skip the right child
+                    break;
+                case leftFringe:
+                    round.leftFringe.add(nodes.get(i));
+                    break;
+                case rightFringe:
+                    round.rightFringe.add(nodes.get(i));
+            }
+        }
+
+        return round;
+    }
+
+    /**
+     * Builds a forest from its leaves, like SeqHashADS.initFromLeaves
+     */
+    private static Forest fromLeaves(List<PersistentNode> leaves, HashFunction hashFunction) {
+        Forest forest = new Forest();
+
+        if (leaves.size() == 1) {
+            forest.top.add(leaves.get(0));
+            return forest;
+        }
+
+        List<PersistentNode> center = leaves;
+        while (center.size() > 0) {
+            Round round = doRound(center, true, true, forest.height + 1, hashFunction);
+            center = round.center;
+            forest.leftFringes.add(round.leftFringe);
+            forest.rightFringes.add(round.rightFringe);
+            forest.height++;
+        }
+
+        if (forest.height > 0) {
+            forest.height--;
+            forest.takeTop();
+        }
+
+        return forest;
+    }
+
+    /**
+     * Merges two forests, like SeqHashADS.merge. The levels below the height of an input are taken from that input
+     * as they are, and only the nodes in the middle are processed in new rounds.
+     */
+    private static Forest merge(Forest left, Forest right, HashFunction hashFunction) {
+        if (left.isEmpty())
+            return right;
+        if (right.isEmpty())
+            return left;
+
+        Forest result = new Forest();
+        List<PersistentNode> elems = new ArrayList<>();
+
+        while (true) {
+            int h = result.height;
+
+            boolean volatileLeft = h >= left.height;
+            boolean volatileRight = h >= right.height;
+
+            if (!volatileLeft) {
+                if (h < left.rightFringes.size())
+                    elems.addAll(0, left.rightFringes.get(h));
+            } else if (h == left.height) {
+                elems.addAll(0, left.top);
+            }
+
+            if (!volatileRight) {
+                if (h < right.leftFringes.size())
+                    elems.addAll(right.leftFringes.get(h));
+            } else if (h == right.height) {
+                elems.addAll(right.top);
+            }
+
+            if (volatileLeft && volatileRight && elems.isEmpty())
+                break;
+
+            Round round = doRound(elems, volatileLeft, volatileRight, h + 1, hashFunction);
+            elems = round.center;
+
+            if (volatileLeft)
+                addFringes(result.leftFringes, round.leftFringe);
+            else if (h < left.leftFringes.size())
+                addFringes(result.leftFringes, left.leftFringes.get(h));
+
+            if (volatileRight)
+                addFringes(result.rightFringes, round.rightFringe);
+            else if (h < right.rightFringes.size())
+                addFringes(result.rightFringes, right.rightFringes.get(h));
+
+            result.height++;
+        }
+
+        result.height--; // Cancel the last height inc
+        result.takeTop();
+
+        return result;
+    }
+
+    /**
+     * @return the forests of the leaves before and from the given index
+     */
+    private Forest[] split(SeqHashSnapshot snapshot, int index) {
+        List<PersistentNode> leaves = snapshot.getLeaves();
+
+        return new Forest[]{
+                fromLeaves(leaves.subList(0, index), hashFunction),
+                fromLeaves(leaves.subList(index, leaves.size()), hashFunction)};
+    }
+
+    /**
+     * Publishes the version of the given ADS as the next version of this ADS
+     */
+    @Override
+    public void setThis(PersistentSeqHashADS ADS) {
+        hashFunction = ADS.hashFunction;
+        publish(current.get(), ADS.current.get().forest);
+    }
+
+    /**
+     * Returns a new ADS for the merged SeqHash. Neither input is changed.
+     */
+    @Override
+    public PersistentSeqHashADS merge(PersistentSeqHashADS left, PersistentSeqHashADS right) {
+        checkHashFunctions(left, right);
+
+        return new PersistentSeqHashADS(left.hashFunction,
+                merge(left.current.get().forest, right.current.get().forest, left.hashFunction));
+    }
+
+    /**
+     * Returns new ADSs for both parts. The given ADS is not changed.
+     */
+    @Override
+    public PersistentSeqHashADS[] split(PersistentSeqHashADS ADS, int index) {
+        Forest[] forests = ADS.split(ADS.current.get(), index);
+
+        return new PersistentSeqHashADS[]{
+                new PersistentSeqHashADS(ADS.hashFunction, forests[0]),
+                new PersistentSeqHashADS(ADS.hashFunction, forests[1])};
+    }
+
+    @Override
+    public void appendBlocks(List<Block> blocks) {
+        SeqHashSnapshot base = current.get();
+        publish(base, merge(base.forest, fromLeaves(createLeaves(blocks, hashFunction), hashFunction), hashFunction));
+    }
+
+    @Override
+    public void insertBlocks(int index, List<Block> blocks) {
+        SeqHashSnapshot base = current.get();
+
+        if (index < 0 || index > base.getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + base.getSize());
+
+        Forest[] forests = split(base, index);
+        Forest middle = fromLeaves(createLeaves(blocks, hashFunction), hashFunction);
+
+        publish(base, merge(merge(forests[0], middle, hashFunction), forests[1], hashFunction));
+    }
+
+    @Override
+    public void deleteBlocks(int index, int length) {
+        SeqHashSnapshot base = current.get();
+
+        if (index < 0 || length < 0 || index + length > base.getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + base.getSize());
+
+        List<PersistentNode> leaves = base.getLeaves();
+        Forest left = fromLeaves(leaves.subList(0, index), hashFunction);
+        Forest right = fromLeaves(leaves.subList(index + length, leaves.size()), hashFunction);
+
+        publish(base, merge(left, right, hashFunction));
+    }
+
+    /**
+     * Replaces the leaf and rebuilds the SeqHash from its leaves once, like SeqHashADS.updateBlock
+     */
+    @Override
+    public void updateBlock(int index, Block block) {
+        SeqHashSnapshot base = current.get();
+
+        if (index < 0 || index >= base.getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + base.getSize());
+
+        List<PersistentNode> leaves = base.getLeaves();
+        leaves.set(index, new PersistentNode(block.hash(hashFunction)));
+
+        publish(base, fromLeaves(leaves, hashFunction));
+    }
+
+    @Override
+    public SHProof getProof(int index) {
+        return current.get().getProof(index);
+    }
+
+    @Override
+    public SHAuthenticator getAuthenticator() {
+        return current.get().getAuthenticator();
+    }
+
+    @Override
+    public boolean verify(Block block, SHProof proof, SHAuthenticator authenticator) {
+        // If the computed root hash is one of the roots, then this proves that the received block is correct.
+        return authenticator.contains(proof.getPath().computeRoot(block.hash(hashFunction), hashFunction));
+    }
+
+    @Override
+    protected boolean isRootHash(SHAuthenticator authenticator, int rootIndex, byte[] hash) {
+        List<byte[]> roots = authenticator.getRoots();
+        return rootIndex < roots.size() && Arrays.equals(hash, roots.get(rootIndex));
+    }
+}
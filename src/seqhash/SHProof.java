@@ -1,24 +1,30 @@
 package seqhash;
 
+import framework.HashPath;
+import framework.PathProof;
 import framework.Proof;
+import framework.WireFormat;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.List;
 
+import static seqhash.Node.Position.LEFT;
+
 /**
  * A SeqHash response object
  */
-public class SHProof extends Proof<SeqHashADS> {
+public class SHProof extends Proof<SeqHashADS> implements PathProof {
 
     // Response proof
-    private List<byte[]> siblingHashes;
-    private List<Node.Position> siblingPositions;
+    private HashPath path;
+
+    // The index of the root (in getAllRoots) that the path leads to
+    private int rootIndex;
 
     public SHProof(SeqHashADS ADS, int index) {
         super(ADS, index);
 
-        siblingHashes = new ArrayList<>();
-        siblingPositions = new ArrayList<>();
+        path = new HashPath(ADS.getDigestLength());
 
         Node node = ADS.getLeaves().get(index);
         Node sibling;
@@ -27,20 +33,53 @@ public class SHProof extends Proof<SeqHashADS> {
             sibling = node.getSibling();
 
             // Skip single parents
-            if (sibling != null) {
-                siblingHashes.add(sibling.getHash());
-                siblingPositions.add(sibling.getPosition());
-            }
+            if (sibling != null)
+                path.add(sibling.getHash(), sibling.getPosition() == LEFT);
 
             node = node.getParent();
         }
+
+        List<Node> roots = ADS.getAllRoots();
+        for (int i = 0; i < roots.size(); i++) {
+            if (roots.get(i) == node)
+                rootIndex = i;
+        }
+    }
+
+    SHProof(HashPath path, int rootIndex) {
+        super(null, 0);
+
+        this.path = path;
+        this.rootIndex = rootIndex;
+    }
+
+    @Override
+    public HashPath getPath() {
+        return path;
+    }
+
+    @Override
+    public int getRootIndex() {
+        return rootIndex;
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getPathLength(this);
     }
 
-    public List<byte[]> getSiblingHashes() {
-        return siblingHashes;
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodePath(WireFormat.SEQ_HASH_PROOF, this, buffer);
     }
 
-    public List<Node.Position> getSiblingPositions() {
-        return siblingPositions;
+    /**
+     * Reads a proof that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the proof
+     * @return the proof
+     */
+    public static SHProof decode(ByteBuffer buffer) {
+        WireFormat.Path path = WireFormat.decodePath(WireFormat.SEQ_HASH_PROOF, buffer);
+        return new SHProof(path.getPath(), path.getRootIndex());
     }
 }
@@ -2,21 +2,22 @@ package seqhash;
 
 import framework.ADS;
 import framework.Block;
-import utils.Utils;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Parallelism;
+import utils.Rope;
+import utils.SeqHashRound;
 
 import java.util.*;
 
-import static seqhash.Node.Position.LEFT;
 import static seqhash.SeqHashADS.AddPos.END;
-import static seqhash.SeqHashADS.Kind.*;
+import static utils.SeqHashRound.Kind.*;
 
 /**
  * The SeqhHash ADS. Maintains the SeqHash itself, and keeps a copy of the input data.
  */
 public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
 
-    enum Kind{mergeLeft, mergeRight, leftFringe, unknown, rightFringe}
-
     enum AddPos{BEGIN, END}
 
     // The height of the SeqHash is the largest sequence of parent-child relations, minus the leaves
@@ -25,46 +26,71 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
     private List<List<Node>> rightFringes;
     private List<Node> top;
 
-    private List<LeafNode> leaves; // the leaf nodes of the SeqHash
+    private Rope<LeafNode> leaves; // the leaf nodes of the SeqHash, which can be split and concatenated in O(log n)
 
     public SeqHashADS() {
+        this(HashFunctions.getDefault());
+    }
+
+    public SeqHashADS(HashFunction hashFunction) {
+        super(hashFunction);
+
         height = 0;
         leftFringes = new ArrayList<>();
         rightFringes = new ArrayList<>();
         top = new ArrayList<>();
-        leaves = new ArrayList<>();
+        leaves = Rope.empty();
     }
 
     public SeqHashADS(LeafNode node) {
-        this();
+        this(node, HashFunctions.getDefault());
+    }
+
+    public SeqHashADS(LeafNode node, HashFunction hashFunction) {
+        this(hashFunction);
         top.add(node);
-        leaves.add(node);
+        leaves = leaves.append(node);
     }
 
     public SeqHashADS(List<Block> blocks) {
-        this();
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public SeqHashADS(List<Block> blocks, HashFunction hashFunction) {
+        this(blocks, hashFunction, null);
+    }
+
+    /**
+     * Builds the SeqHash in parallel. Long rounds are decided and hashed in parallel, which gives the same SeqHash
+     * as building it sequentially.
+     * @param blocks the blocks
+     * @param hashFunction the hash function
+     * @param parallelism the pool that is used, or null to build the SeqHash sequentially
+     */
+    public SeqHashADS(List<Block> blocks, HashFunction hashFunction, Parallelism parallelism) {
+        this(hashFunction);
 
         if (blocks.size() == 0) {
             return;
         } else if (blocks.size() == 1) {
-            LeafNode node = new LeafNode(blocks.get(0));
+            LeafNode node = new LeafNode(blocks.get(0), hashFunction);
             top.add(node);
-            leaves.add(node);
+            leaves = leaves.append(node);
             return;
         }
 
         // else if blocks.size() > 1 ...
 
-        List<LeafNode> leaves = createLeaves(blocks);
+        List<LeafNode> leaves = createLeaves(blocks, hashFunction);
 
-        initFromLeaves(leaves);
+        initFromLeaves(leaves, parallelism);
     }
 
-    private void initFromLeaves(List<LeafNode> leaves) {
+    private void initFromLeaves(List<LeafNode> leaves, Parallelism parallelism) {
         if (leaves.size() == 0)
             return;
 
-        this.leaves = leaves;
+        this.leaves = Rope.of(leaves);
 
         int h = 0;
 
@@ -76,7 +102,7 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
         }
 
         while(center.size() > 0) {
-            RoundResult roundResult = doRound(center, true, true, h+1);
+            RoundResult roundResult = doRound(center, true, true, h+1, hashFunction, parallelism);
             center = roundResult.getCenter();
             leftFringes.add(roundResult.getLeftFringe());
             rightFringes.add(roundResult.getRightFringe());
@@ -99,14 +125,14 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
 
     @Override
     public SeqHashADS create(List<Block> blocks) {
-        return new SeqHashADS(blocks);
+        return new SeqHashADS(blocks, hashFunction);
     }
 
-    private static List<LeafNode> createLeaves(List<Block> blocks) {
+    private static List<LeafNode> createLeaves(List<Block> blocks, HashFunction hashFunction) {
         List<LeafNode> leaves = new ArrayList<>();
 
         for (Block block : blocks) {
-            LeafNode node = new LeafNode(block);
+            LeafNode node = new LeafNode(block, hashFunction);
             leaves.add(node);
         }
 
@@ -177,7 +203,7 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
         this.top = top;
     }
 
-    public List<LeafNode> getLeaves() {
+    public Rope<LeafNode> getLeaves() {
         return leaves;
     }
 
@@ -185,82 +211,53 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
         return height == 0 && top.size() == 0;
     }
 
+    private static RoundResult doRound(List<Node> nodes, boolean volatileLeft, boolean volatileRight, int level,
+                                       HashFunction hashFunction) {
+        return doRound(nodes, volatileLeft, volatileRight, level, hashFunction, null);
+    }
 
-    private static RoundResult doRound(List<Node> nodes, boolean volatileLeft, boolean volatileRight, int level) {
+    /**
+     * Does a round, which decides which nodes merge, and creates their parents. Long rounds are decided, and their
+     * parents hashed, in parallel if a parallelism is given, which gives the same result as a sequential round.
+     * Every parent only sets the parent of its own children, so the parts do not interfere.
+     */
+    private static RoundResult doRound(final List<Node> nodes, boolean volatileLeft, boolean volatileRight,
+                                       final int level, final HashFunction hashFunction, Parallelism parallelism) {
         int n = nodes.size();
-        int left = 0;
-        int right = n - 1;
-
-        Map<Node, Kind> kinds = new HashMap<>(nodes.size());
-
-        for (Node node : nodes) {
-            kinds.put(node, unknown);
-        }
-
-        boolean done;
-        int idx;
-        for (idx = 0; ; idx++) {
-            done = true;
 
-            if (volatileLeft) {
-
-                if (left < n && kinds.get(nodes.get(left)) == unknown && !nodes.get(left).getOutputBit(idx)) {
-                    kinds.put(nodes.get(left), leftFringe);
-                    left++;
-                }
-
-                if (left < n && kinds.get(nodes.get(left)) == unknown) {
-                    done = false;
-                }
-            }
+        byte[][] hashes = new byte[n][];
+        for (int i = 0; i < n; i++)
+            hashes[i] = nodes.get(i).getHash();
 
-            if (volatileRight) {
-                if (right >= 0 && kinds.get(nodes.get(right)) == unknown && nodes.get(right).getOutputBit(idx)) {
-                    kinds.put(nodes.get(right), rightFringe);
-                    right--;
-                }
+        final SeqHashRound round = SeqHashRound.decide(hashes, volatileLeft, volatileRight, parallelism);
 
-                if (right >= 0 && kinds.get(nodes.get(right)) == unknown) {
-                    done = false;
-                }
-            }
+        // The parent of each node in the center, at the index of its (left) child
+        final Node[] parents = new Node[n];
 
-            for (int j = 0; j < n-1; j++) {
-                Node nodeJ = nodes.get(j);
-                Node nodeJPlus = nodes.get(j+1);
-
-                if (kinds.get(nodeJ) == unknown && kinds.get(nodeJPlus) == unknown) {
-                    boolean sameHash = Arrays.equals(nodeJ.getHash(), nodeJPlus.getHash());
-                    if (sameHash || (nodeJ.getOutputBit(idx) && !nodeJPlus.getOutputBit(idx))) {
-                        kinds.put(nodeJ, mergeLeft);
-                        kinds.put(nodeJPlus, mergeRight);
-                    } else {
-                        done = false;
-                    }
+        Parallelism.RangeTask task = new Parallelism.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    if (round.getKind(i) == unknown) // nodes that neither merge nor are part of the fringes
+                        parents[i] = new Node(nodes.get(i), level);
+                    else if (round.getKind(i) == mergeLeft)
+                        parents[i] = new Node(nodes.get(i), nodes.get(i + 1), level, hashFunction);
                 }
             }
+        };
 
-            if (done)
-                break;
-        }
+        if (parallelism == null || n < SeqHashRound.MIN_PARALLEL_SIZE)
+            task.run(0, n);
+        else
+            parallelism.forRange(0, n, task);
 
-        // we go over the node list, and decide which (unmerged) nodes should be merged
         RoundResult r = new RoundResult();
 
         for (int i = 0; i < n; i++) {
-            Node parent;
-
-            switch (kinds.get(nodes.get(i))) {
-                case unknown: // nodes that could not merge with neighbours, but also aren't part of the fringes (orphan)
-                    // Add a single parent in the new level
-                    parent = new Node(nodes.get(i), level);
-                    r.addCenter(parent);
-                    break;
+            switch (round.getKind(i)) {
+                case unknown:
                 case mergeLeft:
-                    parent = new Node(nodes.get(i), nodes.get(i+1), level);
-
-                    r.addCenter(parent);
-                    i++; // to skip the right child
+                    r.addCenter(parents[i]);
                     break;
                 case leftFringe:
                     r.addLeftFringe(nodes.get(i));
@@ -275,6 +272,7 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
 
     @Override
     public void setThis(SeqHashADS ADS) {
+        hashFunction = ADS.hashFunction;
         height = ADS.height;
         leftFringes = ADS.leftFringes;
         rightFringes = ADS.rightFringes;
@@ -289,7 +287,9 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
         if (right.isEmpty())
             return left;
 
-        SeqHashADS result = new SeqHashADS();
+        checkHashFunctions(left, right);
+
+        SeqHashADS result = new SeqHashADS(left.hashFunction);
 
         ArrayList<Node> elems = new ArrayList<>();
 
@@ -321,7 +321,7 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
                 break;
             }
 
-            RoundResult roundResult = doRound(elems, volatileLeft, volatileRight, h+1);
+            RoundResult roundResult = doRound(elems, volatileLeft, volatileRight, h+1, hashFunction);
             elems = roundResult.getCenter();
 
             if (volatileLeft) {
@@ -358,26 +358,352 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
             result.getRightFringes().remove(h);
         }
 
-        result.leaves.addAll(left.leaves);
-        result.leaves.addAll(right.leaves);
+        result.leaves = left.leaves.concat(right.leaves);
 
         return result;
     }
 
+    /**
+     * Splits the SeqHash level by level, along the nodes around the split. Every level is a sequence of nodes that is
+     * decided in one round. At a cut pair (see SeqHashRound.isCut) the round falls apart in two independent parts,
+     * so the nodes on the far side of the nearest cut pair keep their decisions and their parents. Only the nodes
+     * between that pair and the split are decided again, so the split creates O(log n) new nodes in expectation.
+     * If a level has no cut pair, such as with many equal blocks, the whole part of that level is decided again.
+     *
+     * A merge only gives the SeqHash that is built from the leaves if there are no long runs of equal blocks, so the
+     * input is not trusted to be that SeqHash. A cut pair is only used if the two nodes are merged in the input as
+     * well, and a half is built from its leaves if walking through a level finds more nodes than it has leaves.
+     *
+     * The nodes are shared with the input, which should not be used afterwards.
+     */
     @Override
     public SeqHashADS[] split(SeqHashADS ADS, int index) {
-        List<LeafNode> leftLeaves = new ArrayList<>(ADS.leaves.subList(0, index));
-        List<LeafNode> rightLeaves = new ArrayList<>(ADS.leaves.subList(index, ADS.leaves.size()));
+        if (index < 0 || index > ADS.leaves.size())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + ADS.leaves.size());
 
-        SeqHashADS left = new SeqHashADS();
-        left.initFromLeaves(leftLeaves);
+        if (index == 0)
+            return new SeqHashADS[]{new SeqHashADS(ADS.hashFunction), ADS};
+        else if (index == ADS.leaves.size())
+            return new SeqHashADS[]{ADS, new SeqHashADS(ADS.hashFunction)};
 
-        SeqHashADS right = new SeqHashADS();
-        right.initFromLeaves(rightLeaves);
+        SeqHashADS left = ADS.splitLeft(index);
+        if (left == null)
+            left = ADS.fromLeaves(ADS.leaves.head(index));
+
+        SeqHashADS right = ADS.splitRight(index);
+        if (right == null)
+            right = ADS.fromLeaves(ADS.leaves.tail(index));
 
         return new SeqHashADS[]{left, right};
     }
 
+    private SeqHashADS fromLeaves(List<LeafNode> leaves) {
+        SeqHashADS result = new SeqHashADS(hashFunction);
+        result.initFromLeaves(leaves, null);
+        return result;
+    }
+
+    /**
+     * @return whether the nodes are the two children of the same parent
+     */
+    private static boolean isMerged(Node left, Node right) {
+        Node parent = left.getParent();
+        return parent != null && right.getParent() == parent && parent.getLeft() == left && parent.getRight() == right;
+    }
+
+    /**
+     * Builds the SeqHash of the leaves before the index. At every level, the nodes are the nodes of this SeqHash up
+     * to and including last, followed by the new nodes in window.
+     * @return the SeqHash, or null if the nodes of this SeqHash are not linked as expected
+     */
+    private SeqHashADS splitLeft(int index) {
+        SeqHashADS result = new SeqHashADS(hashFunction);
+        result.leaves = leaves.head(index);
+
+        Node last = leaves.get(index - 1);
+        List<Node> window = new ArrayList<>();
+        int level = 0;
+
+        while (last != null || window.size() > 0) {
+            // Search backwards for a cut pair (left, right), with previous before it and after behind it.
+            // All four nodes must be nodes of this SeqHash, so that the pair is a cut pair here as well.
+            ArrayDeque<Node> rest = new ArrayDeque<>(window);
+            Node after = null;
+            Node right = last;
+            Node left = right == null ? null : getPrevious(right);
+            Node previous = left == null ? null : getPrevious(left);
+            Node cut = null;
+
+            while (right != null) {
+                if (after != null && previous != null && isMerged(left, right)
+                        && SeqHashRound.isCut(previous.getHash(), left.getHash(), right.getHash())) {
+                    cut = right;
+                    break;
+                }
+
+                if (rest.size() >= index)
+                    return null;
+
+                rest.addFirst(right);
+                after = right;
+                right = left;
+                left = previous;
+                previous = previous == null ? null : getPrevious(previous);
+            }
+
+            // The nodes before the cut pair keep their decisions, so only the rest is decided again
+            RoundResult roundResult = doRound(new ArrayList<>(rest), cut == null, true, level + 1, hashFunction);
+            clearParents(roundResult);
+
+            if (cut == null)
+                result.leftFringes.add(roundResult.getLeftFringe());
+            else
+                result.leftFringes.add(new ArrayList<>(getFringe(leftFringes, level)));
+
+            result.rightFringes.add(roundResult.getRightFringe());
+
+            window = roundResult.getCenter();
+            last = cut == null ? null : cut.getParent();
+            level++;
+        }
+
+        result.setTopFromFringes(level - 1);
+
+        return result;
+    }
+
+    /**
+     * Builds the SeqHash of the leaves from the index on, like splitLeft but mirrored. At every level, the nodes are
+     * the new nodes in window, followed by the nodes of this SeqHash from first on.
+     * @return the SeqHash, or null if the nodes of this SeqHash are not linked as expected
+     */
+    private SeqHashADS splitRight(int index) {
+        SeqHashADS result = new SeqHashADS(hashFunction);
+        result.leaves = leaves.tail(index);
+
+        Node first = leaves.get(index);
+        List<Node> window = new ArrayList<>();
+        int level = 0;
+
+        while (first != null || window.size() > 0) {
+            List<Node> rest = new ArrayList<>(window);
+            Node previous = null;
+            Node left = first;
+            Node right = left == null ? null : getNext(left);
+            Node after = right == null ? null : getNext(right);
+            Node cut = null;
+
+            while (left != null) {
+                if (previous != null && after != null && isMerged(left, right)
+                        && SeqHashRound.isCut(previous.getHash(), left.getHash(), right.getHash())) {
+                    cut = left;
+                    break;
+                }
+
+                if (rest.size() >= leaves.size() - index)
+                    return null;
+
+                rest.add(left);
+                previous = left;
+                left = right;
+                right = after;
+                after = after == null ? null : getNext(after);
+            }
+
+            RoundResult roundResult = doRound(rest, true, cut == null, level + 1, hashFunction);
+            clearParents(roundResult);
+
+            result.leftFringes.add(roundResult.getLeftFringe());
+
+            if (cut == null)
+                result.rightFringes.add(roundResult.getRightFringe());
+            else
+                result.rightFringes.add(new ArrayList<>(getFringe(rightFringes, level)));
+
+            window = roundResult.getCenter();
+            first = cut == null ? null : cut.getParent();
+            level++;
+        }
+
+        result.setTopFromFringes(level - 1);
+
+        return result;
+    }
+
+    /**
+     * Moves the fringes of the highest level to the top, like initFromLeaves does after its last round
+     */
+    private void setTopFromFringes(int h) {
+        top = new ArrayList<>();
+        top.addAll(leftFringes.remove(h));
+        top.addAll(rightFringes.remove(h));
+        height = h;
+    }
+
+    /**
+     * The nodes that go to the fringes may still point to their parent in the SeqHash they were split from
+     */
+    private static void clearParents(RoundResult roundResult) {
+        for (Node node : roundResult.getLeftFringe())
+            node.setParent(null);
+        for (Node node : roundResult.getRightFringe())
+            node.setParent(null);
+    }
+
+    private static List<Node> getFringe(List<List<Node>> fringes, int level) {
+        return level < fringes.size() ? fringes.get(level) : Collections.<Node>emptyList();
+    }
+
+    private static int indexOf(List<Node> nodes, Node node) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodes.get(i) == node)
+                return i;
+        }
+
+        return -1;
+    }
+
+    private static Node getLastChild(Node node) {
+        return node.getRight() != null ? node.getRight() : node.getLeft();
+    }
+
+    /*
+     * The nodes of a level are its left fringe, the children of the nodes one level up, and its right fringe.
+     * The nodes of the highest level are the top. The methods below walk through the nodes of a level in order.
+     */
+
+    private Node getFirst(int level) {
+        if (level > height)
+            return null;
+        if (level == height)
+            return top.isEmpty() ? null : top.get(0);
+
+        List<Node> leftFringe = getFringe(leftFringes, level);
+        if (leftFringe.size() > 0)
+            return leftFringe.get(0);
+
+        Node above = getFirst(level + 1);
+        if (above != null)
+            return above.getLeft();
+
+        List<Node> rightFringe = getFringe(rightFringes, level);
+        return rightFringe.isEmpty() ? null : rightFringe.get(0);
+    }
+
+    private Node getLast(int level) {
+        if (level > height)
+            return null;
+        if (level == height)
+            return top.isEmpty() ? null : top.get(top.size() - 1);
+
+        List<Node> rightFringe = getFringe(rightFringes, level);
+        if (rightFringe.size() > 0)
+            return rightFringe.get(rightFringe.size() - 1);
+
+        Node above = getLast(level + 1);
+        if (above != null)
+            return getLastChild(above);
+
+        List<Node> leftFringe = getFringe(leftFringes, level);
+        return leftFringe.isEmpty() ? null : leftFringe.get(leftFringe.size() - 1);
+    }
+
+    /**
+     * @return the node before the given node in its level, or null if it is the first
+     */
+    private Node getPrevious(Node node) {
+        int level = node.getLevel();
+        Node parent = node.getParent();
+        List<Node> leftFringe = getFringe(leftFringes, level);
+
+        if (parent != null) {
+            if (node == parent.getRight())
+                return parent.getLeft();
+
+            Node previous = getPrevious(parent);
+            if (previous != null)
+                return getLastChild(previous);
+
+            return leftFringe.isEmpty() ? null : leftFringe.get(leftFringe.size() - 1);
+        }
+
+        if (level == height) {
+            int i = indexOf(top, node);
+            return i > 0 ? top.get(i - 1) : null;
+        }
+
+        int i = indexOf(leftFringe, node);
+        if (i >= 0)
+            return i > 0 ? leftFringe.get(i - 1) : null;
+
+        List<Node> rightFringe = getFringe(rightFringes, level);
+        i = indexOf(rightFringe, node);
+        if (i > 0)
+            return rightFringe.get(i - 1);
+
+        Node above = getLast(level + 1);
+        if (above != null)
+            return getLastChild(above);
+
+        return leftFringe.isEmpty() ? null : leftFringe.get(leftFringe.size() - 1);
+    }
+
+    /**
+     * @return the node after the given node in its level, or null if it is the last
+     */
+    private Node getNext(Node node) {
+        int level = node.getLevel();
+        Node parent = node.getParent();
+        List<Node> rightFringe = getFringe(rightFringes, level);
+
+        if (parent != null) {
+            if (node == parent.getLeft() && parent.getRight() != null)
+                return parent.getRight();
+
+            Node next = getNext(parent);
+            if (next != null)
+                return next.getLeft();
+
+            return rightFringe.isEmpty() ? null : rightFringe.get(0);
+        }
+
+        if (level == height) {
+            int i = indexOf(top, node);
+            return i + 1 < top.size() ? top.get(i + 1) : null;
+        }
+
+        int i = indexOf(rightFringe, node);
+        if (i >= 0)
+            return i + 1 < rightFringe.size() ? rightFringe.get(i + 1) : null;
+
+        List<Node> leftFringe = getFringe(leftFringes, level);
+        i = indexOf(leftFringe, node);
+        if (i >= 0 && i + 1 < leftFringe.size())
+            return leftFringe.get(i + 1);
+
+        Node above = getFirst(level + 1);
+        if (above != null)
+            return above.getLeft();
+
+        return rightFringe.isEmpty() ? null : rightFringe.get(0);
+    }
+
+    /**
+     * Cuts out the leaf with two local splits, and merges a new single leaf SeqHash in its place.
+     * Both splits and merges only decide the rounds near the cut again, so no tree is rebuilt.
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
+    @Override
+    public void updateBlock(int index, Block block) {
+        SeqHashADS[] temp = split(this, index);
+        SeqHashADS right = split(temp[1], 1)[1];
+
+        SeqHashADS middle = new SeqHashADS(new LeafNode(block, hashFunction), hashFunction);
+
+        setThis(merge(merge(temp[0], middle), right));
+    }
+
     /**
      * Lists all roots from (all levels of) leftFringes, top, and (all levels of) rightFringes.
      * @return the list of combined roots
@@ -417,8 +743,8 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
             if (i < rightFringes.size())
                 right.addAll(0, getRightFringes().get(i));
 
-            left = doRound(left, false, false, level).getCenter();
-            right = doRound(right, false, false, level).getCenter();
+            left = doRound(left, false, false, level, hashFunction).getCenter();
+            right = doRound(right, false, false, level, hashFunction).getCenter();
 
             level++;
         }
@@ -429,7 +755,7 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
         elems.addAll(right);
 
         while (elems.size() > 1) {
-            elems = doRound(elems, false, false, level).getCenter();
+            elems = doRound(elems, false, false, level, hashFunction).getCenter();
             level++;
         }
 
@@ -458,22 +784,8 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
 
     @Override
     public boolean verify(Block block, SHProof proof, SHAuthenticator authenticator) {
-        byte[] rootHash = block.hash();
-        byte[] siblingHash;
-
-        // For each hash in the sibling list
-        for (int i = 0; i < proof.getSiblingHashes().size(); i++) {
-            // Get the sibling hash
-            siblingHash = proof.getSiblingHashes().get(i);
-
-            // Check how the nodes are positioned relative to each other, to correctly compute the root hash.
-            // Then, concatenate their hashes accordingly.
-            if (proof.getSiblingPositions().get(i) == LEFT) {
-                rootHash = Utils.hash(siblingHash, rootHash);
-            } else {
-                rootHash = Utils.hash(rootHash, siblingHash);
-            }
-        }
+        // Hash the block with the sibling hashes, from bottom to top
+        byte[] rootHash = proof.getPath().computeRoot(block.hash(hashFunction), hashFunction);
 
         if (!authenticator.contains(rootHash))
             System.out.println("debug");
@@ -563,7 +875,6 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
             }
         }
 
-
         if (rightFringes.size() >= other.rightFringes.size()) {
             maxList = rightFringes;
             minList = other.rightFringes;
@@ -601,4 +912,10 @@ public class SeqHashADS extends ADS<SeqHashADS, SHProof, SHAuthenticator> {
 
         return result;
     }
+
+    @Override
+    protected boolean isRootHash(SHAuthenticator authenticator, int rootIndex, byte[] hash) {
+        List<byte[]> roots = authenticator.getRoots();
+        return rootIndex < roots.size() && Arrays.equals(hash, roots.get(rootIndex));
+    }
 }
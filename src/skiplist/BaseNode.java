@@ -1,7 +1,9 @@
 package skiplist;
 
+import utils.HashFunction;
 import utils.Utils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 
 /**
@@ -10,20 +12,25 @@ import java.util.Random;
 public class BaseNode extends Node {
     private byte[] hash;
 
+    // Used for computing the labels of this node and the nodes in its tower
+    private final HashFunction hashFunction;
+
     private int id;
 
-    public BaseNode(byte[] hash) {
+    public BaseNode(byte[] hash, HashFunction hashFunction) {
         super(NORMAL);
         this.hash = hash;
+        this.hashFunction = hashFunction;
 
         id = new Random().nextInt(1000);
     }
 
-    public BaseNode(int minMax) {
+    public BaseNode(int minMax, HashFunction hashFunction) {
         super(minMax);
+        this.hashFunction = hashFunction;
 
         if (minMaxNormal == Node.MIN)
-            hash = Utils.hash(Utils.MININF);
+            hash = hashFunction.hash(Utils.MININF.getBytes(StandardCharsets.UTF_8));
 
         id = new Random().nextInt(10000);
     }
@@ -36,30 +43,40 @@ public class BaseNode extends Node {
         return hash;
     }
 
+    public HashFunction getHashFunction() {
+        return hashFunction;
+    }
+
     public void setHash(byte[] hash) {
         this.hash = hash;
     }
 
     @Override
-    public byte[] computeLabel(boolean all) {
+    public byte[] computeLabel() {
         if (minMaxNormal == MAX)
             return hash;
 
-        if (right.isPlateau() && right.getMinMaxNormal() != MAX) {
-            byte[] rightLabel;
-            if (all) {
-                rightLabel = right.computeLabel(all);
-            } else {
-                rightLabel = right.label;
-            }
-
-            label = Utils.hash(hash, rightLabel);
-        } else // right is a tower node or a +Inf node
+        if (isRightCovered()) {
+            label = hashFunction.hash(hash, right.label);
+            size = 1 + right.size;
+        } else { // right is a tower node or a +Inf node
             label = hash;
+            size = 1;
+        }
 
+        dirty = false;
         return label;
     }
 
+    @Override
+    public void markDirty() {
+        if (minMaxNormal == MAX)
+            return;
+
+        size = isRightCovered() ? 1 + right.size : 1;
+        dirty = true;
+    }
+
     @Override
     public String toString() {
         String result = "" + id;
@@ -0,0 +1,469 @@
+package skiplist;
+
+import framework.ADS;
+import framework.Block;
+import framework.HashPath;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Skip list ADS in which every tower is a single Tower object, with its right neighbours and labels in arrays that
+ * are indexed by level, instead of a node object per level with up, down, left and right references. The skip list
+ * has the same shape and labels as SkipListADS, so for the same blocks and promotion it has the same authenticator
+ * and the same proofs.
+ *
+ * Towers have no left or down references. Every operation searches from the top of the -Inf tower, like getProof,
+ * and remembers the nodes on the search path. These are exactly the nodes of which the labels cover the searched
+ * position, so after a change only their labels, and those of new towers, are recomputed, from the bottom up.
+ */
+public class CompactSkipListADS extends ADS<CompactSkipListADS, SLProof, SLAuthenticator> {
+    private Tower start; // The -Inf tower
+    private Tower end; // The +Inf tower
+    private Promotion promotion;
+
+    public CompactSkipListADS(List<Block> blocks) {
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public CompactSkipListADS(List<Block> blocks, HashFunction hashFunction) {
+        this(blocks, hashFunction, Promotion.HALF);
+    }
+
+    public CompactSkipListADS(List<Block> blocks, HashFunction hashFunction, Promotion promotion) {
+        super(hashFunction);
+
+        this.promotion = promotion;
+
+        start = newStart(1);
+        List<Tower> towers = new ArrayList<>(blocks.size() + 1);
+        towers.add(start);
+
+        List<Tower> rightMosts = new ArrayList<>();
+        rightMosts.add(start);
+
+        for (Block block : blocks) {
+            byte[] hash = block.hash(hashFunction);
+            Tower tower = new Tower(Node.NORMAL, hash, promotion.getHeight(hash, hashFunction));
+            towers.add(tower);
+
+            for (int level = 0; level < tower.getHeight(); level++) {
+                if (level == rightMosts.size()) {
+                    start.setHeight(level + 1);
+                    start.right[level] = tower;
+                    rightMosts.add(tower);
+                } else {
+                    rightMosts.get(level).right[level] = tower;
+                    rightMosts.set(level, tower);
+                }
+            }
+        }
+
+        end = new Tower(Node.MAX, null, rightMosts.size());
+        for (int level = 0; level < rightMosts.size(); level++)
+            rightMosts.get(level).right[level] = end;
+
+        // A label depends on the label below it and the label to its right, so the towers are computed from right to
+        // left, and each from bottom to top
+        for (int i = towers.size() - 1; i >= 0; i--)
+            computeLabels(towers.get(i), 0);
+    }
+
+    private CompactSkipListADS(Tower start, Tower end, HashFunction hashFunction, Promotion promotion) {
+        super(hashFunction);
+
+        this.start = start;
+        this.end = end;
+        this.promotion = promotion;
+    }
+
+    /**
+     * The nodes that a search from the top of the -Inf tower passes, from top to bottom and from left to right
+     */
+    private static class Path {
+        private Tower[] towers = new Tower[16];
+        private int[] levels = new int[16];
+        private int length;
+
+        private void add(Tower tower, int level) {
+            if (length == towers.length) {
+                towers = Arrays.copyOf(towers, 2 * length);
+                levels = Arrays.copyOf(levels, 2 * length);
+            }
+
+            towers[length] = tower;
+            levels[length] = level;
+            length++;
+        }
+
+        /**
+         * @return for every level below the given height, the last tower on the path at that level
+         */
+        private Tower[] getLastTowers(int height) {
+            Tower[] result = new Tower[height];
+
+            for (int i = 0; i < length; i++)
+                result[levels[i]] = towers[i];
+
+            return result;
+        }
+    }
+
+    private Tower newStart(int height) {
+        return new Tower(Node.MIN, hashFunction.hash(Utils.MININF.getBytes(StandardCharsets.UTF_8)), height);
+    }
+
+    private int getHeight() {
+        return start.getHeight();
+    }
+
+    /**
+     * @return the number of blocks
+     */
+    public int getSize() {
+        return start.sizes[getHeight() - 1] - 1; // The -Inf node is covered by the label of the start node
+    }
+
+    /**
+     * Searches a base node, by descending from the top of the -Inf tower. A node covers the base nodes of the node
+     * below it, and those of the node to its right if that is a plateau node.
+     * @param index the index of the base node, where the -Inf node has index 0
+     * @return the search path, which ends at the base node
+     */
+    private Path search(int index) {
+        Path path = new Path();
+        Tower tower = start;
+        int level = getHeight() - 1;
+
+        while (true) {
+            path.add(tower, level);
+
+            if (level == 0) {
+                if (index == 0)
+                    return path;
+
+                index--;
+                tower = tower.right[0];
+            } else if (index < tower.sizes[level - 1]) {
+                level--;
+            } else {
+                index -= tower.sizes[level - 1];
+                tower = tower.right[level];
+            }
+        }
+    }
+
+    /**
+     * Computes the label of a node from the label below it and the label to its right, like Node.computeLabel
+     */
+    private void computeLabel(Tower tower, int level) {
+        byte[] down = level == 0 ? tower.hash : tower.labels[level - 1];
+        int downSize = level == 0 ? 1 : tower.sizes[level - 1];
+        Tower right = tower.right[level];
+
+        if (right.isPlateau(level)) {
+            tower.labels[level] = hashFunction.hash(down, right.labels[level]);
+            tower.sizes[level] = downSize + right.sizes[level];
+        } else {
+            tower.labels[level] = down;
+            tower.sizes[level] = downSize;
+        }
+    }
+
+    /**
+     * Computes the labels of a tower from the given level to the top
+     */
+    private void computeLabels(Tower tower, int fromLevel) {
+        for (int level = fromLevel; level < tower.getHeight(); level++)
+            computeLabel(tower, level);
+    }
+
+    /**
+     * Recomputes the labels on a search path from the bottom up, skipping the levels that have been removed
+     */
+    private void computeLabels(Path path) {
+        for (int i = path.length - 1; i >= 0; i--) {
+            if (path.levels[i] < path.towers[i].getHeight())
+                computeLabel(path.towers[i], path.levels[i]);
+        }
+    }
+
+    @Override
+    public CompactSkipListADS create(List<Block> blocks) {
+        return new CompactSkipListADS(blocks, hashFunction, promotion);
+    }
+
+    @Override
+    public void setThis(CompactSkipListADS ADS) {
+        hashFunction = ADS.hashFunction;
+        start = ADS.start;
+        end = ADS.end;
+        promotion = ADS.promotion;
+    }
+
+    /**
+     * Connects the last tower of each level of the left skip list to the first tower of that level of the right skip
+     * list. The -Inf tower of the left skip list and the +Inf tower of the right skip list are kept, and raised to the
+     * height of the other skip list if it is higher.
+     */
+    @Override
+    public CompactSkipListADS merge(CompactSkipListADS left, CompactSkipListADS right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+
+        checkHashFunctions(left, right);
+
+        if (!left.promotion.equals(right.promotion))
+            throw new IllegalArgumentException("Cannot merge skip lists with different promotions");
+
+        int leftHeight = left.getHeight();
+        int rightHeight = right.getHeight();
+        int height = Math.max(leftHeight, rightHeight);
+
+        Path path = left.search(left.getSize());
+        Tower[] lasts = path.getLastTowers(leftHeight);
+
+        left.start.setHeight(height);
+        right.end.setHeight(height);
+
+        for (int level = 0; level < height; level++) {
+            Tower last = level < leftHeight ? lasts[level] : left.start;
+            last.right[level] = level < rightHeight ? right.start.right[level] : right.end;
+        }
+
+        CompactSkipListADS result = new CompactSkipListADS(left.start, right.end, left.hashFunction, left.promotion);
+        result.computeLabels(path);
+        result.computeLabels(left.start, leftHeight);
+
+        return result;
+    }
+
+    /**
+     * Cuts every level between the last tower before the index and the first tower from the index. The left skip list
+     * gets a new +Inf tower and the right skip list a new -Inf tower, and the old sentinels are lowered to the height
+     * of their part.
+     */
+    @Override
+    public CompactSkipListADS[] split(CompactSkipListADS ADS, int index) {
+        if (index == 0) {
+            return new CompactSkipListADS[]{null, ADS};
+        } else if (index == ADS.getSize()) {
+            return new CompactSkipListADS[]{ADS, null};
+        }
+
+        // else if 0 < index < size ...
+
+        int height = ADS.getHeight();
+
+        // +1 because of -Inf node; -1 because we want to get left neighbour of block at index
+        Path path = ADS.search(index + 1 - 1);
+        Tower[] lasts = path.getLastTowers(height);
+        Tower[] firsts = new Tower[height];
+
+        int leftHeight = 1;
+        int rightHeight = 1;
+
+        for (int level = 0; level < height; level++) {
+            firsts[level] = lasts[level].right[level];
+
+            if (lasts[level] != ADS.start)
+                leftHeight = level + 1;
+            if (firsts[level] != ADS.end)
+                rightHeight = level + 1;
+        }
+
+        Tower leftEnd = new Tower(Node.MAX, null, leftHeight);
+        Tower rightStart = ADS.newStart(rightHeight);
+
+        for (int level = 0; level < leftHeight; level++)
+            lasts[level].right[level] = leftEnd;
+        for (int level = 0; level < rightHeight; level++)
+            rightStart.right[level] = firsts[level];
+
+        ADS.start.setHeight(leftHeight);
+        ADS.end.setHeight(rightHeight);
+
+        CompactSkipListADS left = new CompactSkipListADS(ADS.start, leftEnd, ADS.hashFunction, ADS.promotion);
+        CompactSkipListADS right = new CompactSkipListADS(rightStart, ADS.end, ADS.hashFunction, ADS.promotion);
+
+        left.computeLabels(path);
+        right.computeLabels(rightStart, 0);
+
+        return new CompactSkipListADS[]{left, right};
+    }
+
+    /**
+     * Links the towers of the blocks after the last towers on the search path to the left neighbour, and then
+     * computes the new towers and the search path
+     * @param index the location where the new blocks go
+     * @param blocks the to-be-inserted blocks
+     */
+    @Override
+    public void insertBlocks(int index, List<Block> blocks) {
+        if (index < 0 || index > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        int oldHeight = getHeight();
+
+        // +1 because of -Inf node; -1 because we want to get left neighbour of block at index
+        Path path = search(index + 1 - 1);
+        Tower[] lasts = path.getLastTowers(oldHeight);
+        List<Tower> towers = new ArrayList<>(blocks.size());
+
+        for (Block block : blocks) {
+            byte[] hash = block.hash(hashFunction);
+            Tower tower = new Tower(Node.NORMAL, hash, promotion.getHeight(hash, hashFunction));
+            towers.add(tower);
+
+            for (int level = 0; level < tower.getHeight(); level++) {
+                if (level == lasts.length) { // Add a level to the -Inf and +Inf towers
+                    start.setHeight(level + 1);
+                    end.setHeight(level + 1);
+                    start.right[level] = end;
+
+                    lasts = Arrays.copyOf(lasts, level + 1);
+                    lasts[level] = start;
+                }
+
+                tower.right[level] = lasts[level].right[level];
+                lasts[level].right[level] = tower;
+                lasts[level] = tower;
+            }
+        }
+
+        for (int i = towers.size() - 1; i >= 0; i--)
+            computeLabels(towers.get(i), 0);
+
+        computeLabels(path);
+        computeLabels(start, oldHeight);
+    }
+
+    /**
+     * Unlinks the towers of the blocks from the last towers on the search path to the left neighbour, and then
+     * recomputes the search path
+     * @param index The position of the first to-be-deleted block
+     * @param length The number of to-be-deleted blocks
+     */
+    @Override
+    public void deleteBlocks(int index, int length) {
+        if (index < 0 || length < 0 || index + length > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + getSize());
+
+        // +1 because of -Inf node; -1 because we want to get left neighbour of block at index
+        Path path = search(index + 1 - 1);
+        Tower[] lasts = path.getLastTowers(getHeight());
+
+        Tower tower = lasts[0].right[0];
+        for (int i = 0; i < length; i++) {
+            for (int level = 0; level < tower.getHeight(); level++)
+                lasts[level].right[level] = tower.right[level];
+
+            tower = tower.right[0];
+        }
+
+        // Remove the levels that only contained removed towers
+        int height = getHeight();
+        while (height > 1 && start.right[height - 1] == end)
+            height--;
+
+        start.setHeight(height);
+        end.setHeight(height);
+
+        computeLabels(path);
+    }
+
+    /**
+     * Replaces the block in place when its tower keeps the same height, and recomputes the search path to it.
+     * Otherwise the block is deleted and inserted.
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
+    @Override
+    public void updateBlock(int index, Block block) {
+        if (index < 0 || index >= getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        byte[] hash = block.hash(hashFunction);
+
+        // +1 because of -Inf node
+        Path path = search(index + 1);
+        Tower tower = path.towers[path.length - 1];
+
+        if (tower.getHeight() != promotion.getHeight(hash, hashFunction)) {
+            deleteBlocks(index, 1);
+            insertBlocks(index, Collections.singletonList(block));
+            return;
+        }
+
+        tower.hash = hash;
+        computeLabels(path);
+    }
+
+    /**
+     * Collects the same labels as SLProof, by descending from the top of the -Inf tower instead of climbing from the
+     * base node. The siblings are found from top to bottom, and added to the path in reverse.
+     */
+    @Override
+    public SLProof getProof(int index) {
+        if (index < 0 || index >= getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        // The search adds the siblings from the top down, about two per level, so the path is reversed at the end
+        HashPath path = new HashPath(getDigestLength(), 2 * getHeight());
+
+        int position = index + 1; // +1 because of -Inf node
+        Tower tower = start;
+        int level = getHeight() - 1;
+
+        while (true) {
+            Tower right = tower.right[level];
+            int downSize = level == 0 ? 1 : tower.sizes[level - 1];
+
+            if (position < downSize) {
+                if (right.isPlateau(level))
+                    path.add(right.labels[level], false);
+
+                if (level == 0)
+                    break;
+
+                level--;
+            } else {
+                path.add(level == 0 ? tower.hash : tower.labels[level - 1], true);
+
+                position -= downSize;
+                tower = right;
+            }
+        }
+
+        path.reverse();
+
+        return new SLProof(path);
+    }
+
+    @Override
+    public SLAuthenticator getAuthenticator() {
+        return new SLAuthenticator(start.labels[getHeight() - 1]);
+    }
+
+    @Override
+    public boolean verify(Block block, SLProof proof, SLAuthenticator authenticator) {
+        // Start with the hash of the received block, and update it with each label of the proof
+        byte[] rootHash = proof.getPath().computeRoot(block.hash(hashFunction), hashFunction);
+
+        // Check if the result equals the authenticator
+        return Arrays.equals(rootHash, authenticator.getHash());
+    }
+
+    @Override
+    protected boolean isRootHash(SLAuthenticator authenticator, int rootIndex, byte[] hash) {
+        return rootIndex == 0 && Arrays.equals(hash, authenticator.getHash());
+    }
+}
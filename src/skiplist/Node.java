@@ -1,5 +1,8 @@
 package skiplist;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 /**
  * A node in the skip list. Keeps a reference to the block it belongs to.
  */
@@ -7,6 +10,14 @@ public abstract class Node {
     protected Node up, left, right;
     protected byte[] label;
 
+    // The number of base nodes that the label covers, computed together with the label. Used to find a base node
+    // by descending from the start node.
+    protected int size;
+
+    // Whether the label is outdated. Changes only recompute the sizes, and mark the labels that depend on the change as
+    // dirty. The dirty labels are then recomputed together, by computeDirtyLabels.
+    protected boolean dirty = true;
+
     // Notes whether this node contains a -Inf, +Inf, or normal element
     protected int minMaxNormal;
 
@@ -41,6 +52,14 @@ public abstract class Node {
         return label;
     }
 
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
     public int getMinMaxNormal() {
         return minMaxNormal;
     }
@@ -73,14 +92,85 @@ public abstract class Node {
     }
 
     /**
-     * Recursively recomputes all labels right and below of this node if all = true.
+     * Recomputes all labels right and below of this node if all = true, without recursion.
      * Otherwise only recomputes this node's label
-     * @param all whether to recompute all recursively
+     * @param all whether to recompute all labels that this label depends on
      * @return new label
      */
-    public abstract byte[] computeLabel(boolean all);
+    public byte[] computeLabel(boolean all) {
+        if (!all)
+            return computeLabel();
+
+        // Mark every label that this label depends on, so that computeDirtyLabels recomputes them all
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(this);
+
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            node.dirty = true;
+
+            Node down = node.getDownNode();
+            if (down != null)
+                stack.push(down);
+            if (node.isRightCovered())
+                stack.push(node.right);
+        }
+
+        return computeDirtyLabels();
+    }
 
-    public byte[] computeLabel() {
-        return computeLabel(false);
+    /**
+     * Recomputes this node's label from the label below it and the label to its right
+     * @return new label
+     */
+    public abstract byte[] computeLabel();
+
+    /**
+     * Marks the label as outdated, and recomputes the size, which is still needed right away to find base nodes.
+     * The size is computed from the sizes below and right of this node, like the label.
+     */
+    public abstract void markDirty();
+
+    /**
+     * @return whether the label of the right node is hashed into the label of this node
+     */
+    protected boolean isRightCovered() {
+        return minMaxNormal != MAX && right.isPlateau() && right.getMinMaxNormal() != MAX;
+    }
+
+    /**
+     * @return the node below this node, or null for a base node
+     */
+    protected Node getDownNode() {
+        return null;
+    }
+
+    /**
+     * Recomputes the dirty labels that this label depends on, and then this label. Each dirty label is recomputed
+     * once, after the labels it depends on, so any number of changes costs one hash per changed label.
+     *
+     * A run of plateau nodes can be as long as the list, so the labels are visited with a stack on the heap instead
+     * of by recursion. Every label is used by exactly one other node, so every node is pushed at most once.
+     * @return the new label
+     */
+    public byte[] computeDirtyLabels() {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(this);
+
+        while (!stack.isEmpty()) {
+            Node node = stack.peek();
+            Node down = node.getDownNode();
+
+            if (down != null && down.dirty) {
+                stack.push(down);
+            } else if (node.isRightCovered() && node.right.dirty) {
+                stack.push(node.right);
+            } else {
+                stack.pop();
+                node.computeLabel();
+            }
+        }
+
+        return label;
     }
 }
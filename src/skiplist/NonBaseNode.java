@@ -1,7 +1,5 @@
 package skiplist;
 
-import utils.Utils;
-
 /**
  * A node in the skip list that is not a base node. Instead, it is located in the tower somewhere above a base node.
  */
@@ -38,33 +36,38 @@ public class NonBaseNode extends Node {
     }
 
     @Override
-    public byte[] computeLabel(boolean all) {
+    protected Node getDownNode() {
+        return down;
+    }
+
+    @Override
+    public byte[] computeLabel() {
         if (minMaxNormal == MAX)
             return base.getHash();
 
-        byte[] downLabel;
-        if (all) {
-            downLabel = down.computeLabel(all);
-        } else {
-            downLabel = down.label;
-        }
-
-        if (right.isPlateau() && right.getMinMaxNormal() != MAX) {
-            byte[] rightLabel;
+        byte[] downLabel = down.label;
 
-            if (all) {
-                rightLabel = right.computeLabel(all);
-            } else {
-                rightLabel = right.label;
-            }
-
-            label = Utils.hash(downLabel, rightLabel);
-        } else // right is a tower node
+        if (isRightCovered()) {
+            label = base.getHashFunction().hash(downLabel, right.label);
+            size = down.size + right.size;
+        } else { // right is a tower node
             label = downLabel;
+            size = down.size;
+        }
 
+        dirty = false;
         return label;
     }
 
+    @Override
+    public void markDirty() {
+        if (minMaxNormal == MAX)
+            return;
+
+        size = isRightCovered() ? down.size + right.size : down.size;
+        dirty = true;
+    }
+
     @Override
     public String toString() {
         //return base.toString();
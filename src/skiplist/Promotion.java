@@ -0,0 +1,120 @@
+package skiplist;
+
+import utils.HashFunction;
+
+/**
+ * Decides the height of the tower of a block from its hash. Every level is a coin flip that promotes the block to
+ * the next level with a given probability, up to a maximum height.
+ *
+ * The flips read the bits of the hash as a stream, least significant bit of each byte first. A flip compares the
+ * next bits, as a binary fraction, with 1 - p, and promotes the block if the fraction is at least 1 - p. It stops
+ * reading as soon as the result is known, so p = 1/2 uses one bit per flip, p = 1/4 two bits, and any other p two
+ * bits on average. When the hash runs out, the stream continues with the hash of the hash, so the height is defined
+ * for any digest length.
+ *
+ * For p = 1/2, a block is promoted while the bits of its hash are set, which gives the same towers as before the
+ * probability could be chosen.
+ */
+public final class Promotion {
+    public static final Promotion HALF = new Promotion(0.5);
+    public static final Promotion QUARTER = new Promotion(0.25);
+    public static final Promotion INVERSE_E = new Promotion(1 / Math.E);
+
+    private static final int FRACTION_BITS = 62;
+
+    private final double probability;
+    private final int maxHeight;
+
+    // 1 - p, as a fixed point fraction of FRACTION_BITS bits
+    private final long threshold;
+
+    /**
+     * Creates a promotion for skip lists of any size up to Integer.MAX_VALUE blocks
+     * @param probability the probability that a block is promoted to the next level
+     */
+    public Promotion(double probability) {
+        this(probability, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param probability the probability that a block is promoted to the next level
+     * @param maxSize the number of blocks that the skip list is expected to hold at most. Towers are not higher than
+     *                the expected number of levels of a list of this size, log_{1/p}(maxSize) + 1.
+     */
+    public Promotion(double probability, int maxSize) {
+        if (!(probability > 0 && probability < 1))
+            throw new IllegalArgumentException("The probability should be between 0 and 1, but is " + probability);
+        if (maxSize < 1)
+            throw new IllegalArgumentException("The maximum size should be positive, but is " + maxSize);
+
+        this.probability = probability;
+        this.maxHeight = (int) Math.ceil(Math.log(maxSize) / Math.log(1 / probability)) + 1;
+        this.threshold = Math.round((1 - probability) * (1L << FRACTION_BITS));
+
+        if (threshold <= 0 || threshold >= 1L << FRACTION_BITS)
+            throw new IllegalArgumentException("The probability is too close to 0 or 1: " + probability);
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    /**
+     * @return the maximum number of nodes in a tower, including the base node
+     */
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Flips the coins of a block. Does not allocate, unless the bits of the hash run out.
+     * @param hash the hash of the block
+     * @param hashFunction the hash function that extends the stream of bits
+     * @return the number of nodes in the tower of the block, including the base node
+     */
+    public int getHeight(byte[] hash, HashFunction hashFunction) {
+        byte[] bits = hash;
+        int position = 0;
+        int height = 1;
+
+        flips:
+        while (height < maxHeight) {
+            for (int i = FRACTION_BITS - 1; ; i--) {
+                if (position == 8 * bits.length) {
+                    bits = hashFunction.hash(bits);
+                    position = 0;
+                }
+
+                long bit = (bits[position >>> 3] >> (position & 7)) & 1;
+                position++;
+
+                if (bit != ((threshold >>> i) & 1)) {
+                    if (bit == 0) // The fraction is below the threshold
+                        break flips;
+                    break;
+                }
+
+                if ((threshold & ((1L << i) - 1)) == 0) // Any remaining bits give a fraction of at least the threshold
+                    break;
+            }
+
+            height++;
+        }
+
+        return height;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Promotion))
+            return false;
+
+        Promotion promotion = (Promotion) other;
+        return probability == promotion.probability && maxHeight == promotion.maxHeight;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.valueOf(probability).hashCode() + maxHeight;
+    }
+}
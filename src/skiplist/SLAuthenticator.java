@@ -1,8 +1,12 @@
 package skiplist;
 
 import framework.Authenticator;
+import framework.WireFormat;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A skip list authenticator value
@@ -28,4 +32,28 @@ public class SLAuthenticator extends Authenticator {
 
         return Arrays.equals(hash, slOther.getHash());
     }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getHashesLength(Collections.singletonList(hash));
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodeHashes(WireFormat.SKIP_LIST_AUTHENTICATOR, Collections.singletonList(hash), buffer);
+    }
+
+    /**
+     * Reads an authenticator that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the authenticator
+     * @return the authenticator
+     */
+    public static SLAuthenticator decode(ByteBuffer buffer) {
+        List<byte[]> hashes = WireFormat.decodeHashes(WireFormat.SKIP_LIST_AUTHENTICATOR, buffer);
+
+        if (hashes.size() != 1)
+            throw new IllegalArgumentException("Expected one hash, but got " + hashes.size());
+
+        return new SLAuthenticator(hashes.get(0));
+    }
 }
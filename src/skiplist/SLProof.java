@@ -1,32 +1,33 @@
 package skiplist;
 
+import framework.HashPath;
+import framework.PathProof;
 import framework.Proof;
+import framework.WireFormat;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 /**
  * A skip list response object
  */
-public class SLProof extends Proof<SkipListADS> {
+public class SLProof extends Proof<SkipListADS> implements PathProof {
 
-    private List<byte[]> Q;
-    private List<Boolean> pos;
+    // The labels that are hashed with the label of the block, from the bottom to the start node.
+    // A sibling is on the left (it goes first when hashing) if it is the label of a node to the left.
+    private HashPath path;
 
     public SLProof(SkipListADS ADS, int index) {
         super(ADS, index);
 
-        Node current = ADS.getBaseNodes().get(index+1);
+        ADS.computeDirtyLabels();
+        Node current = ADS.getBaseNode(index+1);
 
-        Q = new ArrayList<>();
-        pos = new ArrayList<>();
+        path = new HashPath(ADS.getDigestLength());
 
         Node w = current.getRight();
 
-        if (w.isPlateau() && w.minMaxNormal != Node.MAX) {
-            Q.add(w.getLabel());
-            pos.add(true);
-        }
+        if (w.isPlateau() && w.minMaxNormal != Node.MAX)
+            path.add(w.getLabel(), false);
 
         while(true) {
             if (current.getUp() != null) { // climb up the tower
@@ -34,23 +35,19 @@ public class SLProof extends Proof<SkipListADS> {
 
                 w = current.getRight();
 
-                if (w.isPlateau() && w.minMaxNormal != Node.MAX) {
-                    Q.add(w.getLabel());
-                    pos.add(true);
-                }
+                if (w.isPlateau() && w.minMaxNormal != Node.MAX)
+                    path.add(w.getLabel(), false);
             } else if (current.getLeft() != null) { // reached the top of the tower, so go to the left
                 current = current.getLeft();
 
                 if (current instanceof BaseNode) {
                     BaseNode baseCurrent = (BaseNode) current;
 
-                    Q.add(baseCurrent.getHash());
-                    pos.add(false);
+                    path.add(baseCurrent.getHash(), true);
                 } else {
                     NonBaseNode nonBaseCurrent = (NonBaseNode) current;
 
-                    Q.add(nonBaseCurrent.getDown().getLabel());
-                    pos.add(false);
+                    path.add(nonBaseCurrent.getDown().getLabel(), true);
                 }
             } else { // start node has been reached (has no up or left node)
                 break;
@@ -58,11 +55,38 @@ public class SLProof extends Proof<SkipListADS> {
         }
     }
 
-    public List<byte[]> getQ() {
-        return Q;
+    SLProof(HashPath path) {
+        super(null, 0);
+
+        this.path = path;
+    }
+
+    @Override
+    public HashPath getPath() {
+        return path;
+    }
+
+    @Override
+    public int getRootIndex() {
+        return 0;
+    }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getPathLength(this);
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodePath(WireFormat.SKIP_LIST_PROOF, this, buffer);
     }
 
-    public List<Boolean> getPos() {
-        return pos;
+    /**
+     * Reads a proof that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the proof
+     * @return the proof
+     */
+    public static SLProof decode(ByteBuffer buffer) {
+        return new SLProof(WireFormat.decodePath(WireFormat.SKIP_LIST_PROOF, buffer).getPath());
     }
 }
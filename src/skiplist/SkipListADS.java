@@ -2,42 +2,63 @@ package skiplist;
 
 import framework.ADS;
 import framework.Block;
-import utils.Utils;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Parallelism;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * (Authenticated) skip list ADS. Builds up the actual skip list.
+ *
+ * The skip list does not keep a list of its base nodes. Every node knows the number of base nodes that its label
+ * covers, so a base node is found by descending from the start node, along the same nodes that its proof contains.
+ *
+ * The height of the tower of a block is decided by coin flips on its hash, with the probability and maximum height of
+ * a Promotion. A lower probability gives fewer nodes per block, at the cost of longer proofs.
  */
 public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
     private Node startNode;
     private Node topRightNode;
-    private List<BaseNode> baseNodes;
+    private Promotion promotion;
 
     public SkipListADS(List<Block> blocks) {
-        startNode = new BaseNode(Node.MIN);
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public SkipListADS(List<Block> blocks, HashFunction hashFunction) {
+        this(blocks, hashFunction, Promotion.HALF);
+    }
+
+    public SkipListADS(List<Block> blocks, HashFunction hashFunction, Promotion promotion) {
+        super(hashFunction);
+
+        this.promotion = promotion;
 
-        baseNodes = new ArrayList<>();
-        baseNodes.add((BaseNode)startNode);
+        startNode = new BaseNode(Node.MIN, hashFunction);
 
         List<Node> rightMosts = new ArrayList<>();
         rightMosts.add(startNode);
 
+        List<Node> bases = new ArrayList<>(blocks.size() + 1);
+        bases.add(startNode);
+
         for (Block block : blocks) {
-            byte[] hash = block.hash();
+            byte[] hash = block.hash(hashFunction);
+            int height = promotion.getHeight(hash, hashFunction);
 
             Node node;
             Node down = null;
 
-            int idx = 0;
-            boolean coin = true;
-
-            while (coin) {
+            for (int idx = 0; idx < height; idx++) {
                 if (idx == 0) {
-                    node = new BaseNode(hash);
-                    baseNodes.add((BaseNode)node);
+                    node = new BaseNode(hash, hashFunction);
+                    bases.add(node);
                 } else {
                     node = new NonBaseNode(down);
                 }
@@ -52,9 +73,6 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
                 }
 
                 down = node;
-
-                coin = getOutputBit(hash, idx);
-                idx++;
             }
         }
 
@@ -62,8 +80,7 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
             Node rightMost = rightMosts.get(i);
 
             if (i == 0) {
-                topRightNode = new BaseNode(Node.MAX);
-                baseNodes.add((BaseNode)topRightNode);
+                topRightNode = new BaseNode(Node.MAX, hashFunction);
             } else {
                 topRightNode = new NonBaseNode(topRightNode, Node.MAX);
             }
@@ -71,33 +88,119 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
             rightMost.setRight(topRightNode);
         }
 
-        refreshAllLabels();
+        // Only the sizes are computed here, from right to left and from bottom to top. All labels are still dirty, and
+        // are computed when they are first needed.
+        for (int i = bases.size() - 1; i >= 0; i--) {
+            for (Node node = bases.get(i); node != null; node = node.getUp())
+                node.markDirty();
+        }
     }
 
-    public SkipListADS(Node startNode, Node topRightNode, List<BaseNode> baseNodes) {
+    public SkipListADS(Node startNode, Node topRightNode) {
+        this(startNode, topRightNode, HashFunctions.getDefault());
+    }
+
+    public SkipListADS(Node startNode, Node topRightNode, HashFunction hashFunction) {
+        this(startNode, topRightNode, hashFunction, Promotion.HALF);
+    }
+
+    public SkipListADS(Node startNode, Node topRightNode, HashFunction hashFunction, Promotion promotion) {
+        super(hashFunction);
+
         this.startNode = startNode;
         this.topRightNode = topRightNode;
-        this.baseNodes = baseNodes;
+        this.promotion = promotion;
     }
 
+    public Promotion getPromotion() {
+        return promotion;
+    }
+
+    /**
+     * @return the start node, of which the labels are up to date
+     */
     public Node getStartNode() {
+        computeDirtyLabels();
         return startNode;
     }
 
+    /**
+     * Collects the base nodes, including the -Inf and +Inf nodes, from left to right. As the skip list does not keep
+     * a list of them, this takes O(n) time.
+     * @return the base nodes
+     */
     public List<BaseNode> getBaseNodes() {
+        List<BaseNode> baseNodes = new ArrayList<>(getSize() + 2);
+
+        for (Node node = getBottom(startNode); node != null; node = node.getRight())
+            baseNodes.add((BaseNode) node);
+
         return baseNodes;
     }
 
+    /**
+     * Finds a base node by descending from the start node. A node covers the base nodes of the node below it, and
+     * those of the node to its right if that is a plateau node.
+     * @param index the index of the base node, where the -Inf node has index 0
+     * @return the base node
+     */
+    public BaseNode getBaseNode(int index) {
+        if (index == getSize() + 1) // The +Inf node is not covered by any label
+            return getBottom(topRightNode);
+
+        if (index < 0 || index > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        Node node = startNode;
+
+        while (true) {
+            if (node instanceof BaseNode) {
+                if (index == 0)
+                    return (BaseNode) node;
+
+                index--;
+                node = node.getRight();
+            } else {
+                Node down = ((NonBaseNode) node).getDown();
+
+                if (index < down.getSize()) {
+                    node = down;
+                } else {
+                    index -= down.getSize();
+                    node = node.getRight();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of blocks
+     */
+    public int getSize() {
+        return startNode.getSize() - 1; // The -Inf node is covered by the label of the start node
+    }
+
+    /**
+     * @return the base node at the bottom of the tower of the given node
+     */
+    private static BaseNode getBottom(Node node) {
+        while (node instanceof NonBaseNode)
+            node = ((NonBaseNode) node).getDown();
+
+        return (BaseNode) node;
+    }
+
     @Override
     public SkipListADS create(List<Block> blocks) {
-        return new SkipListADS(blocks);
+        return new SkipListADS(blocks, hashFunction, promotion);
     }
 
     @Override
     public void setThis(SkipListADS ADS) {
+        hashFunction = ADS.hashFunction;
         startNode = ADS.startNode;
         topRightNode = ADS.topRightNode;
-        baseNodes = ADS.baseNodes;
+        promotion = ADS.promotion;
     }
 
     @Override
@@ -107,12 +210,17 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
         if (right == null)
              return left;
 
-        Node leftMaxInf = left.baseNodes.get(left.baseNodes.size()-1);
-        Node rightMinInf = right.baseNodes.get(0);
+        checkHashFunctions(left, right);
+
+        if (!left.promotion.equals(right.promotion))
+            throw new IllegalArgumentException("Cannot merge skip lists with different promotions");
+
+        Node leftMaxInf = getBottom(left.topRightNode);
+        Node rightMinInf = getBottom(right.startNode);
 
         // Connect the node left of left.MaxInf and right of right.MinInf
         leftMaxInf.getLeft().setRight(rightMinInf.getRight());
-        computeLabelWhileRightIsPlateau(leftMaxInf.getLeft());
+        markDirtyWhileRightIsPlateau(leftMaxInf.getLeft());
 
         Node leftMinInf, rightMaxInf;
         while (true) {
@@ -124,7 +232,7 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
                 right.topRightNode = rightMaxInf;
 
                 leftMaxInf.getLeft().setRight(rightMaxInf);
-                computeLabelWhileRightIsPlateau(leftMaxInf.getLeft());
+                markDirtyWhileRightIsPlateau(leftMaxInf.getLeft());
             } else if (leftMaxInf.isPlateau() && !rightMinInf.isPlateau()) {
                 leftMinInf = new NonBaseNode(left.startNode, Node.MIN);
                 left.startNode = leftMinInf;
@@ -132,7 +240,7 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
                 rightMinInf = rightMinInf.getUp();
 
                 leftMinInf.setRight(rightMinInf.getRight());
-                computeLabelWhileRightIsPlateau(leftMinInf);
+                markDirtyWhileRightIsPlateau(leftMinInf);
             } else if (leftMaxInf.isPlateau() && rightMinInf.isPlateau()) { // Inf sentinels are equally sized
                 break;
             } else { // tops aren't reached yet, so simply connect nodes next to Inf sentinels
@@ -140,22 +248,19 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
                 rightMinInf = rightMinInf.getUp();
 
                 leftMaxInf.getLeft().setRight(rightMinInf.getRight());
-                computeLabelWhileRightIsPlateau(leftMaxInf.getLeft());
+                markDirtyWhileRightIsPlateau(leftMaxInf.getLeft());
             }
         }
 
-        List<BaseNode> baseNodes = new ArrayList<>(left.baseNodes.subList(0, left.baseNodes.size()-1));
-        baseNodes.addAll(new ArrayList<>(right.baseNodes.subList(1, right.baseNodes.size())));
-
-        return new SkipListADS(left.startNode, right.topRightNode, baseNodes);
+        return new SkipListADS(left.startNode, right.topRightNode, left.hashFunction, left.promotion);
     }
 
-    private void computeLabelWhileRightIsPlateau(Node node) {
-        node.computeLabel();
+    private void markDirtyWhileRightIsPlateau(Node node) {
+        node.markDirty();
         node = node.getLeft();
 
         while (node != null && node.getRight().isPlateau()) {
-            node.computeLabel();
+            node.markDirty();
             node = node.getLeft();
         }
     }
@@ -165,32 +270,32 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
 
         if (index == 0) {
             return new SkipListADS[]{null, ADS};
-        } else if (index == ADS.baseNodes.size()-2) {
+        } else if (index == ADS.getSize()) {
             return new SkipListADS[]{ADS, null};
         }
 
         // else if 0 < index < leaves.size ...
 
         // +1 because of -Inf node; -1 because we want to get left neighbour of block at index
-        Node node = ADS.baseNodes.get(index+1-1);
+        Node node = ADS.getBaseNode(index+1-1);
 
         // Construct -Inf tower of right ADS, and +Inf tower of left ADS
-        BaseNode leftMaxInfBase = new BaseNode(Node.MAX);
-        BaseNode rightMinInfBase = new BaseNode(Node.MIN);
+        BaseNode leftMaxInfBase = new BaseNode(Node.MAX, ADS.hashFunction);
+        BaseNode rightMinInfBase = new BaseNode(Node.MIN, ADS.hashFunction);
 
         rightMinInfBase.setRight(node.getRight());
         node.setRight(leftMaxInfBase);
 
-        node.computeLabel();
+        node.markDirty();
 
         Node leftMaxInf = leftMaxInfBase;
         Node rightMinInf = rightMinInfBase;
 
-        leftMaxInf.computeLabel();
-        rightMinInf.computeLabel();
+        leftMaxInf.markDirty();
+        rightMinInf.markDirty();
 
-        Node leftStartNode = ADS.baseNodes.get(0);
-        Node rightTopRightNode = ADS.baseNodes.get(ADS.baseNodes.size()-1);
+        Node leftStartNode = getBottom(ADS.startNode);
+        Node rightTopRightNode = getBottom(ADS.topRightNode);
 
         boolean done = false;
         boolean leftHeightReached = false;
@@ -199,7 +304,7 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
             while (node.isPlateau()) {
                 if (node.getLeft() != null) {
                     node = node.getLeft();
-                    node.computeLabel();
+                    node.markDirty();
 
                     if (node.getMinMaxNormal() == Node.MIN) { // -Inf node
                         leftHeightReached = true;
@@ -218,7 +323,7 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
             if (node.getRight().getMinMaxNormal() != Node.MAX) { // if node.right is not a +Inf node
                 rightMinInf = new NonBaseNode(rightMinInf, Node.MIN);
                 rightMinInf.setRight(node.getRight());
-                rightMinInf.computeLabel();
+                rightMinInf.markDirty();
 
                 rightTopRightNode = rightTopRightNode.getUp();
             } else {
@@ -230,77 +335,290 @@ public class SkipListADS extends ADS<SkipListADS, SLProof, SLAuthenticator> {
                 leftMaxInf = new NonBaseNode(leftMaxInf, Node.MAX);
                 node.setRight(leftMaxInf);
 
-                node.computeLabel();
+                node.markDirty();
 
                 leftStartNode = leftStartNode.getUp();
             }
         }
 
-        List<BaseNode> leftBaseNodes = new ArrayList<>(ADS.baseNodes.subList(0, index+1));
-        leftBaseNodes.add(leftMaxInfBase);
-
-        List<BaseNode> rightBaseNodes = new ArrayList<>(ADS.baseNodes.subList(index+1, ADS.baseNodes.size()));
-        rightBaseNodes.add(0, rightMinInfBase);
-
         leftStartNode.setUp(null);
         rightTopRightNode.setUp(null);
 
-        SkipListADS left = new SkipListADS(leftStartNode, leftMaxInf, leftBaseNodes);
-        SkipListADS right = new SkipListADS(rightMinInf, rightTopRightNode, rightBaseNodes);
+        SkipListADS left = new SkipListADS(leftStartNode, leftMaxInf, ADS.hashFunction, ADS.promotion);
+        SkipListADS right = new SkipListADS(rightMinInf, rightTopRightNode, ADS.hashFunction, ADS.promotion);
 
         return new SkipListADS[]{left, right};
     }
 
+    /**
+     * Replaces the block in place when its tower keeps the same height. Then only the labels that depend on the
+     * base node are marked dirty: every label is used by exactly one other node (the node above it, or, for a plateau
+     * node, the node left of it), so this is a single path to the start node.
+     * If the height of the tower changes, the block is replaced by splitting and merging.
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
     @Override
-    public SLProof getProof(int index) {
-        return new SLProof(this, index);
+    public void updateBlock(int index, Block block) {
+        byte[] hash = block.hash(hashFunction);
+
+        // +1 because of -Inf node
+        BaseNode base = getBaseNode(index + 1);
+
+        int oldHeight = 1;
+        for (Node node = base; !node.isPlateau(); node = node.getUp())
+            oldHeight++;
+
+        int newHeight = promotion.getHeight(hash, hashFunction);
+
+        if (oldHeight != newHeight) {
+            super.updateBlock(index, block);
+            return;
+        }
+
+        base.setHash(hash);
+
+        markDirtyToStart(base);
     }
 
     /**
-     * Returns a pseudorandom boolean from a hash and a given index value.
-     * Is used for the coin tossing that determines how many levels are created for a given block.
-     * @param hash The block's hash
-     * @param idx The number of coin tosses that have been done
-     * @return A pseudorandom boolean
+     * Inserts the towers of the blocks next to each other, without splitting the skip list. Only the labels of the new
+     * nodes, and the labels that depend on the nodes left of the new towers, are marked dirty.
+     * @param index the location where the new blocks go
+     * @param blocks the to-be-inserted blocks
      */
-    private boolean getOutputBit(byte[] hash, int idx) {
-        int b = hash[idx/8];
-        int result = (b >> (idx%8)) & 1;
+    @Override
+    public void insertBlocks(int index, List<Block> blocks) {
+        if (index < 0 || index > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+
+        // +1 because of -Inf node; -1 because we want to get left neighbour of block at index
+        Node left = getBaseNode(index + 1 - 1);
 
-        return result == 1;
+        List<Node> towers = new ArrayList<>(blocks.size()); // The base nodes of the new towers
+        Set<Node> created = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        List<Node> changed = new ArrayList<>(); // The existing nodes of which the right node has changed
+
+        for (Block block : blocks) {
+            byte[] hash = block.hash(hashFunction);
+            int height = promotion.getHeight(hash, hashFunction);
+
+            Node node = new BaseNode(hash, hashFunction);
+            Node neighbour = left;
+            left = node;
+            towers.add(node);
+
+            for (int idx = 0; ; idx++) {
+                node.setRight(neighbour.getRight());
+                neighbour.setRight(node);
+
+                created.add(node);
+                if (!created.contains(neighbour))
+                    changed.add(neighbour);
+
+                if (idx + 1 == height)
+                    break;
+
+                neighbour = getUpperNeighbour(neighbour);
+                node = new NonBaseNode(node);
+            }
+        }
+
+        // A size depends on the node below it and the node to its right, so the new towers are computed from right to
+        // left, and each from bottom to top
+        for (int i = towers.size() - 1; i >= 0; i--) {
+            for (Node node = towers.get(i); node != null; node = node.getUp())
+                node.markDirty();
+        }
+
+        for (Node node : changed)
+            markDirtyToStart(node);
+    }
+
+    /**
+     * Removes the towers of the blocks, without splitting the skip list. Only the labels that depend on the nodes left
+     * of the removed towers are marked dirty.
+     * @param index The position of the first to-be-deleted block
+     * @param length The number of to-be-deleted blocks
+     */
+    @Override
+    public void deleteBlocks(int index, int length) {
+        if (index < 0 || length < 0 || index + length > getSize())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + getSize());
+
+        // +1 because of -Inf node; -1 because we want to get left neighbour of block at index
+        Node left = getBaseNode(index + 1 - 1);
+        int height = 0; // The height of the highest removed tower
+
+        for (int i = 0; i < length; i++) {
+            int towerHeight = 0;
+
+            for (Node node = left.getRight(); node != null; node = node.getUp()) {
+                node.getLeft().setRight(node.getRight());
+                towerHeight++;
+            }
+
+            height = Math.max(height, towerHeight);
+        }
+
+        // Remove the levels that only contained removed towers
+        while (startNode instanceof NonBaseNode && startNode.getRight() == topRightNode) {
+            startNode = ((NonBaseNode) startNode).getDown();
+            topRightNode = ((NonBaseNode) topRightNode).getDown();
+            startNode.setUp(null);
+            topRightNode.setUp(null);
+        }
+
+        // The nodes left of the removed towers have a new right node
+        Node node = left;
+        for (int level = 0; level < height && node != null; level++) {
+            markDirtyToStart(node);
+
+            while (node.isPlateau() && node.getLeft() != null)
+                node = node.getLeft();
+            node = node.getUp();
+        }
+    }
+
+    /**
+     * Returns the nearest node one level higher than the given node, at or left of its position. If the given node
+     * is at the top level, a level is added by raising the -Inf and +Inf towers.
+     */
+    private Node getUpperNeighbour(Node node) {
+        while (node.isPlateau() && node.getLeft() != null)
+            node = node.getLeft();
+
+        if (node.isPlateau()) { // The start node is reached
+            startNode = new NonBaseNode(startNode, Node.MIN);
+            topRightNode = new NonBaseNode(topRightNode, Node.MAX);
+            startNode.setRight(topRightNode);
+        }
+
+        return node.getUp();
+    }
+
+    /**
+     * Marks the label of the node and all labels that depend on it as dirty, and recomputes their sizes. Every label is
+     * used by exactly one other node (the node above it, or, for a plateau node, the node left of it), so this is a
+     * single path to the start node.
+     */
+    private static void markDirtyToStart(Node node) {
+        while (node != null) {
+            node.markDirty();
+            node = node.isPlateau() ? node.getLeft() : node.getUp();
+        }
+    }
+
+    @Override
+    public SLProof getProof(int index) {
+        return new SLProof(this, index);
     }
 
     @Override
     public SLAuthenticator getAuthenticator() {
+        computeDirtyLabels();
         return new SLAuthenticator(startNode.getLabel());
     }
 
     @Override
     public boolean verify(Block block, SLProof proof, SLAuthenticator authenticator) {
-        // Set the initial rootHash to the hash of the received block
-        byte[] rootHash = block.hash();
-
-        List<byte[]> Q = proof.getQ();
-        List<Boolean> pos = proof.getPos();
-
-        // Update the hash for each value in Q
-        for (int i = 0 ; i < proof.getQ().size(); i++) {
-            if (pos.get(i)) {
-                rootHash = Utils.hash(rootHash, Q.get(i));
-            } else {
-                rootHash = Utils.hash(Q.get(i), rootHash);
-            }
-        }
+        // Start with the hash of the received block, and update it with each label of the proof
+        byte[] rootHash = proof.getPath().computeRoot(block.hash(hashFunction), hashFunction);
 
         // Check if the result equals the authenticator
         return Arrays.equals(rootHash, authenticator.getHash());
     }
 
     /**
-     * Makes sure that all labels are correct for the current data. It's up to the programmer when to do this:
-     * either after every update operation, or when the authenticator is asked for.
+     * Recomputes all labels, whether they are dirty or not, in one sweep over the towers from right to left
      */
     public void refreshAllLabels() {
-        startNode.computeLabel(true);
+        refreshAllLabels(null);
+    }
+
+    /**
+     * Recomputes all labels, whether they are dirty or not, without recursion. The towers are swept from right to
+     * left, and each tower from bottom to top, so every label is computed after the labels below and right of it.
+     *
+     * A label below a given level only depends on the nodes up to the next tower that is higher than that level. So
+     * the segments between those high towers are independent below that level, and are computed in parallel. After
+     * that, the upper levels of the high towers are swept. The level is chosen so that there are a few segments per
+     * thread.
+     * @param parallelism the pool that the segments are computed on, or null to compute in the calling thread
+     */
+    public void refreshAllLabels(Parallelism parallelism) {
+        final List<BaseNode> bases = getBaseNodes();
+        int[] heights = new int[bases.size()];
+        int maxHeight = 0;
+
+        for (int i = 0; i < bases.size(); i++) {
+            for (Node node = bases.get(i); node != null; node = node.getUp())
+                heights[i]++;
+
+            maxHeight = Math.max(maxHeight, heights[i]);
+        }
+
+        int level = 0;
+        if (parallelism != null) {
+            int[] counts = new int[maxHeight + 1]; // The number of towers that are higher than each level
+            for (int height : heights)
+                counts[height - 1]++;
+            for (int l = maxHeight - 1; l >= 0; l--)
+                counts[l] += counts[l + 1];
+
+            int segments = 4 * parallelism.getPool().getParallelism();
+            while (level + 1 < maxHeight && counts[level + 1] >= segments)
+                level++;
+        }
+
+        // The indices of the towers that are higher than the level, which include the -Inf and +Inf towers
+        final List<Integer> highTowers = new ArrayList<>();
+        for (int i = 0; i < heights.length; i++) {
+            if (heights[i] > level)
+                highTowers.add(i);
+        }
+
+        final int lowLevels = level;
+        Parallelism.RangeTask task = new Parallelism.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int segment = to - 1; segment >= from; segment--) {
+                    for (int i = highTowers.get(segment + 1) - 1; i >= highTowers.get(segment); i--) {
+                        Node node = bases.get(i);
+
+                        for (int l = 0; l < lowLevels && node != null; l++, node = node.getUp())
+                            node.computeLabel();
+                    }
+                }
+            }
+        };
+
+        if (parallelism == null || lowLevels == 0)
+            task.run(0, highTowers.size() - 1);
+        else
+            new Parallelism(parallelism.getPool(), 1).forRange(0, highTowers.size() - 1, task);
+
+        for (int i = highTowers.size() - 1; i >= 0; i--) {
+            Node node = bases.get(highTowers.get(i));
+
+            for (int l = 0; node != null; l++, node = node.getUp()) {
+                if (l >= lowLevels)
+                    node.computeLabel();
+            }
+        }
+    }
+
+    /**
+     * Recomputes the labels that were marked dirty by the changes since the last call, in one pass from the bottom up.
+     * getAuthenticator and getProof call this, so a batch of changes between them costs one hash per changed label.
+     */
+    public void computeDirtyLabels() {
+        if (startNode.isDirty())
+            startNode.computeDirtyLabels();
+    }
+
+    @Override
+    protected boolean isRootHash(SLAuthenticator authenticator, int rootIndex, byte[] hash) {
+        return rootIndex == 0 && Arrays.equals(hash, authenticator.getHash());
     }
 }
@@ -0,0 +1,52 @@
+package skiplist;
+
+import java.util.Arrays;
+
+/**
+ * A tower of a CompactSkipListADS. Instead of one node object per level, a tower keeps its right neighbours, labels
+ * and label sizes in arrays that are indexed by level. Level 0 is the level of the base nodes.
+ */
+final class Tower {
+    // Node.MIN, Node.NORMAL or Node.MAX
+    final int minMaxNormal;
+
+    // The hash of the block, or null for a +Inf tower
+    byte[] hash;
+
+    // For every level, the next tower that reaches that level
+    Tower[] right;
+
+    // For every level, the label of the node and the number of base nodes that it covers, like Node.label and
+    // Node.size
+    byte[][] labels;
+    int[] sizes;
+
+    Tower(int minMaxNormal, byte[] hash, int height) {
+        this.minMaxNormal = minMaxNormal;
+        this.hash = hash;
+        this.right = new Tower[height];
+        this.labels = new byte[height][];
+        this.sizes = new int[height];
+    }
+
+    int getHeight() {
+        return right.length;
+    }
+
+    /**
+     * Adds or removes levels at the top. Only used for the -Inf and +Inf towers.
+     */
+    void setHeight(int height) {
+        right = Arrays.copyOf(right, height);
+        labels = Arrays.copyOf(labels, height);
+        sizes = Arrays.copyOf(sizes, height);
+    }
+
+    /**
+     * @return whether the node at the given level is the top of the tower, and whether its label is therefore
+     * hashed into the label of the node to its left. The +Inf tower has no label.
+     */
+    boolean isPlateau(int level) {
+        return level == right.length - 1 && minMaxNormal != Node.MAX;
+    }
+}
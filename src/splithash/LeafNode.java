@@ -1,6 +1,7 @@
 package splithash;
 
 import framework.Block;
+import utils.HashFunction;
 
 import java.util.Arrays;
 
@@ -15,4 +16,12 @@ public class LeafNode extends Node {
         level = 0;
         bitcount = -1;
     }
+
+    public LeafNode(Block block, HashFunction hashFunction) {
+        super();
+
+        hash = block.hash(hashFunction);
+        level = 0;
+        bitcount = -1;
+    }
 }
@@ -1,6 +1,6 @@
 package splithash;
 
-import utils.Utils;
+import utils.HashFunction;
 
 import java.util.Arrays;
 
@@ -29,14 +29,14 @@ public class Node {
 
     public Node() {}
 
-    public Node(Node left, Node right, int level) {
+    public Node(Node left, Node right, int level, HashFunction hashFunction) {
         this.left = left;
         this.right = right;
 
         left.parent = this;
         right.parent = this;
 
-        hash = Utils.hash(left.getHash(), right.getHash());
+        hash = hashFunction.hash(left.getHash(), right.getHash());
 
         this.level = level;
         bitcount = -1;
@@ -1,7 +1,9 @@
 package splithash;
 
 import framework.Authenticator;
+import framework.WireFormat;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -45,4 +47,23 @@ public class SHAuthenticator extends Authenticator {
 
         return true;
     }
+
+    @Override
+    public int getEncodedLength() {
+        return WireFormat.getHashesLength(roots);
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        WireFormat.encodeHashes(WireFormat.SPLIT_HASH_AUTHENTICATOR, roots, buffer);
+    }
+
+    /**
+     * Reads an authenticator that was written by encode
+     * @param buffer the buffer, which is advanced to the end of the authenticator
+     * @return the authenticator
+     */
+    public static SHAuthenticator decode(ByteBuffer buffer) {
+        return new SHAuthenticator(WireFormat.decodeHashes(WireFormat.SPLIT_HASH_AUTHENTICATOR, buffer));
+    }
 }
@@ -2,21 +2,22 @@ package splithash;
 
 import framework.ADS;
 import framework.Block;
-import utils.Utils;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Parallelism;
+import utils.Rope;
+import utils.SeqHashRound;
 
 import java.util.*;
 
-import static splithash.Node.Position.LEFT;
 import static splithash.SplitHashADS.AddPos.BEGIN;
 import static splithash.SplitHashADS.AddPos.END;
-import static splithash.SplitHashADS.Kind.*;
+import static utils.SeqHashRound.Kind.*;
 
 /**
  * The SplitHash ADS.
  */
 public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
-    enum Kind{mergeLeft, mergeRight, leftFringe, unknown, rightFringe}
-
     enum AddPos{BEGIN, END}
 
     // The height of the SplitHash is the largest sequence of parent-child relations, minus the leaves
@@ -25,38 +26,62 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
     private List<List<Node>> rightFringes;
     private List<Node> top;
 
-    private List<LeafNode> leaves; // the leaf nodes of the SplitHash
+    private Rope<LeafNode> leaves; // the leaf nodes of the SplitHash, which can be split and concatenated in O(log n)
 
     public SplitHashADS() {
-        super();
+        this(HashFunctions.getDefault());
+    }
+
+    public SplitHashADS(HashFunction hashFunction) {
+        super(hashFunction);
+
         height = 0;
         leftFringes = new ArrayList<>();
         rightFringes = new ArrayList<>();
         top = new ArrayList<>();
-        leaves = new ArrayList<>();
+        leaves = Rope.empty();
     }
 
     public SplitHashADS(LeafNode node) {
-        this();
+        this(node, HashFunctions.getDefault());
+    }
+
+    public SplitHashADS(LeafNode node, HashFunction hashFunction) {
+        this(hashFunction);
         top.add(node);
-        leaves.add(node);
+        leaves = leaves.append(node);
     }
 
     public SplitHashADS(List<Block> blocks) {
-        this();
+        this(blocks, HashFunctions.getDefault());
+    }
+
+    public SplitHashADS(List<Block> blocks, HashFunction hashFunction) {
+        this(blocks, hashFunction, null);
+    }
+
+    /**
+     * Builds the SplitHash in parallel. Long rounds are decided and hashed in parallel, which gives the same
+     * SplitHash as building it sequentially.
+     * @param blocks the blocks
+     * @param hashFunction the hash function
+     * @param parallelism the pool that is used, or null to build the SplitHash sequentially
+     */
+    public SplitHashADS(List<Block> blocks, HashFunction hashFunction, Parallelism parallelism) {
+        this(hashFunction);
 
         if (blocks.size() == 0) {
             return;
         } else if (blocks.size() == 1) {
-            LeafNode node = new LeafNode(blocks.get(0));
+            LeafNode node = new LeafNode(blocks.get(0), hashFunction);
             top.add(node);
-            leaves.add(node);
+            leaves = leaves.append(node);
             return;
         }
 
         // else if blocks.size() > 1 ...
 
-        leaves = createLeaves(blocks);
+        leaves = Rope.of(createLeaves(blocks));
 
         int h = 0;
 
@@ -67,7 +92,7 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
         }
 
         while(center.size() > 0) {
-            RoundResult roundResult = doRound(center, true, true, h+1);
+            RoundResult roundResult = doRound(center, true, true, h+1, hashFunction, parallelism);
             center = roundResult.getCenter();
             leftFringes.add(roundResult.getLeftFringe());
             rightFringes.add(roundResult.getRightFringe());
@@ -90,14 +115,14 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
 
     @Override
     public SplitHashADS create(List<Block> blocks) {
-        return new SplitHashADS(blocks);
+        return new SplitHashADS(blocks, hashFunction);
     }
 
     private List<LeafNode> createLeaves(List<Block> blocks) {
         List<LeafNode> leaves = new ArrayList<>();
 
         for (Block block : blocks) {
-            LeafNode node = new LeafNode(block);
+            LeafNode node = new LeafNode(block, hashFunction);
             leaves.add(node);
         }
 
@@ -170,7 +195,7 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
         this.top = top;
     }
 
-    public List<LeafNode> getLeaves() {
+    public Rope<LeafNode> getLeaves() {
         return leaves;
     }
 
@@ -178,15 +203,24 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
         return height == 0 && top.size() == 0;
     }
 
-    private static RoundResult doRound(List<Node> nodes, boolean volatileLeft, boolean volatileRight, int level) {
+    private static RoundResult doRound(List<Node> nodes, boolean volatileLeft, boolean volatileRight, int level,
+                                       HashFunction hashFunction) {
+        return doRound(nodes, volatileLeft, volatileRight, level, hashFunction, null);
+    }
+
+    /**
+     * Does a round, which decides which nodes merge, and creates their parents. Long rounds are decided, and their
+     * parents hashed, in parallel if a parallelism is given, which gives the same result as a sequential round.
+     */
+    private static RoundResult doRound(final List<Node> nodes, boolean volatileLeft, boolean volatileRight,
+                                       final int level, final HashFunction hashFunction, Parallelism parallelism) {
         int n = nodes.size();
-        int left = 0;
-        int right = n - 1;
 
-        Map<Node, Kind> kinds = new HashMap<>(nodes.size());
+        byte[][] hashes = new byte[n][];
 
         Node prev = null;
-        for (Node node : nodes) {
+        for (int i = 0; i < n; i++) {
+            Node node = nodes.get(i);
 
             // Set the prev and next values in each level
             if (prev != null)
@@ -194,77 +228,45 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
 
             prev = node;
 
-            kinds.put(node, unknown);
+            hashes[i] = node.getHash();
         }
 
-        boolean done;
-        int idx;
-        for (idx = 0; ; idx++) {
-            done = true;
-
-            if (volatileLeft) {
-
-                if (left < n && kinds.get(nodes.get(left)) == unknown && !nodes.get(left).getOutputBit(idx)) {
-                    kinds.put(nodes.get(left), leftFringe);
-                    left++;
-                }
-
-                if (left < n && kinds.get(nodes.get(left)) == unknown) {
-                    done = false;
-                }
-            }
-
-            if (volatileRight) {
-                if (right >= 0 && kinds.get(nodes.get(right)) == unknown && nodes.get(right).getOutputBit(idx)) {
-                    kinds.put(nodes.get(right), rightFringe);
-                    right--;
-                }
-
-                if (right >= 0 && kinds.get(nodes.get(right)) == unknown) {
-                    done = false;
-                }
-            }
-
-            for (int j = 0; j < n-1; j++) {
-                Node nodeJ = nodes.get(j);
-                Node nodeJPlus = nodes.get(j+1);
-
-                if (kinds.get(nodeJ) == unknown && kinds.get(nodeJPlus) == unknown) {
-                    boolean sameHash = Arrays.equals(nodeJ.getHash(), nodeJPlus.getHash());
-
-                    if (sameHash || nodeJ.getOutputBit(idx) && !nodeJPlus.getOutputBit(idx)) {
-                        kinds.put(nodeJ, mergeLeft);
-                        kinds.put(nodeJPlus, mergeRight);
-
-                        nodeJ.setBitcount(idx);
-                        nodeJPlus.setBitcount(idx);
-                    } else {
-                        done = false;
+        final SeqHashRound round = SeqHashRound.decide(hashes, volatileLeft, volatileRight, parallelism);
+
+        // The parent of each node in the center, at the index of its (left) child
+        final Node[] parents = new Node[n];
+
+        Parallelism.RangeTask task = new Parallelism.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    switch (round.getKind(i)) {
+                        case unknown: // nodes that could not merge with neighbours, nor are part of the fringes
+                            parents[i] = new Node(nodes.get(i), level);
+                            break;
+                        case mergeLeft:
+                        case mergeRight:
+                            nodes.get(i).setBitcount(round.getMergeBit(i));
+
+                            if (round.getKind(i) == mergeLeft)
+                                parents[i] = new Node(nodes.get(i), nodes.get(i + 1), level, hashFunction);
                     }
                 }
             }
+        };
 
-            if (done)
-                break;
-        }
+        if (parallelism == null || n < SeqHashRound.MIN_PARALLEL_SIZE)
+            task.run(0, n);
+        else
+            parallelism.forRange(0, n, task);
 
-        // we go over the node list, and decide which (unmerged) nodes should be merged
         RoundResult r = new RoundResult();
 
         for (int i = 0; i < n; i++) {
-            Node parent;
-
-            switch (kinds.get(nodes.get(i))) {
-                case unknown: // nodes that could not merge with neighbours, but also aren't part of the fringes (orphan)
-                    // Add a single parent in the new level
-                    parent = new Node(nodes.get(i), level);
-                    r.addCenter(parent);
-                    break;
+            switch (round.getKind(i)) {
+                case unknown:
                 case mergeLeft:
-                    parent = new Node(nodes.get(i), nodes.get(i+1), level);
-
-                    r.addCenter(parent);
-                    i++; // to skip the right child
+                    r.addCenter(parents[i]);
                     break;
                 case leftFringe:
                     r.addLeftFringe(nodes.get(i));
@@ -279,6 +281,7 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
 
     @Override
     public void setThis(SplitHashADS ADS) {
+        hashFunction = ADS.hashFunction;
         height = ADS.height;
         leftFringes = ADS.leftFringes;
         rightFringes = ADS.rightFringes;
@@ -288,14 +291,28 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
 
     @Override
     public SplitHashADS merge(SplitHashADS left, SplitHashADS right) {
-        if (left.isEmpty())
+        return merge(left, Collections.<LeafNode>emptyList(), right);
+    }
+
+    /**
+     * Merges the left SplitHash, new leaves and the right SplitHash in one pass. The new leaves join the nodes of
+     * the fringes in the first round, so they are not built into a SplitHash of their own first.
+     * @param left the left SplitHash
+     * @param middle the new leaves, which go between left and right
+     * @param right the right SplitHash
+     * @return the merged SplitHash
+     */
+    private SplitHashADS merge(SplitHashADS left, List<LeafNode> middle, SplitHashADS right) {
+        if (middle.isEmpty() && left.isEmpty())
             return right;
-        if (right.isEmpty())
+        if (middle.isEmpty() && right.isEmpty())
             return left;
 
-        SplitHashADS result = new SplitHashADS();
+        checkHashFunctions(left, right);
+
+        SplitHashADS result = new SplitHashADS(left.hashFunction);
 
-        ArrayList<Node> elems = new ArrayList<>();
+        ArrayList<Node> elems = new ArrayList<Node>(middle);
 
         // Go through all levels, building up the height of the merged SplitHash
         while (true) {
@@ -325,7 +342,22 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
                 break;
             }
 
-            RoundResult roundResult = doRound(elems, volatileLeft, volatileRight, h+1);
+            // The nodes of left and right that keep their parents are not part of the round, so the ones next to the
+            // round are linked to it here
+            Node lastLeft = !volatileLeft && !hasNodes(left.getRightFringes(), h) ? left.getLastAt(h) : null;
+            Node firstRight = !volatileRight && !hasNodes(right.getLeftFringes(), h) ? right.getFirstAt(h) : null;
+
+            if (elems.isEmpty()) {
+                if (lastLeft != null && firstRight != null)
+                    lastLeft.setNext(firstRight);
+            } else {
+                if (lastLeft != null)
+                    lastLeft.setNext(elems.get(0));
+                if (firstRight != null)
+                    elems.get(elems.size() - 1).setNext(firstRight);
+            }
+
+            RoundResult roundResult = doRound(elems, volatileLeft, volatileRight, h+1, hashFunction);
             elems = roundResult.getCenter();
 
             if (volatileLeft) {
@@ -362,34 +394,68 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
             result.getRightFringes().remove(h);
         }
 
-        result.leaves.addAll(left.leaves);
-        result.leaves.addAll(right.leaves);
+        result.leaves = left.leaves.concat(Rope.of(middle)).concat(right.leaves);
 
+        // Link the leaves at both sides of the middle
         int lSize = left.leaves.size();
-        int rSize = right.leaves.size();
-        if (lSize > 0 && rSize > 0)
-            left.leaves.get(lSize-1).setNext(right.leaves.get(0));
+        int mSize = middle.size();
+        int size = result.leaves.size();
+        if (lSize > 0 && lSize < size)
+            result.leaves.get(lSize-1).setNext(result.leaves.get(lSize));
+        if (mSize > 0 && lSize + mSize < size)
+            result.leaves.get(lSize+mSize-1).setNext(result.leaves.get(lSize+mSize));
 
         return result;
     }
 
     @Override
     public SplitHashADS[] split(SplitHashADS ADS, int index) {
+        return cut(ADS, index, index);
+    }
+
+    /**
+     * Cuts the SplitHash into the part before from and the part from to onwards. The leaves in between are dropped,
+     * so a deletion needs a single cut instead of two splits. Each part is cut off by a walk from the leaf next to the
+     * cut, and the two walks do not touch each other's nodes.
+     * @param ADS the SplitHash, which is cut up
+     * @param from the index of the first dropped leaf
+     * @param to the index of the first leaf of the right part
+     * @return the left and the right part
+     */
+    private static SplitHashADS[] cut(SplitHashADS ADS, int from, int to) {
         // Initialize left and right SplitHashADS
-        SplitHashADS left = new SplitHashADS();
-        SplitHashADS right = new SplitHashADS();
+        SplitHashADS left = new SplitHashADS(ADS.hashFunction);
+        SplitHashADS right = new SplitHashADS(ADS.hashFunction);
 
-        // Check for cases in which split does not have to be performed
-        if (index == 0) {
+        // Check for cases in which no cut has to be performed
+        if (to == 0) {
             return new SplitHashADS[]{left, ADS};
-        } else if (index == ADS.leaves.size()) {
+        } else if (from == ADS.leaves.size()) {
             return new SplitHashADS[]{ADS, right};
         }
 
-        // Get the two leaf nodes directly left and right of the split
-        Node leftNode = ADS.leaves.get(index-1);
-        Node rightNode = ADS.leaves.get(index);
+        // The links across the cut are cleared on every level, also to dropped nodes that no walk passes
+        if (from > 0) {
+            cutLeft(ADS.leaves.get(from-1), left);
+            left.setTopFromFringes();
+            left.clearLinks();
+            left.leaves = ADS.leaves.head(from);
+        }
+
+        if (to < ADS.leaves.size()) {
+            cutRight(ADS.leaves.get(to), right);
+            right.setTopFromFringes();
+            right.clearLinks();
+            right.leaves = ADS.leaves.tail(to);
+        }
+
+        return new SplitHashADS[]{left, right};
+    }
 
+    /**
+     * Walks up from the last leaf of the left part, and adds the nodes whose parents can change to the fringes of left
+     */
+    private static void cutLeft(Node leftNode, SplitHashADS left) {
         Node node = leftNode;
 
         int idx = 0;
@@ -446,25 +512,16 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
                 }
             }
         }
+    }
 
-        node = leftNode;
-        node.setNext(null);
-        while (node != null) {
-            if (node.getParent() != null) {
-                node = node.getParent();
-                node.setNext(null);
-            } else if (node.getPrev() != null) {
-                node = node.getPrev();
-            } else {
-                break;
-            }
-        }
-
-        // Repeat the same procedure for the part at the right side of the split, with minor differences checking
-        // for a node being a single or double parent
-        node = rightNode;
+    /**
+     * Repeats the procedure of cutLeft for the part at the right side of the cut, with minor differences checking
+     * for a node being a single or double parent
+     */
+    private static void cutRight(Node rightNode, SplitHashADS right) {
+        Node node = rightNode;
 
-        idx = 0;
+        int idx = 0;
         while (node != null) {
             // If a node enters this loop, it means he has a parent (otherwise, idx < bitcount is never true, because bitcount = -1)
             while (node != null && idx < node.getBitcount()) {
@@ -509,41 +566,140 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
                 }
             }
         }
+    }
+
+    /**
+     * Sets the height after a cut, and moves the fringes of the highest level to the top
+     */
+    private void setTopFromFringes() {
+        height = Math.max(leftFringes.size(), rightFringes.size()) - 1;
 
-        // Set heights
-        left.height = Math.max(left.leftFringes.size(), left.rightFringes.size()) - 1;
-        right.height = Math.max(right.leftFringes.size(), right.rightFringes.size()) - 1;
+        top = new ArrayList<>();
+
+        if (height + 1 == leftFringes.size()) {
+            top.addAll(leftFringes.get(height));
+            leftFringes.remove(height);
+        }
+        if (height + 1 == rightFringes.size()) {
+            top.addAll(rightFringes.get(height));
+            rightFringes.remove(height);
+        }
+    }
 
-        // Set top fringes to top, and remove from fringes
-        left.top = new ArrayList<>();
+    /**
+     * Clears the links from the first and the last node of every level to nodes outside this SplitHash
+     */
+    private void clearLinks() {
+        for (int level = 0; level <= height; level++) {
+            Node first = getFirstAt(level);
+            if (first.getPrev() != null)
+                first.getPrev().setNext(null);
 
-        if (left.height + 1 == left.leftFringes.size()) {
-            left.top.addAll(left.leftFringes.get(left.height));
-            left.leftFringes.remove(left.height);
+            getLastAt(level).setNext(null);
         }
-        if (left.height + 1 == left.rightFringes.size()) {
-            left.top.addAll(left.rightFringes.get(left.height));
-            left.rightFringes.remove(left.height);
+    }
+
+    private static boolean hasNodes(List<List<Node>> levels, int level) {
+        return level < levels.size() && !levels.get(level).isEmpty();
+    }
+
+    /**
+     * Finds the first node of a level, below the lowest left fringe that reaches it, or below the top
+     * @param level the level, at most the height
+     * @return the first node of the level
+     */
+    private Node getFirstAt(int level) {
+        Node node = top.get(0);
+
+        for (int h = level; h < height; h++) {
+            if (hasNodes(leftFringes, h)) {
+                node = leftFringes.get(h).get(0);
+                break;
+            }
         }
 
-        right.top = new ArrayList<>();
+        while (node.getLevel() > level)
+            node = node.getLeft();
+
+        return node;
+    }
+
+    /**
+     * Finds the last node of a level, like getFirstAt
+     * @param level the level, at most the height
+     * @return the last node of the level
+     */
+    private Node getLastAt(int level) {
+        Node node = top.get(top.size() - 1);
 
-        if (right.height + 1 == right.leftFringes.size()) {
-            right.top.addAll(right.leftFringes.get(right.height));
-            right.leftFringes.remove(right.height);
+        for (int h = level; h < height; h++) {
+            if (hasNodes(rightFringes, h)) {
+                List<Node> nodes = rightFringes.get(h);
+                node = nodes.get(nodes.size() - 1);
+                break;
+            }
         }
-        if (right.height + 1 == right.rightFringes.size()) {
-            right.top.addAll(right.rightFringes.get(right.height));
-            right.rightFringes.remove(right.height);
+
+        while (node.getLevel() > level)
+            node = node.isSingleParent() ? node.getLeft() : node.getRight();
+
+        return node;
+    }
+
+    /**
+     * Inserts the blocks with a single cut and a single merge pass. The new leaves join the first round of the merge,
+     * instead of being built into a SplitHash that is merged twice.
+     * @param index the location where the new blocks go
+     * @param blocks the to-be-inserted blocks
+     */
+    @Override
+    public void insertBlocks(int index, List<Block> blocks) {
+        if (index < 0 || index > leaves.size())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + leaves.size());
+
+        if (blocks.isEmpty())
+            return;
+
+        if (isEmpty()) {
+            setThis(create(blocks));
+            return;
         }
 
-        // Distribute the leaves
-        List<LeafNode> leftLeaves = new ArrayList<>(ADS.leaves.subList(0, index));
-        left.leaves.addAll(leftLeaves);
-        List<LeafNode> rightLeaves = new ArrayList<>(ADS.leaves.subList(index, ADS.leaves.size()));
-        right.leaves.addAll(rightLeaves);
+        SplitHashADS[] parts = cut(this, index, index);
+        setThis(merge(parts[0], createLeaves(blocks), parts[1]));
+    }
 
-        return new SplitHashADS[]{left, right};
+    /**
+     * Deletes the blocks with a single cut around them, and a single merge of the parts
+     * @param index The position of the first to-be-deleted block
+     * @param length The number of to-be-deleted blocks
+     */
+    @Override
+    public void deleteBlocks(int index, int length) {
+        if (index < 0 || length < 0 || index + length > leaves.size())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length + ", Size: " + leaves.size());
+
+        if (length == 0)
+            return;
+
+        SplitHashADS[] parts = cut(this, index, index + length);
+        setThis(merge(parts[0], parts[1]));
+    }
+
+    /**
+     * Cuts out the leaf with two local splits, and merges a new single leaf SplitHash in its place.
+     * Both splits and merges only touch the nodes near the cut, so no tree is rebuilt.
+     * @param index the index of the to-be-replaced block
+     * @param block the new block
+     */
+    @Override
+    public void updateBlock(int index, Block block) {
+        SplitHashADS[] temp = split(this, index);
+        SplitHashADS right = split(temp[1], 1)[1];
+
+        SplitHashADS middle = new SplitHashADS(new LeafNode(block, hashFunction), hashFunction);
+
+        setThis(merge(merge(temp[0], middle), right));
     }
 
     /**
@@ -588,24 +744,61 @@ public class SplitHashADS extends ADS<SplitHashADS, SHProof, SHAuthenticator> {
 
     @Override
     public boolean verify(Block block, SHProof proof, SHAuthenticator authenticator) {
-        byte[] rootHash = block.hash();
-        byte[] siblingHash;
-
-        // For each hash in the sibling list
-        for (int i = 0; i < proof.getSiblingHashes().size(); i++) {
-            // Get the sibling hash
-            siblingHash = proof.getSiblingHashes().get(i);
-
-            // Check how the nodes are positioned relative to each other, to correctly compute the root hash.
-            // Then, concatenate their hashes accordingly.
-            if (proof.getSiblingPositions().get(i) == LEFT) {
-                rootHash = Utils.hash(siblingHash, rootHash);
-            } else {
-                rootHash = Utils.hash(rootHash, siblingHash);
-            }
-        }
+        // Hash the block with the sibling hashes, from bottom to top
+        byte[] rootHash = proof.getPath().computeRoot(block.hash(hashFunction), hashFunction);
 
         // If the computed root hash equals the check root hash, then this proves that the received block is correct.
         return authenticator.contains(rootHash);
     }
+
+    @Override
+    protected boolean isRootHash(SHAuthenticator authenticator, int rootIndex, byte[] hash) {
+        List<byte[]> roots = authenticator.getRoots();
+        return rootIndex < roots.size() && Arrays.equals(hash, roots.get(rootIndex));
+    }
+
+    /**
+     * Compares the structure of two SplitHashes: the leaves, the top nodes and the fringes of every level. Nodes are
+     * compared with Node.equals. Empty fringe levels do not count.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SplitHashADS))
+            return false;
+
+        SplitHashADS other = (SplitHashADS) obj;
+
+        if (height != other.height || leaves.size() != other.leaves.size())
+            return false;
+
+        for (int i = 0; i < leaves.size(); i++) {
+            if (!leaves.get(i).equals(other.leaves.get(i)))
+                return false;
+        }
+
+        return top.equals(other.top) && equalLevels(leftFringes, other.leftFringes)
+                && equalLevels(rightFringes, other.rightFringes);
+    }
+
+    private static boolean equalLevels(List<List<Node>> levels, List<List<Node>> otherLevels) {
+        for (int level = 0; level < Math.max(levels.size(), otherLevels.size()); level++) {
+            List<Node> nodes = level < levels.size() ? levels.get(level) : Collections.<Node>emptyList();
+            List<Node> otherNodes = level < otherLevels.size() ? otherLevels.get(level) : Collections.<Node>emptyList();
+
+            if (!nodes.equals(otherNodes))
+                return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = height;
+
+        for (Node node : top)
+            result = 31 * result + Arrays.hashCode(node.getHash());
+
+        return result;
+    }
 }
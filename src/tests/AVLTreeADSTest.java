@@ -0,0 +1,250 @@
+package tests;
+
+import avltree.AVLAuthenticator;
+import avltree.AVLProof;
+import avltree.AVLTreeADS;
+import framework.Block;
+import framework.IntBlock;
+import framework.IntData;
+import framework.MultiProof;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AVLTreeADSTest {
+    private IntData data;
+    private AVLTreeADS ADS;
+
+    @Before
+    public void initialize() {
+        data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        ADS = new AVLTreeADS(data.getBlocks());
+    }
+
+    /**
+     * Checks that the leaves of the ADS are the given blocks, and that every block verifies
+     */
+    private static void assertContains(AVLTreeADS ADS, List<Block> blocks) {
+        List<byte[]> hashes = ADS.getLeafHashes();
+        assertEquals(blocks.size(), hashes.size());
+
+        for (int i = 0; i < blocks.size(); i++)
+            assertArrayEquals(blocks.get(i).hash(ADS.getHashFunction()), hashes.get(i));
+
+        AVLAuthenticator authenticator = ADS.getAuthenticator();
+        for (int i = 0; i < blocks.size(); i++)
+            assertTrue(ADS.verify(blocks.get(i), ADS.getProof(i), authenticator));
+
+        // An AVL tree of n leaves has a height of at most 1.44 log2(n + 2)
+        assertTrue(ADS.getHeight() <= 1.45 * Math.log(blocks.size() + 2) / Math.log(2) + 1);
+    }
+
+    @Test
+    public void testVerify() {
+        assertContains(ADS, data.getBlocks());
+        assertFalse(ADS.verify(new IntBlock(1), ADS.getProof(0), ADS.getAuthenticator()));
+    }
+
+    @Test
+    public void testAppendBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(43));
+        blocks.add(new IntBlock(129));
+        blocks.add(new IntBlock(567));
+
+        data.appendBlocks(blocks);
+        ADS.appendBlocks(blocks);
+
+        assertContains(ADS, data.getBlocks());
+    }
+
+    @Test
+    public void testInsertBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(43));
+        blocks.add(new IntBlock(129));
+        blocks.add(new IntBlock(567));
+
+        data.insertBlocks(4, blocks);
+        ADS.insertBlocks(4, blocks);
+
+        assertContains(ADS, data.getBlocks());
+    }
+
+    @Test
+    public void testDeleteBlocks() {
+        data.deleteBlocks(2, 3);
+        ADS.deleteBlocks(2, 3);
+
+        assertContains(ADS, data.getBlocks());
+    }
+
+    @Test
+    public void testUpdateBlock() {
+        int[] indices = new int[]{0, 5, 12, 6};
+        int[] values = new int[]{43, 129, 567, 9};
+
+        for (int i = 0; i < indices.length; i++) {
+            AVLAuthenticator before = ADS.getAuthenticator();
+
+            data.updateBlock(indices[i], new IntBlock(values[i]));
+            ADS.updateBlock(indices[i], new IntBlock(values[i]));
+
+            assertFalse(before.equals(ADS.getAuthenticator()));
+        }
+
+        assertContains(ADS, data.getBlocks());
+    }
+
+    /**
+     * Merges and splits trees of all combinations of sizes
+     */
+    @Test
+    public void testMergeAndSplit() {
+        Random random = new Random(8);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 40; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        for (int leftSize = 1; leftSize < 20; leftSize++) {
+            for (int rightSize = 1; rightSize < 20; rightSize++) {
+                List<Block> leftBlocks = blocks.subList(0, leftSize);
+                List<Block> rightBlocks = blocks.subList(leftSize, leftSize + rightSize);
+                List<Block> allBlocks = blocks.subList(0, leftSize + rightSize);
+
+                AVLTreeADS left = new AVLTreeADS(leftBlocks);
+                AVLTreeADS right = new AVLTreeADS(rightBlocks);
+                AVLTreeADS merged = left.merge(left, right);
+                assertContains(merged, allBlocks);
+
+                for (int index = 1; index < allBlocks.size(); index++) {
+                    AVLTreeADS[] split = merged.split(merged, index);
+                    assertContains(split[0], allBlocks.subList(0, index));
+                    assertContains(split[1], allBlocks.subList(index, allBlocks.size()));
+                }
+
+                // The inputs are not changed
+                assertContains(left, leftBlocks);
+                assertContains(right, rightBlocks);
+                assertContains(merged, allBlocks);
+            }
+        }
+    }
+
+    /**
+     * Inserts and deletes at random positions, and at the same position over and over, which would unbalance a
+     * tree without rotations
+     */
+    @Test
+    public void testRandomInsertAndDelete() {
+        Random random = new Random(3);
+        List<Block> blocks = new ArrayList<>(data.getBlocks());
+
+        for (int i = 0; i < 300; i++) {
+            int index = i % 3 == 0 ? 1 : random.nextInt(blocks.size() + 1);
+            List<Block> inserted = new ArrayList<>();
+            for (int j = random.nextInt(4); j >= 0; j--)
+                inserted.add(new IntBlock(random.nextInt()));
+
+            blocks.addAll(index, inserted);
+            ADS.insertBlocks(index, inserted);
+
+            if (i % 2 == 0) {
+                int from = random.nextInt(blocks.size());
+                int length = Math.min(random.nextInt(3), blocks.size() - from);
+
+                blocks.subList(from, from + length).clear();
+                ADS.deleteBlocks(from, length);
+            }
+
+            assertContains(ADS, blocks);
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        AVLTreeADS empty = new AVLTreeADS();
+        assertEquals(0, empty.getSize());
+
+        List<Block> blocks = Collections.<Block>singletonList(new IntBlock(5));
+        empty.insertBlocks(0, blocks);
+        assertContains(empty, blocks);
+
+        empty.deleteBlocks(0, 1);
+        assertEquals(0, empty.getSize());
+    }
+
+    @Test
+    public void testEncode() {
+        AVLAuthenticator authenticator = ADS.getAuthenticator();
+        ByteBuffer buffer = ByteBuffer.allocate(authenticator.getEncodedLength());
+        authenticator.encode(buffer);
+        buffer.flip();
+        AVLAuthenticator decodedAuthenticator = AVLAuthenticator.decode(buffer);
+        assertTrue(authenticator.equals(decodedAuthenticator));
+
+        for (int i = 0; i < data.getBlockCount(); i++) {
+            AVLProof proof = ADS.getProof(i);
+            buffer = ByteBuffer.allocate(proof.getEncodedLength());
+            proof.encode(buffer);
+            buffer.flip();
+
+            assertTrue(ADS.verify(data.getBlock(i), AVLProof.decode(buffer), decodedAuthenticator));
+        }
+    }
+
+    /**
+     * The multiproof that is built in one pass from the root should be the same as the one that is made from the
+     * single proofs. Swapping two blocks should fail, as their positions follow from their indices.
+     */
+    @Test
+    public void testMultiProofSinglePass() {
+        Random random = new Random(12);
+
+        for (int run = 0; run < 200; run++) {
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 1 + random.nextInt(100); i > 0; i--)
+                blocks.add(new IntBlock(random.nextInt()));
+
+            AVLTreeADS tree = new AVLTreeADS(blocks);
+            int[] indices = new int[1 + random.nextInt(8)];
+            List<AVLProof> proofs = new ArrayList<>();
+            List<Block> proven = new ArrayList<>();
+
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = random.nextInt(blocks.size());
+                proofs.add(tree.getProof(indices[i]));
+                proven.add(blocks.get(indices[i]));
+            }
+
+            MultiProof proof = tree.getProof(indices);
+            MultiProof expected = MultiProof.fromPaths(indices, proofs);
+
+            assertArrayEquals(expected.getRootIndices(), proof.getRootIndices());
+            assertEquals(expected.getNodeCount(), proof.getNodeCount());
+            assertArrayEquals(expected.getShape(), proof.getShape());
+            assertEquals(expected.getHashes().size(), proof.getHashes().size());
+            for (int i = 0; i < proof.getHashes().size(); i++)
+                assertArrayEquals(expected.getHashes().get(i), proof.getHashes().get(i));
+
+            assertTrue(tree.verify(proven, proof, tree.getAuthenticator()));
+
+            for (int i = 1; i < indices.length; i++) {
+                if (proven.get(i).equals(proven.get(0)))
+                    continue;
+
+                Collections.swap(proven, 0, i);
+                assertFalse(tree.verify(proven, proof, tree.getAuthenticator()));
+                Collections.swap(proven, 0, i);
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package tests;
+
+import framework.Block;
+import framework.IntBlock;
+import framework.IntData;
+import framework.MultiProof;
+import hashtree.ArrayHashTreeADS;
+import hashtree.DirectHashStore;
+import hashtree.HTAuthenticator;
+import hashtree.HTProof;
+import hashtree.HashTreeADS;
+import hashtree.MappedHashStore;
+import org.junit.Before;
+import org.junit.Test;
+import utils.HashFunctions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ArrayHashTreeADSTest {
+    private IntData data;
+    private ArrayHashTreeADS ADS;
+
+    @Before
+    public void initialize() {
+        data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        ADS = new ArrayHashTreeADS(data.getBlocks());
+    }
+
+    @Test
+    public void testGetSize() {
+        assertEquals(13, ADS.getSize());
+    }
+
+    /**
+     * The array based tree has the same shape as HashTreeADS, so it should have the same authenticator and proofs
+     */
+    @Test
+    public void testSameAsHashTree() {
+        for (int size = 1; size <= 40; size++) {
+            List<Block> blocks = randomBlocks(size, size);
+            ArrayHashTreeADS arrayADS = new ArrayHashTreeADS(blocks);
+            HashTreeADS hashTreeADS = new HashTreeADS(blocks);
+
+            assertTrue(arrayADS.getAuthenticator().equals(hashTreeADS.getAuthenticator()));
+
+            for (int i = 0; i < size; i++) {
+                HTProof proof = arrayADS.getProof(i);
+                assertTrue(hashTreeADS.verify(blocks.get(i), proof, hashTreeADS.getAuthenticator()));
+                assertEquals(hashTreeADS.getProof(i).getPath(), proof.getPath());
+            }
+        }
+    }
+
+    @Test
+    public void testAppendBlocks() {
+        int value1 = 43, value2 = 129, value3 = 567;
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(value1));
+        blocks.add(new IntBlock(value2));
+        blocks.add(new IntBlock(value3));
+
+        data.appendBlocks(blocks);
+        ADS.appendBlocks(blocks);
+
+        IntData dataOther = new IntData();
+        dataOther.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473, value1, value2, value3});
+        ArrayHashTreeADS ADSOther = new ArrayHashTreeADS(dataOther.getBlocks());
+
+        assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+
+        testVerify();
+    }
+
+    @Test
+    public void testInsertBlocks() {
+        int index = 4;
+        int value1 = 43, value2 = 129, value3 = 567;
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(value1));
+        blocks.add(new IntBlock(value2));
+        blocks.add(new IntBlock(value3));
+
+        data.insertBlocks(index, blocks);
+        ADS.insertBlocks(index, blocks);
+
+        IntData dataOther = new IntData();
+        dataOther.addInts(new int[]{289, 27, 295, 28, value1, value2, value3, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        ArrayHashTreeADS ADSOther = new ArrayHashTreeADS(dataOther.getBlocks());
+
+        assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+
+        testVerify();
+    }
+
+    @Test
+    public void testDeleteBlocks() {
+        int index = 2;
+        int length = 3;
+        data.deleteBlocks(index, length);
+        ADS.deleteBlocks(index, length);
+
+        IntData dataOther = new IntData();
+        dataOther.addInts(new int[]{289, 27, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        ArrayHashTreeADS ADSOther = new ArrayHashTreeADS(dataOther.getBlocks());
+
+        assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+
+        testVerify();
+    }
+
+    /**
+     * Replaces blocks at several positions, and compares the result with an ADS that is built from scratch
+     */
+    @Test
+    public void testUpdateBlock() {
+        int[] indices = new int[]{0, 5, 12, 6};
+        int[] values = new int[]{43, 129, 567, 9};
+
+        for (int i = 0; i < indices.length; i++) {
+            data.updateBlock(indices[i], new IntBlock(values[i]));
+            ADS.updateBlock(indices[i], new IntBlock(values[i]));
+
+            ArrayHashTreeADS ADSOther = new ArrayHashTreeADS(data.getBlocks());
+            assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+        }
+
+        testVerify();
+    }
+
+    /**
+     * Merges and splits at every position, and compares the results with trees that are built from scratch
+     */
+    @Test
+    public void testMergeAndSplit() {
+        List<Block> blocks = randomBlocks(37, 1);
+
+        for (int index = 0; index <= blocks.size(); index++) {
+            List<Block> leftBlocks = blocks.subList(0, index);
+            List<Block> rightBlocks = blocks.subList(index, blocks.size());
+            ArrayHashTreeADS expected = new ArrayHashTreeADS(blocks);
+
+            ArrayHashTreeADS merged = ADS.merge(new ArrayHashTreeADS(leftBlocks), new ArrayHashTreeADS(rightBlocks));
+            assertTrue(expected.getAuthenticator().equals(merged.getAuthenticator()));
+
+            ArrayHashTreeADS[] split = ADS.split(new ArrayHashTreeADS(blocks), index);
+            if (index > 0)
+                assertTrue(new ArrayHashTreeADS(leftBlocks).getAuthenticator().equals(split[0].getAuthenticator()));
+            if (index < blocks.size())
+                assertTrue(new ArrayHashTreeADS(rightBlocks).getAuthenticator().equals(split[1].getAuthenticator()));
+        }
+    }
+
+    /**
+     * Tests a tree that spans several pages, stored off-heap
+     */
+    @Test
+    public void testDirectStore() {
+        List<Block> blocks = randomBlocks(40000, 2);
+        ArrayHashTreeADS direct = new ArrayHashTreeADS(blocks, HashFunctions.SHA256,
+                new DirectHashStore(HashFunctions.SHA256.getDigestLength()));
+        ArrayHashTreeADS heap = new ArrayHashTreeADS(blocks, HashFunctions.SHA256);
+
+        assertTrue(heap.getAuthenticator().equals(direct.getAuthenticator()));
+
+        ArrayHashTreeADS[] split = direct.split(direct, 12345);
+        ArrayHashTreeADS merged = direct.merge(split[0], split[1]);
+        assertTrue(heap.getAuthenticator().equals(merged.getAuthenticator()));
+
+        for (int i = 0; i < blocks.size(); i += 997)
+            assertTrue(merged.verify(blocks.get(i), merged.getProof(i), heap.getAuthenticator()));
+    }
+
+    /**
+     * Builds a tree in a file, appends to it, and reopens it. The reopened tree should not need any rehashing.
+     */
+    @Test
+    public void testMappedStore() throws IOException {
+        Path file = Files.createTempFile("ads", ".tree");
+
+        try {
+            List<Block> blocks = randomBlocks(70000, 3);
+            int digestLength = HashFunctions.SHA1.getDigestLength();
+
+            MappedHashStore store = new MappedHashStore(file, digestLength);
+            ArrayHashTreeADS mapped = new ArrayHashTreeADS(blocks.subList(0, 20000), HashFunctions.SHA1, store);
+            mapped.appendBlocks(new ArrayList<>(blocks.subList(20000, blocks.size())));
+            store.close();
+
+            HTAuthenticator expected = new ArrayHashTreeADS(blocks).getAuthenticator();
+
+            MappedHashStore reopenedStore = new MappedHashStore(file, digestLength);
+            ArrayHashTreeADS reopened = new ArrayHashTreeADS(HashFunctions.SHA1, reopenedStore);
+
+            assertEquals(blocks.size(), reopened.getSize());
+            assertTrue(expected.equals(reopened.getAuthenticator()));
+
+            for (int i = 0; i < blocks.size(); i += 1009)
+                assertTrue(reopened.verify(blocks.get(i), reopened.getProof(i), expected));
+
+            reopenedStore.close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Appends to an empty tree in a file, and merges a tree into another empty one. Both should stay in their file.
+     */
+    @Test
+    public void testMappedStoreEmpty() throws IOException {
+        Path file = Files.createTempFile("ads", ".tree");
+
+        try {
+            List<Block> blocks = randomBlocks(16, 6);
+            int digestLength = HashFunctions.SHA1.getDigestLength();
+            HTAuthenticator expected = new ArrayHashTreeADS(blocks).getAuthenticator();
+
+            MappedHashStore store = new MappedHashStore(file, digestLength);
+            ArrayHashTreeADS mapped = new ArrayHashTreeADS(HashFunctions.SHA1, store);
+            mapped.appendBlocks(blocks);
+            assertSame(store, mapped.getStore());
+            store.close();
+
+            store = new MappedHashStore(file, digestLength);
+            ArrayHashTreeADS reopened = new ArrayHashTreeADS(HashFunctions.SHA1, store);
+            assertEquals(blocks.size(), reopened.getSize());
+            assertTrue(expected.equals(reopened.getAuthenticator()));
+
+            reopened.deleteBlocks(0, blocks.size());
+            ArrayHashTreeADS merged = reopened.merge(reopened, new ArrayHashTreeADS(blocks, HashFunctions.SHA1));
+            assertSame(store, merged.getStore());
+            store.close();
+
+            store = new MappedHashStore(file, digestLength);
+            reopened = new ArrayHashTreeADS(HashFunctions.SHA1, store);
+            assertEquals(blocks.size(), reopened.getSize());
+            assertTrue(expected.equals(reopened.getAuthenticator()));
+            store.close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Inserts and deletes blocks at the start of a tree in a file, and reopens it after each change. The file should
+     * hold the changed tree.
+     */
+    @Test
+    public void testMappedStoreInsertAndDelete() throws IOException {
+        Path file = Files.createTempFile("ads", ".tree");
+
+        try {
+            List<Block> blocks = new ArrayList<>(randomBlocks(10, 4));
+            List<Block> inserted = randomBlocks(5, 5);
+            int digestLength = HashFunctions.SHA1.getDigestLength();
+
+            MappedHashStore store = new MappedHashStore(file, digestLength);
+            new ArrayHashTreeADS(blocks, HashFunctions.SHA1, store).insertBlocks(0, inserted);
+            store.close();
+            blocks.addAll(0, inserted);
+
+            store = new MappedHashStore(file, digestLength);
+            ArrayHashTreeADS reopened = new ArrayHashTreeADS(HashFunctions.SHA1, store);
+            assertEquals(blocks.size(), reopened.getSize());
+            assertTrue(new ArrayHashTreeADS(blocks).getAuthenticator().equals(reopened.getAuthenticator()));
+
+            reopened.deleteBlocks(0, 3);
+            store.close();
+            blocks.subList(0, 3).clear();
+
+            store = new MappedHashStore(file, digestLength);
+            reopened = new ArrayHashTreeADS(HashFunctions.SHA1, store);
+            assertEquals(blocks.size(), reopened.getSize());
+            assertTrue(new ArrayHashTreeADS(blocks).getAuthenticator().equals(reopened.getAuthenticator()));
+
+            for (int i = 0; i < blocks.size(); i++)
+                assertTrue(reopened.verify(blocks.get(i), reopened.getProof(i), reopened.getAuthenticator()));
+
+            store.close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Inserts and deletes blocks at random positions, including moves across pages, and compares the result with a
+     * tree that is built from scratch
+     */
+    @Test
+    public void testRandomInsertAndDelete() {
+        Random random = new Random(6);
+        List<Block> blocks = new ArrayList<>(randomBlocks(20000, 7));
+        ArrayHashTreeADS tree = new ArrayHashTreeADS(blocks);
+
+        for (int run = 0; run < 20; run++) {
+            int index = random.nextInt(blocks.size() + 1);
+
+            if (run % 2 == 0) {
+                List<Block> inserted = randomBlocks(1 + random.nextInt(5000), run);
+                blocks.addAll(index, inserted);
+                tree.insertBlocks(index, inserted);
+            } else {
+                int length = random.nextInt(Math.min(5000, blocks.size() - index) + 1);
+                blocks.subList(index, index + length).clear();
+                tree.deleteBlocks(index, length);
+            }
+
+            assertEquals(blocks.size(), tree.getSize());
+            assertTrue(new ArrayHashTreeADS(blocks).getAuthenticator().equals(tree.getAuthenticator()));
+        }
+    }
+
+    /**
+     * Queries each block separately and tests whether they verify correctly.
+     */
+    @Test
+    public void testVerify() {
+        // Verify the query for each block
+        for (int i = 0; i < ADS.getSize(); i++) {
+            Block block = data.getBlock(i);
+            HTProof proof = ADS.getProof(i);
+
+            assertTrue(ADS.verify(block, proof, ADS.getAuthenticator()));
+        }
+    }
+
+    /**
+     * An index outside the tree has no leaf, so there is no proof for it
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testProofPastEnd() {
+        ADS.getProof(ADS.getSize());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testProofNegativeIndex() {
+        ADS.getProof(-1);
+    }
+
+    private static List<Block> randomBlocks(int size, long seed) {
+        Random random = new Random(seed);
+        List<Block> blocks = new ArrayList<>();
+
+        for (int i = 0; i < size; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        return blocks;
+    }
+
+    /**
+     * Verifies ranges and scattered blocks with multiproofs. A multiproof should not contain more hashes than the
+     * single proofs together, and should not verify a changed block.
+     */
+    @Test
+    public void testMultiProof() {
+        int[][] indexSets = new int[][]{{2, 3, 4, 5, 6, 7}, {0, 12, 5, 6}, {9}, {4, 4}};
+
+        for (int[] indices : indexSets) {
+            MultiProof proof = ADS.getProof(indices);
+            List<Block> blocks = new ArrayList<>();
+            int singleHashes = 0;
+
+            for (int index : indices) {
+                blocks.add(data.getBlocks().get(index));
+                singleHashes += ADS.getProof(index).getPath().getLength();
+            }
+
+            assertTrue(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+            assertTrue(proof.getHashes().size() <= singleHashes);
+
+            blocks.set(blocks.size() - 1, new IntBlock(-1));
+            assertFalse(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+        }
+
+        int singleHashes = 0;
+        for (int index = 0; index < data.getBlockCount(); index++)
+            singleHashes += ADS.getProof(index).getPath().getLength();
+
+        MultiProof proof = ADS.getRangeProof(0, data.getBlockCount());
+        assertTrue(ADS.verify(data.getBlocks(), proof, ADS.getAuthenticator()));
+        assertTrue(proof.getHashes().size() < singleHashes);
+    }
+
+    /**
+     * The multiproof that is built in one pass from the root should be the same as the one that is made from the
+     * single proofs. Swapping two blocks should fail, as their positions follow from their indices.
+     */
+    @Test
+    public void testMultiProofSinglePass() {
+        Random random = new Random(12);
+
+        for (int run = 0; run < 200; run++) {
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 1 + random.nextInt(100); i > 0; i--)
+                blocks.add(new IntBlock(random.nextInt()));
+
+            ArrayHashTreeADS tree = new ArrayHashTreeADS(blocks);
+            int[] indices = new int[1 + random.nextInt(8)];
+            List<HTProof> proofs = new ArrayList<>();
+            List<Block> proven = new ArrayList<>();
+
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = random.nextInt(blocks.size());
+                proofs.add(tree.getProof(indices[i]));
+                proven.add(blocks.get(indices[i]));
+            }
+
+            MultiProof proof = tree.getProof(indices);
+            MultiProof expected = MultiProof.fromPaths(indices, proofs);
+
+            assertArrayEquals(expected.getRootIndices(), proof.getRootIndices());
+            assertEquals(expected.getNodeCount(), proof.getNodeCount());
+            assertArrayEquals(expected.getShape(), proof.getShape());
+            assertEquals(expected.getHashes().size(), proof.getHashes().size());
+            for (int i = 0; i < proof.getHashes().size(); i++)
+                assertArrayEquals(expected.getHashes().get(i), proof.getHashes().get(i));
+
+            assertTrue(tree.verify(proven, proof, tree.getAuthenticator()));
+
+            for (int i = 1; i < indices.length; i++) {
+                if (proven.get(i).equals(proven.get(0)))
+                    continue;
+
+                Collections.swap(proven, 0, i);
+                assertFalse(tree.verify(proven, proof, tree.getAuthenticator()));
+                Collections.swap(proven, 0, i);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package tests;
+
+import framework.Block;
+import framework.IntBlock;
+import framework.IntData;
+import org.junit.Before;
+import org.junit.Test;
+import skiplist.CompactSkipListADS;
+import skiplist.Promotion;
+import skiplist.SLAuthenticator;
+import skiplist.SkipListADS;
+import utils.HashFunctions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompactSkipListADSTest {
+    private IntData data;
+    private CompactSkipListADS ADS;
+
+    @Before
+    public void initialize() {
+        data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        ADS = new CompactSkipListADS(data.getBlocks());
+    }
+
+    /**
+     * The compact skip list has the same shape as SkipListADS, so it should have the same authenticator and proofs
+     */
+    private static void assertSameAsSkipList(CompactSkipListADS ADS, List<Block> blocks, Promotion promotion) {
+        SkipListADS expected = new SkipListADS(blocks, ADS.getHashFunction(), promotion);
+        SLAuthenticator authenticator = ADS.getAuthenticator();
+
+        assertEquals(blocks.size(), ADS.getSize());
+        assertTrue(expected.getAuthenticator().equals(authenticator));
+
+        for (int i = 0; i < blocks.size(); i++) {
+            assertEquals(expected.getProof(i).getPath(), ADS.getProof(i).getPath());
+            assertTrue(ADS.verify(blocks.get(i), ADS.getProof(i), authenticator));
+        }
+    }
+
+    @Test
+    public void testVerify() {
+        assertSameAsSkipList(ADS, data.getBlocks(), Promotion.HALF);
+        assertFalse(ADS.verify(new IntBlock(1), ADS.getProof(0), ADS.getAuthenticator()));
+    }
+
+    @Test
+    public void testInsertBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(43));
+        blocks.add(new IntBlock(129));
+        blocks.add(new IntBlock(567));
+
+        data.insertBlocks(4, blocks);
+        ADS.insertBlocks(4, blocks);
+
+        assertSameAsSkipList(ADS, data.getBlocks(), Promotion.HALF);
+    }
+
+    @Test
+    public void testDeleteBlocks() {
+        data.deleteBlocks(2, 3);
+        ADS.deleteBlocks(2, 3);
+
+        assertSameAsSkipList(ADS, data.getBlocks(), Promotion.HALF);
+    }
+
+    @Test
+    public void testUpdateBlock() {
+        int[] indices = new int[]{0, 5, 12, 6};
+        int[] values = new int[]{43, 129, 567, 9};
+
+        for (int i = 0; i < indices.length; i++) {
+            data.updateBlock(indices[i], new IntBlock(values[i]));
+            ADS.updateBlock(indices[i], new IntBlock(values[i]));
+
+            assertSameAsSkipList(ADS, data.getBlocks(), Promotion.HALF);
+        }
+    }
+
+    @Test
+    public void testMergeAndSplit() {
+        Random random = new Random(8);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 40; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        for (int leftSize = 0; leftSize < 20; leftSize++) {
+            for (int rightSize = 0; rightSize < 20; rightSize++) {
+                List<Block> allBlocks = blocks.subList(0, leftSize + rightSize);
+
+                CompactSkipListADS left = new CompactSkipListADS(blocks.subList(0, leftSize));
+                CompactSkipListADS right = new CompactSkipListADS(blocks.subList(leftSize, leftSize + rightSize));
+                CompactSkipListADS merged = left.merge(left, right);
+                assertSameAsSkipList(merged, allBlocks, Promotion.HALF);
+
+                if (leftSize > 0 && rightSize > 0) {
+                    CompactSkipListADS[] split = merged.split(merged, leftSize);
+                    assertSameAsSkipList(split[0], blocks.subList(0, leftSize), Promotion.HALF);
+                    assertSameAsSkipList(split[1], blocks.subList(leftSize, leftSize + rightSize), Promotion.HALF);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts, deletes and updates blocks at random positions, including both ends, and compares the result with a
+     * skip list that is built from scratch
+     */
+    @Test
+    public void testRandomEdits() {
+        Random random = new Random(19);
+
+        for (Promotion promotion : new Promotion[]{Promotion.HALF, Promotion.QUARTER}) {
+            List<Block> blocks = new ArrayList<>(data.getBlocks());
+            CompactSkipListADS list = new CompactSkipListADS(blocks, HashFunctions.getDefault(), promotion);
+
+            for (int run = 0; run < 100; run++) {
+                int index = random.nextInt(blocks.size() + 1);
+                int operation = random.nextInt(3);
+
+                if (operation == 0 || blocks.size() < 5) {
+                    List<Block> inserted = new ArrayList<>();
+                    for (int i = random.nextInt(6); i > 0; i--)
+                        inserted.add(new IntBlock(random.nextInt()));
+
+                    blocks.addAll(index, inserted);
+                    list.insertBlocks(index, inserted);
+                } else if (operation == 1) {
+                    int length = random.nextInt(blocks.size() - index + 1);
+
+                    blocks.subList(index, index + length).clear();
+                    list.deleteBlocks(index, length);
+                } else if (index < blocks.size()) {
+                    Block block = new IntBlock(random.nextInt());
+
+                    blocks.set(index, block);
+                    list.updateBlock(index, block);
+                }
+
+                assertSameAsSkipList(list, blocks, promotion);
+            }
+        }
+    }
+}
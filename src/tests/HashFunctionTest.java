@@ -0,0 +1,191 @@
+package tests;
+
+import framework.ADS;
+import framework.Authenticator;
+import framework.Block;
+import framework.IntBlock;
+import framework.IntData;
+import framework.Proof;
+import hashtree.HashTreeADS;
+import org.junit.Test;
+import seqhash.SeqHashADS;
+import skiplist.SkipListADS;
+import splithash.SplitHashADS;
+import utils.Blake3HashFunction;
+import utils.HashFunction;
+import utils.HashFunctions;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HashFunctionTest {
+    private static final HashFunction[] hashFunctions = new HashFunction[]{HashFunctions.SHA1, HashFunctions.SHA256,
+            HashFunctions.SHA512_256, HashFunctions.BLAKE3, HashFunctions.NON_CRYPTOGRAPHIC};
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder();
+
+        for (byte b : bytes) {
+            result.append(String.format("%02x", b));
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Tests the BLAKE3 implementation against the official test vectors, where the input is 0, 1, 2, ... 250, 0, 1, ...
+     */
+    @Test
+    public void testBlake3() {
+        HashFunction blake3 = new Blake3HashFunction();
+
+        int[] lengths = new int[]{0, 1, 1023, 1024, 1025, 2048, 2049, 3072, 8192};
+        String[] expected = new String[]{
+                "af1349b9f5f9a1a6a0404dea36dcc9499bcb25c9adc112b7cc9a93cae41f3262",
+                "2d3adedff11b61f14c886e35afa036736dcd87a74d27b5c1510225d0f592e213",
+                "10108970eeda3eb932baac1428c7a2163b0e924c9a9e25b35bba72b28f70bd11",
+                "42214739f095a406f3fc83deb889744ac00df831c10daa55189b5d121c855af7",
+                "d00278ae47eb27b34faecf67b4fe263f82d5412916c1ffd97c8cb7fb814b8444",
+                "e776b6028c7cd22a4d0ba182a8bf62205d2ef576467e838ed6f2529b85fba24a",
+                "5f4d72f40d7a5f82b15ca2b2e44b1de3c2ef86c426c95c1af0b6879522563030",
+                "b98cb0ff3623be03326b373de6b9095218513e64f1ee2edd2525c7ad1e5cffd2",
+                "aae792484c8efe4f19e2ca7d371d8c467ffb10748d8a5a1ae579948f718a2a63"};
+
+        for (int i = 0; i < lengths.length; i++) {
+            byte[] input = new byte[lengths[i]];
+            for (int j = 0; j < input.length; j++)
+                input[j] = (byte) (j % 251);
+
+            assertEquals(expected[i], toHex(blake3.hash(input)));
+        }
+    }
+
+    /**
+     * Tests whether all hash variants of each hash function agree with each other
+     */
+    @Test
+    public void testHashVariants() {
+        byte[] left = "left".getBytes();
+        byte[] right = "right".getBytes();
+
+        for (HashFunction hashFunction : hashFunctions) {
+            int length = hashFunction.getDigestLength();
+
+            byte[] concatenated = new byte[left.length + right.length];
+            System.arraycopy(left, 0, concatenated, 0, left.length);
+            System.arraycopy(right, 0, concatenated, left.length, right.length);
+
+            byte[] expected = hashFunction.hash(concatenated);
+            assertEquals(length, expected.length);
+            assertArrayEquals(expected, hashFunction.hash(left, right));
+
+            byte[] out = new byte[length + 1];
+            hashFunction.hash(left, right, out, 1);
+            assertArrayEquals(expected, Arrays.copyOfRange(out, 1, length + 1));
+
+            byte[] leftHash = hashFunction.hash(left);
+            byte[] rightHash = hashFunction.hash(right);
+            byte[] in = new byte[2 * length];
+            System.arraycopy(leftHash, 0, in, 0, length);
+            System.arraycopy(rightHash, 0, in, length, length);
+            hashFunction.hash(in, 0, length, out, 0);
+            assertArrayEquals(hashFunction.hash(leftHash, rightHash), Arrays.copyOfRange(out, 0, length));
+        }
+    }
+
+    /**
+     * Builds every ADS with every hash function, and verifies all blocks
+     */
+    @Test
+    public void testADSs() {
+        IntData data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        List<Block> blocks = data.getBlocks();
+
+        for (HashFunction hashFunction : hashFunctions) {
+            ADS[] ADSs = new ADS[]{new HashTreeADS(blocks, hashFunction), new SkipListADS(blocks, hashFunction),
+                    new SeqHashADS(blocks, hashFunction), new SplitHashADS(blocks, hashFunction)};
+
+            for (ADS ADS : ADSs) {
+                assertEquals(hashFunction.getDigestLength(), ADS.getDigestLength());
+
+                Authenticator authenticator = ADS.getAuthenticator();
+
+                for (int i = 0; i < blocks.size(); i++) {
+                    Proof proof = ADS.getProof(i);
+                    assertTrue(ADS.verify(blocks.get(i), proof, authenticator));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDifferentHashFunctions() {
+        IntData data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2});
+
+        HashTreeADS sha1 = new HashTreeADS(data.getBlocks(), HashFunctions.SHA1);
+        HashTreeADS sha256 = new HashTreeADS(data.getBlocks(), HashFunctions.SHA256);
+
+        assertFalse(sha1.getAuthenticator().equals(sha256.getAuthenticator()));
+        assertFalse(sha256.verify(data.getBlock(0), sha1.getProof(0), sha256.getAuthenticator()));
+    }
+
+    /**
+     * Hashing the remaining bytes of a buffer should equal hashing them as an array, for heap buffers with an
+     * offset as well as for direct buffers
+     */
+    @Test
+    public void testHashByteBuffer() {
+        Random random = new Random(4);
+
+        for (HashFunction hashFunction : hashFunctions) {
+            for (int length : new int[]{0, 1, 4, 63, 64, 65, 1025}) {
+                byte[] message = new byte[length];
+                random.nextBytes(message);
+                byte[] expected = hashFunction.hash(message);
+
+                ByteBuffer heap = ByteBuffer.allocate(length + 10);
+                heap.position(3);
+                ByteBuffer slice = heap.slice();
+                slice.put(message).flip();
+                assertArrayEquals(expected, hashFunction.hash(slice));
+                assertEquals(slice.limit(), slice.position());
+
+                ByteBuffer direct = ByteBuffer.allocateDirect(length);
+                direct.put(message).flip();
+                assertArrayEquals(expected, hashFunction.hash(direct));
+                assertEquals(direct.limit(), direct.position());
+            }
+        }
+    }
+
+    /**
+     * Blocks are hashed from the reused encoding buffer, which should give the hash of their encoding,
+     * also when an encoding does not fit the buffer
+     */
+    @Test
+    public void testBlockHash() {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            longString.append(i);
+
+        final String value = longString.toString();
+        Block[] blocks = new Block[]{new IntBlock(42), new IntBlock(-7), new Block() {
+            @Override
+            public String toString() {
+                return value;
+            }
+        }, new IntBlock(42)};
+
+        for (HashFunction hashFunction : hashFunctions) {
+            for (Block block : blocks) {
+                assertArrayEquals(hashFunction.hash(block.encode()), block.hash(hashFunction));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package tests;
+
+import framework.HashPath;
+import org.junit.Test;
+import utils.HashFunction;
+import utils.HashFunctions;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HashPathTest {
+    private final HashFunction hashFunction = HashFunctions.getDefault();
+
+    /**
+     * Adds more siblings than the default capacity, so that the arrays have to grow while the path is built
+     */
+    @Test
+    public void testGrowBeyondCapacity() {
+        Random random = new Random(2);
+        int digestLength = hashFunction.getDigestLength();
+        HashPath path = new HashPath(digestLength);
+
+        byte[][] siblings = new byte[100][digestLength];
+        boolean[] siblingLeft = new boolean[siblings.length];
+
+        for (int step = 0; step < siblings.length; step++) {
+            random.nextBytes(siblings[step]);
+            siblingLeft[step] = random.nextBoolean();
+
+            // Every other sibling is written through the returned position
+            if (step % 2 == 0)
+                path.add(siblings[step], siblingLeft[step]);
+            else
+                System.arraycopy(siblings[step], 0, path.getHashes(), path.add(siblingLeft[step]), digestLength);
+        }
+
+        assertEquals(siblings.length, path.getLength());
+
+        byte[] leafHash = hashFunction.hash(new byte[]{1});
+        byte[] root = leafHash;
+
+        for (int step = 0; step < siblings.length; step++) {
+            assertArrayEquals(siblings[step], path.getSiblingHash(step));
+            assertEquals(siblingLeft[step], path.isSiblingLeft(step));
+
+            if (siblingLeft[step])
+                root = hashFunction.hash(siblings[step], root);
+            else
+                root = hashFunction.hash(root, siblings[step]);
+        }
+
+        assertArrayEquals(root, path.computeRoot(leafHash, hashFunction));
+    }
+
+    /**
+     * Reverses paths of odd and even lengths, across the words of the direction bit set, and compares them with a
+     * path that is built in the reversed order
+     */
+    @Test
+    public void testReverse() {
+        Random random = new Random(3);
+        int digestLength = hashFunction.getDigestLength();
+
+        for (int length : new int[]{0, 1, 2, 7, 64, 65, 100}) {
+            HashPath path = new HashPath(digestLength, 1);
+            HashPath expected = new HashPath(digestLength);
+
+            byte[][] siblings = new byte[length][digestLength];
+            boolean[] siblingLeft = new boolean[length];
+
+            for (int step = 0; step < length; step++) {
+                random.nextBytes(siblings[step]);
+                siblingLeft[step] = random.nextBoolean();
+                path.add(siblings[step], siblingLeft[step]);
+            }
+
+            for (int step = length - 1; step >= 0; step--)
+                expected.add(siblings[step], siblingLeft[step]);
+
+            path.reverse();
+            assertEquals(expected, path);
+        }
+    }
+}
@@ -3,15 +3,21 @@ package tests;
 import framework.Block;
 import framework.IntBlock;
 import framework.IntData;
+import framework.MultiProof;
 import hashtree.HTProof;
 import hashtree.HashTreeADS;
 import hashtree.Node;
 import org.junit.Before;
 import org.junit.Test;
+import utils.HashFunctions;
+import utils.Parallelism;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.*;
 
@@ -36,6 +42,76 @@ public class HashTreeADSTest {
         assertEquals(13, ADS.getLeaves().size());
     }
 
+    /**
+     * The leaves are found from the root, with the number of leaves below each node. These numbers should stay
+     * correct when the tree is cut by a split.
+     */
+    @Test
+    public void testGetLeafAfterSplit() {
+        for (int index = 1; index < data.getBlockCount(); index++) {
+            HashTreeADS[] split = ADS.split(new HashTreeADS(data.getBlocks()), index);
+
+            assertEquals(index, split[0].getSize());
+            assertEquals(data.getBlockCount() - index, split[1].getSize());
+
+            for (int i = 0; i < data.getBlockCount(); i++) {
+                HashTreeADS part = i < index ? split[0] : split[1];
+                int partIndex = i < index ? i : i - index;
+
+                assertArrayEquals(data.getBlock(i).hash(), part.getLeaf(partIndex).getHash());
+            }
+        }
+    }
+
+    /**
+     * The right tree of a split reuses the subtrees that stay aligned, and should equal the tree built from its blocks
+     */
+    @Test
+    public void testSplitReusesSubtrees() {
+        Random random = new Random(15);
+
+        for (int run = 0; run < 200; run++) {
+            int n = 2 + random.nextInt(1000);
+            int index = 1 + random.nextInt(n - 1);
+            if (run % 2 == 0)
+                index = Math.max(1, index & -16);
+
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 0; i < n; i++)
+                blocks.add(new IntBlock(random.nextInt()));
+
+            HashTreeADS tree = new HashTreeADS(blocks);
+
+            // The subtree at the level of the trailing zeros of index, which the right tree should keep
+            int level = Integer.numberOfTrailingZeros(index);
+            Node subtree = tree.getLeaf(index);
+            while (subtree.getLevel() < level && subtree.getParent() != null)
+                subtree = subtree.getParent();
+
+            HashTreeADS[] split = tree.split(tree, index);
+
+            for (int part = 0; part < 2; part++) {
+                List<Block> partBlocks = part == 0 ? blocks.subList(0, index) : blocks.subList(index, n);
+                HashTreeADS expected = new HashTreeADS(partBlocks);
+
+                assertEquals(expected.getRoot().getLevel(), split[part].getRoot().getLevel());
+                assertTrue(expected.getAuthenticator().equals(split[part].getAuthenticator()));
+
+                for (int i = 0; i < partBlocks.size(); i++)
+                    assertTrue(split[part].verify(partBlocks.get(i), split[part].getProof(i),
+                            split[part].getAuthenticator()));
+            }
+
+            // If the right tree has fewer leaves, the single child nodes on top of the subtree are left out
+            Node node = split[1].getLeaf(0);
+            while (node.getLevel() < level && node.getParent() != null)
+                node = node.getParent();
+
+            if (node.getLevel() == level)
+                assertSame(subtree, node);
+        }
+    }
+
     @Test
     public void testGetRoot() {
         Node root = ADS.getRoot();
@@ -109,6 +185,76 @@ public class HashTreeADSTest {
         testVerify();
     }
 
+    /**
+     * Replaces blocks at several positions, and compares the result with an ADS that is built from scratch
+     */
+    @Test
+    public void testUpdateBlock() {
+        int[] indices = new int[]{0, 5, 12, 6};
+        int[] values = new int[]{43, 129, 567, 9};
+
+        for (int i = 0; i < indices.length; i++) {
+            data.updateBlock(indices[i], new IntBlock(values[i]));
+            ADS.updateBlock(indices[i], new IntBlock(values[i]));
+
+            HashTreeADS ADSOther = new HashTreeADS(data.getBlocks());
+            assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+        }
+
+        testVerify();
+    }
+
+    /**
+     * Merges trees of all combinations of sizes, and compares the results with trees that are built from scratch.
+     * The merge reuses subtrees of the right tree, which should not change the shape of the tree.
+     */
+    @Test
+    public void testMerge() {
+        Random random = new Random(7);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 40; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        for (int leftSize = 1; leftSize < 20; leftSize++) {
+            for (int rightSize = 1; rightSize < 20; rightSize++) {
+                List<Block> leftBlocks = blocks.subList(0, leftSize);
+                List<Block> rightBlocks = blocks.subList(leftSize, leftSize + rightSize);
+
+                HashTreeADS merged = ADS.merge(new HashTreeADS(leftBlocks), new HashTreeADS(rightBlocks));
+                HashTreeADS expected = new HashTreeADS(blocks.subList(0, leftSize + rightSize));
+
+                assertTrue(expected.getAuthenticator().equals(merged.getAuthenticator()));
+                assertEquals(leftSize + rightSize, merged.getLeaves().size());
+
+                for (int i = 0; i < leftSize + rightSize; i++)
+                    assertTrue(merged.verify(blocks.get(i), merged.getProof(i), expected.getAuthenticator()));
+            }
+        }
+    }
+
+    /**
+     * Tests whether the parallel build gives the same tree as the sequential build
+     */
+    @Test
+    public void testParallelBuild() {
+        Random random = new Random(42);
+        Parallelism parallelism = new Parallelism(new ForkJoinPool(4), 2);
+
+        for (int size = 1; size <= 300; size += 37) {
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 0; i < size; i++)
+                blocks.add(new IntBlock(random.nextInt()));
+
+            HashTreeADS sequential = new HashTreeADS(blocks);
+            HashTreeADS parallel = new HashTreeADS(blocks, HashFunctions.getDefault(), parallelism);
+
+            assertTrue(sequential.getAuthenticator().equals(parallel.getAuthenticator()));
+
+            for (int i = 0; i < size; i++)
+                assertTrue(parallel.verify(blocks.get(i), parallel.getProof(i), sequential.getAuthenticator()));
+        }
+    }
+
     /**
      * Queries each block separately and tests whether they verify correctly.
      */
@@ -122,4 +268,178 @@ public class HashTreeADSTest {
             assertTrue(ADS.verify(block, proof, ADS.getAuthenticator()));
         }
     }
+
+    /**
+     * Verifies ranges and scattered blocks with multiproofs. A multiproof should not contain more hashes than the
+     * single proofs together, and should not verify a changed block.
+     */
+    @Test
+    public void testMultiProof() {
+        int[][] indexSets = new int[][]{{2, 3, 4, 5, 6, 7}, {0, 12, 5, 6}, {9}, {4, 4}};
+
+        for (int[] indices : indexSets) {
+            MultiProof proof = ADS.getProof(indices);
+            List<Block> blocks = new ArrayList<>();
+            int singleHashes = 0;
+
+            for (int index : indices) {
+                blocks.add(data.getBlocks().get(index));
+                singleHashes += ADS.getProof(index).getPath().getLength();
+            }
+
+            assertTrue(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+            assertTrue(proof.getHashes().size() <= singleHashes);
+
+            blocks.set(blocks.size() - 1, new IntBlock(-1));
+            assertFalse(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+        }
+
+        int singleHashes = 0;
+        for (int index = 0; index < data.getBlockCount(); index++)
+            singleHashes += ADS.getProof(index).getPath().getLength();
+
+        MultiProof proof = ADS.getRangeProof(0, data.getBlockCount());
+        assertTrue(ADS.verify(data.getBlocks(), proof, ADS.getAuthenticator()));
+        assertTrue(proof.getHashes().size() < singleHashes);
+    }
+
+    /**
+     * A multiproof should only verify the blocks at the indices it was made for. The hashes of a proof for other
+     * indices would lead to the root, but the shape does not match their positions.
+     */
+    @Test
+    public void testMultiProofRelabelled() {
+        IntData treeData = new IntData();
+        for (int i = 0; i < 16; i++)
+            treeData.addInt(i);
+
+        HashTreeADS tree = new HashTreeADS(treeData.getBlocks());
+        int[][] indexSets = new int[][]{{5}, {3}, {2, 9}, {0, 1}};
+
+        for (int i = 0; i < indexSets.length; i += 2) {
+            int[] indices = indexSets[i];
+            MultiProof proof = tree.getProof(indices);
+            MultiProof relabelled = new MultiProof(indexSets[i + 1], proof.getRootIndices(), proof.getShape(),
+                    proof.getNodeCount(), proof.getHashes());
+
+            List<Block> blocks = new ArrayList<>();
+            for (int index : indices)
+                blocks.add(treeData.getBlocks().get(index));
+
+            assertTrue(tree.verify(blocks, proof, tree.getAuthenticator()));
+            assertFalse(tree.verify(blocks, relabelled, tree.getAuthenticator()));
+        }
+
+        int[] indices = new int[]{16};
+        MultiProof proof = tree.getProof(new int[]{15});
+        assertFalse(tree.verify(Collections.singletonList(treeData.getBlocks().get(15)),
+                new MultiProof(indices, proof.getRootIndices(), proof.getShape(), proof.getNodeCount(),
+                        proof.getHashes()), tree.getAuthenticator()));
+    }
+
+    /**
+     * Verifies all blocks at once, sequentially and in parallel. A changed block should be the only one that fails,
+     * also when its path shares hashes with the correct blocks.
+     */
+    @Test
+    public void testVerifyAll() {
+        List<Block> blocks = new ArrayList<>(data.getBlocks());
+        List<HTProof> proofs = new ArrayList<>();
+        for (int index = 0; index < blocks.size(); index++)
+            proofs.add(ADS.getProof(index));
+
+        blocks.add(new IntBlock(-1));
+        proofs.add(ADS.getProof(3));
+
+        Parallelism parallelism = new Parallelism(new ForkJoinPool(4), 1);
+        boolean[][] results = new boolean[][]{
+                ADS.verifyAll(blocks, proofs, ADS.getAuthenticator()),
+                ADS.verifyAll(blocks, proofs, ADS.getAuthenticator(), parallelism)
+        };
+
+        for (boolean[] result : results) {
+            for (int i = 0; i < blocks.size() - 1; i++)
+                assertTrue(result[i]);
+
+            assertFalse(result[blocks.size() - 1]);
+        }
+    }
+
+    /**
+     * Inserts and deletes blocks at random positions, including both ends, and compares the result with a tree
+     * that is built from scratch
+     */
+    @Test
+    public void testRandomInsertAndDelete() {
+        Random random = new Random(19);
+
+        for (int run = 0; run < 100; run++) {
+            int index = random.nextInt(data.getBlockCount() + 1);
+
+            if (random.nextBoolean() || data.getBlockCount() < 5) {
+                List<Block> blocks = new ArrayList<>();
+                for (int i = random.nextInt(6); i > 0; i--)
+                    blocks.add(new IntBlock(random.nextInt()));
+
+                data.insertBlocks(index, blocks);
+                ADS.insertBlocks(index, blocks);
+            } else {
+                int length = random.nextInt(data.getBlockCount() - index + 1);
+
+                data.deleteBlocks(index, length);
+                ADS.deleteBlocks(index, length);
+            }
+
+            assertTrue(new HashTreeADS(data.getBlocks()).getAuthenticator().equals(ADS.getAuthenticator()));
+        }
+
+        testVerify();
+    }
+
+    /**
+     * The multiproof that is built in one pass from the root should be the same as the one that is made from the
+     * single proofs. Swapping two blocks should fail, as their positions follow from their indices.
+     */
+    @Test
+    public void testMultiProofSinglePass() {
+        Random random = new Random(12);
+
+        for (int run = 0; run < 200; run++) {
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 1 + random.nextInt(100); i > 0; i--)
+                blocks.add(new IntBlock(random.nextInt()));
+
+            HashTreeADS tree = new HashTreeADS(blocks);
+            int[] indices = new int[1 + random.nextInt(8)];
+            List<HTProof> proofs = new ArrayList<>();
+            List<Block> proven = new ArrayList<>();
+
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = random.nextInt(blocks.size());
+                proofs.add(tree.getProof(indices[i]));
+                proven.add(blocks.get(indices[i]));
+            }
+
+            MultiProof proof = tree.getProof(indices);
+            MultiProof expected = MultiProof.fromPaths(indices, proofs);
+
+            assertArrayEquals(expected.getRootIndices(), proof.getRootIndices());
+            assertEquals(expected.getNodeCount(), proof.getNodeCount());
+            assertArrayEquals(expected.getShape(), proof.getShape());
+            assertEquals(expected.getHashes().size(), proof.getHashes().size());
+            for (int i = 0; i < proof.getHashes().size(); i++)
+                assertArrayEquals(expected.getHashes().get(i), proof.getHashes().get(i));
+
+            assertTrue(tree.verify(proven, proof, tree.getAuthenticator()));
+
+            for (int i = 1; i < indices.length; i++) {
+                if (proven.get(i).equals(proven.get(0)))
+                    continue;
+
+                Collections.swap(proven, 0, i);
+                assertFalse(tree.verify(proven, proof, tree.getAuthenticator()));
+                Collections.swap(proven, 0, i);
+            }
+        }
+    }
 }
@@ -1,9 +1,12 @@
 package tests;
 
 import framework.IntBlock;
+import framework.StringEncodedBlock;
 import org.junit.Test;
+import utils.HashFunctions;
 import utils.Utils;
 
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 
 import static org.junit.Assert.assertArrayEquals;
@@ -20,17 +23,47 @@ public class IntBlockTest {
         assertEquals(expected, result);
     }
 
+    @Test
+    public void testEncode() {
+        IntBlock block = new IntBlock(0x01020304);
+
+        byte[] expected = new byte[]{1, 2, 3, 4};
+        assertArrayEquals(expected, block.encode());
+
+        ByteBuffer buffer = ByteBuffer.allocate(block.getEncodedLength());
+        block.encode(buffer);
+        assertArrayEquals(expected, buffer.array());
+
+        assertArrayEquals(new byte[]{-1, -1, -1, -2}, new IntBlock(-2).encode());
+    }
+
     @Test
     public void testHash() {
         IntBlock block = new IntBlock(42);
 
         byte[] result = block.hash();
 
-        byte[] expected_input = "42".getBytes();
+        byte[] expected_input = new byte[]{0, 0, 0, 42};
         MessageDigest md = Utils.getMD();
         md.update(expected_input);
         byte[] expected = md.digest();
 
         assertArrayEquals(expected, result);
     }
+
+    /**
+     * Tests whether the string based hashing is still available, for compatibility with older authenticators
+     */
+    @Test
+    public void testHashString() {
+        IntBlock block = new IntBlock(42);
+
+        byte[] expected_input = "42".getBytes();
+        MessageDigest md = Utils.getMD();
+        md.update(expected_input);
+        byte[] expected = md.digest();
+
+        assertArrayEquals(expected, block.hashString(HashFunctions.getDefault()));
+        assertArrayEquals(expected, new StringEncodedBlock(block).hash());
+    }
 }
@@ -0,0 +1,237 @@
+package tests;
+
+import framework.Block;
+import framework.IntBlock;
+import framework.IntData;
+import framework.MultiProof;
+import hashtree.HashTreeADS;
+import mmr.MMRProof;
+import mmr.MerkleMountainRangeADS;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MerkleMountainRangeADSTest {
+    private IntData data;
+    private MerkleMountainRangeADS ADS;
+
+    @Before
+    public void initialize() {
+        data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        ADS = new MerkleMountainRangeADS(data.getBlocks());
+    }
+
+    @Test
+    public void testGetPeaks() {
+        // 13 = 8 + 4 + 1
+        assertEquals(3, ADS.getPeaks().size());
+    }
+
+    /**
+     * The bagged peaks should equal the root hash of the hash tree of the same blocks
+     */
+    @Test
+    public void testSameRootAsHashTree() {
+        Random random = new Random(5);
+        List<Block> blocks = new ArrayList<>();
+
+        for (int size = 1; size <= 40; size++) {
+            blocks.add(new IntBlock(random.nextInt()));
+
+            byte[] mmrRoot = new MerkleMountainRangeADS(blocks).getAuthenticator().getRootHash();
+            byte[] hashTreeRoot = new HashTreeADS(blocks).getAuthenticator().getRootHash();
+
+            assertTrue(Arrays.equals(hashTreeRoot, mmrRoot));
+        }
+    }
+
+    /**
+     * Tests the appendBlock operation. Appends a block using the append operation, and verifies if the result is
+     * the same as when the block was already added before.
+     */
+    @Test
+    public void testAppendBlocks() {
+        int value1 = 43, value2 = 129, value3 = 567;
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(value1));
+        blocks.add(new IntBlock(value2));
+        blocks.add(new IntBlock(value3));
+
+        data.appendBlocks(blocks);
+        ADS.appendBlocks(blocks);
+
+        IntData dataOther = new IntData();
+        dataOther.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473, value1, value2, value3});
+        MerkleMountainRangeADS ADSOther = new MerkleMountainRangeADS(dataOther.getBlocks());
+
+        assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+
+        testVerify();
+    }
+
+    @Test
+    public void testInsertBlocks() {
+        int index = 4;
+        int value1 = 43, value2 = 129, value3 = 567;
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(value1));
+        blocks.add(new IntBlock(value2));
+        blocks.add(new IntBlock(value3));
+
+        data.insertBlocks(index, blocks);
+        ADS.insertBlocks(index, blocks);
+
+        IntData dataOther = new IntData();
+        dataOther.addInts(new int[]{289, 27, 295, 28, value1, value2, value3, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        MerkleMountainRangeADS ADSOther = new MerkleMountainRangeADS(dataOther.getBlocks());
+
+        assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+
+        testVerify();
+    }
+
+    @Test
+    public void testDeleteBlocks() {
+        int index = 2;
+        int length = 3;
+        data.deleteBlocks(index, length);
+        ADS.deleteBlocks(index, length);
+
+        IntData dataOther = new IntData();
+        dataOther.addInts(new int[]{289, 27, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        MerkleMountainRangeADS ADSOther = new MerkleMountainRangeADS(dataOther.getBlocks());
+
+        assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+
+        testVerify();
+    }
+
+    @Test
+    public void testUpdateBlock() {
+        for (int index = 0; index < data.getBlockCount(); index++) {
+            data.updateBlock(index, new IntBlock(index * 31));
+            ADS.updateBlock(index, new IntBlock(index * 31));
+
+            MerkleMountainRangeADS ADSOther = new MerkleMountainRangeADS(data.getBlocks());
+            assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+        }
+
+        testVerify();
+    }
+
+    /**
+     * Merges and splits at every position, and compares the results with ADSs that are built from scratch
+     */
+    @Test
+    public void testMergeAndSplit() {
+        Random random = new Random(6);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 37; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        for (int index = 1; index < blocks.size(); index++) {
+            List<Block> leftBlocks = blocks.subList(0, index);
+            List<Block> rightBlocks = blocks.subList(index, blocks.size());
+            MerkleMountainRangeADS expected = new MerkleMountainRangeADS(blocks);
+
+            MerkleMountainRangeADS merged = ADS.merge(new MerkleMountainRangeADS(leftBlocks),
+                    new MerkleMountainRangeADS(rightBlocks));
+            assertTrue(expected.getAuthenticator().equals(merged.getAuthenticator()));
+
+            MerkleMountainRangeADS[] split = ADS.split(new MerkleMountainRangeADS(blocks), index);
+            assertTrue(new MerkleMountainRangeADS(leftBlocks).getAuthenticator().equals(split[0].getAuthenticator()));
+            assertTrue(new MerkleMountainRangeADS(rightBlocks).getAuthenticator().equals(split[1].getAuthenticator()));
+        }
+    }
+
+    /**
+     * Queries each block separately and tests whether they verify correctly.
+     */
+    @Test
+    public void testVerify() {
+        // Verify the query for each block
+        for (int i = 0; i < ADS.getSize(); i++) {
+            Block block = data.getBlock(i);
+            MMRProof proof = ADS.getProof(i);
+
+            assertTrue(ADS.verify(block, proof, ADS.getAuthenticator()));
+            assertFalse(ADS.verify(new IntBlock(-1), proof, ADS.getAuthenticator()));
+        }
+    }
+
+    /**
+     * Verifies ranges and scattered blocks with multiproofs. A multiproof should not contain more hashes than the
+     * single proofs together, and should not verify a changed block.
+     */
+    @Test
+    public void testMultiProof() {
+        int[][] indexSets = new int[][]{{2, 3, 4, 5, 6, 7}, {0, 12, 5, 6}, {9}, {4, 4}};
+
+        for (int[] indices : indexSets) {
+            MultiProof proof = ADS.getProof(indices);
+            List<Block> blocks = new ArrayList<>();
+            int singleHashes = 0;
+
+            for (int index : indices) {
+                blocks.add(data.getBlocks().get(index));
+                singleHashes += ADS.getProof(index).getPath().getLength();
+            }
+
+            assertTrue(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+            assertTrue(proof.getHashes().size() <= singleHashes);
+
+            blocks.set(blocks.size() - 1, new IntBlock(-1));
+            assertFalse(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+        }
+
+        int singleHashes = 0;
+        for (int index = 0; index < data.getBlockCount(); index++)
+            singleHashes += ADS.getProof(index).getPath().getLength();
+
+        MultiProof proof = ADS.getRangeProof(0, data.getBlockCount());
+        assertTrue(ADS.verify(data.getBlocks(), proof, ADS.getAuthenticator()));
+        assertTrue(proof.getHashes().size() < singleHashes);
+    }
+
+    /**
+     * A multiproof should only verify the blocks at the indices it was made for. The hashes of a proof for other
+     * indices would lead to the root, but the shape does not match their positions.
+     */
+    @Test
+    public void testMultiProofRelabelled() {
+        IntData treeData = new IntData();
+        for (int i = 0; i < 16; i++)
+            treeData.addInt(i);
+
+        MerkleMountainRangeADS tree = new MerkleMountainRangeADS(treeData.getBlocks());
+        int[][] indexSets = new int[][]{{5}, {3}, {2, 9}, {0, 1}};
+
+        for (int i = 0; i < indexSets.length; i += 2) {
+            int[] indices = indexSets[i];
+            MultiProof proof = tree.getProof(indices);
+            MultiProof relabelled = new MultiProof(indexSets[i + 1], proof.getRootIndices(), proof.getShape(),
+                    proof.getNodeCount(), proof.getHashes());
+
+            List<Block> blocks = new ArrayList<>();
+            for (int index : indices)
+                blocks.add(treeData.getBlocks().get(index));
+
+            assertTrue(tree.verify(blocks, proof, tree.getAuthenticator()));
+            assertFalse(tree.verify(blocks, relabelled, tree.getAuthenticator()));
+        }
+
+        int[] indices = new int[]{16};
+        MultiProof proof = tree.getProof(new int[]{15});
+        assertFalse(tree.verify(Collections.singletonList(treeData.getBlocks().get(15)),
+                new MultiProof(indices, proof.getRootIndices(), proof.getShape(), proof.getNodeCount(),
+                        proof.getHashes()), tree.getAuthenticator()));
+    }
+}
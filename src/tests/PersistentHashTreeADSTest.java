@@ -0,0 +1,204 @@
+package tests;
+
+import framework.Block;
+import framework.IntBlock;
+import framework.IntData;
+import hashtree.HTAuthenticator;
+import hashtree.HTProof;
+import hashtree.HashTreeADS;
+import hashtree.PersistentHashTreeADS;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class PersistentHashTreeADSTest {
+    private IntData data;
+    private PersistentHashTreeADS ADS;
+
+    @Before
+    public void initialize() {
+        data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        ADS = new PersistentHashTreeADS(data.getBlocks());
+    }
+
+    /**
+     * The tree has the same shape as HashTreeADS, so it should have the same authenticator
+     */
+    private void assertSameAsHashTree() {
+        HashTreeADS expected = new HashTreeADS(data.getBlocks());
+        assertTrue(expected.getAuthenticator().equals(ADS.getAuthenticator()));
+    }
+
+    /**
+     * Queries each block separately and tests whether they verify correctly.
+     */
+    @Test
+    public void testVerify() {
+        HTAuthenticator authenticator = ADS.getAuthenticator();
+
+        for (int i = 0; i < data.getBlockCount(); i++) {
+            HTProof proof = ADS.getProof(i);
+            assertTrue(ADS.verify(data.getBlock(i), proof, authenticator));
+        }
+    }
+
+    @Test
+    public void testAppendBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(43));
+        blocks.add(new IntBlock(129));
+        blocks.add(new IntBlock(567));
+
+        data.appendBlocks(blocks);
+        ADS.appendBlocks(blocks);
+
+        assertSameAsHashTree();
+        testVerify();
+    }
+
+    @Test
+    public void testInsertBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(43));
+        blocks.add(new IntBlock(129));
+        blocks.add(new IntBlock(567));
+
+        data.insertBlocks(4, blocks);
+        ADS.insertBlocks(4, blocks);
+
+        assertSameAsHashTree();
+        testVerify();
+    }
+
+    @Test
+    public void testDeleteBlocks() {
+        data.deleteBlocks(2, 3);
+        ADS.deleteBlocks(2, 3);
+
+        assertSameAsHashTree();
+        testVerify();
+    }
+
+    @Test
+    public void testUpdateBlock() {
+        int[] indices = new int[]{0, 5, 12, 6};
+        int[] values = new int[]{43, 129, 567, 9};
+
+        for (int i = 0; i < indices.length; i++) {
+            data.updateBlock(indices[i], new IntBlock(values[i]));
+            ADS.updateBlock(indices[i], new IntBlock(values[i]));
+
+            assertSameAsHashTree();
+        }
+
+        testVerify();
+    }
+
+    /**
+     * Merges and splits trees of all combinations of sizes, and compares the results with hash trees that are built
+     * from scratch
+     */
+    @Test
+    public void testMergeAndSplit() {
+        Random random = new Random(8);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 40; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        for (int leftSize = 1; leftSize < 20; leftSize++) {
+            for (int rightSize = 1; rightSize < 20; rightSize++) {
+                List<Block> leftBlocks = blocks.subList(0, leftSize);
+                List<Block> allBlocks = blocks.subList(0, leftSize + rightSize);
+                HashTreeADS expected = new HashTreeADS(allBlocks);
+
+                PersistentHashTreeADS left = new PersistentHashTreeADS(leftBlocks);
+                PersistentHashTreeADS right = new PersistentHashTreeADS(blocks.subList(leftSize, leftSize + rightSize));
+                PersistentHashTreeADS merged = left.merge(left, right);
+                assertTrue(expected.getAuthenticator().equals(merged.getAuthenticator()));
+
+                PersistentHashTreeADS[] split = merged.split(merged, leftSize);
+                assertTrue(new HashTreeADS(leftBlocks).getAuthenticator().equals(split[0].getAuthenticator()));
+                assertTrue(right.getAuthenticator().equals(split[1].getAuthenticator()));
+
+                // The inputs are not changed
+                assertTrue(expected.getAuthenticator().equals(merged.getAuthenticator()));
+            }
+        }
+    }
+
+    /**
+     * A snapshot keeps its version, while the ADS changes
+     */
+    @Test
+    public void testSnapshot() {
+        PersistentHashTreeADS.TreeSnapshot snapshot = ADS.getSnapshot();
+        HTAuthenticator authenticator = snapshot.getAuthenticator();
+        List<Block> blocks = new ArrayList<>(data.getBlocks());
+
+        ADS.updateBlock(3, new IntBlock(-1));
+        ADS.deleteBlocks(0, 5);
+        ADS.appendBlocks(Collections.<Block>singletonList(new IntBlock(7)));
+
+        assertEquals(3, ADS.getSnapshot().getVersion() - snapshot.getVersion());
+        assertEquals(blocks.size(), snapshot.getSize());
+        assertTrue(authenticator.equals(snapshot.getAuthenticator()));
+
+        for (int i = 0; i < blocks.size(); i++)
+            assertTrue(ADS.verify(blocks.get(i), snapshot.getProof(i), authenticator));
+    }
+
+    /**
+     * Reads snapshots in other threads while the tree is changed. Every proof of a snapshot should verify against
+     * the authenticator of that snapshot.
+     */
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final List<Block> initialBlocks = new ArrayList<>(data.getBlocks());
+        final int initialSize = initialBlocks.size();
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread() {
+                @Override
+                public void run() {
+                    Random random = new Random();
+
+                    while (!done.get()) {
+                        PersistentHashTreeADS.TreeSnapshot snapshot = ADS.getSnapshot();
+                        int index = random.nextInt(snapshot.getSize());
+
+                        // The appended blocks contain the number of blocks that were appended before them
+                        Block block = index < initialSize ? initialBlocks.get(index) : new IntBlock(index - initialSize);
+
+                        if (!ADS.verify(block, snapshot.getProof(index), snapshot.getAuthenticator()))
+                            failed.set(true);
+                    }
+                }
+            };
+            readers[r].start();
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            Block block = new IntBlock(i);
+            data.appendBlocks(Collections.singletonList(block));
+            ADS.appendBlocks(Collections.singletonList(block));
+        }
+
+        done.set(true);
+        for (Thread reader : readers)
+            reader.join();
+
+        assertFalse(failed.get());
+        assertSameAsHashTree();
+    }
+}
@@ -0,0 +1,143 @@
+package tests;
+
+import framework.Block;
+import framework.IntBlock;
+import framework.IntData;
+import org.junit.Before;
+import org.junit.Test;
+import seqhash.PersistentSeqHashADS;
+import seqhash.SHAuthenticator;
+import seqhash.SHProof;
+import seqhash.SeqHashADS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PersistentSeqHashADSTest {
+    private IntData data;
+    private PersistentSeqHashADS ADS;
+
+    @Before
+    public void initialize() {
+        data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        ADS = new PersistentSeqHashADS(data.getBlocks());
+    }
+
+    /**
+     * The forest is built in the same way as in SeqHashADS, so it should have the same authenticator
+     */
+    private void assertSameAsSeqHash() {
+        SeqHashADS expected = new SeqHashADS(data.getBlocks());
+        assertTrue(expected.getAuthenticator().equals(ADS.getAuthenticator()));
+    }
+
+    /**
+     * Queries each block separately and tests whether they verify correctly.
+     */
+    @Test
+    public void testVerify() {
+        SHAuthenticator authenticator = ADS.getAuthenticator();
+
+        for (int i = 0; i < data.getBlockCount(); i++) {
+            SHProof proof = ADS.getProof(i);
+            assertTrue(ADS.verify(data.getBlock(i), proof, authenticator));
+        }
+
+        assertSameAsSeqHash();
+    }
+
+    @Test
+    public void testInsertAndDeleteBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(43));
+        blocks.add(new IntBlock(129));
+        blocks.add(new IntBlock(567));
+
+        data.appendBlocks(blocks);
+        ADS.appendBlocks(blocks);
+        assertSameAsSeqHash();
+
+        data.insertBlocks(4, blocks);
+        ADS.insertBlocks(4, blocks);
+        assertSameAsSeqHash();
+
+        data.deleteBlocks(2, 3);
+        ADS.deleteBlocks(2, 3);
+        assertSameAsSeqHash();
+
+        data.updateBlock(5, new IntBlock(9));
+        ADS.updateBlock(5, new IntBlock(9));
+        assertSameAsSeqHash();
+
+        testVerify();
+    }
+
+    /**
+     * Merges SeqHashes of many combinations of sizes, and compares the results with SeqHashes that are built from
+     * scratch. The inputs should still prove their own blocks afterwards.
+     */
+    @Test
+    public void testMergeAndSplit() {
+        Random random = new Random(16);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 60; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        for (int leftSize = 1; leftSize < 30; leftSize += 3) {
+            for (int rightSize = 1; rightSize < 30; rightSize += 2) {
+                List<Block> leftBlocks = blocks.subList(0, leftSize);
+                List<Block> rightBlocks = blocks.subList(leftSize, leftSize + rightSize);
+
+                PersistentSeqHashADS left = new PersistentSeqHashADS(leftBlocks);
+                PersistentSeqHashADS right = new PersistentSeqHashADS(rightBlocks);
+                SHAuthenticator leftAuthenticator = left.getAuthenticator();
+
+                PersistentSeqHashADS merged = left.merge(left, right);
+                SeqHashADS expected = new SeqHashADS(blocks.subList(0, leftSize + rightSize));
+                assertTrue(expected.getAuthenticator().equals(merged.getAuthenticator()));
+
+                for (int i = 0; i < leftSize + rightSize; i++)
+                    assertTrue(merged.verify(blocks.get(i), merged.getProof(i), merged.getAuthenticator()));
+
+                // The inputs are not changed
+                assertTrue(leftAuthenticator.equals(left.getAuthenticator()));
+                for (int i = 0; i < leftSize; i++)
+                    assertTrue(left.verify(blocks.get(i), left.getProof(i), leftAuthenticator));
+
+                PersistentSeqHashADS[] split = merged.split(merged, leftSize);
+                assertTrue(leftAuthenticator.equals(split[0].getAuthenticator()));
+                assertTrue(right.getAuthenticator().equals(split[1].getAuthenticator()));
+            }
+        }
+    }
+
+    /**
+     * An old authenticator can still be proven, by finding its version
+     */
+    @Test
+    public void testHistory() {
+        SHAuthenticator authenticator = ADS.getAuthenticator();
+        List<Block> blocks = new ArrayList<>(data.getBlocks());
+
+        ADS.updateBlock(3, new IntBlock(-1));
+        ADS.deleteBlocks(0, 5);
+        ADS.appendBlocks(Collections.<Block>singletonList(new IntBlock(7)));
+
+        PersistentSeqHashADS.SeqHashSnapshot snapshot = ADS.getSnapshot(authenticator);
+        assertNotNull(snapshot);
+        assertEquals(3, ADS.getSnapshot().getVersion() - snapshot.getVersion());
+        assertEquals(blocks.size(), snapshot.getSize());
+
+        for (int i = 0; i < blocks.size(); i++)
+            assertTrue(ADS.verify(blocks.get(i), snapshot.getProof(i), authenticator));
+
+        ADS.setRetainedVersions(1);
+        assertNull(ADS.getSnapshot(authenticator));
+        assertNotNull(ADS.getSnapshot(ADS.getAuthenticator()));
+    }
+}
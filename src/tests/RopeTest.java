@@ -0,0 +1,104 @@
+package tests;
+
+import org.junit.Test;
+import utils.Rope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RopeTest {
+    private static List<Integer> range(int from, int to) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = from; i < to; i++)
+            list.add(i);
+        return list;
+    }
+
+    /**
+     * The height of an AVL tree with n elements is at most 1.44 log2(n + 2)
+     */
+    private static void assertBalanced(Rope<?> rope) {
+        assertTrue(rope.getHeight() <= 1.45 * Math.log(rope.size() + 2) / Math.log(2));
+    }
+
+    @Test
+    public void testOf() {
+        Rope<Integer> rope = Rope.of(range(0, 100));
+
+        assertEquals(100, rope.size());
+        assertEquals(range(0, 100), rope);
+        assertEquals(range(0, 100), new ArrayList<>(rope));
+        assertBalanced(rope);
+    }
+
+    /**
+     * Splits and concatenates ropes at random positions, and compares them with lists
+     */
+    @Test
+    public void testSplitAndConcat() {
+        Random random = new Random(17);
+        Rope<Integer> rope = Rope.of(range(0, 500));
+        List<Integer> expected = range(0, 500);
+
+        for (int run = 0; run < 200; run++) {
+            int index = random.nextInt(rope.size() + 1);
+            Rope<Integer> head = rope.head(index);
+            Rope<Integer> tail = rope.tail(index);
+
+            assertEquals(expected.subList(0, index), head);
+            assertEquals(expected.subList(index, expected.size()), tail);
+            assertBalanced(head);
+            assertBalanced(tail);
+
+            // Swap the parts, so that the next splits cut through ropes that were concatenated
+            rope = tail.concat(head);
+            List<Integer> swapped = new ArrayList<>(expected.subList(index, expected.size()));
+            swapped.addAll(expected.subList(0, index));
+            expected = swapped;
+
+            assertEquals(expected, rope);
+            assertBalanced(rope);
+        }
+    }
+
+    /**
+     * Concatenates ropes of very different sizes
+     */
+    @Test
+    public void testAppend() {
+        Rope<Integer> rope = Rope.empty();
+
+        for (int i = 0; i < 1000; i++)
+            rope = rope.append(i);
+
+        assertEquals(range(0, 1000), rope);
+        assertBalanced(rope);
+
+        rope = Rope.of(range(0, 3)).concat(Rope.of(range(3, 1000)));
+        assertEquals(range(0, 1000), rope);
+        assertBalanced(rope);
+    }
+
+    /**
+     * Changes do not affect the original rope
+     */
+    @Test
+    public void testImmutable() {
+        Rope<Integer> rope = Rope.of(range(0, 10));
+        Rope<Integer> changed = rope.with(4, -1);
+
+        assertEquals(-1, (int) changed.get(4));
+        assertEquals(4, (int) rope.get(4));
+
+        rope.head(3).concat(rope.tail(7));
+        assertEquals(range(0, 10), rope);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnsupportedAdd() {
+        Rope.of(range(0, 10)).add(10);
+    }
+}
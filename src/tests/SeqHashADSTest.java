@@ -3,15 +3,22 @@ package tests;
 import framework.Block;
 import framework.IntBlock;
 import framework.IntData;
+import framework.MultiProof;
 import org.junit.Before;
 import org.junit.Test;
 import seqhash.*;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Parallelism;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class SeqHashADSTest {
@@ -143,6 +150,25 @@ public class SeqHashADSTest {
         testVerify();
     }
 
+    /**
+     * Replaces blocks at several positions, and compares the result with an ADS that is built from scratch
+     */
+    @Test
+    public void testUpdateBlock() {
+        int[] indices = new int[]{0, 5, 12, 6};
+        int[] values = new int[]{43, 129, 567, 9};
+
+        for (int i = 0; i < indices.length; i++) {
+            data.updateBlock(indices[i], new IntBlock(values[i]));
+            ADS.updateBlock(indices[i], new IntBlock(values[i]));
+
+            SeqHashADS ADSOther = new SeqHashADS(data.getBlocks());
+            assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+        }
+
+        testVerify();
+    }
+
     @Test
     public void testGetAuthenticator() {
         byte[] auth0 = ADS.getAuthenticator().getRoots().get(0);
@@ -245,4 +271,255 @@ public class SeqHashADSTest {
             j = rand.nextInt(j);
         }
     }
+
+    /**
+     * Verifies ranges and scattered blocks with multiproofs. A multiproof should not contain more hashes than the
+     * single proofs together, and should not verify a changed block.
+     */
+    @Test
+    public void testMultiProof() {
+        int[][] indexSets = new int[][]{{2, 3, 4, 5, 6, 7}, {0, 12, 5, 6}, {9}, {4, 4}};
+
+        for (int[] indices : indexSets) {
+            MultiProof proof = ADS.getProof(indices);
+            List<Block> blocks = new ArrayList<>();
+            int singleHashes = 0;
+
+            for (int index : indices) {
+                blocks.add(data.getBlocks().get(index));
+                singleHashes += ADS.getProof(index).getPath().getLength();
+            }
+
+            assertTrue(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+            assertTrue(proof.getHashes().size() <= singleHashes);
+
+            blocks.set(blocks.size() - 1, new IntBlock(-1));
+            assertFalse(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+        }
+
+        int singleHashes = 0;
+        for (int index = 0; index < data.getBlockCount(); index++)
+            singleHashes += ADS.getProof(index).getPath().getLength();
+
+        MultiProof proof = ADS.getRangeProof(0, data.getBlockCount());
+        assertTrue(ADS.verify(data.getBlocks(), proof, ADS.getAuthenticator()));
+        assertTrue(proof.getHashes().size() < singleHashes);
+    }
+
+    /**
+     * Builds a SeqHash in parallel, which should give the same SeqHash as building it sequentially
+     */
+    @Test
+    public void testParallelConstruction() {
+        Random random = new Random(11);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 30000; i++)
+            blocks.add(new IntBlock(random.nextInt(i % 3 == 0 ? 4 : Integer.MAX_VALUE)));
+
+        SeqHashADS expected = new SeqHashADS(blocks);
+        SeqHashADS parallel = new SeqHashADS(blocks, expected.getHashFunction(),
+                new Parallelism(new ForkJoinPool(4)));
+
+        assertTrue(expected.equals(parallel));
+        assertTrue(expected.getAuthenticator().equals(parallel.getAuthenticator()));
+    }
+
+    /**
+     * Splits SeqHashes that were built or merged from random blocks, with many equal blocks in some runs, and splits
+     * the halves again. Every half should equal the SeqHash built from its blocks, and prove its blocks.
+     */
+    @Test
+    public void testRandomSplit() {
+        Random random = new Random(12);
+
+        for (int run = 0; run < 200; run++) {
+            int n = 2 + random.nextInt(run % 10 == 0 ? 5000 : 300);
+            boolean duplicates = run % 3 == 0;
+            int bound = duplicates ? 3 : Integer.MAX_VALUE;
+
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 0; i < n; i++)
+                blocks.add(new IntBlock(random.nextInt(bound)));
+
+            // Only build by merging without duplicates, as runs of equal blocks pair up from where the run starts
+            SeqHashADS ADS;
+            if (duplicates || run % 2 == 0) {
+                ADS = new SeqHashADS(blocks);
+            } else {
+                int middle = random.nextInt(n + 1);
+                ADS = new SeqHashADS().merge(new SeqHashADS(blocks.subList(0, middle)),
+                        new SeqHashADS(blocks.subList(middle, n)));
+            }
+
+            int index = random.nextInt(n + 1);
+            SeqHashADS[] halves = new SeqHashADS().split(ADS, index);
+            assertSeqHash(blocks.subList(0, index), halves[0]);
+            assertSeqHash(blocks.subList(index, n), halves[1]);
+
+            int second = random.nextInt(n - index + 1);
+            SeqHashADS[] quarters = new SeqHashADS().split(halves[1], second);
+            assertSeqHash(blocks.subList(index, index + second), quarters[0]);
+            assertSeqHash(blocks.subList(index + second, n), quarters[1]);
+        }
+    }
+
+    /**
+     * Chains splits, merges, inserts, deletes and updates on small blocks with many duplicates, which merge does not
+     * build the same way as the constructor. Every block should still be proven at its index afterwards.
+     */
+    @Test
+    public void testRandomEdits() {
+        Random random = new Random(16);
+
+        for (int run = 0; run < 300; run++) {
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 0; i < 16; i++)
+                blocks.add(new IntBlock(random.nextInt(4)));
+
+            SeqHashADS ADS = new SeqHashADS(blocks);
+
+            for (int edit = 0; edit < 20; edit++) {
+                int index = random.nextInt(blocks.size() + 1);
+
+                switch (random.nextInt(4)) {
+                    case 0:
+                        SeqHashADS[] halves = ADS.split(ADS, index);
+                        ADS = ADS.merge(halves[0], halves[1]);
+                        break;
+                    case 1:
+                        List<Block> inserted = new ArrayList<>();
+                        for (int i = random.nextInt(5); i > 0; i--)
+                            inserted.add(new IntBlock(random.nextInt(4)));
+
+                        blocks.addAll(index, inserted);
+                        ADS.insertBlocks(index, inserted);
+                        break;
+                    case 2:
+                        int length = random.nextInt(Math.min(4, blocks.size() - index) + 1);
+                        if (blocks.size() - length < 2)
+                            break;
+
+                        blocks.subList(index, index + length).clear();
+                        ADS.deleteBlocks(index, length);
+                        break;
+                    default:
+                        if (index == blocks.size())
+                            break;
+
+                        Block block = new IntBlock(random.nextInt(4));
+                        blocks.set(index, block);
+                        ADS.updateBlock(index, block);
+                }
+
+                assertTrue(ADS.getLeaves().size() == blocks.size());
+
+                for (int i = 0; i < blocks.size(); i++)
+                    assertTrue(ADS.verify(blocks.get(i), ADS.getProof(i), ADS.getAuthenticator()));
+            }
+        }
+    }
+
+    private static void assertSeqHash(List<Block> blocks, SeqHashADS ADS) {
+        assertTrue(new SeqHashADS(blocks).equals(ADS));
+
+        for (int i = 0; i < blocks.size(); i++)
+            assertTrue(ADS.verify(blocks.get(i), ADS.getProof(i), ADS.getAuthenticator()));
+    }
+
+    /**
+     * A split should only hash the nodes around the split, instead of building both halves again
+     */
+    @Test
+    public void testSplitIsLocal() {
+        Random random = new Random(13);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 1 << 16; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        CountingHashFunction hashFunction = new CountingHashFunction();
+
+        for (int run = 0; run < 10; run++) {
+            SeqHashADS ADS = new SeqHashADS(blocks, hashFunction);
+            int index = random.nextInt(blocks.size());
+
+            hashFunction.count = 0;
+            SeqHashADS[] halves = ADS.split(ADS, index);
+            assertTrue(hashFunction.count < 1000);
+
+            assertTrue(new SeqHashADS(blocks.subList(0, index)).equals(halves[0]));
+            assertTrue(new SeqHashADS(blocks.subList(index, blocks.size())).equals(halves[1]));
+        }
+    }
+
+    /**
+     * Replacing a block should only hash the nodes around it
+     */
+    @Test
+    public void testUpdateIsLocal() {
+        Random random = new Random(14);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 1 << 16; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        CountingHashFunction hashFunction = new CountingHashFunction();
+        SeqHashADS ADS = new SeqHashADS(blocks, hashFunction);
+
+        for (int run = 0; run < 10; run++) {
+            int index = random.nextInt(blocks.size());
+            Block block = new IntBlock(random.nextInt());
+            blocks.set(index, block);
+
+            hashFunction.count = 0;
+            ADS.updateBlock(index, block);
+            assertTrue(hashFunction.count < 2000);
+        }
+
+        assertTrue(new SeqHashADS(blocks).equals(ADS));
+    }
+
+    /**
+     * Counts the hashes of the nodes
+     */
+    private static class CountingHashFunction implements HashFunction {
+        private final HashFunction hashFunction = HashFunctions.getDefault();
+        private int count;
+
+        @Override
+        public String getName() {
+            return hashFunction.getName();
+        }
+
+        @Override
+        public int getDigestLength() {
+            return hashFunction.getDigestLength();
+        }
+
+        @Override
+        public byte[] hash(byte[] message) {
+            return hashFunction.hash(message);
+        }
+
+        @Override
+        public byte[] hash(ByteBuffer message) {
+            return hashFunction.hash(message);
+        }
+
+        @Override
+        public byte[] hash(byte[] left, byte[] right) {
+            count++;
+            return hashFunction.hash(left, right);
+        }
+
+        @Override
+        public void hash(byte[] left, byte[] right, byte[] out, int offset) {
+            count++;
+            hashFunction.hash(left, right, out, offset);
+        }
+
+        @Override
+        public void hash(byte[] in, int leftOffset, int rightOffset, byte[] out, int offset) {
+            count++;
+            hashFunction.hash(in, leftOffset, rightOffset, out, offset);
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package tests;
+
+import org.junit.Test;
+import utils.Parallelism;
+import utils.SeqHashRound;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class SeqHashRoundTest {
+    private final Parallelism parallelism = new Parallelism(new ForkJoinPool(4));
+
+    private static byte[][] randomHashes(Random random, int count, byte[][] alphabet) {
+        byte[][] hashes = new byte[count][];
+
+        for (int i = 0; i < count; i++)
+            hashes[i] = alphabet[random.nextInt(alphabet.length)];
+
+        return hashes;
+    }
+
+    private static byte[][] randomAlphabet(Random random, int size) {
+        byte[][] alphabet = new byte[size][20];
+
+        for (byte[] hash : alphabet)
+            random.nextBytes(hash);
+
+        return alphabet;
+    }
+
+    /**
+     * Decides the round sequentially and in parallel, with and without volatile ends, and compares the results
+     */
+    private void assertSameAsSequential(byte[][] hashes) {
+        for (int ends = 0; ends < 4; ends++) {
+            boolean volatileLeft = (ends & 1) != 0;
+            boolean volatileRight = (ends & 2) != 0;
+
+            SeqHashRound expected = SeqHashRound.decide(hashes, volatileLeft, volatileRight, null);
+            SeqHashRound round = SeqHashRound.decide(hashes, volatileLeft, volatileRight, parallelism);
+
+            assertEquals(hashes.length, round.size());
+            for (int i = 0; i < hashes.length; i++) {
+                assertEquals(expected.getKind(i), round.getKind(i));
+                assertEquals(expected.getMergeBit(i), round.getMergeBit(i));
+            }
+        }
+    }
+
+    @Test
+    public void testDistinctHashes() {
+        Random random = new Random(3);
+
+        assertSameAsSequential(randomHashes(random, 50000, randomAlphabet(random, 50000)));
+    }
+
+    /**
+     * Few distinct hashes give runs of equal hashes, which always merge
+     */
+    @Test
+    public void testRepeatedHashes() {
+        Random random = new Random(5);
+
+        for (int size = 1; size <= 4; size++)
+            assertSameAsSequential(randomHashes(random, 20000, randomAlphabet(random, size)));
+    }
+
+    @Test
+    public void testShortRounds() {
+        Random random = new Random(7);
+        byte[][] alphabet = randomAlphabet(random, 100);
+
+        for (int count = 0; count < 50; count++)
+            assertSameAsSequential(randomHashes(random, count, alphabet));
+
+        int[] counts = new int[]{SeqHashRound.MIN_PARALLEL_SIZE - 1, SeqHashRound.MIN_PARALLEL_SIZE,
+                SeqHashRound.MIN_PARALLEL_SIZE + 1};
+        for (int count : counts)
+            assertSameAsSequential(randomHashes(random, count, alphabet));
+    }
+}
@@ -3,15 +3,29 @@ package tests;
 import framework.Block;
 import framework.IntBlock;
 import framework.IntData;
+import framework.MultiProof;
 import org.junit.Before;
 import org.junit.Test;
+import skiplist.Promotion;
 import skiplist.SkipListADS;
 import skiplist.SLProof;
+import utils.HashFunction;
+import utils.HashFunctions;
+import utils.Parallelism;
+import utils.Utils;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class SkipListADSTest {
@@ -51,6 +65,28 @@ public class SkipListADSTest {
         }
     }
 
+    /**
+     * The base nodes are found from the start node, with the number of base nodes that each label covers. These
+     * numbers should stay correct after splits and merges.
+     */
+    @Test
+    public void testGetBaseNode() {
+        for (int index = 1; index < data.getBlockCount(); index++) {
+            SkipListADS[] split = ADS.split(new SkipListADS(data.getBlocks()), index);
+            assertEquals(index, split[0].getSize());
+            assertEquals(data.getBlockCount() - index, split[1].getSize());
+
+            SkipListADS merged = ADS.merge(split[1], split[0]);
+            assertEquals(data.getBlockCount(), merged.getSize());
+            assertEquals(data.getBlockCount() + 2, merged.getBaseNodes().size());
+
+            for (int i = 0; i < data.getBlockCount(); i++) {
+                int original = (i + index) % data.getBlockCount();
+                assertArrayEquals(data.getBlock(original).hash(), merged.getBaseNode(i + 1).getHash());
+            }
+        }
+    }
+
     @Test
     public void testMerge() {
 
@@ -142,6 +178,28 @@ public class SkipListADSTest {
         testVerify();
     }
 
+    /**
+     * Replaces every block a few times. Depending on the new hash, the tower keeps its height (in-place update) or
+     * changes it (split and merge), so both cases are covered.
+     */
+    @Test
+    public void testUpdateBlock() {
+        int value = 1;
+
+        for (int round = 0; round < 3; round++) {
+            for (int index = 0; index < data.getBlockCount(); index++) {
+                data.updateBlock(index, new IntBlock(value));
+                ADS.updateBlock(index, new IntBlock(value));
+                value += 7;
+
+                SkipListADS ADSOther = new SkipListADS(data.getBlocks());
+                assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+            }
+        }
+
+        testVerify();
+    }
+
     @Test
     public void testComputeLabel() {
         byte[] startNodeLabel = ADS.getStartNode().getLabel();
@@ -172,4 +230,313 @@ public class SkipListADSTest {
             assertTrue(ADS.verify(block, proof, ADS.getAuthenticator()));
         }
     }
+
+    /**
+     * Verifies ranges and scattered blocks with multiproofs. A multiproof should not contain more hashes than the
+     * single proofs together, and should not verify a changed block.
+     */
+    @Test
+    public void testMultiProof() {
+        int[][] indexSets = new int[][]{{2, 3, 4, 5, 6, 7}, {0, 12, 5, 6}, {9}, {4, 4}};
+
+        for (int[] indices : indexSets) {
+            MultiProof proof = ADS.getProof(indices);
+            List<Block> blocks = new ArrayList<>();
+            int singleHashes = 0;
+
+            for (int index : indices) {
+                blocks.add(data.getBlocks().get(index));
+                singleHashes += ADS.getProof(index).getPath().getLength();
+            }
+
+            assertTrue(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+            assertTrue(proof.getHashes().size() <= singleHashes);
+
+            blocks.set(blocks.size() - 1, new IntBlock(-1));
+            assertFalse(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+        }
+
+        int singleHashes = 0;
+        for (int index = 0; index < data.getBlockCount(); index++)
+            singleHashes += ADS.getProof(index).getPath().getLength();
+
+        MultiProof proof = ADS.getRangeProof(0, data.getBlockCount());
+        assertTrue(ADS.verify(data.getBlocks(), proof, ADS.getAuthenticator()));
+        assertTrue(proof.getHashes().size() < singleHashes);
+    }
+
+    /**
+     * Verifies all blocks at once, sequentially and in parallel. A changed block should be the only one that fails,
+     * also when its path shares hashes with the correct blocks.
+     */
+    @Test
+    public void testVerifyAll() {
+        List<Block> blocks = new ArrayList<>(data.getBlocks());
+        List<SLProof> proofs = new ArrayList<>();
+        for (int index = 0; index < blocks.size(); index++)
+            proofs.add(ADS.getProof(index));
+
+        blocks.add(new IntBlock(-1));
+        proofs.add(ADS.getProof(3));
+
+        Parallelism parallelism = new Parallelism(new ForkJoinPool(4), 1);
+        boolean[][] results = new boolean[][]{
+                ADS.verifyAll(blocks, proofs, ADS.getAuthenticator()),
+                ADS.verifyAll(blocks, proofs, ADS.getAuthenticator(), parallelism)
+        };
+
+        for (boolean[] result : results) {
+            for (int i = 0; i < blocks.size() - 1; i++)
+                assertTrue(result[i]);
+
+            assertFalse(result[blocks.size() - 1]);
+        }
+    }
+
+    /**
+     * Inserts and deletes blocks at random positions, including both ends, and compares the result with a skip list
+     * that is built from scratch
+     */
+    @Test
+    public void testRandomInsertAndDelete() {
+        Random random = new Random(19);
+
+        for (int run = 0; run < 100; run++) {
+            int index = random.nextInt(data.getBlockCount() + 1);
+
+            if (random.nextBoolean() || data.getBlockCount() < 5) {
+                List<Block> blocks = new ArrayList<>();
+                for (int i = random.nextInt(6); i > 0; i--)
+                    blocks.add(new IntBlock(random.nextInt()));
+
+                data.insertBlocks(index, blocks);
+                ADS.insertBlocks(index, blocks);
+            } else {
+                int length = random.nextInt(data.getBlockCount() - index + 1);
+
+                data.deleteBlocks(index, length);
+                ADS.deleteBlocks(index, length);
+            }
+
+            assertTrue(new SkipListADS(data.getBlocks()).getAuthenticator().equals(ADS.getAuthenticator()));
+        }
+
+        testVerify();
+    }
+
+    /**
+     * With p = 1/2, a block is promoted while the bits of its hash are set, least significant bit first
+     */
+    @Test
+    public void testHalfPromotionReadsOneBitPerLevel() {
+        HashFunction hashFunction = HashFunctions.getDefault();
+
+        for (int value = 0; value < 200; value++) {
+            byte[] hash = new IntBlock(value).hash(hashFunction);
+
+            int height = 1;
+            while (((hash[(height - 1) / 8] >> ((height - 1) % 8)) & 1) == 1)
+                height++;
+
+            assertEquals(height, Promotion.HALF.getHeight(hash, hashFunction));
+        }
+    }
+
+    /**
+     * A hash of which all bits are set is promoted up to the maximum height, reading past the end of the hash if
+     * needed, instead of running out of bits
+     */
+    @Test
+    public void testHeightIsBounded() {
+        HashFunction hashFunction = HashFunctions.getDefault();
+        byte[] hash = new byte[hashFunction.getDigestLength()];
+        Arrays.fill(hash, (byte) -1);
+
+        assertEquals(Promotion.HALF.getMaxHeight(), Promotion.HALF.getHeight(hash, hashFunction));
+        assertEquals(1, new Promotion(0.5, 1).getHeight(hash, hashFunction));
+
+        Promotion high = new Promotion(0.95);
+        int height = high.getHeight(hash, hashFunction);
+        assertTrue(height > 8 * hash.length && height <= high.getMaxHeight());
+    }
+
+    /**
+     * Skip lists with a lower probability verify, and give the same result for edits as when they are rebuilt
+     */
+    @Test
+    public void testPromotionProbabilities() {
+        Random random = new Random(4);
+        HashFunction hashFunction = HashFunctions.getDefault();
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        for (Promotion promotion : new Promotion[]{Promotion.QUARTER, Promotion.INVERSE_E}) {
+            List<Block> expected = new ArrayList<>(blocks);
+            SkipListADS list = new SkipListADS(expected, hashFunction, promotion);
+
+            List<Block> inserted = Collections.<Block>singletonList(new IntBlock(-5));
+            expected.addAll(100, inserted);
+            list.insertBlocks(100, inserted);
+            expected.subList(200, 210).clear();
+            list.deleteBlocks(200, 10);
+            expected.set(300, new IntBlock(-6));
+            list.updateBlock(300, new IntBlock(-6));
+
+            SkipListADS[] split = list.split(list, 250);
+            list = list.merge(split[0], split[1]);
+
+            SkipListADS rebuilt = new SkipListADS(expected, hashFunction, promotion);
+            assertTrue(rebuilt.getAuthenticator().equals(list.getAuthenticator()));
+            assertFalse(new SkipListADS(expected, hashFunction).getAuthenticator().equals(list.getAuthenticator()));
+
+            for (int i = 0; i < expected.size(); i += 7)
+                assertTrue(list.verify(expected.get(i), list.getProof(i), list.getAuthenticator()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeDifferentPromotions() {
+        SkipListADS other = new SkipListADS(data.getBlocks(), ADS.getHashFunction(), Promotion.QUARTER);
+        ADS.merge(ADS, other);
+    }
+
+    /**
+     * Counts the hashes of the nodes, to check how many labels are computed
+     */
+    private static class CountingHashFunction implements HashFunction {
+        private final HashFunction hashFunction = HashFunctions.getDefault();
+        private int count;
+
+        @Override
+        public String getName() {
+            return hashFunction.getName();
+        }
+
+        @Override
+        public int getDigestLength() {
+            return hashFunction.getDigestLength();
+        }
+
+        @Override
+        public byte[] hash(byte[] message) {
+            return hashFunction.hash(message);
+        }
+
+        @Override
+        public byte[] hash(ByteBuffer message) {
+            return hashFunction.hash(message);
+        }
+
+        @Override
+        public byte[] hash(byte[] left, byte[] right) {
+            count++;
+            return hashFunction.hash(left, right);
+        }
+
+        @Override
+        public void hash(byte[] left, byte[] right, byte[] out, int offset) {
+            count++;
+            hashFunction.hash(left, right, out, offset);
+        }
+
+        @Override
+        public void hash(byte[] in, int leftOffset, int rightOffset, byte[] out, int offset) {
+            count++;
+            hashFunction.hash(in, leftOffset, rightOffset, out, offset);
+        }
+    }
+
+    /**
+     * Changes only mark labels as dirty. The labels are computed when the authenticator is asked for, once for all
+     * changes since the last time.
+     */
+    @Test
+    public void testLazyLabels() {
+        Random random = new Random(6);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        CountingHashFunction hashFunction = new CountingHashFunction();
+        SkipListADS batched = new SkipListADS(blocks, hashFunction);
+        assertEquals(0, hashFunction.count);
+
+        batched.getAuthenticator();
+        int created = hashFunction.count;
+        assertTrue(created > 0);
+
+        // Separate edits
+        SkipListADS separate = new SkipListADS(blocks, hashFunction);
+        separate.getAuthenticator();
+        hashFunction.count = 0;
+
+        for (int i = 0; i < 20; i++) {
+            separate.insertBlocks(500 + i, Collections.<Block>singletonList(new IntBlock(i)));
+            separate.getAuthenticator();
+        }
+
+        int separateCount = hashFunction.count;
+        hashFunction.count = 0;
+
+        // The same edits in one batch
+        for (int i = 0; i < 20; i++) {
+            batched.insertBlocks(500 + i, Collections.<Block>singletonList(new IntBlock(i)));
+            assertEquals(0, hashFunction.count);
+        }
+
+        batched.getAuthenticator();
+        assertTrue(hashFunction.count < separateCount);
+
+        assertTrue(separate.getAuthenticator().equals(batched.getAuthenticator()));
+
+        for (int i = 0; i < 20; i++)
+            blocks.add(500 + i, new IntBlock(i));
+        assertTrue(new SkipListADS(blocks).getAuthenticator().equals(batched.getAuthenticator()));
+    }
+
+    /**
+     * With a maximum height of 1, all blocks are in one run of plateau nodes, which recursive label computation could
+     * not handle
+     */
+    @Test
+    public void testLongRun() {
+        HashFunction hashFunction = HashFunctions.getDefault();
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            blocks.add(new IntBlock(i));
+
+        // The label of the start node is the hash of all blocks, from right to left
+        byte[] expected = blocks.get(blocks.size() - 1).hash(hashFunction);
+        for (int i = blocks.size() - 2; i >= 0; i--)
+            expected = hashFunction.hash(blocks.get(i).hash(hashFunction), expected);
+        expected = hashFunction.hash(hashFunction.hash(Utils.MININF.getBytes(StandardCharsets.UTF_8)), expected);
+
+        SkipListADS list = new SkipListADS(blocks, hashFunction, new Promotion(0.5, 1));
+        assertArrayEquals(expected, list.getAuthenticator().getHash());
+
+        list.refreshAllLabels();
+        assertArrayEquals(expected, list.getAuthenticator().getHash());
+    }
+
+    /**
+     * Computes all labels of a new skip list with the parallel sweep, and compares them with the lazily computed labels
+     */
+    @Test
+    public void testParallelRefreshAllLabels() {
+        Random random = new Random(12);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 20000; i++)
+            blocks.add(new IntBlock(random.nextInt()));
+
+        SkipListADS expected = new SkipListADS(blocks);
+        SkipListADS list = new SkipListADS(blocks);
+        list.refreshAllLabels(new Parallelism(new ForkJoinPool(4)));
+
+        assertFalse(list.getStartNode().isDirty());
+        assertTrue(expected.getAuthenticator().equals(list.getAuthenticator()));
+
+        for (int i = 0; i < blocks.size(); i += 97)
+            assertTrue(list.verify(blocks.get(i), list.getProof(i), list.getAuthenticator()));
+    }
 }
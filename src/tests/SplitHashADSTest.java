@@ -3,15 +3,20 @@ package tests;
 import framework.Block;
 import framework.IntBlock;
 import framework.IntData;
+import framework.MultiProof;
 import org.junit.Before;
 import org.junit.Test;
 import splithash.*;
+import utils.Parallelism;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class SplitHashADSTest {
@@ -70,11 +75,7 @@ public class SplitHashADSTest {
             SplitHashADS b = randomMerge(sequence);
 
             assertTrue(a.equals(b));
-
-            Node aTop = a.finish();
-            Node bTop = b.finish();
-
-            assertTrue(aTop.equals(bTop));
+            assertTrue(a.getAuthenticator().equals(b.getAuthenticator()));
         }
     }
 
@@ -143,6 +144,25 @@ public class SplitHashADSTest {
         testVerify();
     }
 
+    /**
+     * Replaces blocks at several positions, and compares the result with an ADS that is built from scratch
+     */
+    @Test
+    public void testUpdateBlock() {
+        int[] indices = new int[]{0, 5, 12, 6};
+        int[] values = new int[]{43, 129, 567, 9};
+
+        for (int i = 0; i < indices.length; i++) {
+            data.updateBlock(indices[i], new IntBlock(values[i]));
+            ADS.updateBlock(indices[i], new IntBlock(values[i]));
+
+            SplitHashADS ADSOther = new SplitHashADS(data.getBlocks());
+            assertTrue(ADS.getAuthenticator().equals(ADSOther.getAuthenticator()));
+        }
+
+        testVerify();
+    }
+
     @Test
     public void testGetAuthenticator() {
         byte[] auth0 = ADS.getAuthenticator().getRoots().get(0);
@@ -245,4 +265,127 @@ public class SplitHashADSTest {
             j = rand.nextInt(j);
         }
     }
+
+    /**
+     * Verifies ranges and scattered blocks with multiproofs. A multiproof should not contain more hashes than the
+     * single proofs together, and should not verify a changed block.
+     */
+    @Test
+    public void testMultiProof() {
+        int[][] indexSets = new int[][]{{2, 3, 4, 5, 6, 7}, {0, 12, 5, 6}, {9}, {4, 4}};
+
+        for (int[] indices : indexSets) {
+            MultiProof proof = ADS.getProof(indices);
+            List<Block> blocks = new ArrayList<>();
+            int singleHashes = 0;
+
+            for (int index : indices) {
+                blocks.add(data.getBlocks().get(index));
+                singleHashes += ADS.getProof(index).getPath().getLength();
+            }
+
+            assertTrue(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+            assertTrue(proof.getHashes().size() <= singleHashes);
+
+            blocks.set(blocks.size() - 1, new IntBlock(-1));
+            assertFalse(ADS.verify(blocks, proof, ADS.getAuthenticator()));
+        }
+
+        int singleHashes = 0;
+        for (int index = 0; index < data.getBlockCount(); index++)
+            singleHashes += ADS.getProof(index).getPath().getLength();
+
+        MultiProof proof = ADS.getRangeProof(0, data.getBlockCount());
+        assertTrue(ADS.verify(data.getBlocks(), proof, ADS.getAuthenticator()));
+        assertTrue(proof.getHashes().size() < singleHashes);
+    }
+
+    /**
+     * Inserts blocks at both ends, where no split is done, and verifies all blocks after each change
+     */
+    @Test
+    public void testInsertAtEnds() {
+        List<Block> blocks = new ArrayList<>();
+        blocks.add(new IntBlock(43));
+        blocks.add(new IntBlock(129));
+        blocks.add(new IntBlock(567));
+
+        data.insertBlocks(0, blocks);
+        ADS.insertBlocks(0, blocks);
+        testVerify();
+
+        data.insertBlocks(data.getBlockCount(), blocks);
+        ADS.insertBlocks(ADS.getLeaves().size(), blocks);
+        testVerify();
+
+        assertTrue(ADS.getLeaves().size() == data.getBlockCount());
+    }
+
+    /**
+     * Chains random inserts, deletes, splits and merges, and compares the SplitHash after each edit with one that is
+     * built from scratch. Every block should verify, so no cut may leave links to dropped nodes.
+     */
+    @Test
+    public void testRandomInsertAndDelete() {
+        Random random = new Random(19);
+
+        for (int run = 0; run < 200; run++) {
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(40); i++)
+                blocks.add(new IntBlock(getRandomInt()));
+
+            SplitHashADS ADS = new SplitHashADS(blocks);
+
+            for (int edit = 0; edit < 20; edit++) {
+                int index = random.nextInt(blocks.size() + 1);
+
+                switch (random.nextInt(3)) {
+                    case 0:
+                        List<Block> inserted = new ArrayList<>();
+                        for (int i = random.nextInt(8); i > 0; i--)
+                            inserted.add(new IntBlock(getRandomInt()));
+
+                        blocks.addAll(index, inserted);
+                        ADS.insertBlocks(index, inserted);
+                        break;
+                    case 1:
+                        int length = random.nextInt(blocks.size() - index + 1);
+
+                        blocks.subList(index, index + length).clear();
+                        ADS.deleteBlocks(index, length);
+                        break;
+                    default:
+                        SplitHashADS[] halves = ADS.split(ADS, index);
+                        ADS = ADS.merge(halves[0], halves[1]);
+                }
+
+                assertEquals(blocks.size(), ADS.getLeaves().size());
+                if (blocks.isEmpty())
+                    continue;
+
+                assertTrue(ADS.getAuthenticator().equals(new SplitHashADS(blocks).getAuthenticator()));
+                for (int i = 0; i < blocks.size(); i++)
+                    assertTrue(ADS.verify(blocks.get(i), ADS.getProof(i), ADS.getAuthenticator()));
+            }
+        }
+    }
+
+    /**
+     * Builds a SplitHash in parallel, which should give the same SplitHash as building it sequentially
+     */
+    @Test
+    public void testParallelConstruction() {
+        Random random = new Random(11);
+        List<Block> blocks = new ArrayList<>();
+        for (int i = 0; i < 30000; i++)
+            blocks.add(new IntBlock(random.nextInt(i % 3 == 0 ? 4 : Integer.MAX_VALUE)));
+
+        SplitHashADS expected = new SplitHashADS(blocks);
+        SplitHashADS parallel = new SplitHashADS(blocks, expected.getHashFunction(),
+                new Parallelism(new ForkJoinPool(4)));
+
+        assertTrue(expected.getAuthenticator().equals(parallel.getAuthenticator()));
+        for (int i = 0; i < blocks.size(); i += 97)
+            assertEquals(expected.getProof(i).getPath(), parallel.getProof(i).getPath());
+    }
 }
@@ -0,0 +1,91 @@
+package tests;
+
+import org.junit.Test;
+import utils.Utils;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UtilsTest {
+    private static byte[] expectedHash(String algorithm, byte[] left, byte[] right) {
+        MessageDigest md = Utils.getMD(algorithm);
+        md.update(left);
+        md.update(right);
+        return md.digest();
+    }
+
+    /**
+     * Tests whether the cached digest gives the same results as a new digest, also when it is reused
+     */
+    @Test
+    public void testCachedHash() {
+        byte[] left = "left".getBytes();
+        byte[] right = "right".getBytes();
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(expectedHash(Utils.HASH_DEFAULT, left, right), Utils.hash(left, right));
+            assertArrayEquals(expectedHash("SHA-256", left, right), Utils.hash("SHA-256", left, right));
+        }
+    }
+
+    @Test
+    public void testHashIntoBuffer() {
+        byte[] left = "left".getBytes();
+        byte[] right = "right".getBytes();
+        int length = Utils.getDigestLength(Utils.HASH_DEFAULT);
+
+        byte[] out = new byte[length + 3];
+        Utils.hash(left, right, out, 3);
+
+        assertArrayEquals(Utils.hash(left, right), Arrays.copyOfRange(out, 3, length + 3));
+
+        // Hash two hashes that are stored in the same buffer
+        byte[] in = new byte[2 * length];
+        System.arraycopy(Utils.hash(left), 0, in, 0, length);
+        System.arraycopy(Utils.hash(right), 0, in, length, length);
+        Utils.hash(Utils.HASH_DEFAULT, in, 0, length, length, out, 0);
+
+        assertArrayEquals(Utils.hash(Utils.hash(left), Utils.hash(right)), Arrays.copyOfRange(out, 0, length));
+    }
+
+    /**
+     * Hashes concurrently from several threads, and checks that no thread sees a corrupted digest
+     */
+    @Test
+    public void testConcurrentHash() throws InterruptedException {
+        final byte[] left = "left".getBytes();
+        final byte[] right = "right".getBytes();
+        final byte[] expected = expectedHash(Utils.HASH_DEFAULT, left, right);
+        final boolean[] correct = new boolean[8];
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < correct.length; t++) {
+            final int id = t;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    boolean result = true;
+                    for (int i = 0; i < 10000; i++) {
+                        result &= Arrays.equals(expected, Utils.hash(left, right));
+                    }
+                    correct[id] = result;
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (boolean result : correct) {
+            assertTrue(result);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package tests;
+
+import framework.ADS;
+import framework.Block;
+import framework.IntData;
+import framework.MultiProof;
+import framework.WireFormat;
+import hashtree.HTAuthenticator;
+import hashtree.HTProof;
+import hashtree.HashTreeADS;
+import mmr.MMRAuthenticator;
+import mmr.MMRProof;
+import mmr.MerkleMountainRangeADS;
+import org.junit.Before;
+import org.junit.Test;
+import skiplist.SLAuthenticator;
+import skiplist.SLProof;
+import skiplist.SkipListADS;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WireFormatTest {
+    private List<Block> blocks;
+
+    @Before
+    public void initialize() {
+        IntData data = new IntData();
+        data.addInts(new int[]{289, 27, 295, 28, 2, 9358, 288, 57, 928, 673, 1000, 2832987, 473});
+        blocks = data.getBlocks();
+    }
+
+    /**
+     * Encodes the proofs of all blocks and the authenticator, decodes them, and verifies the blocks with the
+     * decoded values
+     */
+    @Test
+    public void testHashTree() {
+        HashTreeADS ADS = new HashTreeADS(blocks);
+        HTAuthenticator authenticator = HTAuthenticator.decode(ByteBuffer.wrap(ADS.getAuthenticator().encode()));
+        assertTrue(authenticator.equals(ADS.getAuthenticator()));
+
+        for (int index = 0; index < blocks.size(); index++) {
+            HTProof proof = ADS.getProof(index);
+            byte[] encoded = proof.encode();
+            assertEquals(proof.getEncodedLength(), encoded.length);
+
+            HTProof decoded = HTProof.decode(ByteBuffer.wrap(encoded));
+            assertEquals(proof.getPath(), decoded.getPath());
+            assertTrue(ADS.verify(blocks.get(index), decoded, authenticator));
+        }
+    }
+
+    @Test
+    public void testSkipList() {
+        SkipListADS ADS = new SkipListADS(blocks);
+        SLAuthenticator authenticator = SLAuthenticator.decode(ByteBuffer.wrap(ADS.getAuthenticator().encode()));
+
+        for (int index = 0; index < blocks.size(); index++) {
+            SLProof decoded = SLProof.decode(ByteBuffer.wrap(ADS.getProof(index).encode()));
+            assertEquals(ADS.getProof(index).getPath(), decoded.getPath());
+            assertTrue(ADS.verify(blocks.get(index), decoded, authenticator));
+        }
+    }
+
+    /**
+     * Writes all proofs back to back into one buffer, and reads them in the same order
+     */
+    @Test
+    public void testConsecutiveMessages() {
+        MerkleMountainRangeADS ADS = new MerkleMountainRangeADS(blocks);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+        ADS.getAuthenticator().encode(buffer);
+        for (int index = 0; index < blocks.size(); index++)
+            ADS.getProof(index).encode(buffer);
+
+        buffer.flip();
+
+        MMRAuthenticator authenticator = MMRAuthenticator.decode(buffer, ADS.getHashFunction());
+        for (int index = 0; index < blocks.size(); index++)
+            assertTrue(ADS.verify(blocks.get(index), MMRProof.decode(buffer), authenticator));
+
+        assertFalse(buffer.hasRemaining());
+    }
+
+    /**
+     * The siblings are concatenated without separators, and the directions take one bit each
+     */
+    @Test
+    public void testCompactness() {
+        HashTreeADS ADS = new HashTreeADS(blocks);
+        HTProof proof = ADS.getProof(0);
+
+        int hashes = proof.getPath().getLength() * ADS.getDigestLength();
+        assertTrue(proof.getEncodedLength() <= hashes + 3 + 2 + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongType() {
+        byte[] encoded = new HashTreeADS(blocks).getProof(3).encode();
+        SLProof.decode(ByteBuffer.wrap(encoded));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongVersion() {
+        byte[] encoded = new HashTreeADS(blocks).getProof(3).encode();
+        encoded[0] = WireFormat.VERSION + 1;
+        HTProof.decode(ByteBuffer.wrap(encoded));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncated() {
+        byte[] encoded = new HashTreeADS(blocks).getProof(3).encode();
+        HTProof.decode(ByteBuffer.wrap(encoded, 0, encoded.length - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedHeader() {
+        byte[] encoded = new HashTreeADS(blocks).getProof(3).encode();
+        HTProof.decode(ByteBuffer.wrap(encoded, 0, 2));
+    }
+
+    /**
+     * Encodes multiproofs of a few ADSs, decodes them, and verifies the blocks with the decoded proofs
+     */
+    @Test
+    public void testMultiProof() {
+        int[] indices = new int[]{0, 12, 5, 6, 6};
+        List<Block> proven = new ArrayList<>();
+        for (int index : indices)
+            proven.add(blocks.get(index));
+
+        List<ADS> ADSs = new ArrayList<>();
+        ADSs.add(new HashTreeADS(blocks));
+        ADSs.add(new SkipListADS(blocks));
+        ADSs.add(new MerkleMountainRangeADS(blocks));
+
+        for (ADS ADS : ADSs) {
+            MultiProof proof = ADS.getProof(indices);
+            byte[] encoded = proof.encode();
+            assertEquals(proof.getEncodedLength(), encoded.length);
+
+            MultiProof decoded = MultiProof.decode(ByteBuffer.wrap(encoded));
+            assertArrayEquals(proof.getIndices(), decoded.getIndices());
+            assertArrayEquals(proof.getRootIndices(), decoded.getRootIndices());
+            assertEquals(proof.getNodeCount(), decoded.getNodeCount());
+            assertTrue(ADS.verify(proven, decoded, ADS.getAuthenticator()));
+        }
+    }
+
+    /**
+     * Every truncated multiproof should be rejected with an IllegalArgumentException
+     */
+    @Test
+    public void testTruncatedMultiProof() {
+        byte[] encoded = new HashTreeADS(blocks).getRangeProof(2, 9).encode();
+
+        for (int length = 0; length < encoded.length; length++) {
+            try {
+                MultiProof.decode(ByteBuffer.wrap(encoded, 0, length));
+                fail("Decoded a multiproof of " + length + " out of " + encoded.length + " bytes");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
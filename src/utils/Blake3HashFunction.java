@@ -0,0 +1,272 @@
+package utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A pure Java implementation of the BLAKE3 hash function, with the default 32 byte output.
+ * Follows the reference implementation of the BLAKE3 specification. The instance is stateless, so it is thread-safe.
+ *
+ * Hashing two 32 byte hashes (as done for every node of the trees) fits in a single block,
+ * and therefore costs only one compression.
+ */
+public class Blake3HashFunction implements HashFunction {
+    public static final String NAME = "BLAKE3";
+
+    private static final int OUT_LEN = 32;
+    private static final int BLOCK_LEN = 64;
+    private static final int CHUNK_LEN = 1024;
+
+    private static final int CHUNK_START = 1;
+    private static final int CHUNK_END = 1 << 1;
+    private static final int PARENT = 1 << 2;
+    private static final int ROOT = 1 << 3;
+
+    private static final int[] IV = {
+            0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A, 0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19
+    };
+
+    private static final int[] MSG_PERMUTATION = {2, 6, 3, 10, 7, 0, 4, 13, 1, 11, 12, 5, 9, 14, 15, 8};
+
+    // The message word schedule of all 7 rounds, derived by repeatedly applying the permutation
+    private static final int[][] SCHEDULE = new int[7][16];
+
+    static {
+        for (int i = 0; i < 16; i++)
+            SCHEDULE[0][i] = i;
+
+        for (int r = 1; r < 7; r++) {
+            for (int i = 0; i < 16; i++)
+                SCHEDULE[r][i] = SCHEDULE[r - 1][MSG_PERMUTATION[i]];
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getDigestLength() {
+        return OUT_LEN;
+    }
+
+    @Override
+    public byte[] hash(byte[] message) {
+        byte[] out = new byte[OUT_LEN];
+        hash(message, 0, message.length, null, 0, 0, out, 0);
+        return out;
+    }
+
+    @Override
+    public byte[] hash(ByteBuffer message) {
+        byte[] out = new byte[OUT_LEN];
+        int length = message.remaining();
+
+        if (message.hasArray()) {
+            hash(message.array(), message.arrayOffset() + message.position(), length, null, 0, 0, out, 0);
+            message.position(message.limit());
+        } else {
+            // Direct buffers have no backing array to read from
+            byte[] input = new byte[length];
+            message.get(input);
+            hash(input, 0, length, null, 0, 0, out, 0);
+        }
+
+        return out;
+    }
+
+    @Override
+    public byte[] hash(byte[] left, byte[] right) {
+        byte[] out = new byte[OUT_LEN];
+        hash(left, right, out, 0);
+        return out;
+    }
+
+    @Override
+    public void hash(byte[] left, byte[] right, byte[] out, int offset) {
+        hash(left, 0, left.length, right, 0, right.length, out, offset);
+    }
+
+    @Override
+    public void hash(byte[] in, int leftOffset, int rightOffset, byte[] out, int offset) {
+        hash(in, leftOffset, OUT_LEN, in, rightOffset, OUT_LEN, out, offset);
+    }
+
+    /**
+     * Hashes the concatenation of two byte ranges. The second range is optional (b may be null).
+     */
+    private void hash(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength,
+                      byte[] out, int offset) {
+        int length = aLength + bLength;
+
+        int[] block = new int[16];
+        int[] cv = new int[8];
+        int[] state = new int[16];
+
+        // Stack of chaining values of completed subtrees. 54 levels are enough for 2^64 bytes.
+        int[][] cvStack = new int[54][];
+        int cvStackSize = 0;
+
+        long chunkCounter = 0;
+        int position = 0;
+
+        while (true) {
+            // Process one chunk
+            System.arraycopy(IV, 0, cv, 0, 8);
+            int chunkEnd = Math.min(position + CHUNK_LEN, length);
+            boolean lastChunk = chunkEnd == length;
+
+            int blockStart = position;
+            boolean firstBlock = true;
+
+            while (true) {
+                int blockLength = Math.min(BLOCK_LEN, chunkEnd - blockStart);
+                boolean lastBlock = blockStart + blockLength == chunkEnd;
+
+                loadBlock(block, a, aOffset, aLength, b, bOffset, blockStart, blockLength);
+
+                int flags = 0;
+                if (firstBlock)
+                    flags |= CHUNK_START;
+                if (lastBlock)
+                    flags |= CHUNK_END;
+
+                if (lastBlock) {
+                    if (lastChunk && cvStackSize == 0) {
+                        // The whole input is one chunk, so this is the root
+                        compress(cv, block, chunkCounter, blockLength, flags | ROOT, state);
+                        writeOutput(state, out, offset);
+                        return;
+                    }
+
+                    compress(cv, block, chunkCounter, blockLength, flags, state);
+                    System.arraycopy(state, 0, cv, 0, 8);
+                    break;
+                }
+
+                compress(cv, block, chunkCounter, blockLength, flags, state);
+                System.arraycopy(state, 0, cv, 0, 8);
+
+                blockStart += blockLength;
+                firstBlock = false;
+            }
+
+            if (lastChunk) {
+                // Merge the remaining chaining values from right to left, the last merge being the root
+                int[] right = cv;
+                while (cvStackSize > 0) {
+                    int[] left = cvStack[--cvStackSize];
+                    loadParentBlock(block, left, right);
+
+                    if (cvStackSize == 0) {
+                        compress(IV, block, 0, BLOCK_LEN, PARENT | ROOT, state);
+                        writeOutput(state, out, offset);
+                        return;
+                    }
+
+                    compress(IV, block, 0, BLOCK_LEN, PARENT, state);
+                    right = new int[8];
+                    System.arraycopy(state, 0, right, 0, 8);
+                }
+            }
+
+            // Push the chunk's chaining value, merging completed subtrees.
+            // The number of completed subtrees equals the number of trailing zeros of the total chunk count.
+            int[] newCv = new int[8];
+            System.arraycopy(cv, 0, newCv, 0, 8);
+            chunkCounter++;
+
+            long totalChunks = chunkCounter;
+            while ((totalChunks & 1) == 0) {
+                int[] left = cvStack[--cvStackSize];
+                loadParentBlock(block, left, newCv);
+                compress(IV, block, 0, BLOCK_LEN, PARENT, state);
+                System.arraycopy(state, 0, newCv, 0, 8);
+                totalChunks >>= 1;
+            }
+
+            cvStack[cvStackSize++] = newCv;
+            position = chunkEnd;
+        }
+    }
+
+    /**
+     * Loads up to 64 bytes of the concatenated input into 16 little-endian words, padding with zeros
+     */
+    private static void loadBlock(int[] block, byte[] a, int aOffset, int aLength, byte[] b, int bOffset,
+                                  int start, int length) {
+        for (int i = 0; i < 16; i++)
+            block[i] = 0;
+
+        for (int i = 0; i < length; i++) {
+            int pos = start + i;
+            int value = pos < aLength ? a[aOffset + pos] : b[bOffset + pos - aLength];
+            block[i >> 2] |= (value & 0xFF) << (8 * (i & 3));
+        }
+    }
+
+    private static void loadParentBlock(int[] block, int[] left, int[] right) {
+        System.arraycopy(left, 0, block, 0, 8);
+        System.arraycopy(right, 0, block, 8, 8);
+    }
+
+    private static void writeOutput(int[] state, byte[] out, int offset) {
+        for (int i = 0; i < 8; i++) {
+            int word = state[i];
+            out[offset + 4 * i] = (byte) word;
+            out[offset + 4 * i + 1] = (byte) (word >>> 8);
+            out[offset + 4 * i + 2] = (byte) (word >>> 16);
+            out[offset + 4 * i + 3] = (byte) (word >>> 24);
+        }
+    }
+
+    /**
+     * The BLAKE3 compression function. The first 8 words of state contain the new chaining value afterwards.
+     */
+    private static void compress(int[] cv, int[] block, long counter, int blockLength, int flags, int[] state) {
+        System.arraycopy(cv, 0, state, 0, 8);
+        state[8] = IV[0];
+        state[9] = IV[1];
+        state[10] = IV[2];
+        state[11] = IV[3];
+        state[12] = (int) counter;
+        state[13] = (int) (counter >>> 32);
+        state[14] = blockLength;
+        state[15] = flags;
+
+        for (int r = 0; r < 7; r++) {
+            int[] s = SCHEDULE[r];
+
+            // Mix the columns
+            g(state, 0, 4, 8, 12, block[s[0]], block[s[1]]);
+            g(state, 1, 5, 9, 13, block[s[2]], block[s[3]]);
+            g(state, 2, 6, 10, 14, block[s[4]], block[s[5]]);
+            g(state, 3, 7, 11, 15, block[s[6]], block[s[7]]);
+
+            // Mix the diagonals
+            g(state, 0, 5, 10, 15, block[s[8]], block[s[9]]);
+            g(state, 1, 6, 11, 12, block[s[10]], block[s[11]]);
+            g(state, 2, 7, 8, 13, block[s[12]], block[s[13]]);
+            g(state, 3, 4, 9, 14, block[s[14]], block[s[15]]);
+        }
+
+        for (int i = 0; i < 8; i++)
+            state[i] ^= state[i + 8];
+    }
+
+    private static void g(int[] state, int a, int b, int c, int d, int mx, int my) {
+        state[a] = state[a] + state[b] + mx;
+        state[d] = Integer.rotateRight(state[d] ^ state[a], 16);
+        state[c] = state[c] + state[d];
+        state[b] = Integer.rotateRight(state[b] ^ state[c], 12);
+        state[a] = state[a] + state[b] + my;
+        state[d] = Integer.rotateRight(state[d] ^ state[a], 8);
+        state[c] = state[c] + state[d];
+        state[b] = Integer.rotateRight(state[b] ^ state[c], 7);
+    }
+
+    @Override
+    public String toString() {
+        return NAME;
+    }
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A hash function that is used by an ADS for hashing blocks and combining hashes of nodes.
+ * Implementations should be thread-safe.
+ */
+public interface HashFunction {
+    /**
+     * @return the name that identifies this hash function
+     */
+    String getName();
+
+    /**
+     * @return the length of the produced hashes in bytes
+     */
+    int getDigestLength();
+
+    byte[] hash(byte[] message);
+
+    /**
+     * Hashes the remaining bytes of the buffer, and advances its position to the limit. This lets blocks be hashed
+     * from a reused encoding buffer, without copying their encoding into a new array.
+     * @param message the buffer containing the input between its position and limit
+     * @return the hash
+     */
+    byte[] hash(ByteBuffer message);
+
+    /**
+     * Hashes the concatenation of left and right
+     * @param left the left input
+     * @param right the right input
+     * @return the hash
+     */
+    byte[] hash(byte[] left, byte[] right);
+
+    /**
+     * Hashes the concatenation of left and right into the given buffer, so that no new array is allocated.
+     * @param left the left input
+     * @param right the right input
+     * @param out the buffer the hash is written to
+     * @param offset the position in out where the hash starts
+     */
+    void hash(byte[] left, byte[] right, byte[] out, int offset);
+
+    /**
+     * Hashes the concatenation of two hashes that are stored in the same buffer, and writes the result into out.
+     * Both inputs have a length of getDigestLength(). This is used by array based trees.
+     * @param in the buffer containing both inputs
+     * @param leftOffset the position of the left input
+     * @param rightOffset the position of the right input
+     * @param out the buffer the hash is written to
+     * @param offset the position in out where the hash starts
+     */
+    void hash(byte[] in, int leftOffset, int rightOffset, byte[] out, int offset);
+}
@@ -0,0 +1,42 @@
+package utils;
+
+/**
+ * The available hash functions. SHA-1 is the default, to keep authenticators of existing data unchanged.
+ */
+public class HashFunctions {
+    public final static HashFunction SHA1 = new MessageDigestHashFunction(Utils.HASH_DEFAULT);
+    public final static HashFunction SHA256 = new MessageDigestHashFunction("SHA-256");
+    public final static HashFunction SHA512_256 = new MessageDigestHashFunction("SHA-512/256");
+    public final static HashFunction BLAKE3 = new Blake3HashFunction();
+
+    // Not collision resistant. Only to be used for benchmarking the data structures without hashing cost.
+    public final static HashFunction NON_CRYPTOGRAPHIC = new NonCryptographicHashFunction();
+
+    public static HashFunction getDefault() {
+        return SHA1;
+    }
+
+    /**
+     * Returns the hash function with the given name
+     * @param name the name of a hash function, such as "SHA-256" or "BLAKE3"
+     * @return the hash function
+     */
+    public static HashFunction forName(String name) {
+        switch (name) {
+            case Utils.HASH_DEFAULT:
+            case "SHA-1":
+                return SHA1;
+            case "SHA-256":
+                return SHA256;
+            case "SHA-512/256":
+                return SHA512_256;
+            case Blake3HashFunction.NAME:
+                return BLAKE3;
+            case NonCryptographicHashFunction.NAME:
+                return NON_CRYPTOGRAPHIC;
+            default:
+                // Any other algorithm that is supported by the JCA providers
+                return new MessageDigestHashFunction(name);
+        }
+    }
+}
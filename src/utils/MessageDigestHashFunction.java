@@ -0,0 +1,61 @@
+package utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A hash function backed by a JCA message digest, such as SHA-1 or SHA-256.
+ * The digests are cached per thread by Utils, so this hash function is thread-safe.
+ */
+public class MessageDigestHashFunction implements HashFunction {
+    private final String algorithm;
+
+    // Looked up on first use, so that unsupported algorithms only fail when they are actually used
+    private int digestLength;
+
+    public MessageDigestHashFunction(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public String getName() {
+        return algorithm;
+    }
+
+    @Override
+    public int getDigestLength() {
+        if (digestLength == 0)
+            digestLength = Utils.getDigestLength(algorithm);
+
+        return digestLength;
+    }
+
+    @Override
+    public byte[] hash(byte[] message) {
+        return Utils.hash(algorithm, message);
+    }
+
+    @Override
+    public byte[] hash(ByteBuffer message) {
+        return Utils.hash(algorithm, message);
+    }
+
+    @Override
+    public byte[] hash(byte[] left, byte[] right) {
+        return Utils.hash(algorithm, left, right);
+    }
+
+    @Override
+    public void hash(byte[] left, byte[] right, byte[] out, int offset) {
+        Utils.hash(algorithm, left, right, out, offset);
+    }
+
+    @Override
+    public void hash(byte[] in, int leftOffset, int rightOffset, byte[] out, int offset) {
+        Utils.hash(algorithm, in, leftOffset, rightOffset, getDigestLength(), out, offset);
+    }
+
+    @Override
+    public String toString() {
+        return algorithm;
+    }
+}
@@ -0,0 +1,130 @@
+package utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fast hash function that is NOT collision resistant. It should only be used for benchmarking, to measure the
+ * overhead of the data structures themselves without the cost of a cryptographic hash.
+ *
+ * The input is hashed into 64 bits by a multiply-xorshift hash, which is expanded to the digest length.
+ */
+public class NonCryptographicHashFunction implements HashFunction {
+    public static final String NAME = "NonCryptographic";
+
+    private static final long PRIME = 0x9E3779B97F4A7C15L;
+
+    private final int digestLength;
+
+    public NonCryptographicHashFunction() {
+        this(32);
+    }
+
+    /**
+     * @param digestLength the length of the produced hashes. The ADSs derive pseudorandom bits from hashes,
+     *                     so this should not be too small.
+     */
+    public NonCryptographicHashFunction(int digestLength) {
+        if (digestLength <= 0)
+            throw new IllegalArgumentException("digestLength should be positive");
+
+        this.digestLength = digestLength;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    public byte[] hash(byte[] message) {
+        byte[] out = new byte[digestLength];
+        hash(message, 0, message.length, null, 0, 0, out, 0);
+        return out;
+    }
+
+    @Override
+    public byte[] hash(ByteBuffer message) {
+        byte[] out = new byte[digestLength];
+        int length = message.remaining();
+
+        if (message.hasArray()) {
+            hash(message.array(), message.arrayOffset() + message.position(), length, null, 0, 0, out, 0);
+            message.position(message.limit());
+        } else {
+            // Direct buffers have no backing array to read from
+            byte[] input = new byte[length];
+            message.get(input);
+            hash(input, 0, length, null, 0, 0, out, 0);
+        }
+
+        return out;
+    }
+
+    @Override
+    public byte[] hash(byte[] left, byte[] right) {
+        byte[] out = new byte[digestLength];
+        hash(left, right, out, 0);
+        return out;
+    }
+
+    @Override
+    public void hash(byte[] left, byte[] right, byte[] out, int offset) {
+        hash(left, 0, left.length, right, 0, right.length, out, offset);
+    }
+
+    @Override
+    public void hash(byte[] in, int leftOffset, int rightOffset, byte[] out, int offset) {
+        hash(in, leftOffset, digestLength, in, rightOffset, digestLength, out, offset);
+    }
+
+    /**
+     * Hashes the concatenation of two byte ranges. The second range is optional (b may be null).
+     */
+    private void hash(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength,
+                      byte[] out, int offset) {
+        int length = aLength + bLength;
+        long h = PRIME ^ length;
+
+        // Process the input as 8 byte words, and the remaining bytes as one last word
+        long word = 0;
+        int i = 0;
+        for (; i < length; i++) {
+            int value = i < aLength ? a[aOffset + i] : b[bOffset + i - aLength];
+            word = (word << 8) | (value & 0xFF);
+
+            if ((i & 7) == 7) {
+                h = (h ^ mix(word)) * PRIME;
+                word = 0;
+            }
+        }
+
+        if ((i & 7) != 0)
+            h = (h ^ mix(word)) * PRIME;
+
+        for (int lane = 0; lane * 8 < digestLength; lane++) {
+            long laneHash = mix(h + lane * PRIME);
+
+            // Write the lane big-endian, truncating the last lane if necessary
+            for (int j = 0; j < 8 && lane * 8 + j < digestLength; j++) {
+                out[offset + lane * 8 + j] = (byte) (laneHash >>> (56 - 8 * j));
+            }
+        }
+    }
+
+    // The finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return NAME;
+    }
+}
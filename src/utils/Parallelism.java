@@ -0,0 +1,95 @@
+package utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs loops over a range of indices in parallel, by recursively splitting the range on a ForkJoinPool.
+ * Ranges smaller than the threshold are run sequentially in the calling thread, as forking them costs more
+ * than it saves.
+ */
+public class Parallelism {
+    public static final int DEFAULT_THRESHOLD = 2048;
+
+    private static ForkJoinPool defaultPool;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * A part of a loop, that handles the indices [from, to). Different parts may run at the same time,
+     * so they should only write to their own indices.
+     */
+    public interface RangeTask {
+        void run(int from, int to);
+    }
+
+    public Parallelism(ForkJoinPool pool) {
+        this(pool, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool the pool that runs the tasks
+     * @param threshold the size of a range below which it is not split further
+     */
+    public Parallelism(ForkJoinPool pool, int threshold) {
+        if (threshold < 1)
+            throw new IllegalArgumentException("The threshold should be at least 1");
+
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return a parallelism that uses a shared pool with one thread per processor
+     */
+    public static synchronized Parallelism getDefault() {
+        if (defaultPool == null)
+            defaultPool = new ForkJoinPool();
+
+        return new Parallelism(defaultPool);
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Runs the task for the range [from, to), split into parts that run in parallel
+     * @param from the first index
+     * @param to the index after the last index
+     * @param task the task
+     */
+    public void forRange(int from, int to, RangeTask task) {
+        if (to - from <= threshold)
+            task.run(from, to);
+        else
+            pool.invoke(new RangeAction(from, to, task));
+    }
+
+    private class RangeAction extends RecursiveAction {
+        private final int from, to;
+        private final RangeTask task;
+
+        RangeAction(int from, int to, RangeTask task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                task.run(from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, middle, task), new RangeAction(middle, to, task));
+        }
+    }
+}
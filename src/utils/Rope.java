@@ -0,0 +1,277 @@
+package utils;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable list, stored in an AVL tree of which every node knows the size of its subtree. Index lookup,
+ * concatenation and splitting all take O(log n) time, and the results share their nodes with the inputs, so a list
+ * can be split or concatenated without copying it.
+ *
+ * Concatenation and splitting are built on join, which joins two trees and a middle element. Joining trees of
+ * heights h1 and h2 takes O(|h1 - h2|) time, so the joins of a split add up to O(log n).
+ *
+ * @param <T> the type of the elements
+ */
+public final class Rope<T> extends AbstractList<T> {
+    private static final Rope<Object> EMPTY = new Rope<>(null);
+
+    private final Node<T> root;
+
+    private static final class Node<T> {
+        private final T value;
+        private final Node<T> left;
+        private final Node<T> right;
+        private final int size;
+        private final int height;
+
+        private Node(Node<T> left, T value, Node<T> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + 1 + size(right);
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private Rope(Node<T> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Rope<T> empty() {
+        return (Rope<T>) EMPTY;
+    }
+
+    /**
+     * Creates a perfectly balanced rope of the given elements, in O(n) time
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Rope<T> of(List<? extends T> elements) {
+        if (elements instanceof Rope)
+            return new Rope<>(((Rope<T>) elements).root);
+
+        return new Rope<>(build(elements, 0, elements.size()));
+    }
+
+    private static <T> Node<T> build(List<? extends T> elements, int from, int to) {
+        if (from == to)
+            return null;
+
+        int middle = (from + to) >>> 1;
+        return new Node<T>(build(elements, from, middle), elements.get(middle), build(elements, middle + 1, to));
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+        Node<T> node = root;
+
+        while (true) {
+            int leftSize = size(node.left);
+
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.value;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * @return a rope with the elements of this rope, followed by those of the other rope
+     */
+    public Rope<T> concat(Rope<T> other) {
+        if (other.root == null)
+            return this;
+        if (root == null)
+            return other;
+
+        return new Rope<>(join(root, other.get(0), tail(other.root, 1)));
+    }
+
+    /**
+     * @return a rope with the elements of this rope, followed by the given element
+     */
+    public Rope<T> append(T element) {
+        return new Rope<>(join(root, element, null));
+    }
+
+    /**
+     * @return the first count elements
+     */
+    public Rope<T> head(int count) {
+        checkCount(count);
+        return new Rope<>(head(root, count));
+    }
+
+    /**
+     * @return the elements from the given index onwards
+     */
+    public Rope<T> tail(int from) {
+        checkCount(from);
+        return new Rope<>(tail(root, from));
+    }
+
+    /**
+     * @return a rope in which the element at the given index is replaced, which shares all nodes off its path
+     */
+    public Rope<T> with(int index, T element) {
+        if (index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+        return new Rope<>(with(root, index, element));
+    }
+
+    private void checkCount(int count) {
+        if (count < 0 || count > size())
+            throw new IndexOutOfBoundsException("Index: " + count + ", Size: " + size());
+    }
+
+    private static <T> Node<T> head(Node<T> node, int count) {
+        if (count == 0)
+            return null;
+        if (count == node.size)
+            return node;
+
+        int leftSize = size(node.left);
+
+        if (count <= leftSize)
+            return head(node.left, count);
+
+        return join(node.left, node.value, head(node.right, count - leftSize - 1));
+    }
+
+    private static <T> Node<T> tail(Node<T> node, int from) {
+        if (from == 0)
+            return node;
+        if (from == node.size)
+            return null;
+
+        int leftSize = size(node.left);
+
+        if (from <= leftSize)
+            return join(tail(node.left, from), node.value, node.right);
+
+        return tail(node.right, from - leftSize - 1);
+    }
+
+    private static <T> Node<T> with(Node<T> node, int index, T element) {
+        int leftSize = size(node.left);
+
+        if (index < leftSize)
+            return new Node<>(with(node.left, index, element), node.value, node.right);
+        if (index == leftSize)
+            return new Node<>(node.left, element, node.right);
+
+        return new Node<>(node.left, node.value, with(node.right, index - leftSize - 1, element));
+    }
+
+    /**
+     * Joins two trees with a middle element. The middle element is placed at the side of the taller tree, at the
+     * depth where the shorter tree fits, and the path above it is rebalanced.
+     */
+    private static <T> Node<T> join(Node<T> left, T value, Node<T> right) {
+        if (height(left) > height(right) + 1)
+            return balance(left.left, left.value, join(left.right, value, right));
+        if (height(right) > height(left) + 1)
+            return balance(join(left, value, right.left), right.value, right.right);
+
+        return new Node<>(left, value, right);
+    }
+
+    /**
+     * Creates a node of two AVL trees of which the heights differ by at most 2, with a rotation if needed
+     */
+    private static <T> Node<T> balance(Node<T> left, T value, Node<T> right) {
+        int difference = height(left) - height(right);
+
+        if (difference > 1) {
+            if (height(left.left) >= height(left.right))
+                return new Node<>(left.left, left.value, new Node<>(left.right, value, right));
+
+            Node<T> middle = left.right;
+            return new Node<>(new Node<>(left.left, left.value, middle.left), middle.value,
+                    new Node<>(middle.right, value, right));
+        }
+
+        if (difference < -1) {
+            if (height(right.right) >= height(right.left))
+                return new Node<>(new Node<>(left, value, right.left), right.value, right.right);
+
+            Node<T> middle = right.left;
+            return new Node<>(new Node<>(left, value, middle.left), middle.value,
+                    new Node<>(middle.right, right.value, right.right));
+        }
+
+        return new Node<>(left, value, right);
+    }
+
+    /**
+     * Iterates in O(n) time in total, instead of one lookup per element
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<T> node) {
+                for (; node != null; node = node.left)
+                    stack.push(node);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty())
+                    throw new NoSuchElementException();
+
+                Node<T> node = stack.pop();
+                pushLeft(node.right);
+                return node.value;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * @return the height of the tree, which is at most 1.44 log2(n + 2)
+     */
+    public int getHeight() {
+        return height(root);
+    }
+}
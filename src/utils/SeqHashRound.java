@@ -0,0 +1,212 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decides, for one round of a SeqHash or SplitHash, which nodes merge with a neighbour, which nodes go to the fringes,
+ * and which nodes are left alone. For every output bit index, the volatile ends first take one fringe node each, and
+ * then the pairs of undecided neighbours are scanned from left to right. A pair merges if the nodes have the same hash,
+ * or if the output bit of the left node is 1 and that of the right node is 0. This repeats until no two undecided
+ * nodes are next to each other.
+ *
+ * Long rounds are decided in parallel. A pair that merges at bit 0, and of which the left neighbour pair does not
+ * qualify at bit 0, always merges at bit 0, whatever the other nodes do. After that, its nodes are never undecided,
+ * so the nodes on either side of it never interact. The round is cut at such pairs, roughly every SEGMENT_SIZE nodes,
+ * and the segments between them are decided on their own. This gives exactly the same kinds and bit indices as
+ * deciding the whole round at once.
+ */
+public final class SeqHashRound {
+    public enum Kind {mergeLeft, mergeRight, leftFringe, unknown, rightFringe}
+
+    // Rounds with fewer nodes are decided in the calling thread
+    public static final int MIN_PARALLEL_SIZE = 4096;
+
+    // The number of nodes after which the round is cut, if possible
+    private static final int SEGMENT_SIZE = 1024;
+
+    private final byte[][] hashes;
+    private final Kind[] kinds;
+    private final int[] mergeBits;
+
+    private SeqHashRound(byte[][] hashes) {
+        this.hashes = hashes;
+        this.kinds = new Kind[hashes.length];
+        this.mergeBits = new int[hashes.length];
+
+        Arrays.fill(kinds, Kind.unknown);
+        Arrays.fill(mergeBits, -1);
+    }
+
+    /**
+     * Decides a round
+     * @param hashes the hashes of the nodes, from left to right
+     * @param volatileLeft whether nodes can go to the left fringe
+     * @param volatileRight whether nodes can go to the right fringe
+     * @param parallelism the pool that long rounds are decided on, or null to decide in the calling thread
+     * @return the decided round
+     */
+    public static SeqHashRound decide(byte[][] hashes, boolean volatileLeft, boolean volatileRight,
+                                      Parallelism parallelism) {
+        final SeqHashRound round = new SeqHashRound(hashes);
+        final int n = hashes.length;
+
+        if (parallelism == null || n < MIN_PARALLEL_SIZE) {
+            round.decide(0, n, volatileLeft, volatileRight);
+            return round;
+        }
+
+        // The first node of every segment, and the end of the last segment. A segment ends at the pair that cuts it.
+        final List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+
+        for (int target = SEGMENT_SIZE; target + 1 < n - 1; target += SEGMENT_SIZE) {
+            int j = Math.max(target, starts.get(starts.size() - 1) + 1);
+
+            // At bit 0, only the first and the last node can go to the fringes, so the pair must not contain them
+            while (j + 1 < n - 1 && j < target + SEGMENT_SIZE && !(round.isCut(j)))
+                j++;
+
+            if (j + 1 < n - 1 && j < target + SEGMENT_SIZE) {
+                round.kinds[j] = Kind.mergeLeft;
+                round.kinds[j + 1] = Kind.mergeRight;
+                round.mergeBits[j] = 0;
+                round.mergeBits[j + 1] = 0;
+
+                starts.add(j);
+                starts.add(j + 2);
+            }
+        }
+
+        starts.add(n);
+
+        final boolean left = volatileLeft;
+        final boolean right = volatileRight;
+
+        new Parallelism(parallelism.getPool(), 1).forRange(0, starts.size() / 2, new Parallelism.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int segment = from; segment < to; segment++) {
+                    int start = starts.get(2 * segment);
+                    int end = starts.get(2 * segment + 1);
+
+                    round.decide(start, end, left && start == 0, right && end == n);
+                }
+            }
+        });
+
+        return round;
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    public Kind getKind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * @return the output bit index at which the node merged, or -1 if it did not merge
+     */
+    public int getMergeBit(int index) {
+        return mergeBits[index];
+    }
+
+    /**
+     * Returns whether the pair of left and right always merges at bit 0 in a round where both have a neighbour on
+     * their other side, and previous is the node before left. The nodes before and after such a pair are decided
+     * independently, so a SeqHash can be split at these pairs without deciding the rest of the round again.
+     * @param previous the hash of the node before left
+     * @param left the hash of the left node of the pair
+     * @param right the hash of the right node of the pair
+     * @return whether the pair cuts the round in two independent parts
+     */
+    public static boolean isCut(byte[] previous, byte[] left, byte[] right) {
+        return isMergeable(left, right, 0) && !isMergeable(previous, left, 0);
+    }
+
+    /**
+     * The same output bit as Node.getOutputBit
+     */
+    private static boolean getOutputBit(byte[] hash, int idx) {
+        int b = hash[idx / 8];
+        int result = (b >> (idx % 8)) & 1;
+
+        return result == 1;
+    }
+
+    /**
+     * @return whether two neighbours merge if both are undecided at the given bit
+     */
+    private static boolean isMergeable(byte[] left, byte[] right, int idx) {
+        return Arrays.equals(left, right) || (getOutputBit(left, idx) && !getOutputBit(right, idx));
+    }
+
+    private boolean getOutputBit(int index, int idx) {
+        return getOutputBit(hashes[index], idx);
+    }
+
+    /**
+     * @return whether the nodes at index and index + 1 merge if both are undecided at the given bit
+     */
+    private boolean isMergeable(int index, int idx) {
+        return isMergeable(hashes[index], hashes[index + 1], idx);
+    }
+
+    /**
+     * @return whether the pair at the index always merges at bit 0, which cuts the round in two independent parts
+     */
+    private boolean isCut(int index) {
+        return isCut(hashes[index - 1], hashes[index], hashes[index + 1]);
+    }
+
+    /**
+     * Decides the nodes [from, to), which do not interact with other nodes
+     */
+    private void decide(int from, int to, boolean volatileLeft, boolean volatileRight) {
+        int left = from;
+        int right = to - 1;
+
+        for (int idx = 0; ; idx++) {
+            boolean done = true;
+
+            if (volatileLeft) {
+                if (left < to && kinds[left] == Kind.unknown && !getOutputBit(left, idx)) {
+                    kinds[left] = Kind.leftFringe;
+                    left++;
+                }
+
+                if (left < to && kinds[left] == Kind.unknown)
+                    done = false;
+            }
+
+            if (volatileRight) {
+                if (right >= from && kinds[right] == Kind.unknown && getOutputBit(right, idx)) {
+                    kinds[right] = Kind.rightFringe;
+                    right--;
+                }
+
+                if (right >= from && kinds[right] == Kind.unknown)
+                    done = false;
+            }
+
+            for (int j = from; j < to - 1; j++) {
+                if (kinds[j] == Kind.unknown && kinds[j + 1] == Kind.unknown) {
+                    if (isMergeable(j, idx)) {
+                        kinds[j] = Kind.mergeLeft;
+                        kinds[j + 1] = Kind.mergeRight;
+                        mergeBits[j] = idx;
+                        mergeBits[j + 1] = idx;
+                    } else {
+                        done = false;
+                    }
+                }
+            }
+
+            if (done)
+                break;
+        }
+    }
+}
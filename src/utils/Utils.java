@@ -1,7 +1,12 @@
 package utils;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Utility class. Contains static methods for hashing purposes.
@@ -13,11 +18,25 @@ public class Utils {
     public final static String ZERO = "0";
     public final static String MININF = "-Inf";
 
+    // MessageDigest.getInstance does a provider lookup on every call, and a MessageDigest is not thread-safe.
+    // Therefore every thread keeps its own digest per algorithm, which is reset and reused for every hash.
+    private final static ThreadLocal<Map<String, MessageDigest>> cachedMDs =
+            new ThreadLocal<Map<String, MessageDigest>>() {
+                @Override
+                protected Map<String, MessageDigest> initialValue() {
+                    return new HashMap<>();
+                }
+            };
 
     public static MessageDigest getMD() {
         return getMD(Utils.HASH_DEFAULT);
     }
 
+    /**
+     * Creates a new message digest. Prefer getCachedMD for hashing, as this does a provider lookup on every call.
+     * @param algorithm the name of the hash algorithm
+     * @return a new message digest
+     */
     public static MessageDigest getMD(String algorithm) {
         MessageDigest md = null;
         try {
@@ -28,14 +47,64 @@ public class Utils {
         return md;
     }
 
+    /**
+     * Returns the reset message digest of the current thread for the given algorithm.
+     * Note: The digest is shared by all hash calls of this thread, so it should be used up (by calling digest())
+     * before another hash method is called.
+     * @param algorithm the name of the hash algorithm
+     * @return the digest of the current thread
+     */
+    public static MessageDigest getCachedMD(String algorithm) {
+        Map<String, MessageDigest> mds = cachedMDs.get();
+        MessageDigest md = mds.get(algorithm);
+
+        if (md == null) {
+            md = getMD(algorithm);
+
+            if (md == null)
+                throw new IllegalArgumentException("Unsupported hash algorithm: " + algorithm);
+
+            mds.put(algorithm, md);
+        } else {
+            md.reset();
+        }
+
+        return md;
+    }
+
+    /**
+     * Returns the length of the hashes that the given algorithm produces
+     * @param algorithm the name of the hash algorithm
+     * @return the digest length in bytes
+     */
+    public static int getDigestLength(String algorithm) {
+        return getCachedMD(algorithm).getDigestLength();
+    }
+
     public static byte[] hash(byte[] message) {
-        MessageDigest md = getMD();
+        return hash(HASH_DEFAULT, message);
+    }
+
+    public static byte[] hash(String algorithm, byte[] message) {
+        MessageDigest md = getCachedMD(algorithm);
+        md.update(message);
+        return md.digest();
+    }
+
+    /**
+     * Hashes the remaining bytes of the buffer, and advances its position to the limit
+     * @param algorithm the name of the hash algorithm
+     * @param message the buffer containing the input
+     * @return the hash
+     */
+    public static byte[] hash(String algorithm, ByteBuffer message) {
+        MessageDigest md = getCachedMD(algorithm);
         md.update(message);
         return md.digest();
     }
 
     public static byte[] hash(String message) {
-        byte[] input = message.getBytes();
+        byte[] input = message.getBytes(StandardCharsets.UTF_8);
         return hash(input);
     }
 
@@ -44,10 +113,58 @@ public class Utils {
     }
 
     public static byte[] hash(byte[] left, byte[] right) {
-        MessageDigest md = getMD();
+        return hash(HASH_DEFAULT, left, right);
+    }
+
+    public static byte[] hash(String algorithm, byte[] left, byte[] right) {
+        MessageDigest md = getCachedMD(algorithm);
         md.update(left);
         md.update(right);
 
         return md.digest(); // Note that digest() not only return a value. Calling it twice changes the output.
     }
+
+    /**
+     * Hashes the concatenation of left and right into the given buffer, so that no new array is allocated.
+     * @param left the left input
+     * @param right the right input
+     * @param out the buffer the hash is written to
+     * @param offset the position in out where the hash starts
+     */
+    public static void hash(byte[] left, byte[] right, byte[] out, int offset) {
+        hash(HASH_DEFAULT, left, right, out, offset);
+    }
+
+    public static void hash(String algorithm, byte[] left, byte[] right, byte[] out, int offset) {
+        MessageDigest md = getCachedMD(algorithm);
+        md.update(left);
+        md.update(right);
+        digest(md, out, offset);
+    }
+
+    /**
+     * Hashes two hashes that are stored in the same buffer, and writes the result into that buffer as well.
+     * This is used by array based trees, where all hashes are stored in one array.
+     * @param in the buffer containing both inputs
+     * @param leftOffset the position of the left input
+     * @param rightOffset the position of the right input
+     * @param length the length of both inputs
+     * @param out the buffer the hash is written to
+     * @param offset the position in out where the hash starts
+     */
+    public static void hash(String algorithm, byte[] in, int leftOffset, int rightOffset, int length,
+                            byte[] out, int offset) {
+        MessageDigest md = getCachedMD(algorithm);
+        md.update(in, leftOffset, length);
+        md.update(in, rightOffset, length);
+        digest(md, out, offset);
+    }
+
+    private static void digest(MessageDigest md, byte[] out, int offset) {
+        try {
+            md.digest(out, offset, md.getDigestLength());
+        } catch (DigestException e) {
+            throw new IllegalArgumentException("The output buffer is too small for the hash", e);
+        }
+    }
 }